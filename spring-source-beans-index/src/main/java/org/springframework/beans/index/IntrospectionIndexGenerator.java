@@ -0,0 +1,260 @@
+/*
+ * Copyright 2002-2023 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.beans.index;
+
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+import org.springframework.beans.BeanInfoFactory;
+import org.springframework.beans.CachedIntrospectionResults;
+import org.springframework.core.SpringProperties;
+import org.springframework.core.io.support.SpringFactoriesLoader;
+import org.springframework.lang.Nullable;
+import org.springframework.util.DigestUtils;
+import org.springframework.util.StringUtils;
+
+import java.beans.BeanInfo;
+import java.beans.IndexedPropertyDescriptor;
+import java.beans.IntrospectionException;
+import java.beans.Introspector;
+import java.beans.PropertyDescriptor;
+import java.io.IOException;
+import java.io.Writer;
+import java.lang.reflect.Method;
+import java.net.URL;
+import java.net.URLClassLoader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * Build-time generator for the introspection index read by
+ * {@link CachedIntrospectionResults}, to be run against the compiled classes
+ * of a module with the module's runtime classpath, e.g. through the
+ * {@code exec-maven-plugin} in the {@code process-classes} phase:
+ *
+ * <pre class="code">
+ * java org.springframework.beans.index.IntrospectionIndexGenerator target/classes
+ * </pre>
+ *
+ * <p>Classes are introspected the same way as at runtime, through the
+ * {@link BeanInfoFactory} chain and the JavaBeans {@link Introspector}. Classes
+ * whose {@code BeanInfo} cannot be reproduced from method names alone (indexed
+ * properties, custom property editors, ambiguous accessor methods) or which fail
+ * to load are left out, and will be introspected at runtime. Each entry records
+ * a fingerprint of the public methods of its class, so that the entry is ignored
+ * at runtime once the class or one of its superclasses has changed.
+ *
+ * <p>The index gets written to {@value CachedIntrospectionResults#INDEX_LOCATION}
+ * underneath the classes directory unless an output file is specified.
+ */
+public final class IntrospectionIndexGenerator {
+
+    private static final Log logger = LogFactory.getLog(IntrospectionIndexGenerator.class);
+
+    private static final String CLASS_FILE_SUFFIX = ".class";
+
+
+    private final ClassLoader classLoader;
+
+    private final List<BeanInfoFactory> beanInfoFactories;
+
+    private final boolean ignoreBeaninfoClasses =
+            SpringProperties.getFlag(CachedIntrospectionResults.IGNORE_BEANINFO_PROPERTY_NAME);
+
+
+    /**
+     * Create a new generator for classes loadable from the given ClassLoader.
+     *
+     * @param classLoader the ClassLoader to load classes and {@code BeanInfoFactory} instances with
+     */
+    public IntrospectionIndexGenerator(ClassLoader classLoader) {
+        this.classLoader = classLoader;
+        this.beanInfoFactories = SpringFactoriesLoader.loadFactories(BeanInfoFactory.class, classLoader);
+    }
+
+
+    /**
+     * Generate the index for all classes underneath the given classes directory.
+     *
+     * @param classesDirectory the root directory of the compiled classes
+     * @return the index entries, keyed by class name
+     * @throws IOException if the classes directory cannot be traversed
+     */
+    public Map<String, String> generate(Path classesDirectory) throws IOException {
+        List<String> classNames;
+        try (Stream<Path> files = Files.walk(classesDirectory)) {
+            classNames = files
+                    .filter(file -> file.getFileName().toString().endsWith(CLASS_FILE_SUFFIX))
+                    .map(file -> toClassName(classesDirectory.relativize(file)))
+                    .filter(className -> !className.endsWith("package-info") && !className.endsWith("module-info"))
+                    .collect(Collectors.toList());
+        }
+        Map<String, String> index = new TreeMap<>();
+        for (String className : classNames) {
+            String entry = generateEntry(className);
+            if (entry != null) {
+                index.put(className, entry);
+            }
+        }
+        return index;
+    }
+
+    /**
+     * Generate the index entry for the given class.
+     *
+     * @param className the fully qualified name of the class
+     * @return the index entry, or {@code null} if the class cannot be indexed
+     */
+    @Nullable
+    public String generateEntry(String className) {
+        try {
+            Class<?> beanClass = Class.forName(className, false, this.classLoader);
+            if (beanClass.isAnonymousClass() || beanClass.isLocalClass()) {
+                return null;
+            }
+            StringBuilder entry = new StringBuilder(fingerprint(beanClass)).append(';');
+            int prefixLength = entry.length();
+            for (PropertyDescriptor pd : getBeanInfo(beanClass).getPropertyDescriptors()) {
+                if (pd instanceof IndexedPropertyDescriptor || pd.getPropertyEditorClass() != null) {
+                    return null;
+                }
+                Method readMethod = pd.getReadMethod();
+                Method writeMethod = pd.getWriteMethod();
+                if ((readMethod != null && !readMethod.equals(beanClass.getMethod(readMethod.getName()))) ||
+                        (writeMethod != null && (writeMethod.getParameterCount() != 1 || !writeMethod.equals(
+                                beanClass.getMethod(writeMethod.getName(), writeMethod.getParameterTypes()))))) {
+                    // Not resolvable by name and parameter type at runtime.
+                    return null;
+                }
+                if (entry.length() > prefixLength) {
+                    entry.append(',');
+                }
+                entry.append(pd.getName()).append(':');
+                entry.append(readMethod != null ? readMethod.getName() : "").append(':');
+                if (writeMethod != null) {
+                    entry.append(writeMethod.getName()).append(':').append(writeMethod.getParameterTypes()[0].getName());
+                } else {
+                    entry.append(':');
+                }
+            }
+            return entry.toString();
+        } catch (Exception | LinkageError ex) {
+            if (logger.isDebugEnabled()) {
+                logger.debug("Not indexing class [" + className + "]: " + ex);
+            }
+            return null;
+        }
+    }
+
+    /**
+     * Write the given index entries to the given file.
+     *
+     * @param index      the index entries, keyed by class name
+     * @param outputFile the file to write to
+     * @throws IOException in case of write failure
+     */
+    public static void write(Map<String, String> index, Path outputFile) throws IOException {
+        Path parent = outputFile.getParent();
+        if (parent != null) {
+            Files.createDirectories(parent);
+        }
+        try (Writer writer = Files.newBufferedWriter(outputFile, StandardCharsets.UTF_8)) {
+            writer.write("# Generated by " + IntrospectionIndexGenerator.class.getName() + " - do not edit\n");
+            for (Map.Entry<String, String> entry : new TreeMap<>(index).entrySet()) {
+                writer.write(entry.getKey());
+                writer.write('=');
+                writer.write(entry.getValue());
+                writer.write('\n');
+            }
+        }
+    }
+
+    /**
+     * Compute the fingerprint of the public methods of the given class,
+     * as expected by {@code CachedIntrospectionResults}: a hex MD5 digest of
+     * their sorted {@code name(parameterTypes)returnType} signatures.
+     */
+    static String fingerprint(Class<?> beanClass) {
+        Method[] methods = beanClass.getMethods();
+        String[] signatures = new String[methods.length];
+        for (int i = 0; i < methods.length; i++) {
+            Method method = methods[i];
+            StringBuilder signature = new StringBuilder(method.getName()).append('(');
+            Class<?>[] parameterTypes = method.getParameterTypes();
+            for (int j = 0; j < parameterTypes.length; j++) {
+                if (j > 0) {
+                    signature.append(',');
+                }
+                signature.append(parameterTypes[j].getName());
+            }
+            signatures[i] = signature.append(')').append(method.getReturnType().getName()).toString();
+        }
+        Arrays.sort(signatures);
+        return DigestUtils.md5DigestAsHex(
+                StringUtils.arrayToDelimitedString(signatures, "\n").getBytes(StandardCharsets.UTF_8));
+    }
+
+    private BeanInfo getBeanInfo(Class<?> beanClass) throws IntrospectionException {
+        for (BeanInfoFactory beanInfoFactory : this.beanInfoFactories) {
+            BeanInfo beanInfo = beanInfoFactory.getBeanInfo(beanClass);
+            if (beanInfo != null) {
+                return beanInfo;
+            }
+        }
+        BeanInfo beanInfo = (this.ignoreBeaninfoClasses ?
+                Introspector.getBeanInfo(beanClass, Introspector.IGNORE_ALL_BEANINFO) :
+                Introspector.getBeanInfo(beanClass));
+        Introspector.flushFromCaches(beanClass);
+        return beanInfo;
+    }
+
+    private static String toClassName(Path relativePath) {
+        String path = relativePath.toString().replace(relativePath.getFileSystem().getSeparator(), ".");
+        return path.substring(0, path.length() - CLASS_FILE_SUFFIX.length());
+    }
+
+
+    /**
+     * Generate the index for a classes directory.
+     *
+     * @param args the classes directory, optionally followed by the output file
+     */
+    public static void main(String[] args) throws IOException {
+        if (args.length < 1 || args.length > 2) {
+            throw new IllegalArgumentException(
+                    "Usage: IntrospectionIndexGenerator <classes directory> [output file]");
+        }
+        Path classesDirectory = Paths.get(args[0]);
+        Path outputFile = (args.length > 1 ? Paths.get(args[1]) :
+                classesDirectory.resolve(CachedIntrospectionResults.INDEX_LOCATION));
+        ClassLoader parent = Thread.currentThread().getContextClassLoader();
+        try (URLClassLoader classLoader = new URLClassLoader(
+                new URL[] {classesDirectory.toUri().toURL()}, parent)) {
+            Map<String, String> index = new IntrospectionIndexGenerator(classLoader).generate(classesDirectory);
+            write(index, outputFile);
+            logger.info("Wrote introspection index for " + index.size() + " classes to " + outputFile);
+        }
+    }
+
+}
@@ -0,0 +1,255 @@
+/*
+ * Copyright 2002-2023 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.beans.index;
+
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+import org.springframework.beans.factory.annotation.InitDestroyAnnotationBeanPostProcessor;
+import org.springframework.lang.Nullable;
+import org.springframework.util.ClassUtils;
+import org.springframework.util.ReflectionUtils;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.lang.annotation.Annotation;
+import java.lang.reflect.Method;
+import java.net.URL;
+import java.net.URLClassLoader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * Build-time generator for the lifecycle index read by
+ * {@link InitDestroyAnnotationBeanPostProcessor}, to be run against the compiled
+ * classes of a module with the module's runtime classpath, e.g. through the
+ * {@code exec-maven-plugin} in the {@code process-classes} phase:
+ *
+ * <pre class="code">
+ * java org.springframework.beans.index.LifecycleIndexGenerator target/classes
+ * </pre>
+ *
+ * <p>Classes are scanned the same way as at runtime, collecting init methods
+ * from the top of the class hierarchy down and destroy methods from the bottom
+ * up. Classes with annotated methods that take parameters or which fail to load
+ * are left out, and will be scanned at runtime.
+ *
+ * <p>The index covers {@code javax.annotation.PostConstruct} and
+ * {@code javax.annotation.PreDestroy} unless other annotation types are
+ * specified, and gets written to
+ * {@value InitDestroyAnnotationBeanPostProcessor#LIFECYCLE_INDEX_LOCATION}
+ * underneath the classes directory unless an output file is specified.
+ */
+public final class LifecycleIndexGenerator {
+
+    private static final Log logger = LogFactory.getLog(LifecycleIndexGenerator.class);
+
+    private static final String CLASS_FILE_SUFFIX = ".class";
+
+    /**
+     * Key of the entry holding the annotation types that an index file covers,
+     * as expected by {@code InitDestroyAnnotationBeanPostProcessor}.
+     */
+    private static final String ANNOTATION_TYPES_KEY = "@annotationTypes";
+
+    private static final String DEFAULT_INIT_ANNOTATION_TYPE = "javax.annotation.PostConstruct";
+
+    private static final String DEFAULT_DESTROY_ANNOTATION_TYPE = "javax.annotation.PreDestroy";
+
+
+    private final ClassLoader classLoader;
+
+    private final Class<? extends Annotation> initAnnotationType;
+
+    private final Class<? extends Annotation> destroyAnnotationType;
+
+
+    /**
+     * Create a new generator for classes loadable from the given ClassLoader.
+     *
+     * @param classLoader           the ClassLoader to load classes with
+     * @param initAnnotationType    the init annotation type to index
+     * @param destroyAnnotationType the destroy annotation type to index
+     */
+    public LifecycleIndexGenerator(ClassLoader classLoader, Class<? extends Annotation> initAnnotationType,
+                                   Class<? extends Annotation> destroyAnnotationType) {
+
+        this.classLoader = classLoader;
+        this.initAnnotationType = initAnnotationType;
+        this.destroyAnnotationType = destroyAnnotationType;
+    }
+
+
+    /**
+     * Generate the index for all classes underneath the given classes directory.
+     *
+     * @param classesDirectory the root directory of the compiled classes
+     * @return the index entries, keyed by class name
+     * @throws IOException if the classes directory cannot be traversed
+     */
+    public Map<String, String> generate(Path classesDirectory) throws IOException {
+        List<String> classNames;
+        try (Stream<Path> files = Files.walk(classesDirectory)) {
+            classNames = files
+                    .filter(file -> file.getFileName().toString().endsWith(CLASS_FILE_SUFFIX))
+                    .map(file -> toClassName(classesDirectory.relativize(file)))
+                    .filter(className -> !className.endsWith("package-info") && !className.endsWith("module-info"))
+                    .collect(Collectors.toList());
+        }
+        Map<String, String> index = new TreeMap<>();
+        for (String className : classNames) {
+            String entry = generateEntry(className);
+            if (entry != null) {
+                index.put(className, entry);
+            }
+        }
+        index.put(ANNOTATION_TYPES_KEY,
+                this.initAnnotationType.getName() + ',' + this.destroyAnnotationType.getName());
+        return index;
+    }
+
+    /**
+     * Generate the index entry for the given class.
+     *
+     * @param className the fully qualified name of the class
+     * @return the index entry, or {@code null} if the class cannot be indexed
+     */
+    @Nullable
+    public String generateEntry(String className) {
+        try {
+            Class<?> clazz = Class.forName(className, false, this.classLoader);
+            if (clazz.isInterface() || clazz.isAnnotation()) {
+                return null;
+            }
+            List<Method> initMethods = new ArrayList<>();
+            List<Method> destroyMethods = new ArrayList<>();
+            Class<?> targetClass = clazz;
+            do {
+                List<Method> currInitMethods = new ArrayList<>();
+                List<Method> currDestroyMethods = new ArrayList<>();
+                ReflectionUtils.doWithLocalMethods(targetClass, method -> {
+                    if (method.isAnnotationPresent(this.initAnnotationType)) {
+                        currInitMethods.add(method);
+                    }
+                    if (method.isAnnotationPresent(this.destroyAnnotationType)) {
+                        currDestroyMethods.add(method);
+                    }
+                });
+                initMethods.addAll(0, currInitMethods);
+                destroyMethods.addAll(currDestroyMethods);
+                targetClass = targetClass.getSuperclass();
+            }
+            while (targetClass != null && targetClass != Object.class);
+
+            StringBuilder entry = new StringBuilder();
+            if (!appendMethods(entry, initMethods)) {
+                return null;
+            }
+            entry.append(';');
+            if (!appendMethods(entry, destroyMethods)) {
+                return null;
+            }
+            return entry.toString();
+        } catch (Exception | LinkageError ex) {
+            if (logger.isDebugEnabled()) {
+                logger.debug("Not indexing class [" + className + "]: " + ex);
+            }
+            return null;
+        }
+    }
+
+    private static boolean appendMethods(StringBuilder entry, List<Method> methods) {
+        for (int i = 0; i < methods.size(); i++) {
+            Method method = methods.get(i);
+            if (method.getParameterCount() != 0) {
+                // Rejected at runtime -> leave the error to the runtime scan.
+                return false;
+            }
+            if (i > 0) {
+                entry.append(',');
+            }
+            entry.append(method.getDeclaringClass().getName()).append('#').append(method.getName());
+        }
+        return true;
+    }
+
+    /**
+     * Write the given index entries to the given file.
+     *
+     * @param index      the index entries, keyed by class name
+     * @param outputFile the file to write to
+     * @throws IOException in case of write failure
+     */
+    public static void write(Map<String, String> index, Path outputFile) throws IOException {
+        Path parent = outputFile.getParent();
+        if (parent != null) {
+            Files.createDirectories(parent);
+        }
+        try (Writer writer = Files.newBufferedWriter(outputFile, StandardCharsets.UTF_8)) {
+            writer.write("# Generated by " + LifecycleIndexGenerator.class.getName() + " - do not edit\n");
+            for (Map.Entry<String, String> entry : new TreeMap<>(index).entrySet()) {
+                writer.write(entry.getKey());
+                writer.write('=');
+                writer.write(entry.getValue());
+                writer.write('\n');
+            }
+        }
+    }
+
+    private static String toClassName(Path relativePath) {
+        String path = relativePath.toString().replace(relativePath.getFileSystem().getSeparator(), ".");
+        return path.substring(0, path.length() - CLASS_FILE_SUFFIX.length());
+    }
+
+
+    /**
+     * Generate the index for a classes directory.
+     *
+     * @param args the classes directory, optionally followed by the output file
+     *             and the init and destroy annotation types
+     */
+    @SuppressWarnings("unchecked")
+    public static void main(String[] args) throws Exception {
+        if (args.length < 1 || args.length == 3 || args.length > 4) {
+            throw new IllegalArgumentException("Usage: LifecycleIndexGenerator <classes directory> " +
+                    "[output file [init annotation type] [destroy annotation type]]");
+        }
+        Path classesDirectory = Paths.get(args[0]);
+        Path outputFile = (args.length > 1 ? Paths.get(args[1]) :
+                classesDirectory.resolve(InitDestroyAnnotationBeanPostProcessor.LIFECYCLE_INDEX_LOCATION));
+        ClassLoader parent = Thread.currentThread().getContextClassLoader();
+        try (URLClassLoader classLoader = new URLClassLoader(
+                new URL[] {classesDirectory.toUri().toURL()}, parent)) {
+            Class<? extends Annotation> initAnnotationType = (Class<? extends Annotation>) ClassUtils.forName(
+                    (args.length > 2 ? args[2] : DEFAULT_INIT_ANNOTATION_TYPE), classLoader);
+            Class<? extends Annotation> destroyAnnotationType = (Class<? extends Annotation>) ClassUtils.forName(
+                    (args.length > 2 ? args[3] : DEFAULT_DESTROY_ANNOTATION_TYPE), classLoader);
+            Map<String, String> index = new LifecycleIndexGenerator(
+                    classLoader, initAnnotationType, destroyAnnotationType).generate(classesDirectory);
+            write(index, outputFile);
+            logger.info("Wrote lifecycle index for " + (index.size() - 1) + " classes to " + outputFile);
+        }
+    }
+
+}
@@ -23,6 +23,8 @@ import org.springframework.lang.Nullable;
 import org.springframework.util.ReflectionUtils;
 
 import java.beans.PropertyDescriptor;
+import java.lang.invoke.MethodHandle;
+import java.lang.reflect.InvocationTargetException;
 import java.lang.reflect.Method;
 import java.security.*;
 
@@ -87,6 +89,11 @@ public class BeanWrapperImpl extends AbstractNestablePropertyAccessor implements
     @Nullable
     private AccessControlContext acc;
 
+    /**
+     * Whether to invoke read and write methods through cached method handles.
+     */
+    private boolean methodHandleAccess = false;
+
 
     /**
      * Create a new empty BeanWrapperImpl. Wrapped instance needs to be set afterwards.
@@ -150,6 +157,7 @@ public class BeanWrapperImpl extends AbstractNestablePropertyAccessor implements
     private BeanWrapperImpl(Object object, String nestedPath, BeanWrapperImpl parent) {
         super(object, nestedPath, parent);
         setSecurityContext(parent.acc);
+        this.methodHandleAccess = parent.methodHandleAccess;
     }
 
 
@@ -213,6 +221,31 @@ public class BeanWrapperImpl extends AbstractNestablePropertyAccessor implements
         return this.acc;
     }
 
+    /**
+     * Set whether to invoke property read and write methods through method handles,
+     * created once per property and cached along with the introspection results
+     * for the bean class, instead of through reflective {@code Method.invoke} calls.
+     * Applies to nested property paths as well.
+     * <p>Default is "false". Falls back to reflection when running with a
+     * SecurityManager, for write methods not accepting the given value as-is
+     * (for consistent exceptions), and for methods which cannot be accessed
+     * through a method handle.
+     *
+     * @see PropertyAccessorFactory#forBeanPropertyAccess(Object, boolean)
+     */
+    public void setMethodHandleAccess(boolean methodHandleAccess) {
+        this.methodHandleAccess = methodHandleAccess;
+    }
+
+    /**
+     * Return whether to invoke property read and write methods through method handles.
+     *
+     * @see #setMethodHandleAccess
+     */
+    public boolean isMethodHandleAccess() {
+        return this.methodHandleAccess;
+    }
+
 
     /**
      * Convert the given value for the specified property to the latter's type.
@@ -310,6 +343,14 @@ public class BeanWrapperImpl extends AbstractNestablePropertyAccessor implements
         @Override
         @Nullable
         public Object getValue() throws Exception {
+            MethodHandle readMethodHandle = getMethodHandle(false);
+            if (readMethodHandle != null) {
+                try {
+                    return (Object) readMethodHandle.invokeExact(getWrappedInstance());
+                } catch (Throwable ex) {
+                    throw new InvocationTargetException(ex);
+                }
+            }
             Method readMethod = this.pd.getReadMethod();
             if (System.getSecurityManager() != null) {
                 AccessController.doPrivileged((PrivilegedAction<Object>) () -> {
@@ -333,6 +374,16 @@ public class BeanWrapperImpl extends AbstractNestablePropertyAccessor implements
             Method writeMethod = (this.pd instanceof GenericTypeAwarePropertyDescriptor ?
                     ((GenericTypeAwarePropertyDescriptor) this.pd).getWriteMethodForActualAccess() :
                     this.pd.getWriteMethod());
+            MethodHandle writeMethodHandle = getMethodHandle(true);
+            if (writeMethodHandle != null &&
+                    ((GenericTypeAwarePropertyDescriptor) this.pd).isAssignableToWriteMethod(value)) {
+                try {
+                    writeMethodHandle.invokeExact(getWrappedInstance(), value);
+                } catch (Throwable ex) {
+                    throw new InvocationTargetException(ex);
+                }
+                return;
+            }
             if (System.getSecurityManager() != null) {
                 AccessController.doPrivileged((PrivilegedAction<Object>) () -> {
                     ReflectionUtils.makeAccessible(writeMethod);
@@ -349,6 +400,20 @@ public class BeanWrapperImpl extends AbstractNestablePropertyAccessor implements
                 writeMethod.invoke(getWrappedInstance(), value);
             }
         }
+
+        /**
+         * Return the cached method handle for the read or write method,
+         * or {@code null} if reflection is to be used.
+         */
+        @Nullable
+        private MethodHandle getMethodHandle(boolean write) {
+            if (!methodHandleAccess || System.getSecurityManager() != null ||
+                    !(this.pd instanceof GenericTypeAwarePropertyDescriptor)) {
+                return null;
+            }
+            GenericTypeAwarePropertyDescriptor gpd = (GenericTypeAwarePropertyDescriptor) this.pd;
+            return (write ? gpd.getWriteMethodHandle() : gpd.getReadMethodHandle());
+        }
     }
 
 }
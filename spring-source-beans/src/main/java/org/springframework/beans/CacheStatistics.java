@@ -0,0 +1,96 @@
+/*
+ * Copyright 2002-2023 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.beans;
+
+/**
+ * Immutable snapshot of the counters of one of the internal caches of this
+ * package, e.g. for exposure through a monitoring endpoint.
+ *
+ * @see TypeConverterSupport#getConversionPathCacheStatistics()
+ */
+public final class CacheStatistics {
+
+    private final long hitCount;
+
+    private final long missCount;
+
+    private final long evictionCount;
+
+    private final int size;
+
+
+    CacheStatistics(long hitCount, long missCount, long evictionCount, int size) {
+        this.hitCount = hitCount;
+        this.missCount = missCount;
+        this.evictionCount = evictionCount;
+        this.size = size;
+    }
+
+
+    /**
+     * Return the number of lookups answered from the cache.
+     */
+    public long getHitCount() {
+        return this.hitCount;
+    }
+
+    /**
+     * Return the number of lookups which had to compute their entry.
+     */
+    public long getMissCount() {
+        return this.missCount;
+    }
+
+    /**
+     * Return the number of entries removed in order to bound the cache.
+     */
+    public long getEvictionCount() {
+        return this.evictionCount;
+    }
+
+    /**
+     * Return the number of entries currently held.
+     */
+    public int getSize() {
+        return this.size;
+    }
+
+    /**
+     * Return the total number of lookups.
+     */
+    public long getRequestCount() {
+        return this.hitCount + this.missCount;
+    }
+
+    /**
+     * Return the ratio of lookups answered from the cache,
+     * or {@code 1.0} if there have not been any lookups yet.
+     */
+    public double getHitRate() {
+        long requestCount = getRequestCount();
+        return (requestCount == 0 ? 1.0 : (double) this.hitCount / requestCount);
+    }
+
+
+    @Override
+    public String toString() {
+        return "CacheStatistics: hits=" + this.hitCount + ", misses=" + this.missCount +
+                ", evictions=" + this.evictionCount + ", size=" + this.size +
+                ", hitRate=" + String.format("%.3f", getHitRate());
+    }
+
+}
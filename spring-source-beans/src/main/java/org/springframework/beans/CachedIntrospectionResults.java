@@ -37,6 +37,8 @@ import java.security.ProtectionDomain;
 import java.util.*;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
 
 /**
  * Internal class that caches JavaBeans {@link PropertyDescriptor}
@@ -63,11 +65,21 @@ import java.util.concurrent.ConcurrentMap;
  * recreates much-requested entries every time the garbage collector removed them. In
  * such a scenario, consider the {@link #IGNORE_BEANINFO_PROPERTY_NAME} system property.
  *
+ * <p>Cached results are segregated by ClassLoader, so that clearing a ClassLoader
+ * drops its segment as a whole, and each segment is bounded through the
+ * {@link #CACHE_LIMIT_PROPERTY_NAME} system property. Hit, miss and eviction
+ * counters are available via {@link #getCacheStatistics()}.
+ *
+ * <p>Classes listed in a build-time {@link #INDEX_LOCATION introspection index}
+ * are introspected from that index, avoiding the cost of the JavaBeans
+ * {@link Introspector} on startup.
+ *
  * @author Rod Johnson
  * @author Juergen Hoeller
  * @see #acceptClassLoader(ClassLoader)
  * @see #clearClassLoader(ClassLoader)
  * @see #forClass(Class)
+ * @see #warmUp(Collection)
  * @since 05 May 2001
  */
 public final class CachedIntrospectionResults {
@@ -92,10 +104,48 @@ public final class CachedIntrospectionResults {
      */
     public static final String IGNORE_BEANINFO_PROPERTY_NAME = "spring.beaninfo.ignore";
 
+    /**
+     * System property that limits the number of classes for which introspection
+     * results are cached per ClassLoader: "spring.beaninfo.cache.limit".
+     * <p>The default is 2048. Once a ClassLoader's cache segment exceeds the limit,
+     * the least recently used entries get evicted and will be recreated on demand.
+     * A value of 0 or less turns the limit off.
+     *
+     * @see #getCacheStatistics()
+     */
+    public static final String CACHE_LIMIT_PROPERTY_NAME = "spring.beaninfo.cache.limit";
+
+    /**
+     * The location of build-time introspection index files: "META-INF/spring.beaninfo.index".
+     * <p>Classes listed in such a file are introspected from the index instead of through
+     * the {@link BeanInfoFactory} chain and the JavaBeans {@link Introspector}. The index is
+     * meant to be generated at build time from the same classpath, so that it reflects any
+     * {@code BeanInfoFactory} and {@code BeanInfo} classes in use.
+     *
+     * @see #IGNORE_INDEX_PROPERTY_NAME
+     */
+    public static final String INDEX_LOCATION = "META-INF/spring.beaninfo.index";
+
+    /**
+     * System property that instructs Spring to ignore {@link #INDEX_LOCATION introspection
+     * index} files: "spring.beaninfo.index.ignore", with a value of "true" always
+     * introspecting classes at runtime.
+     */
+    public static final String IGNORE_INDEX_PROPERTY_NAME = "spring.beaninfo.index.ignore";
+
+    private static final int DEFAULT_CACHE_LIMIT = 2048;
+
+    /**
+     * Key for the cache segment of classes loaded by the bootstrap ClassLoader.
+     */
+    private static final Object BOOTSTRAP_CLASS_LOADER = new Object();
+
 
     private static final boolean shouldIntrospectorIgnoreBeaninfoClasses =
             SpringProperties.getFlag(IGNORE_BEANINFO_PROPERTY_NAME);
 
+    private static final boolean shouldIgnoreIndex = SpringProperties.getFlag(IGNORE_INDEX_PROPERTY_NAME);
+
     /**
      * Stores the BeanInfoFactory instances.
      */
@@ -112,18 +162,26 @@ public final class CachedIntrospectionResults {
             Collections.newSetFromMap(new ConcurrentHashMap<>(16));
 
     /**
-     * Map keyed by Class containing CachedIntrospectionResults, strongly held.
+     * Cache segments keyed by ClassLoader (or the bootstrap marker), strongly held.
      * This variant is being used for cache-safe bean classes.
      */
-    static final ConcurrentMap<Class<?>, CachedIntrospectionResults> strongClassCache =
-            new ConcurrentHashMap<>(64);
+    static final ConcurrentMap<Object, CacheSegment> strongClassCache =
+            new ConcurrentHashMap<>(16);
 
     /**
-     * Map keyed by Class containing CachedIntrospectionResults, softly held.
+     * Cache segments keyed by ClassLoader, softly held.
      * This variant is being used for non-cache-safe bean classes.
      */
-    static final ConcurrentMap<Class<?>, CachedIntrospectionResults> softClassCache =
-            new ConcurrentReferenceHashMap<>(64);
+    static final ConcurrentMap<ClassLoader, CacheSegment> softClassCache =
+            new ConcurrentReferenceHashMap<>(16);
+
+    private static final int cacheLimit = determineCacheLimit();
+
+    private static final LongAdder hitCount = new LongAdder();
+
+    private static final LongAdder missCount = new LongAdder();
+
+    private static final LongAdder evictionCount = new LongAdder();
 
 
     /**
@@ -149,16 +207,80 @@ public final class CachedIntrospectionResults {
      * Clear the introspection cache for the given ClassLoader, removing the
      * introspection results for all classes underneath that ClassLoader, and
      * removing the ClassLoader (and its children) from the acceptance list.
+     * Also drops all cached type conversion paths and loaded introspection indexes,
+     * which may refer to such classes.
      *
      * @param classLoader the ClassLoader to clear the cache for
      */
     public static void clearClassLoader(@Nullable ClassLoader classLoader) {
         acceptedClassLoaders.removeIf(registeredLoader ->
                 isUnderneathClassLoader(registeredLoader, classLoader));
-        strongClassCache.keySet().removeIf(beanClass ->
-                isUnderneathClassLoader(beanClass.getClassLoader(), classLoader));
-        softClassCache.keySet().removeIf(beanClass ->
-                isUnderneathClassLoader(beanClass.getClassLoader(), classLoader));
+        strongClassCache.keySet().removeIf(loaderKey ->
+                isUnderneathClassLoader(loaderKey != BOOTSTRAP_CLASS_LOADER ? (ClassLoader) loaderKey : null, classLoader));
+        softClassCache.keySet().removeIf(registeredLoader ->
+                isUnderneathClassLoader(registeredLoader, classLoader));
+        ConversionPathCache.clear();
+        IntrospectionIndex.clear();
+    }
+
+    /**
+     * Introspect the given classes upfront, e.g. the bean classes known at
+     * application startup, so that the first {@code BeanWrapper} access for
+     * each of them does not have to pay for JavaBeans introspection.
+     * <p>Classes which fail to introspect are logged and skipped.
+     *
+     * @param beanClasses the classes to introspect
+     * @see #warmUp(ClassLoader, Collection)
+     */
+    public static void warmUp(Collection<Class<?>> beanClasses) {
+        for (Class<?> beanClass : beanClasses) {
+            try {
+                forClass(beanClass);
+            } catch (BeansException ex) {
+                if (logger.isDebugEnabled()) {
+                    logger.debug("Failed to introspect class [" + beanClass.getName() + "] upfront", ex);
+                }
+            }
+        }
+    }
+
+    /**
+     * Introspect the given classes upfront, loading them through the given ClassLoader.
+     * <p>Classes which cannot be loaded or fail to introspect are logged and skipped.
+     *
+     * @param classLoader the ClassLoader to load the classes with
+     *                    (may be {@code null}, which indicates the default ClassLoader)
+     * @param classNames  the fully qualified names of the classes to introspect
+     * @see #warmUp(Collection)
+     */
+    public static void warmUp(@Nullable ClassLoader classLoader, Collection<String> classNames) {
+        List<Class<?>> beanClasses = new ArrayList<>(classNames.size());
+        for (String className : classNames) {
+            try {
+                beanClasses.add(ClassUtils.forName(className, classLoader));
+            } catch (ClassNotFoundException | LinkageError ex) {
+                if (logger.isDebugEnabled()) {
+                    logger.debug("Skipping introspection of class [" + className + "]: " + ex);
+                }
+            }
+        }
+        warmUp(beanClasses);
+    }
+
+    /**
+     * Return the counters of the introspection cache, summed up across all
+     * ClassLoaders, including the number of evictions due to the
+     * {@link #CACHE_LIMIT_PROPERTY_NAME per-ClassLoader limit}.
+     */
+    public static CacheStatistics getCacheStatistics() {
+        int size = 0;
+        for (CacheSegment segment : strongClassCache.values()) {
+            size += segment.size();
+        }
+        for (CacheSegment segment : softClassCache.values()) {
+            size += segment.size();
+        }
+        return new CacheStatistics(hitCount.sum(), missCount.sum(), evictionCount.sum(), size);
     }
 
     /**
@@ -169,30 +291,44 @@ public final class CachedIntrospectionResults {
      * @throws BeansException in case of introspection failure
      */
     static CachedIntrospectionResults forClass(Class<?> beanClass) throws BeansException {
-        CachedIntrospectionResults results = strongClassCache.get(beanClass);
-        if (results != null) {
-            return results;
+        ClassLoader classLoader = beanClass.getClassLoader();
+        Object loaderKey = (classLoader != null ? classLoader : BOOTSTRAP_CLASS_LOADER);
+        CacheSegment segment = strongClassCache.get(loaderKey);
+        CachedIntrospectionResults results = (segment != null ? segment.get(beanClass) : null);
+        if (results == null && classLoader != null) {
+            segment = softClassCache.get(classLoader);
+            results = (segment != null ? segment.get(beanClass) : null);
         }
-        results = softClassCache.get(beanClass);
         if (results != null) {
+            hitCount.increment();
             return results;
         }
+        missCount.increment();
 
         results = new CachedIntrospectionResults(beanClass);
-        ConcurrentMap<Class<?>, CachedIntrospectionResults> classCacheToUse;
 
-        if (ClassUtils.isCacheSafe(beanClass, CachedIntrospectionResults.class.getClassLoader()) ||
-                isClassLoaderAccepted(beanClass.getClassLoader())) {
-            classCacheToUse = strongClassCache;
+        if (classLoader == null || ClassUtils.isCacheSafe(beanClass, CachedIntrospectionResults.class.getClassLoader()) ||
+                isClassLoaderAccepted(classLoader)) {
+            segment = strongClassCache.computeIfAbsent(loaderKey, key -> new CacheSegment());
         } else {
             if (logger.isDebugEnabled()) {
                 logger.debug("Not strongly caching class [" + beanClass.getName() + "] because it is not cache-safe");
             }
-            classCacheToUse = softClassCache;
+            segment = softClassCache.computeIfAbsent(classLoader, key -> new CacheSegment());
         }
+        return segment.putIfAbsent(beanClass, results);
+    }
 
-        CachedIntrospectionResults existing = classCacheToUse.putIfAbsent(beanClass, results);
-        return (existing != null ? existing : results);
+    private static int determineCacheLimit() {
+        String limit = SpringProperties.getProperty(CACHE_LIMIT_PROPERTY_NAME);
+        if (limit != null) {
+            try {
+                return Integer.parseInt(limit.trim());
+            } catch (NumberFormatException ex) {
+                logger.warn("Ignoring invalid value for '" + CACHE_LIMIT_PROPERTY_NAME + "': " + limit);
+            }
+        }
+        return DEFAULT_CACHE_LIMIT;
     }
 
     /**
@@ -244,6 +380,13 @@ public final class CachedIntrospectionResults {
      * @throws IntrospectionException from the underlying {@link Introspector}
      */
     private static BeanInfo getBeanInfo(Class<?> beanClass) throws IntrospectionException {
+        if (!shouldIgnoreIndex) {
+            BeanInfo beanInfo = IntrospectionIndex.getBeanInfo(beanClass);
+            if (beanInfo != null) {
+                return beanInfo;
+            }
+        }
+
         for (BeanInfoFactory beanInfoFactory : beanInfoFactories) {
             BeanInfo beanInfo = beanInfoFactory.getBeanInfo(beanClass);
             if (beanInfo != null) {
@@ -464,4 +607,98 @@ public final class CachedIntrospectionResults {
         return this.typeDescriptorCache.get(pd);
     }
 
+
+    /**
+     * Cache segment for the classes of one ClassLoader, bounded to the configured
+     * limit by evicting the least recently used entries. Lookups are lock-free;
+     * recency is tracked per entry as the segment's insertion tick at last access.
+     */
+    static final class CacheSegment {
+
+        private final ConcurrentMap<Class<?>, Entry> entries = new ConcurrentHashMap<>(64);
+
+        private final AtomicLong clock = new AtomicLong();
+
+        @Nullable
+        CachedIntrospectionResults get(Class<?> beanClass) {
+            Entry entry = this.entries.get(beanClass);
+            if (entry == null) {
+                return null;
+            }
+            long now = this.clock.get();
+            // Avoid a volatile write per lookup while the tick has not moved on.
+            if (entry.lastAccess != now) {
+                entry.lastAccess = now;
+            }
+            return entry.results;
+        }
+
+        CachedIntrospectionResults putIfAbsent(Class<?> beanClass, CachedIntrospectionResults results) {
+            Entry existing = this.entries.putIfAbsent(beanClass, new Entry(results, this.clock.incrementAndGet()));
+            if (existing != null) {
+                return existing.results;
+            }
+            if (cacheLimit > 0 && this.entries.size() > cacheLimit) {
+                evict();
+            }
+            return results;
+        }
+
+        int size() {
+            return this.entries.size();
+        }
+
+        /**
+         * Evict the least recently used tenth of the limit, so that eviction
+         * does not need to run again on every subsequent insertion.
+         */
+        private synchronized void evict() {
+            int excess = this.entries.size() - cacheLimit;
+            if (excess <= 0) {
+                return;
+            }
+            int toEvict = excess + cacheLimit / 10;
+            // Sort on a copy of the access ticks: concurrent lookups keep updating them.
+            List<EvictionCandidate> candidates = new ArrayList<>(this.entries.size());
+            this.entries.forEach((beanClass, entry) ->
+                    candidates.add(new EvictionCandidate(beanClass, entry, entry.lastAccess)));
+            candidates.sort(Comparator.comparingLong(candidate -> candidate.lastAccess));
+            for (int i = 0; i < toEvict && i < candidates.size(); i++) {
+                EvictionCandidate candidate = candidates.get(i);
+                if (this.entries.remove(candidate.beanClass, candidate.entry)) {
+                    evictionCount.increment();
+                }
+            }
+        }
+    }
+
+
+    private static final class EvictionCandidate {
+
+        final Class<?> beanClass;
+
+        final Entry entry;
+
+        final long lastAccess;
+
+        EvictionCandidate(Class<?> beanClass, Entry entry, long lastAccess) {
+            this.beanClass = beanClass;
+            this.entry = entry;
+            this.lastAccess = lastAccess;
+        }
+    }
+
+
+    private static final class Entry {
+
+        final CachedIntrospectionResults results;
+
+        volatile long lastAccess;
+
+        Entry(CachedIntrospectionResults results, long lastAccess) {
+            this.results = results;
+            this.lastAccess = lastAccess;
+        }
+    }
+
 }
@@ -0,0 +1,178 @@
+/*
+ * Copyright 2002-2023 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.beans;
+
+import org.springframework.core.convert.ConversionService;
+import org.springframework.core.convert.TypeDescriptor;
+import org.springframework.lang.Nullable;
+import org.springframework.util.ClassUtils;
+import org.springframework.util.ConcurrentReferenceHashMap;
+import org.springframework.util.ObjectUtils;
+
+import java.util.Collection;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Shared cache of the conversion path that {@link TypeConverterDelegate} takes
+ * for a given source class and target type, in the absence of a custom editor.
+ *
+ * <p>Only decisions which cannot change for the same pair are cached, that is,
+ * whether a value gets returned as-is in the absence of a {@link ConversionService}.
+ * With a {@code ConversionService}, {@code canConvert} is asked every time: its
+ * converters may be added and removed at any point, and it caches its own
+ * converter lookups, invalidating them on such changes. This also keeps the
+ * shared cache from holding on to the services of individual registries.
+ * Custom editors are specific to each registry and are always looked up before
+ * consulting this cache, so registering an editor takes effect immediately.
+ *
+ * <p>Entries are softly referenced and dropped along with
+ * {@link CachedIntrospectionResults#clearClassLoader}.
+ *
+ * @see TypeConverterSupport#getConversionPathCacheStatistics()
+ */
+final class ConversionPathCache {
+
+    /**
+     * The conversion path for a source class and target type.
+     */
+    enum Path {
+
+        /**
+         * The value can be returned as-is.
+         */
+        VALUE_AS_IS,
+
+        /**
+         * The value is to be converted through the {@link ConversionService}.
+         */
+        CONVERSION_SERVICE,
+
+        /**
+         * The value requires the full conversion algorithm.
+         */
+        FULL
+    }
+
+
+    private static final Map<Key, Path> pathCache = new ConcurrentReferenceHashMap<>(256);
+
+    private static final LongAdder hitCount = new LongAdder();
+
+    private static final LongAdder missCount = new LongAdder();
+
+
+    private ConversionPathCache() {
+    }
+
+
+    /**
+     * Determine the conversion path for the given non-null value.
+     *
+     * @param conversionService the registry's ConversionService, if any
+     * @param value             the value to convert
+     * @param requiredType      the type to convert to, if known
+     * @param typeDescriptor    the descriptor of the target type, if known
+     * @return the path to take
+     */
+    static Path getPath(@Nullable ConversionService conversionService, Object value,
+                        @Nullable Class<?> requiredType, @Nullable TypeDescriptor typeDescriptor) {
+
+        if (conversionService != null) {
+            return (typeDescriptor != null &&
+                    conversionService.canConvert(TypeDescriptor.forObject(value), typeDescriptor) ?
+                    Path.CONVERSION_SERVICE : Path.FULL);
+        }
+        Key key = new Key(value.getClass(), requiredType, typeDescriptor);
+        Path path = pathCache.get(key);
+        if (path != null) {
+            hitCount.increment();
+            return path;
+        }
+        missCount.increment();
+        path = (isReturnedAsIs(value.getClass(), requiredType) ? Path.VALUE_AS_IS : Path.FULL);
+        pathCache.put(key, path);
+        return path;
+    }
+
+    /**
+     * Determine whether the full conversion algorithm would return a value of the
+     * given class unchanged, without custom editor and without ConversionService.
+     */
+    private static boolean isReturnedAsIs(Class<?> valueClass, @Nullable Class<?> requiredType) {
+        if (valueClass.isArray() || Collection.class.isAssignableFrom(valueClass) ||
+                Map.class.isAssignableFrom(valueClass)) {
+            return false;
+        }
+        return (requiredType == null ||
+                (!requiredType.isArray() && ClassUtils.isAssignable(requiredType, valueClass)));
+    }
+
+    /**
+     * Return a snapshot of the cache counters.
+     */
+    static CacheStatistics getStatistics() {
+        return new CacheStatistics(hitCount.sum(), missCount.sum(), 0, pathCache.size());
+    }
+
+    /**
+     * Remove all cached paths.
+     */
+    static void clear() {
+        pathCache.clear();
+    }
+
+
+    /**
+     * Cache key: the source class and the target type.
+     */
+    private static final class Key {
+
+        private final Class<?> sourceType;
+
+        @Nullable
+        private final Class<?> requiredType;
+
+        @Nullable
+        private final TypeDescriptor typeDescriptor;
+
+        Key(Class<?> sourceType, @Nullable Class<?> requiredType, @Nullable TypeDescriptor typeDescriptor) {
+            this.sourceType = sourceType;
+            this.requiredType = requiredType;
+            this.typeDescriptor = typeDescriptor;
+        }
+
+        @Override
+        public boolean equals(@Nullable Object other) {
+            if (this == other) {
+                return true;
+            }
+            if (!(other instanceof Key)) {
+                return false;
+            }
+            Key otherKey = (Key) other;
+            return (this.sourceType == otherKey.sourceType && this.requiredType == otherKey.requiredType &&
+                    ObjectUtils.nullSafeEquals(this.typeDescriptor, otherKey.typeDescriptor));
+        }
+
+        @Override
+        public int hashCode() {
+            return this.sourceType.hashCode() * 31 + ObjectUtils.nullSafeHashCode(this.requiredType);
+        }
+    }
+
+}
@@ -24,10 +24,14 @@ import org.springframework.lang.Nullable;
 import org.springframework.util.Assert;
 import org.springframework.util.ClassUtils;
 import org.springframework.util.ObjectUtils;
+import org.springframework.util.ReflectionUtils;
 import org.springframework.util.StringUtils;
 
 import java.beans.IntrospectionException;
 import java.beans.PropertyDescriptor;
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
 import java.lang.reflect.Method;
 import java.util.HashSet;
 import java.util.Set;
@@ -42,6 +46,17 @@ import java.util.Set;
  */
 final class GenericTypeAwarePropertyDescriptor extends PropertyDescriptor {
 
+    /**
+     * Marker for a read or write method that cannot be invoked through a method handle.
+     */
+    private static final MethodHandle NO_METHOD_HANDLE = MethodHandles.identity(Object.class);
+
+    private static final MethodType READ_METHOD_HANDLE_TYPE = MethodType.methodType(Object.class, Object.class);
+
+    private static final MethodType WRITE_METHOD_HANDLE_TYPE =
+            MethodType.methodType(void.class, Object.class, Object.class);
+
+
     private final Class<?> beanClass;
 
     @Nullable
@@ -56,12 +71,21 @@ final class GenericTypeAwarePropertyDescriptor extends PropertyDescriptor {
     @Nullable
     private MethodParameter writeMethodParameter;
 
+    @Nullable
+    private Class<?> writeMethodParameterType;
+
     @Nullable
     private Class<?> propertyType;
 
     @Nullable
     private final Class<?> propertyEditorClass;
 
+    @Nullable
+    private volatile MethodHandle readMethodHandle;
+
+    @Nullable
+    private volatile MethodHandle writeMethodHandle;
+
 
     public GenericTypeAwarePropertyDescriptor(Class<?> beanClass, String propertyName,
                                               @Nullable Method readMethod, @Nullable Method writeMethod,
@@ -103,6 +127,7 @@ final class GenericTypeAwarePropertyDescriptor extends PropertyDescriptor {
                 }
             }
             this.writeMethodParameter = new MethodParameter(this.writeMethod, 0).withContainingClass(this.beanClass);
+            this.writeMethodParameterType = this.writeMethod.getParameterTypes()[0];
         }
 
         if (this.readMethod != null) {
@@ -160,6 +185,69 @@ final class GenericTypeAwarePropertyDescriptor extends PropertyDescriptor {
         return this.propertyEditorClass;
     }
 
+    /**
+     * Return a method handle of type {@code (Object)Object} for the read method,
+     * lazily created and cached along with this descriptor.
+     *
+     * @return the method handle, or {@code null} if there is no read method
+     * or if it cannot be accessed through a method handle
+     */
+    @Nullable
+    public MethodHandle getReadMethodHandle() {
+        MethodHandle handle = this.readMethodHandle;
+        if (handle == null) {
+            handle = createMethodHandle(this.readMethod, READ_METHOD_HANDLE_TYPE);
+            this.readMethodHandle = handle;
+        }
+        return (handle != NO_METHOD_HANDLE ? handle : null);
+    }
+
+    /**
+     * Return a method handle of type {@code (Object, Object)void} for the write
+     * method to be used for actual access, lazily created and cached along with
+     * this descriptor.
+     *
+     * @return the method handle, or {@code null} if there is no write method
+     * or if it cannot be accessed through a method handle
+     * @see #getWriteMethodForActualAccess()
+     */
+    @Nullable
+    public MethodHandle getWriteMethodHandle() {
+        MethodHandle handle = this.writeMethodHandle;
+        if (handle == null) {
+            handle = createMethodHandle(this.writeMethod, WRITE_METHOD_HANDLE_TYPE);
+            this.writeMethodHandle = handle;
+        }
+        return (handle != NO_METHOD_HANDLE ? handle : null);
+    }
+
+    /**
+     * Determine whether the write method handle accepts the given value the same
+     * way as a reflective invocation of the write method would, i.e. whether the
+     * value is assignable to the write method's parameter type.
+     *
+     * @param value the value to write
+     * @return {@code true} if the value may be passed to the write method handle,
+     * {@code false} if it needs to go through reflection (for consistent exceptions)
+     */
+    public boolean isAssignableToWriteMethod(@Nullable Object value) {
+        return (this.writeMethodParameterType != null &&
+                ClassUtils.isAssignableValue(this.writeMethodParameterType, value));
+    }
+
+    private static MethodHandle createMethodHandle(@Nullable Method method, MethodType type) {
+        if (method == null) {
+            return NO_METHOD_HANDLE;
+        }
+        try {
+            ReflectionUtils.makeAccessible(method);
+            return MethodHandles.lookup().unreflect(method).asType(type);
+        } catch (Throwable ex) {
+            // Not accessible through method handles (e.g. module restrictions): use reflection.
+            return NO_METHOD_HANDLE;
+        }
+    }
+
 
     @Override
     public boolean equals(@Nullable Object other) {
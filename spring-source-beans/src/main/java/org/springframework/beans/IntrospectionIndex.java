@@ -0,0 +1,199 @@
+/*
+ * Copyright 2002-2023 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.beans;
+
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+import org.springframework.lang.Nullable;
+import org.springframework.util.ClassUtils;
+import org.springframework.util.ConcurrentReferenceHashMap;
+import org.springframework.util.DigestUtils;
+import org.springframework.util.StringUtils;
+
+import java.beans.BeanDescriptor;
+import java.beans.BeanInfo;
+import java.beans.PropertyDescriptor;
+import java.beans.SimpleBeanInfo;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.lang.reflect.Method;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Enumeration;
+import java.util.Map;
+import java.util.Properties;
+
+/**
+ * Build-time introspection index, letting {@link CachedIntrospectionResults}
+ * skip {@link java.beans.Introspector} for the classes listed in
+ * {@value CachedIntrospectionResults#INDEX_LOCATION} files.
+ *
+ * <p>Each index file is a properties file with one entry per class: the key is
+ * the class name, the value of the form {@code fingerprint;properties}. The
+ * fingerprint is the {@linkplain #fingerprint fingerprint} of the public methods
+ * of the class, including inherited ones; the properties are a comma-separated
+ * list of the properties that the {@code BeanInfo} of that class declares, each
+ * in the form {@code name:readMethod:writeMethod:writeParameterType} with empty
+ * segments for absent methods. A class without properties has an empty list.
+ *
+ * <p>Index files are loaded lazily for each ClassLoader on first use. An entry
+ * is only used if the public methods of the class still match its fingerprint,
+ * no matter where the class and its superclasses are loaded from; otherwise
+ * the class may have gained accessor methods since the index was generated.
+ * Entries that no longer match the class in other ways are ignored as well,
+ * falling back to runtime introspection.
+ *
+ * @see CachedIntrospectionResults#IGNORE_INDEX_PROPERTY_NAME
+ */
+final class IntrospectionIndex {
+
+    private static final Log logger = LogFactory.getLog(IntrospectionIndex.class);
+
+    private static final IntrospectionIndex EMPTY = new IntrospectionIndex(new Properties());
+
+    private static final Map<ClassLoader, IntrospectionIndex> cache = new ConcurrentReferenceHashMap<>();
+
+
+    private final Properties entries;
+
+
+    private IntrospectionIndex(Properties entries) {
+        this.entries = entries;
+    }
+
+
+    /**
+     * Return the {@code BeanInfo} recorded for the given class,
+     * or {@code null} if the class is not indexed or its entry is not applicable.
+     */
+    @Nullable
+    static BeanInfo getBeanInfo(Class<?> beanClass) {
+        ClassLoader classLoader = beanClass.getClassLoader();
+        if (classLoader == null) {
+            return null;
+        }
+        IntrospectionIndex index = cache.computeIfAbsent(classLoader, IntrospectionIndex::load);
+        String entry = index.entries.getProperty(beanClass.getName());
+        if (entry == null) {
+            return null;
+        }
+        try {
+            int separator = entry.indexOf(';');
+            if (separator == -1) {
+                throw new IllegalArgumentException("Missing fingerprint");
+            }
+            if (!entry.substring(0, separator).equals(fingerprint(beanClass))) {
+                if (logger.isDebugEnabled()) {
+                    logger.debug("Ignoring introspection index entry for class [" + beanClass.getName() +
+                            "]: public methods changed since the index was generated");
+                }
+                return null;
+            }
+            return createBeanInfo(beanClass, entry.substring(separator + 1));
+        } catch (Exception | LinkageError ex) {
+            if (logger.isDebugEnabled()) {
+                logger.debug("Ignoring introspection index entry for class [" + beanClass.getName() + "]: " + ex);
+            }
+            return null;
+        }
+    }
+
+    /**
+     * Compute the fingerprint of the public methods of the given class: a hex MD5
+     * digest of their sorted {@code name(parameterTypes)returnType} signatures.
+     * Must be kept in sync with the index generator.
+     */
+    static String fingerprint(Class<?> beanClass) {
+        Method[] methods = beanClass.getMethods();
+        String[] signatures = new String[methods.length];
+        for (int i = 0; i < methods.length; i++) {
+            Method method = methods[i];
+            StringBuilder signature = new StringBuilder(method.getName()).append('(');
+            Class<?>[] parameterTypes = method.getParameterTypes();
+            for (int j = 0; j < parameterTypes.length; j++) {
+                if (j > 0) {
+                    signature.append(',');
+                }
+                signature.append(parameterTypes[j].getName());
+            }
+            signatures[i] = signature.append(')').append(method.getReturnType().getName()).toString();
+        }
+        Arrays.sort(signatures);
+        return DigestUtils.md5DigestAsHex(
+                StringUtils.arrayToDelimitedString(signatures, "\n").getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Remove all loaded indexes, to be reloaded on demand.
+     */
+    static void clear() {
+        cache.clear();
+    }
+
+    private static IntrospectionIndex load(ClassLoader classLoader) {
+        try {
+            Enumeration<URL> urls = classLoader.getResources(CachedIntrospectionResults.INDEX_LOCATION);
+            if (!urls.hasMoreElements()) {
+                return EMPTY;
+            }
+            Properties entries = new Properties();
+            while (urls.hasMoreElements()) {
+                URL url = urls.nextElement();
+                try (Reader reader = new InputStreamReader(url.openStream(), StandardCharsets.UTF_8)) {
+                    entries.load(reader);
+                }
+            }
+            if (logger.isDebugEnabled()) {
+                logger.debug("Loaded introspection index with " + entries.size() + " classes");
+            }
+            return new IntrospectionIndex(entries);
+        } catch (IOException ex) {
+            logger.warn("Unable to load introspection index from location [" +
+                    CachedIntrospectionResults.INDEX_LOCATION + "]", ex);
+            return EMPTY;
+        }
+    }
+
+    private static BeanInfo createBeanInfo(Class<?> beanClass, String entry) throws Exception {
+        String[] properties = StringUtils.commaDelimitedListToStringArray(entry);
+        PropertyDescriptor[] pds = new PropertyDescriptor[properties.length];
+        for (int i = 0; i < properties.length; i++) {
+            String[] segments = StringUtils.delimitedListToStringArray(properties[i], ":");
+            if (segments.length != 4) {
+                throw new IllegalArgumentException("Invalid property entry: " + properties[i]);
+            }
+            Method readMethod = (StringUtils.hasLength(segments[1]) ? beanClass.getMethod(segments[1]) : null);
+            Method writeMethod = (StringUtils.hasLength(segments[2]) ? beanClass.getMethod(segments[2],
+                    ClassUtils.forName(segments[3], beanClass.getClassLoader())) : null);
+            pds[i] = new ExtendedBeanInfo.SimplePropertyDescriptor(segments[0], readMethod, writeMethod);
+        }
+        return new SimpleBeanInfo() {
+            @Override
+            public BeanDescriptor getBeanDescriptor() {
+                return new BeanDescriptor(beanClass);
+            }
+
+            @Override
+            public PropertyDescriptor[] getPropertyDescriptors() {
+                return pds.clone();
+            }
+        };
+    }
+
+}
@@ -42,6 +42,22 @@ public final class PropertyAccessorFactory {
         return new BeanWrapperImpl(target);
     }
 
+    /**
+     * Obtain a BeanWrapper for the given target object,
+     * accessing properties in JavaBeans style.
+     *
+     * @param target             the target object to wrap
+     * @param methodHandleAccess whether to invoke read and write methods through
+     *                           cached method handles instead of reflection
+     * @return the property accessor
+     * @see BeanWrapperImpl#setMethodHandleAccess
+     */
+    public static BeanWrapper forBeanPropertyAccess(Object target, boolean methodHandleAccess) {
+        BeanWrapperImpl bw = new BeanWrapperImpl(target);
+        bw.setMethodHandleAccess(methodHandleAccess);
+        return bw;
+    }
+
     /**
      * Obtain a PropertyAccessor for the given target object,
      * accessing properties in direct field style.
@@ -23,6 +23,7 @@ import org.springframework.core.convert.ConversionFailedException;
 import org.springframework.core.convert.ConversionService;
 import org.springframework.core.convert.TypeDescriptor;
 import org.springframework.lang.Nullable;
+import org.springframework.util.Assert;
 import org.springframework.util.ClassUtils;
 import org.springframework.util.NumberUtils;
 import org.springframework.util.ReflectionUtils;
@@ -123,13 +124,19 @@ class TypeConverterDelegate {
 
         ConversionFailedException conversionAttemptEx = null;
 
-        // No custom editor but custom ConversionService specified?
+        // No custom editor: take the cached path for this source and target type.
         ConversionService conversionService = this.propertyEditorRegistry.getConversionService();
-        if (editor == null && conversionService != null && newValue != null && typeDescriptor != null) {
-            TypeDescriptor sourceTypeDesc = TypeDescriptor.forObject(newValue);
-            if (conversionService.canConvert(sourceTypeDesc, typeDescriptor)) {
+        if (editor == null && newValue != null) {
+            ConversionPathCache.Path path =
+                    ConversionPathCache.getPath(conversionService, newValue, requiredType, typeDescriptor);
+            if (path == ConversionPathCache.Path.VALUE_AS_IS) {
+                return (T) newValue;
+            }
+            // Custom ConversionService specified and able to convert?
+            if (path == ConversionPathCache.Path.CONVERSION_SERVICE) {
+                Assert.state(conversionService != null && typeDescriptor != null, "No ConversionService");
                 try {
-                    return (T) conversionService.convert(newValue, sourceTypeDesc, typeDescriptor);
+                    return (T) conversionService.convert(newValue, TypeDescriptor.forObject(newValue), typeDescriptor);
                 } catch (ConversionFailedException ex) {
                     // fallback to default conversion logic below
                     conversionAttemptEx = ex;
@@ -78,4 +78,15 @@ public abstract class TypeConverterSupport extends PropertyEditorRegistrySupport
         }
     }
 
+    /**
+     * Return the counters of the conversion path cache shared by all type converters,
+     * which remembers per source class and target type whether a value can be
+     * returned as-is when no {@code ConversionService} is set.
+     *
+     * @see #setConversionService
+     */
+    public static CacheStatistics getConversionPathCacheStatistics() {
+        return ConversionPathCache.getStatistics();
+    }
+
 }
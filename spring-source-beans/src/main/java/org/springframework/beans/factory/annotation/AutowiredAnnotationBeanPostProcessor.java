@@ -50,6 +50,9 @@ import org.springframework.util.StringUtils;
 import java.beans.PropertyDescriptor;
 import java.io.IOException;
 import java.lang.annotation.Annotation;
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
 import java.lang.reflect.*;
 import java.util.*;
 import java.util.concurrent.ConcurrentHashMap;
@@ -144,6 +147,16 @@ import java.util.concurrent.ConcurrentHashMap;
 public class AutowiredAnnotationBeanPostProcessor implements SmartInstantiationAwareBeanPostProcessor,
         MergedBeanDefinitionPostProcessor, PriorityOrdered, BeanFactoryAware {
 
+    /**
+     * Maximum number of method arguments that compiled injections pass without
+     * an argument array.
+     */
+    private static final int MAX_DIRECT_ARGUMENTS = 3;
+
+    private static final MethodType SPREAD_INJECTION_TYPE =
+            MethodType.methodType(void.class, Object.class, Object[].class);
+
+
     protected final Log logger = LogFactory.getLog(getClass());
 
     private final Set<Class<? extends Annotation>> autowiredAnnotationTypes = new LinkedHashSet<>(4);
@@ -154,6 +167,8 @@ public class AutowiredAnnotationBeanPostProcessor implements SmartInstantiationA
 
     private int order = Ordered.LOWEST_PRECEDENCE - 2;
 
+    private boolean compileInjection = true;
+
     @Nullable
     private ConfigurableListableBeanFactory beanFactory;
 
@@ -240,6 +255,29 @@ public class AutowiredAnnotationBeanPostProcessor implements SmartInstantiationA
         this.requiredParameterValue = requiredParameterValue;
     }
 
+    /**
+     * Set whether to compile the injection metadata of a bean class once all of
+     * its fields and methods have been resolved to cached arguments, applying
+     * subsequent injections (e.g. for prototype instances) through pre-bound
+     * {@link MethodHandle}s instead of reflective {@code Field.set} and
+     * {@code Method.invoke} calls. Default is "true".
+     * <p>Bean classes with an optional injection point that remains unresolved
+     * (e.g. a non-required {@code @Autowired} field without a matching bean) are
+     * resolved on every injection and therefore stay on reflective injection.
+     * <p>Switch this flag to "false" in order to always go through the
+     * individual injected elements.
+     */
+    public void setCompileInjection(boolean compileInjection) {
+        this.compileInjection = compileInjection;
+    }
+
+    /**
+     * Return whether injection metadata gets compiled once fully cached.
+     */
+    public boolean isCompileInjection() {
+        return this.compileInjection;
+    }
+
     public void setOrder(int order) {
         this.order = order;
     }
@@ -519,7 +557,8 @@ public class AutowiredAnnotationBeanPostProcessor implements SmartInstantiationA
         }
         while (targetClass != null && targetClass != Object.class);
 
-        return InjectionMetadata.forElements(elements, clazz);
+        return (elements.isEmpty() ? InjectionMetadata.forElements(elements, clazz) :
+                new AutowiredInjectionMetadata(clazz, elements));
     }
 
     @Nullable
@@ -694,6 +733,23 @@ public class AutowiredAnnotationBeanPostProcessor implements SmartInstantiationA
             }
         }
 
+        /**
+         * Compile this element into a field setter bound to the cached field value,
+         * or return {@code null} if the field value has not been cached, e.g. for a
+         * non-required field without a matching bean.
+         */
+        @Nullable
+        CompiledInjection compile() throws IllegalAccessException {
+            if (!this.cached) {
+                return null;
+            }
+            Field field = (Field) this.member;
+            ReflectionUtils.makeAccessible(field);
+            MethodHandle setter = MethodHandles.lookup().unreflectSetter(field);
+            return new CompiledInjection(setter, true,
+                    new Object[] {this.cachedFieldValue}, new Class<?>[] {field.getType()});
+        }
+
         @Nullable
         private Object resolveFieldValue(Field field, Object bean, @Nullable String beanName) {
             DependencyDescriptor desc = new DependencyDescriptor(field, this.required);
@@ -778,6 +834,23 @@ public class AutowiredAnnotationBeanPostProcessor implements SmartInstantiationA
             }
         }
 
+        /**
+         * Compile this element into a method invocation bound to the cached method
+         * arguments, or return {@code null} if the arguments have not been cached,
+         * e.g. for a non-required method whose arguments could not be resolved.
+         */
+        @Nullable
+        CompiledInjection compile() throws IllegalAccessException {
+            Object[] cachedMethodArguments = this.cachedMethodArguments;
+            if (!this.cached || cachedMethodArguments == null || this.skip == null) {
+                return null;
+            }
+            Method method = (Method) this.member;
+            ReflectionUtils.makeAccessible(method);
+            MethodHandle handle = MethodHandles.lookup().unreflect(method).asFixedArity();
+            return new CompiledInjection(handle, false, cachedMethodArguments, method.getParameterTypes());
+        }
+
         @Nullable
         private Object[] resolveCachedArguments(@Nullable String beanName, @Nullable Object[] cachedMethodArguments) {
             if (cachedMethodArguments == null) {
@@ -844,6 +917,226 @@ public class AutowiredAnnotationBeanPostProcessor implements SmartInstantiationA
     }
 
 
+    /**
+     * InjectionMetadata variant which compiles its elements into a
+     * {@link CompiledInjector} once all of them have cached their arguments.
+     */
+    private class AutowiredInjectionMetadata extends InjectionMetadata {
+
+        @Nullable
+        private volatile CompiledInjector compiledInjector;
+
+        private volatile boolean compilable = true;
+
+        public AutowiredInjectionMetadata(Class<?> targetClass, Collection<InjectedElement> elements) {
+            super(targetClass, elements);
+        }
+
+        @Override
+        public void checkConfigMembers(RootBeanDefinition beanDefinition) {
+            super.checkConfigMembers(beanDefinition);
+            this.compiledInjector = null;
+        }
+
+        @Override
+        public void inject(Object target, @Nullable String beanName, @Nullable PropertyValues pvs) throws Throwable {
+            CompiledInjector compiledInjector = this.compiledInjector;
+            if (compiledInjector != null) {
+                if (!compiledInjector.inject(target, beanName, pvs)) {
+                    // Cached argument has become stale -> recompile once re-resolved
+                    this.compiledInjector = null;
+                }
+                return;
+            }
+            super.inject(target, beanName, pvs);
+            if (compileInjection && this.compilable) {
+                this.compiledInjector = compile();
+            }
+        }
+
+        @Nullable
+        private CompiledInjector compile() {
+            InjectedElement[] elements = getElementsToIterate().toArray(new InjectedElement[0]);
+            CompiledInjection[] injections = new CompiledInjection[elements.length];
+            try {
+                for (int i = 0; i < elements.length; i++) {
+                    InjectedElement element = elements[i];
+                    if (element instanceof AutowiredFieldElement) {
+                        injections[i] = ((AutowiredFieldElement) element).compile();
+                    } else if (element instanceof AutowiredMethodElement) {
+                        if (Boolean.TRUE.equals(element.skip)) {
+                            // Explicit property value -> nothing to inject
+                            continue;
+                        }
+                        injections[i] = ((AutowiredMethodElement) element).compile();
+                    } else {
+                        this.compilable = false;
+                        return null;
+                    }
+                    if (injections[i] == null) {
+                        // Every element has just been injected, so an element without cached
+                        // arguments is an unresolved optional dependency that gets re-resolved
+                        // on each injection -> don't unreflect the other elements again and again
+                        this.compilable = false;
+                        return null;
+                    }
+                }
+            } catch (BeansException ex) {
+                logger.debug("Failed to compile cached injection arguments", ex);
+                return null;
+            } catch (IllegalAccessException | RuntimeException ex) {
+                this.compilable = false;
+                logger.debug("Falling back to reflective injection", ex);
+                return null;
+            }
+            return new CompiledInjector(elements, injections);
+        }
+    }
+
+
+    /**
+     * Applies all injections of a bean class in sequence, re-resolving the
+     * remaining elements individually if a cached argument cannot be resolved.
+     */
+    private static class CompiledInjector {
+
+        private final InjectionMetadata.InjectedElement[] elements;
+
+        private final CompiledInjection[] injections;
+
+        CompiledInjector(InjectionMetadata.InjectedElement[] elements, CompiledInjection[] injections) {
+            this.elements = elements;
+            this.injections = injections;
+        }
+
+        /**
+         * Apply the injections to the given bean.
+         *
+         * @return {@code false} if the injector fell back to the injected elements
+         */
+        boolean inject(Object bean, @Nullable String beanName, @Nullable PropertyValues pvs) throws Throwable {
+            for (int i = 0; i < this.injections.length; i++) {
+                CompiledInjection injection = this.injections[i];
+                if (injection != null && !injection.inject(bean, beanName)) {
+                    for (int j = i; j < this.elements.length; j++) {
+                        this.elements[j].inject(bean, beanName, pvs);
+                    }
+                    return false;
+                }
+            }
+            return true;
+        }
+    }
+
+
+    /**
+     * A single field or method injection with a pre-bound {@link MethodHandle}
+     * and its cached arguments. Arguments with a shortcut to an existing singleton
+     * are fetched by name directly; others go through the cached descriptor.
+     */
+    private class CompiledInjection {
+
+        private final MethodHandle handle;
+
+        private final boolean isField;
+
+        private final int argumentCount;
+
+        private final Object[] cachedArguments;
+
+        private final String[] shortcuts;
+
+        private final Class<?>[] argumentTypes;
+
+        CompiledInjection(MethodHandle handle, boolean isField, Object[] cachedArguments, Class<?>[] argumentTypes) {
+            this.argumentCount = argumentTypes.length;
+            this.handle = (this.argumentCount > MAX_DIRECT_ARGUMENTS ?
+                    handle.asSpreader(Object[].class, this.argumentCount).asType(SPREAD_INJECTION_TYPE) :
+                    handle.asType(MethodType.genericMethodType(this.argumentCount + 1).changeReturnType(void.class)));
+            this.isField = isField;
+            this.cachedArguments = cachedArguments;
+            this.argumentTypes = argumentTypes;
+            this.shortcuts = new String[this.argumentCount];
+            Assert.state(beanFactory != null, "No BeanFactory available");
+            for (int i = 0; i < this.argumentCount; i++) {
+                if (cachedArguments[i] instanceof ShortcutDependencyDescriptor) {
+                    String shortcut = ((ShortcutDependencyDescriptor) cachedArguments[i]).shortcut;
+                    if (beanFactory.containsSingleton(shortcut) && beanFactory.isSingleton(shortcut)) {
+                        this.shortcuts[i] = shortcut;
+                    }
+                }
+            }
+        }
+
+        /**
+         * Resolve the cached arguments and apply them to the given bean.
+         *
+         * @return {@code false} if a cached argument could not be resolved
+         */
+        boolean inject(Object bean, @Nullable String beanName) throws Throwable {
+            Object arg0 = null;
+            Object arg1 = null;
+            Object arg2 = null;
+            Object[] arguments = null;
+            try {
+                if (this.argumentCount > MAX_DIRECT_ARGUMENTS) {
+                    arguments = new Object[this.argumentCount];
+                    for (int i = 0; i < arguments.length; i++) {
+                        arguments[i] = resolveArgument(i, beanName);
+                    }
+                } else {
+                    if (this.argumentCount > 0) {
+                        arg0 = resolveArgument(0, beanName);
+                    }
+                    if (this.argumentCount > 1) {
+                        arg1 = resolveArgument(1, beanName);
+                    }
+                    if (this.argumentCount > 2) {
+                        arg2 = resolveArgument(2, beanName);
+                    }
+                }
+            } catch (BeansException ex) {
+                // Unexpected target bean mismatch for cached argument -> re-resolve
+                logger.debug("Failed to resolve cached argument", ex);
+                return false;
+            }
+            if (this.isField) {
+                if (arg0 != null) {
+                    this.handle.invokeExact(bean, arg0);
+                }
+                return true;
+            }
+            switch (this.argumentCount) {
+                case 0:
+                    this.handle.invokeExact(bean);
+                    break;
+                case 1:
+                    this.handle.invokeExact(bean, arg0);
+                    break;
+                case 2:
+                    this.handle.invokeExact(bean, arg0, arg1);
+                    break;
+                case 3:
+                    this.handle.invokeExact(bean, arg0, arg1, arg2);
+                    break;
+                default:
+                    this.handle.invokeExact(bean, arguments);
+            }
+            return true;
+        }
+
+        @Nullable
+        private Object resolveArgument(int index, @Nullable String beanName) {
+            String shortcut = this.shortcuts[index];
+            if (shortcut != null) {
+                Assert.state(beanFactory != null, "No BeanFactory available");
+                return beanFactory.getBean(shortcut, this.argumentTypes[index]);
+            }
+            return resolveCachedArgument(beanName, this.cachedArguments[index]);
+        }
+    }
+
+
     /**
      * DependencyDescriptor variant with a pre-resolved target bean name.
      */
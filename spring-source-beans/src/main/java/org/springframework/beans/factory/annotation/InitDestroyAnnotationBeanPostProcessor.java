@@ -25,6 +25,7 @@ import org.springframework.beans.factory.support.MergedBeanDefinitionPostProcess
 import org.springframework.beans.factory.support.RootBeanDefinition;
 import org.springframework.core.Ordered;
 import org.springframework.core.PriorityOrdered;
+import org.springframework.core.SpringProperties;
 import org.springframework.core.annotation.AnnotationUtils;
 import org.springframework.lang.Nullable;
 import org.springframework.util.ClassUtils;
@@ -34,6 +35,9 @@ import java.io.IOException;
 import java.io.ObjectInputStream;
 import java.io.Serializable;
 import java.lang.annotation.Annotation;
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
 import java.lang.reflect.InvocationTargetException;
 import java.lang.reflect.Method;
 import java.lang.reflect.Modifier;
@@ -63,6 +67,10 @@ import java.util.concurrent.ConcurrentHashMap;
  * Furthermore, it also supports the {@link javax.annotation.Resource} annotation
  * for annotation-driven injection of named beans.
  *
+ * <p>Classes listed in a build-time {@link #LIFECYCLE_INDEX_LOCATION lifecycle index}
+ * for the configured annotation types get their metadata from the index instead of
+ * through a reflective scan of their class hierarchy.
+ *
  * @author Juergen Hoeller
  * @see #setInitAnnotationType
  * @see #setDestroyAnnotationType
@@ -72,6 +80,24 @@ import java.util.concurrent.ConcurrentHashMap;
 public class InitDestroyAnnotationBeanPostProcessor
         implements DestructionAwareBeanPostProcessor, MergedBeanDefinitionPostProcessor, PriorityOrdered, Serializable {
 
+    /**
+     * The location of build-time lifecycle index files: "META-INF/spring.lifecycle.index".
+     * <p>Such a file lists the annotated init and destroy methods of each class of a
+     * module, for the init and destroy annotation types it was generated for.
+     *
+     * @see #IGNORE_LIFECYCLE_INDEX_PROPERTY_NAME
+     */
+    public static final String LIFECYCLE_INDEX_LOCATION = "META-INF/spring.lifecycle.index";
+
+    /**
+     * System property that instructs Spring to ignore {@link #LIFECYCLE_INDEX_LOCATION
+     * lifecycle index} files: "spring.lifecycle.index.ignore", with a value of "true"
+     * always scanning classes for annotated methods at runtime.
+     */
+    public static final String IGNORE_LIFECYCLE_INDEX_PROPERTY_NAME = "spring.lifecycle.index.ignore";
+
+    private static final boolean shouldIgnoreIndex = SpringProperties.getFlag(IGNORE_LIFECYCLE_INDEX_PROPERTY_NAME);
+
     private final transient LifecycleMetadata emptyLifecycleMetadata =
             new LifecycleMetadata(Object.class, Collections.emptyList(), Collections.emptyList()) {
                 @Override
@@ -191,16 +217,15 @@ public class InitDestroyAnnotationBeanPostProcessor
             // Happens after deserialization, during destruction...
             return buildLifecycleMetadata(clazz);
         }
-        // Quick check on the concurrent map first, with minimal locking.
+        // Quick check on the concurrent map first, without locking.
         LifecycleMetadata metadata = this.lifecycleMetadataCache.get(clazz);
         if (metadata == null) {
-            synchronized (this.lifecycleMetadataCache) {
-                metadata = this.lifecycleMetadataCache.get(clazz);
-                if (metadata == null) {
-                    metadata = buildLifecycleMetadata(clazz);
-                    this.lifecycleMetadataCache.put(clazz, metadata);
-                }
-                return metadata;
+            // Built outside of the map, since the index lookup may access class files:
+            // concurrent callers may build the same metadata, the first one wins.
+            metadata = buildLifecycleMetadata(clazz);
+            LifecycleMetadata existing = this.lifecycleMetadataCache.putIfAbsent(clazz, metadata);
+            if (existing != null) {
+                metadata = existing;
             }
         }
         return metadata;
@@ -211,6 +236,14 @@ public class InitDestroyAnnotationBeanPostProcessor
             return this.emptyLifecycleMetadata;
         }
 
+        if (!shouldIgnoreIndex && this.initAnnotationType != null && this.destroyAnnotationType != null) {
+            LifecycleMetadataIndex.LifecycleMethods indexed = LifecycleMetadataIndex.getLifecycleMethods(
+                    clazz, this.initAnnotationType, this.destroyAnnotationType);
+            if (indexed != null) {
+                return createLifecycleMetadata(clazz, indexed);
+            }
+        }
+
         List<LifecycleElement> initMethods = new ArrayList<>();
         List<LifecycleElement> destroyMethods = new ArrayList<>();
         Class<?> targetClass = clazz;
@@ -245,6 +278,25 @@ public class InitDestroyAnnotationBeanPostProcessor
                 new LifecycleMetadata(clazz, initMethods, destroyMethods));
     }
 
+    private LifecycleMetadata createLifecycleMetadata(Class<?> clazz, LifecycleMetadataIndex.LifecycleMethods indexed) {
+        if (indexed.initMethods.isEmpty() && indexed.destroyMethods.isEmpty()) {
+            return this.emptyLifecycleMetadata;
+        }
+        List<LifecycleElement> initMethods = new ArrayList<>(indexed.initMethods.size());
+        for (Method method : indexed.initMethods) {
+            initMethods.add(new LifecycleElement(method));
+        }
+        List<LifecycleElement> destroyMethods = new ArrayList<>(indexed.destroyMethods.size());
+        for (Method method : indexed.destroyMethods) {
+            destroyMethods.add(new LifecycleElement(method));
+        }
+        if (logger.isTraceEnabled()) {
+            logger.trace("Found lifecycle methods on class [" + clazz.getName() + "] in index: init " +
+                    indexed.initMethods + ", destroy " + indexed.destroyMethods);
+        }
+        return new LifecycleMetadata(clazz, initMethods, destroyMethods);
+    }
+
 
     //---------------------------------------------------------------------
     // Serialization support
@@ -353,10 +405,15 @@ public class InitDestroyAnnotationBeanPostProcessor
      */
     private static class LifecycleElement {
 
+        private static final MethodType INVOCATION_TYPE = MethodType.methodType(void.class, Object.class);
+
         private final Method method;
 
         private final String identifier;
 
+        @Nullable
+        private volatile MethodHandle methodHandle;
+
         public LifecycleElement(Method method) {
             if (method.getParameterCount() != 0) {
                 throw new IllegalStateException("Lifecycle method annotation requires a no-arg method: " + method);
@@ -375,8 +432,18 @@ public class InitDestroyAnnotationBeanPostProcessor
         }
 
         public void invoke(Object target) throws Throwable {
-            ReflectionUtils.makeAccessible(this.method);
-            this.method.invoke(target, (Object[]) null);
+            MethodHandle methodHandle = this.methodHandle;
+            if (methodHandle == null) {
+                ReflectionUtils.makeAccessible(this.method);
+                methodHandle = MethodHandles.lookup().unreflect(this.method).asType(INVOCATION_TYPE);
+                this.methodHandle = methodHandle;
+            }
+            try {
+                methodHandle.invokeExact(target);
+            } catch (Throwable ex) {
+                // Unwrapped by the init and destroy callbacks, as for Method.invoke.
+                throw new InvocationTargetException(ex);
+            }
         }
 
         @Override
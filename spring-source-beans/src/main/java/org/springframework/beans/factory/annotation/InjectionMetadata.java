@@ -117,9 +117,7 @@ public class InjectionMetadata {
     }
 
     public void inject(Object target, @Nullable String beanName, @Nullable PropertyValues pvs) throws Throwable {
-        Collection<InjectedElement> checkedElements = this.checkedElements;
-        Collection<InjectedElement> elementsToIterate =
-                (checkedElements != null ? checkedElements : this.injectedElements);
+        Collection<InjectedElement> elementsToIterate = getElementsToIterate();
         if (!elementsToIterate.isEmpty()) {
             for (InjectedElement element : elementsToIterate) {
                 // TODO autowired fields
@@ -134,9 +132,7 @@ public class InjectionMetadata {
      * @since 3.2.13
      */
     public void clear(@Nullable PropertyValues pvs) {
-        Collection<InjectedElement> checkedElements = this.checkedElements;
-        Collection<InjectedElement> elementsToIterate =
-                (checkedElements != null ? checkedElements : this.injectedElements);
+        Collection<InjectedElement> elementsToIterate = getElementsToIterate();
         if (!elementsToIterate.isEmpty()) {
             for (InjectedElement element : elementsToIterate) {
                 element.clearPropertySkipping(pvs);
@@ -144,6 +140,15 @@ public class InjectionMetadata {
         }
     }
 
+    /**
+     * Return the elements that {@link #inject} applies: the elements checked
+     * through {@link #checkConfigMembers}, if any, or else all elements.
+     */
+    protected Collection<InjectedElement> getElementsToIterate() {
+        Collection<InjectedElement> checkedElements = this.checkedElements;
+        return (checkedElements != null ? checkedElements : this.injectedElements);
+    }
+
 
     /**
      * Return an {@code InjectionMetadata} instance, possibly for empty elements.
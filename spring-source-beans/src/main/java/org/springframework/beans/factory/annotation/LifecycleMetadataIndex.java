@@ -0,0 +1,322 @@
+/*
+ * Copyright 2002-2023 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.beans.factory.annotation;
+
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+import org.springframework.lang.Nullable;
+import org.springframework.util.ClassUtils;
+import org.springframework.util.ConcurrentReferenceHashMap;
+import org.springframework.util.ResourceUtils;
+import org.springframework.util.StringUtils;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.lang.annotation.Annotation;
+import java.lang.reflect.Method;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Enumeration;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+
+/**
+ * Build-time index of annotated init and destroy methods, letting
+ * {@link InitDestroyAnnotationBeanPostProcessor} skip the reflective scan of
+ * the class hierarchy for the classes listed in
+ * {@value InitDestroyAnnotationBeanPostProcessor#LIFECYCLE_INDEX_LOCATION} files.
+ *
+ * <p>Each index file is a properties file. The {@value #ANNOTATION_TYPES_KEY}
+ * entry holds the init and destroy annotation types that the file was generated
+ * for, comma-separated; files for other annotation types are not consulted. All
+ * other entries are keyed by class name, with a value of the form
+ * {@code initMethods;destroyMethods}, each a comma-separated list of
+ * {@code declaringClass#methodName} in invocation order. A class without
+ * lifecycle methods has the value {@code ;}.
+ *
+ * <p>Index files are loaded lazily for each ClassLoader on first use. An entry
+ * is only used for the part of the class hierarchy that is loaded from the same
+ * location as the index file, and, for a classes directory, only if none of the
+ * class files in that part is newer than the index file; otherwise the class
+ * may have gained annotated methods since the index was generated. Starting
+ * with the first superclass loaded from elsewhere (e.g. a base class in a
+ * library), the methods are taken from the entry of that superclass in its own
+ * index, and the reflective scan is used if it has none. Entries that no
+ * longer match the class (e.g. a stale index after an annotation has been
+ * removed) are ignored as well, falling back to the reflective scan.
+ *
+ * @see InitDestroyAnnotationBeanPostProcessor#IGNORE_LIFECYCLE_INDEX_PROPERTY_NAME
+ */
+final class LifecycleMetadataIndex {
+
+    /**
+     * Key of the entry holding the annotation types an index file covers.
+     */
+    static final String ANNOTATION_TYPES_KEY = "@annotationTypes";
+
+    private static final Log logger = LogFactory.getLog(LifecycleMetadataIndex.class);
+
+    private static final Map<ClassLoader, List<IndexFile>> cache = new ConcurrentReferenceHashMap<>();
+
+
+    private LifecycleMetadataIndex() {
+    }
+
+
+    /**
+     * Return the init and destroy methods recorded for the given class, or
+     * {@code null} if the class is not indexed for the given annotation types
+     * or its entry is not applicable.
+     */
+    @Nullable
+    static LifecycleMethods getLifecycleMethods(Class<?> clazz, Class<? extends Annotation> initAnnotationType,
+                                                Class<? extends Annotation> destroyAnnotationType) {
+
+        ClassLoader classLoader = clazz.getClassLoader();
+        if (classLoader == null) {
+            return null;
+        }
+        String annotationTypes = initAnnotationType.getName() + ',' + destroyAnnotationType.getName();
+        for (IndexFile indexFile : cache.computeIfAbsent(classLoader, LifecycleMetadataIndex::load)) {
+            String entry = indexFile.entries.getProperty(clazz.getName());
+            if (entry == null || !annotationTypes.equals(indexFile.entries.getProperty(ANNOTATION_TYPES_KEY))) {
+                continue;
+            }
+            Class<?> uncoveredClass = findUncoveredClass(clazz, indexFile);
+            if (uncoveredClass == clazz) {
+                if (logger.isDebugEnabled()) {
+                    logger.debug("Ignoring lifecycle index entry for class [" + clazz.getName() +
+                            "]: class not loaded from or changed since " + indexFile.location);
+                }
+                continue;
+            }
+            LifecycleMethods inherited = null;
+            if (uncoveredClass != null) {
+                inherited = getLifecycleMethods(uncoveredClass, initAnnotationType, destroyAnnotationType);
+                if (inherited == null) {
+                    return null;
+                }
+            }
+            try {
+                int separator = entry.indexOf(';');
+                if (separator == -1) {
+                    throw new IllegalArgumentException("Missing ';' separator");
+                }
+                List<Method> initMethods = resolveMethods(clazz, entry.substring(0, separator), initAnnotationType);
+                List<Method> destroyMethods = resolveMethods(clazz, entry.substring(separator + 1), destroyAnnotationType);
+                if (inherited != null) {
+                    // Superclass methods as indexed for the superclass itself:
+                    // init methods run top-down, destroy methods bottom-up.
+                    initMethods = merge(inherited.initMethods, declaredBelow(initMethods, uncoveredClass));
+                    destroyMethods = merge(declaredBelow(destroyMethods, uncoveredClass), inherited.destroyMethods);
+                }
+                return new LifecycleMethods(initMethods, destroyMethods);
+            } catch (Exception | LinkageError ex) {
+                if (logger.isDebugEnabled()) {
+                    logger.debug("Ignoring lifecycle index entry for class [" + clazz.getName() + "]: " + ex);
+                }
+                return null;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Remove all loaded indexes, to be reloaded on demand.
+     */
+    static void clear() {
+        cache.clear();
+    }
+
+    private static List<IndexFile> load(ClassLoader classLoader) {
+        try {
+            Enumeration<URL> urls = classLoader.getResources(InitDestroyAnnotationBeanPostProcessor.LIFECYCLE_INDEX_LOCATION);
+            if (!urls.hasMoreElements()) {
+                return Collections.emptyList();
+            }
+            List<IndexFile> result = new ArrayList<>(2);
+            while (urls.hasMoreElements()) {
+                URL url = urls.nextElement();
+                Properties entries = new Properties();
+                try (Reader reader = new InputStreamReader(url.openStream(), StandardCharsets.UTF_8)) {
+                    entries.load(reader);
+                }
+                result.add(new IndexFile(url, entries));
+                if (logger.isDebugEnabled()) {
+                    logger.debug("Loaded lifecycle index with " + (entries.size() - 1) + " classes from " + url);
+                }
+            }
+            return result;
+        } catch (IOException ex) {
+            logger.warn("Unable to load lifecycle index from location [" +
+                    InitDestroyAnnotationBeanPostProcessor.LIFECYCLE_INDEX_LOCATION + "]", ex);
+            return Collections.emptyList();
+        }
+    }
+
+    /**
+     * Check the given class and its superclasses against the given index file.
+     *
+     * @return {@code null} if the index file covers the entire class hierarchy,
+     * the first superclass loaded from another location, or the given class
+     * itself if it is not loaded from the location of the index file or a class
+     * file has changed since the index file was generated
+     */
+    @Nullable
+    private static Class<?> findUncoveredClass(Class<?> clazz, IndexFile indexFile) {
+        Class<?> targetClass = clazz;
+        do {
+            ClassLoader classLoader = targetClass.getClassLoader();
+            // Bootstrap classes do not carry application lifecycle annotations.
+            if (classLoader == null) {
+                return null;
+            }
+            URL classFile = classLoader.getResource(
+                    ClassUtils.convertClassNameToResourcePath(targetClass.getName()) + ClassUtils.CLASS_FILE_SUFFIX);
+            if (classFile == null || !classFile.toString().startsWith(indexFile.rootLocation)) {
+                return targetClass;
+            }
+            if (indexFile.lastModified > 0 && lastModified(classFile) > indexFile.lastModified) {
+                return clazz;
+            }
+            targetClass = targetClass.getSuperclass();
+        }
+        while (targetClass != null && targetClass != Object.class);
+        return null;
+    }
+
+    /**
+     * Return the given methods which are declared below the given superclass.
+     */
+    private static List<Method> declaredBelow(List<Method> methods, Class<?> superclass) {
+        List<Method> result = new ArrayList<>(methods.size());
+        for (Method method : methods) {
+            if (!method.getDeclaringClass().isAssignableFrom(superclass)) {
+                result.add(method);
+            }
+        }
+        return result;
+    }
+
+    private static List<Method> merge(List<Method> first, List<Method> second) {
+        if (first.isEmpty()) {
+            return second;
+        }
+        if (second.isEmpty()) {
+            return first;
+        }
+        List<Method> result = new ArrayList<>(first.size() + second.size());
+        result.addAll(first);
+        result.addAll(second);
+        return result;
+    }
+
+    /**
+     * Return the last modification time of the given file URL, or 0 for other URLs.
+     */
+    private static long lastModified(URL url) {
+        if (!ResourceUtils.isFileURL(url)) {
+            return 0;
+        }
+        try {
+            File file = ResourceUtils.getFile(url);
+            return file.lastModified();
+        } catch (IOException ex) {
+            return 0;
+        }
+    }
+
+    private static List<Method> resolveMethods(Class<?> clazz, String methodList,
+                                               Class<? extends Annotation> annotationType) throws Exception {
+
+        String[] methodReferences = StringUtils.commaDelimitedListToStringArray(methodList);
+        if (methodReferences.length == 0) {
+            return Collections.emptyList();
+        }
+        List<Method> methods = new ArrayList<>(methodReferences.length);
+        for (String methodReference : methodReferences) {
+            int separator = methodReference.indexOf('#');
+            if (separator == -1) {
+                throw new IllegalArgumentException("Invalid method reference: " + methodReference);
+            }
+            Class<?> declaringClass = ClassUtils.forName(
+                    methodReference.substring(0, separator), clazz.getClassLoader());
+            if (!declaringClass.isAssignableFrom(clazz)) {
+                throw new IllegalArgumentException("Not a superclass: " + declaringClass.getName());
+            }
+            Method method = declaringClass.getDeclaredMethod(methodReference.substring(separator + 1));
+            if (!method.isAnnotationPresent(annotationType)) {
+                throw new IllegalArgumentException("Method not annotated with @" +
+                        annotationType.getSimpleName() + ": " + method);
+            }
+            methods.add(method);
+        }
+        return methods;
+    }
+
+
+    /**
+     * A loaded index file, with the location of the classes it covers.
+     */
+    private static final class IndexFile {
+
+        final URL location;
+
+        final Properties entries;
+
+        /**
+         * Location of the classes directory or archive the index file belongs to.
+         */
+        final String rootLocation;
+
+        /**
+         * Last modification time of the index file in a classes directory, or 0 within an archive.
+         */
+        final long lastModified;
+
+        IndexFile(URL location, Properties entries) {
+            this.location = location;
+            this.entries = entries;
+            String indexLocation = location.toString();
+            this.rootLocation = indexLocation.substring(0,
+                    indexLocation.length() - InitDestroyAnnotationBeanPostProcessor.LIFECYCLE_INDEX_LOCATION.length());
+            this.lastModified = lastModified(location);
+        }
+    }
+
+
+    /**
+     * The init and destroy methods of a class, in invocation order.
+     */
+    static final class LifecycleMethods {
+
+        final List<Method> initMethods;
+
+        final List<Method> destroyMethods;
+
+        LifecycleMethods(List<Method> initMethods, List<Method> destroyMethods) {
+            this.initMethods = initMethods;
+            this.destroyMethods = destroyMethods;
+        }
+    }
+
+}
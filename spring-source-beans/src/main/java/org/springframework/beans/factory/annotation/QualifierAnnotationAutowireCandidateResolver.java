@@ -22,6 +22,7 @@ import org.springframework.beans.factory.BeanFactory;
 import org.springframework.beans.factory.NoSuchBeanDefinitionException;
 import org.springframework.beans.factory.config.BeanDefinitionHolder;
 import org.springframework.beans.factory.config.DependencyDescriptor;
+import org.springframework.beans.factory.config.SingletonBeanRegistry;
 import org.springframework.beans.factory.support.AutowireCandidateQualifier;
 import org.springframework.beans.factory.support.AutowireCandidateResolver;
 import org.springframework.beans.factory.support.GenericTypeAwareAutowireCandidateResolver;
@@ -33,11 +34,13 @@ import org.springframework.core.annotation.AnnotationUtils;
 import org.springframework.lang.Nullable;
 import org.springframework.util.Assert;
 import org.springframework.util.ClassUtils;
+import org.springframework.util.ConcurrentReferenceHashMap;
 import org.springframework.util.ObjectUtils;
 
 import java.lang.annotation.Annotation;
 import java.lang.reflect.AnnotatedElement;
 import java.lang.reflect.Method;
+import java.util.Arrays;
 import java.util.LinkedHashSet;
 import java.util.Map;
 import java.util.Set;
@@ -63,6 +66,13 @@ public class QualifierAnnotationAutowireCandidateResolver extends GenericTypeAwa
 
     private Class<? extends Annotation> valueAnnotationType = Value.class;
 
+    private boolean cacheQualifierMatches = true;
+
+    /**
+     * Cache of qualifier match results: candidate holder and annotations to result.
+     */
+    private final Map<QualifierMatchKey, Boolean> qualifierMatchCache = new ConcurrentReferenceHashMap<>(256);
+
 
     /**
      * Create a new QualifierAnnotationAutowireCandidateResolver
@@ -116,6 +126,7 @@ public class QualifierAnnotationAutowireCandidateResolver extends GenericTypeAwa
      */
     public void addQualifierType(Class<? extends Annotation> qualifierType) {
         this.qualifierTypes.add(qualifierType);
+        this.qualifierMatchCache.clear();
     }
 
     /**
@@ -131,6 +142,40 @@ public class QualifierAnnotationAutowireCandidateResolver extends GenericTypeAwa
         this.valueAnnotationType = valueAnnotationType;
     }
 
+    /**
+     * Set whether to cache the result of matching the qualifier annotations of an
+     * injection point against a candidate bean definition.
+     * <p>Default is "true". Results are cached per candidate
+     * {@link BeanDefinitionHolder} instance, which the bean factory replaces
+     * whenever the underlying merged bean definition changes, and per set of
+     * qualifier annotations, so that repeated resolution of the same injection
+     * point (e.g. for prototypes) does not scan qualifier, factory method and
+     * target class annotations again. Matches are cached right away; mismatches
+     * only once the candidate's factory method has been resolved and its singleton
+     * instance exists, since an overloaded factory method or the bean type may
+     * only be known later. Switch this flag off if a subclass matches qualifiers
+     * based on state other than the bean definition.
+     *
+     * @see #checkQualifiers
+     */
+    public void setCacheQualifierMatches(boolean cacheQualifierMatches) {
+        this.cacheQualifierMatches = cacheQualifierMatches;
+        this.qualifierMatchCache.clear();
+    }
+
+    /**
+     * Return whether qualifier match results get cached.
+     */
+    public boolean isCacheQualifierMatches() {
+        return this.cacheQualifierMatches;
+    }
+
+    @Override
+    public void setBeanFactory(BeanFactory beanFactory) {
+        super.setBeanFactory(beanFactory);
+        this.qualifierMatchCache.clear();
+    }
+
 
     /**
      * Determine whether the provided bean definition is an autowire candidate.
@@ -149,13 +194,13 @@ public class QualifierAnnotationAutowireCandidateResolver extends GenericTypeAwa
     public boolean isAutowireCandidate(BeanDefinitionHolder bdHolder, DependencyDescriptor descriptor) {
         boolean match = super.isAutowireCandidate(bdHolder, descriptor);
         if (match) {
-            match = checkQualifiers(bdHolder, descriptor.getAnnotations());
+            match = matchesQualifiers(bdHolder, descriptor.getAnnotations());
             if (match) {
                 MethodParameter methodParam = descriptor.getMethodParameter();
                 if (methodParam != null) {
                     Method method = methodParam.getMethod();
                     if (method == null || void.class == method.getReturnType()) {
-                        match = checkQualifiers(bdHolder, methodParam.getMethodAnnotations());
+                        match = matchesQualifiers(bdHolder, methodParam.getMethodAnnotations());
                     }
                 }
             }
@@ -163,6 +208,50 @@ public class QualifierAnnotationAutowireCandidateResolver extends GenericTypeAwa
         return match;
     }
 
+    /**
+     * Match the given qualifier annotations against the candidate bean definition,
+     * through the cache of previous results if enabled.
+     *
+     * @see #setCacheQualifierMatches
+     */
+    private boolean matchesQualifiers(BeanDefinitionHolder bdHolder, Annotation[] annotationsToSearch) {
+        if (ObjectUtils.isEmpty(annotationsToSearch) || !this.cacheQualifierMatches) {
+            return checkQualifiers(bdHolder, annotationsToSearch);
+        }
+        QualifierMatchKey key = new QualifierMatchKey(bdHolder, annotationsToSearch);
+        Boolean match = this.qualifierMatchCache.get(key);
+        if (match == null) {
+            match = checkQualifiers(bdHolder, annotationsToSearch);
+            if (match || isMismatchFinal(bdHolder)) {
+                this.qualifierMatchCache.put(key, match);
+            }
+        }
+        return match;
+    }
+
+    /**
+     * Determine whether a qualifier mismatch for the given candidate is final,
+     * i.e. cannot turn into a match once further state gets resolved: the factory
+     * method (if any) needs to be resolved, and the bean type needs to be final
+     * through an existing singleton instance.
+     */
+    private boolean isMismatchFinal(BeanDefinitionHolder bdHolder) {
+        if (!(bdHolder.getBeanDefinition() instanceof RootBeanDefinition)) {
+            return false;
+        }
+        RootBeanDefinition bd = (RootBeanDefinition) bdHolder.getBeanDefinition();
+        if (bd.getFactoryMethodName() != null && bd.getResolvedFactoryMethod() == null) {
+            return false;
+        }
+        RootBeanDefinition dbd = getResolvedDecoratedDefinition(bd);
+        if (dbd != null && dbd.getFactoryMethodName() != null && dbd.getResolvedFactoryMethod() == null) {
+            return false;
+        }
+        BeanFactory beanFactory = getBeanFactory();
+        return (beanFactory instanceof SingletonBeanRegistry &&
+                ((SingletonBeanRegistry) beanFactory).containsSingleton(bdHolder.getBeanName()));
+    }
+
     /**
      * Match the given qualifier annotations against the candidate bean definition.
      */
@@ -390,4 +479,46 @@ public class QualifierAnnotationAutowireCandidateResolver extends GenericTypeAwa
         return value;
     }
 
+
+    /**
+     * Cache key for qualifier match results: the candidate holder by identity
+     * and the annotations to search, compared by equality.
+     */
+    private static final class QualifierMatchKey {
+
+        private final BeanDefinitionHolder bdHolder;
+
+        private final Annotation[] annotations;
+
+        private final int hashCode;
+
+        QualifierMatchKey(BeanDefinitionHolder bdHolder, Annotation[] annotations) {
+            this.bdHolder = bdHolder;
+            this.annotations = annotations;
+            int hashCode = System.identityHashCode(bdHolder);
+            for (Annotation annotation : annotations) {
+                // Annotation.hashCode() computes over all attributes: the type suffices here.
+                hashCode = 31 * hashCode + annotation.annotationType().hashCode();
+            }
+            this.hashCode = hashCode;
+        }
+
+        @Override
+        public boolean equals(@Nullable Object other) {
+            if (this == other) {
+                return true;
+            }
+            if (!(other instanceof QualifierMatchKey)) {
+                return false;
+            }
+            QualifierMatchKey otherKey = (QualifierMatchKey) other;
+            return (this.bdHolder == otherKey.bdHolder && Arrays.equals(this.annotations, otherKey.annotations));
+        }
+
+        @Override
+        public int hashCode() {
+            return this.hashCode;
+        }
+    }
+
 }
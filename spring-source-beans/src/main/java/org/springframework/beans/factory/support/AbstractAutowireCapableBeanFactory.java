@@ -21,6 +21,7 @@ import org.springframework.beans.*;
 import org.springframework.beans.factory.*;
 import org.springframework.beans.factory.config.*;
 import org.springframework.core.*;
+import org.springframework.core.metrics.StartupStep;
 import org.springframework.lang.Nullable;
 import org.springframework.util.*;
 import org.springframework.util.ReflectionUtils.MethodCallback;
@@ -122,6 +123,16 @@ public abstract class AbstractAutowireCapableBeanFactory extends AbstractBeanFac
      */
     private boolean allowRawInjectionDespiteWrapping = false;
 
+    /**
+     * Whether to compute instantiation plans for repeatedly created (non-singleton) beans.
+     */
+    private boolean instantiationPlanEnabled = false;
+
+    /**
+     * Whether bean wrappers invoke property methods through method handles.
+     */
+    private boolean methodHandlePropertyAccess = false;
+
     /**
      * Dependency types to ignore on dependency check and autowire, as Set of
      * Class objects: for example, String. Default is none.
@@ -189,8 +200,12 @@ public abstract class AbstractAutowireCapableBeanFactory extends AbstractBeanFac
     /**
      * Set the instantiation strategy to use for creating bean instances.
      * Default is CglibSubclassingInstantiationStrategy.
+     * <p>Specify a {@link MethodHandleInstantiationStrategy} in order to invoke
+     * constructors and factory methods through cached method handles rather than
+     * reflection, e.g. for factories creating many prototype instances.
      *
      * @see CglibSubclassingInstantiationStrategy
+     * @see MethodHandleInstantiationStrategy
      */
     public void setInstantiationStrategy(InstantiationStrategy instantiationStrategy) {
         this.instantiationStrategy = instantiationStrategy;
@@ -304,6 +319,55 @@ public abstract class AbstractAutowireCapableBeanFactory extends AbstractBeanFac
         return this.allowRawInjectionDespiteWrapping;
     }
 
+    /**
+     * Set whether to compute an instantiation plan for each non-singleton bean
+     * definition after its first full creation, letting repeated creations skip
+     * no-op work: re-checking the resolved constructor and the properties to
+     * autowire by name or by type, and calling post-processor callbacks that are
+     * not overridden but merely inherit a no-op interface default method.
+     * <p>Default is "false". Note that planned creations apply the post-processors
+     * themselves: {@link #applyBeanPostProcessorsBeforeInitialization} and
+     * {@link #applyBeanPostProcessorsAfterInitialization} are not called for them,
+     * and neither is {@link #unsatisfiedNonSimpleProperties}. Do not turn this on
+     * for a subclass that overrides any of those methods.
+     *
+     * @see #applyBeanPostProcessorsBeforeInitialization
+     * @see #applyBeanPostProcessorsAfterInitialization
+     */
+    public void setInstantiationPlanEnabled(boolean instantiationPlanEnabled) {
+        this.instantiationPlanEnabled = instantiationPlanEnabled;
+    }
+
+    /**
+     * Return whether to compute instantiation plans for non-singleton beans.
+     *
+     * @see #setInstantiationPlanEnabled
+     */
+    public boolean isInstantiationPlanEnabled() {
+        return this.instantiationPlanEnabled;
+    }
+
+    /**
+     * Set whether the bean wrappers used for populating bean instances should
+     * invoke property write (and read) methods through cached method handles
+     * instead of reflection, e.g. for prototypes with many property values.
+     * <p>Default is "false".
+     *
+     * @see BeanWrapperImpl#setMethodHandleAccess
+     */
+    public void setMethodHandlePropertyAccess(boolean methodHandlePropertyAccess) {
+        this.methodHandlePropertyAccess = methodHandlePropertyAccess;
+    }
+
+    /**
+     * Return whether bean wrappers invoke property methods through method handles.
+     *
+     * @see #setMethodHandlePropertyAccess
+     */
+    public boolean isMethodHandlePropertyAccess() {
+        return this.methodHandlePropertyAccess;
+    }
+
     /**
      * Ignore the given dependency type for autowiring:
      * for example, String. Default is none.
@@ -341,6 +405,8 @@ public abstract class AbstractAutowireCapableBeanFactory extends AbstractBeanFac
                     (AbstractAutowireCapableBeanFactory) otherFactory;
             this.instantiationStrategy = otherAutowireFactory.instantiationStrategy;
             this.allowCircularReferences = otherAutowireFactory.allowCircularReferences;
+            this.instantiationPlanEnabled = otherAutowireFactory.instantiationPlanEnabled;
+            this.methodHandlePropertyAccess = otherAutowireFactory.methodHandlePropertyAccess;
             this.ignoredDependencyTypes.addAll(otherAutowireFactory.ignoredDependencyTypes);
             this.ignoredDependencyInterfaces.addAll(otherAutowireFactory.ignoredDependencyInterfaces);
         }
@@ -465,7 +531,14 @@ public abstract class AbstractAutowireCapableBeanFactory extends AbstractBeanFac
 
         Object result = existingBean;
         for (BeanPostProcessor processor : getBeanPostProcessors()) {
-            Object current = processor.postProcessBeforeInitialization(result, beanName);
+            StartupStep step = startPostProcessorStep(
+                    "spring.beans.post-process.before-initialization", processor, beanName);
+            Object current;
+            try {
+                current = processor.postProcessBeforeInitialization(result, beanName);
+            } finally {
+                endStep(step);
+            }
             if (current == null) {
                 // TODO 如果处理器返回null，终止后续BeanPostProcessor执行
                 return result;
@@ -485,7 +558,14 @@ public abstract class AbstractAutowireCapableBeanFactory extends AbstractBeanFac
 
         Object result = existingBean;
         for (BeanPostProcessor processor : getBeanPostProcessors()) {
-            Object current = processor.postProcessAfterInitialization(result, beanName);
+            StartupStep step = startPostProcessorStep(
+                    "spring.beans.post-process.after-initialization", processor, beanName);
+            Object current;
+            try {
+                current = processor.postProcessAfterInitialization(result, beanName);
+            } finally {
+                endStep(step);
+            }
             // 为空，会返回原来的Bean
             if (current == null) {
                 // TODO 如果处理器返回null，终止后续BeanPostProcessor执行
@@ -552,13 +632,15 @@ public abstract class AbstractAutowireCapableBeanFactory extends AbstractBeanFac
             mbdToUse.setBeanClass(resolvedClass);
         }
 
-        // Prepare method overrides.
-        try {
-            // 比如处理Lookup方法
-            mbdToUse.prepareMethodOverrides();
-        } catch (BeanDefinitionValidationException ex) {
-            throw new BeanDefinitionStoreException(mbdToUse.getResourceDescription(),
-                    beanName, "Validation of method overrides failed", ex);
+        // Prepare method overrides, unless already done for an instantiation plan.
+        if (mbdToUse != mbd || getInstantiationPlan(mbd) == null) {
+            try {
+                // 比如处理Lookup方法
+                mbdToUse.prepareMethodOverrides();
+            } catch (BeanDefinitionValidationException ex) {
+                throw new BeanDefinitionStoreException(mbdToUse.getResourceDescription(),
+                        beanName, "Validation of method overrides failed", ex);
+            }
         }
 
         try {
@@ -673,12 +755,22 @@ public abstract class AbstractAutowireCapableBeanFactory extends AbstractBeanFac
             /**
              * 填充属性
              */
-            populateBean(beanName, mbd, instanceWrapper);
+            StartupStep populate = startBeanStep("spring.beans.populate", beanName);
+            try {
+                populateBean(beanName, mbd, instanceWrapper);
+            } finally {
+                endStep(populate);
+            }
             /**
              * 执行初始化方法
              * exposedObject = bean 原始对象
              */
-            exposedObject = initializeBean(beanName, exposedObject, mbd);
+            StartupStep initialize = startBeanStep("spring.beans.initialize", beanName);
+            try {
+                exposedObject = initializeBean(beanName, exposedObject, mbd);
+            } finally {
+                endStep(initialize);
+            }
         } catch (Throwable ex) {
             if (ex instanceof BeanCreationException && beanName.equals(((BeanCreationException) ex).getBeanName())) {
                 throw (BeanCreationException) ex;
@@ -726,9 +818,56 @@ public abstract class AbstractAutowireCapableBeanFactory extends AbstractBeanFac
                     mbd.getResourceDescription(), beanName, "Invalid destruction signature", ex);
         }
 
+        // Record what the next creation of a non-singleton bean can skip.
+        if (!mbd.isSingleton() && args == null && this.instantiationPlanEnabled &&
+                getInstantiationPlan(mbd) == null) {
+            mbd.instantiationPlan = buildInstantiationPlan(mbd, instanceWrapper);
+        }
+
         return exposedObject;
     }
 
+    /**
+     * Return the current instantiation plan for the given bean definition, if any.
+     *
+     * @param mbd the merged bean definition for the bean
+     * @return the instantiation plan, or {@code null} if none computed yet
+     * (or if it is outdated through changes to the registered post-processors)
+     * @see #setInstantiationPlanEnabled
+     */
+    @Nullable
+    InstantiationPlan getInstantiationPlan(RootBeanDefinition mbd) {
+        InstantiationPlan plan = mbd.instantiationPlan;
+        if (plan != null && this.instantiationPlanEnabled && plan.isValidFor(getBeanPostProcessorCache())) {
+            return plan;
+        }
+        return null;
+    }
+
+    /**
+     * Compute an instantiation plan for the given bean definition,
+     * based on its first full creation.
+     *
+     * @param mbd the merged bean definition for the bean
+     * @param bw  the BeanWrapper for the bean instance created
+     * @return the instantiation plan
+     */
+    private InstantiationPlan buildInstantiationPlan(RootBeanDefinition mbd, BeanWrapper bw) {
+        Boolean constructorAutowireNecessary = null;
+        synchronized (mbd.constructorArgumentLock) {
+            if (mbd.resolvedConstructorOrFactoryMethod != null) {
+                constructorAutowireNecessary = mbd.constructorArgumentsResolved;
+            }
+        }
+        String[] autowirePropertyNames = null;
+        int resolvedAutowireMode = mbd.getResolvedAutowireMode();
+        if (resolvedAutowireMode == AUTOWIRE_BY_NAME || resolvedAutowireMode == AUTOWIRE_BY_TYPE) {
+            autowirePropertyNames = unsatisfiedNonSimpleProperties(mbd, bw);
+        }
+        return new InstantiationPlan(getBeanPostProcessorCache(), getBeanPostProcessors(), mbd.isSynthetic(),
+                bw.getWrappedClass(), constructorAutowireNecessary, autowirePropertyNames);
+    }
+
     @Override
     @Nullable
     protected Class<?> predictBeanType(String beanName, RootBeanDefinition mbd, Class<?>... typesToMatch) {
@@ -1068,7 +1207,7 @@ public abstract class AbstractAutowireCapableBeanFactory extends AbstractBeanFac
      */
     @Nullable
     private FactoryBean<?> getSingletonFactoryBeanForTypeCheck(String beanName, RootBeanDefinition mbd) {
-        synchronized (getSingletonMutex()) {
+        return doWithSingletonCreationLock(beanName, () -> {
             BeanWrapper bw = this.factoryBeanInstanceCache.get(beanName);
             if (bw != null) {
                 return (FactoryBean<?>) bw.getWrappedInstance();
@@ -1117,7 +1256,7 @@ public abstract class AbstractAutowireCapableBeanFactory extends AbstractBeanFac
                 this.factoryBeanInstanceCache.put(beanName, bw);
             }
             return fb;
-        }
+        });
     }
 
     /**
@@ -1174,7 +1313,13 @@ public abstract class AbstractAutowireCapableBeanFactory extends AbstractBeanFac
      */
     protected void applyMergedBeanDefinitionPostProcessors(RootBeanDefinition mbd, Class<?> beanType, String beanName) {
         for (MergedBeanDefinitionPostProcessor processor : getBeanPostProcessorCache().mergedDefinition) {
-            processor.postProcessMergedBeanDefinition(mbd, beanType, beanName);
+            StartupStep step = startPostProcessorStep(
+                    "spring.beans.post-process.merged-definition", processor, beanName);
+            try {
+                processor.postProcessMergedBeanDefinition(mbd, beanType, beanName);
+            } finally {
+                endStep(step);
+            }
         }
     }
 
@@ -1235,7 +1380,14 @@ public abstract class AbstractAutowireCapableBeanFactory extends AbstractBeanFac
     @Nullable
     protected Object applyBeanPostProcessorsBeforeInstantiation(Class<?> beanClass, String beanName) {
         for (InstantiationAwareBeanPostProcessor bp : getBeanPostProcessorCache().instantiationAware) {
-            Object result = bp.postProcessBeforeInstantiation(beanClass, beanName);
+            StartupStep step = startPostProcessorStep(
+                    "spring.beans.post-process.before-instantiation", bp, beanName);
+            Object result;
+            try {
+                result = bp.postProcessBeforeInstantiation(beanClass, beanName);
+            } finally {
+                endStep(step);
+            }
             if (result != null) {
                 return result;
             }
@@ -1280,10 +1432,17 @@ public abstract class AbstractAutowireCapableBeanFactory extends AbstractBeanFac
         boolean resolved = false;
         boolean autowireNecessary = false;
         if (args == null) {
-            synchronized (mbd.constructorArgumentLock) {
-                if (mbd.resolvedConstructorOrFactoryMethod != null) {
-                    resolved = true;
-                    autowireNecessary = mbd.constructorArgumentsResolved;
+            InstantiationPlan plan = getInstantiationPlan(mbd);
+            Boolean plannedAutowireNecessary = (plan != null ? plan.getConstructorAutowireNecessary() : null);
+            if (plannedAutowireNecessary != null) {
+                resolved = true;
+                autowireNecessary = plannedAutowireNecessary;
+            } else {
+                synchronized (mbd.constructorArgumentLock) {
+                    if (mbd.resolvedConstructorOrFactoryMethod != null) {
+                        resolved = true;
+                        autowireNecessary = mbd.constructorArgumentsResolved;
+                    }
                 }
             }
         }
@@ -1478,6 +1637,10 @@ public abstract class AbstractAutowireCapableBeanFactory extends AbstractBeanFac
             }
         }
 
+        // Only call post-processors which actually override the respective callbacks
+        // in case of a planned re-creation.
+        InstantiationPlan plan = getInstantiationPlan(mbd);
+
         // Give any InstantiationAwareBeanPostProcessors the opportunity to modify the
         // state of the bean before properties are set. This can be used, for example,
         // to support styles of field injection.
@@ -1486,8 +1649,17 @@ public abstract class AbstractAutowireCapableBeanFactory extends AbstractBeanFac
              * 有哪些常用BeanPostProcessor
              * AOP、Autowire的后置处理器
              */
-            for (InstantiationAwareBeanPostProcessor bp : getBeanPostProcessorCache().instantiationAware) {
-                if (!bp.postProcessAfterInstantiation(bw.getWrappedInstance(), beanName)) {
+            for (InstantiationAwareBeanPostProcessor bp : (plan != null ?
+                    plan.getAfterInstantiationProcessors() : getBeanPostProcessorCache().instantiationAware)) {
+                StartupStep step = startPostProcessorStep(
+                        "spring.beans.post-process.after-instantiation", bp, beanName);
+                boolean continueWithPropertyPopulation;
+                try {
+                    continueWithPropertyPopulation = bp.postProcessAfterInstantiation(bw.getWrappedInstance(), beanName);
+                } finally {
+                    endStep(step);
+                }
+                if (!continueWithPropertyPopulation) {
                     return;
                 }
             }
@@ -1497,19 +1669,28 @@ public abstract class AbstractAutowireCapableBeanFactory extends AbstractBeanFac
 
         int resolvedAutowireMode = mbd.getResolvedAutowireMode();
         if (resolvedAutowireMode == AUTOWIRE_BY_NAME || resolvedAutowireMode == AUTOWIRE_BY_TYPE) {
-            MutablePropertyValues newPvs = new MutablePropertyValues(pvs);
-            // Add property values based on autowire by name if applicable.
-            if (resolvedAutowireMode == AUTOWIRE_BY_NAME) {
-                autowireByName(beanName, mbd, bw, newPvs);
+            StartupStep autowire = startBeanStep("spring.beans.autowire", beanName);
+            if (autowire != null) {
+                autowire.tag("autowireMode", (resolvedAutowireMode == AUTOWIRE_BY_NAME ? "byName" : "byType"));
             }
-            // Add property values based on autowire by type if applicable.
-            if (resolvedAutowireMode == AUTOWIRE_BY_TYPE) {
-                autowireByType(beanName, mbd, bw, newPvs);
+            MutablePropertyValues newPvs = new MutablePropertyValues(pvs);
+            try {
+                // Add property values based on autowire by name if applicable.
+                if (resolvedAutowireMode == AUTOWIRE_BY_NAME) {
+                    autowireByName(beanName, mbd, bw, newPvs);
+                }
+                // Add property values based on autowire by type if applicable.
+                if (resolvedAutowireMode == AUTOWIRE_BY_TYPE) {
+                    autowireByType(beanName, mbd, bw, newPvs);
+                }
+            } finally {
+                endStep(autowire);
             }
             pvs = newPvs;
         }
 
-        boolean hasInstAwareBpps = hasInstantiationAwareBeanPostProcessors();
+        boolean hasInstAwareBpps = (plan != null ?
+                !plan.getPropertyProcessors().isEmpty() : hasInstantiationAwareBeanPostProcessors());
         boolean needsDepCheck = (mbd.getDependencyCheck() != AbstractBeanDefinition.DEPENDENCY_CHECK_NONE);
 
         PropertyDescriptor[] filteredPds = null;
@@ -1518,21 +1699,29 @@ public abstract class AbstractAutowireCapableBeanFactory extends AbstractBeanFac
                 pvs = mbd.getPropertyValues();
             }
             // InstantiationAwareBeanPostProcessor有哪些，有AOP、Autowire的后置处理器
-            for (InstantiationAwareBeanPostProcessor bp : getBeanPostProcessorCache().instantiationAware) {
+            for (InstantiationAwareBeanPostProcessor bp : (plan != null ?
+                    plan.getPropertyProcessors() : getBeanPostProcessorCache().instantiationAware)) {
                 /**
                  * Autowire的后置处理器，在这个For循环里处理，会执行属性的自动注入
                  */
-                PropertyValues pvsToUse = bp.postProcessProperties(pvs, bw.getWrappedInstance(), beanName);
-                if (pvsToUse == null) {
-                    if (filteredPds == null) {
-                        // TO
-                        filteredPds = filterPropertyDescriptorsForDependencyCheck(bw, mbd.allowCaching);
-                    }
-                    // check
-                    pvsToUse = bp.postProcessPropertyValues(pvs, filteredPds, bw.getWrappedInstance(), beanName);
+                StartupStep step = startPostProcessorStep(
+                        "spring.beans.post-process.properties", bp, beanName);
+                PropertyValues pvsToUse;
+                try {
+                    pvsToUse = bp.postProcessProperties(pvs, bw.getWrappedInstance(), beanName);
                     if (pvsToUse == null) {
-                        return;
+                        if (filteredPds == null) {
+                            // TO
+                            filteredPds = filterPropertyDescriptorsForDependencyCheck(bw, mbd.allowCaching);
+                        }
+                        // check
+                        pvsToUse = bp.postProcessPropertyValues(pvs, filteredPds, bw.getWrappedInstance(), beanName);
                     }
+                } finally {
+                    endStep(step);
+                }
+                if (pvsToUse == null) {
+                    return;
                 }
                 pvs = pvsToUse;
             }
@@ -1565,7 +1754,7 @@ public abstract class AbstractAutowireCapableBeanFactory extends AbstractBeanFac
     protected void autowireByName(
             String beanName, AbstractBeanDefinition mbd, BeanWrapper bw, MutablePropertyValues pvs) {
 
-        String[] propertyNames = unsatisfiedNonSimpleProperties(mbd, bw);
+        String[] propertyNames = getAutowirePropertyNames(mbd, bw);
         for (String propertyName : propertyNames) {
             if (containsBean(propertyName)) {
                 Object bean = getBean(propertyName);
@@ -1604,7 +1793,7 @@ public abstract class AbstractAutowireCapableBeanFactory extends AbstractBeanFac
             converter = bw;
         }
 
-        String[] propertyNames = unsatisfiedNonSimpleProperties(mbd, bw);
+        String[] propertyNames = getAutowirePropertyNames(mbd, bw);
         Set<String> autowiredBeanNames = new LinkedHashSet<>(propertyNames.length * 2);
         for (String propertyName : propertyNames) {
             try {
@@ -1636,6 +1825,23 @@ public abstract class AbstractAutowireCapableBeanFactory extends AbstractBeanFac
     }
 
 
+    /**
+     * Return the names of the properties to autowire by name or by type,
+     * taking them from the instantiation plan if available.
+     *
+     * @see #unsatisfiedNonSimpleProperties
+     */
+    private String[] getAutowirePropertyNames(AbstractBeanDefinition mbd, BeanWrapper bw) {
+        if (mbd instanceof RootBeanDefinition) {
+            InstantiationPlan plan = getInstantiationPlan((RootBeanDefinition) mbd);
+            String[] propertyNames = (plan != null ? plan.getAutowirePropertyNames(bw.getWrappedClass()) : null);
+            if (propertyNames != null) {
+                return propertyNames;
+            }
+        }
+        return unsatisfiedNonSimpleProperties(mbd, bw);
+    }
+
     /**
      * Return an array of non-simple bean properties that are unsatisfied.
      * These are probably unsatisfied references to other beans in the
@@ -1890,8 +2096,12 @@ public abstract class AbstractAutowireCapableBeanFactory extends AbstractBeanFac
             invokeAwareMethods(beanName, bean);
         }
 
+        InstantiationPlan plan = (mbd != null ? getInstantiationPlan(mbd) : null);
         Object wrappedBean = bean;
-        if (mbd == null || !mbd.isSynthetic()) {
+        if (plan != null) {
+            wrappedBean = applyBeanPostProcessors(
+                    plan.getBeforeInitializationProcessors(), wrappedBean, beanName, true);
+        } else if (mbd == null || !mbd.isSynthetic()) {
             // 执行Bean后置处理器的前置方法
             wrappedBean = applyBeanPostProcessorsBeforeInitialization(wrappedBean, beanName);
         }
@@ -1904,7 +2114,10 @@ public abstract class AbstractAutowireCapableBeanFactory extends AbstractBeanFac
                     (mbd != null ? mbd.getResourceDescription() : null),
                     beanName, "Invocation of init method failed", ex);
         }
-        if (mbd == null || !mbd.isSynthetic()) {
+        if (plan != null) {
+            wrappedBean = applyBeanPostProcessors(
+                    plan.getAfterInitializationProcessors(), wrappedBean, beanName, false);
+        } else if (mbd == null || !mbd.isSynthetic()) {
             // 执行Bean后置处理器的后置方法
             wrappedBean = applyBeanPostProcessorsAfterInitialization(wrappedBean, beanName);
         }
@@ -1912,6 +2125,57 @@ public abstract class AbstractAutowireCapableBeanFactory extends AbstractBeanFac
         return wrappedBean;
     }
 
+    /**
+     * Apply the given post-processors' before- or after-initialization callbacks,
+     * with the same semantics as {@link #applyBeanPostProcessorsBeforeInitialization}
+     * and {@link #applyBeanPostProcessorsAfterInitialization}.
+     */
+    private Object applyBeanPostProcessors(
+            List<BeanPostProcessor> processors, Object existingBean, String beanName, boolean beforeInitialization) {
+
+        Object result = existingBean;
+        for (BeanPostProcessor processor : processors) {
+            StartupStep step = startPostProcessorStep((beforeInitialization ?
+                    "spring.beans.post-process.before-initialization" :
+                    "spring.beans.post-process.after-initialization"), processor, beanName);
+            Object current;
+            try {
+                current = (beforeInitialization ?
+                        processor.postProcessBeforeInitialization(result, beanName) :
+                        processor.postProcessAfterInitialization(result, beanName));
+            } finally {
+                endStep(step);
+            }
+            if (current == null) {
+                return result;
+            }
+            result = current;
+        }
+        return result;
+    }
+
+    /**
+     * Start a startup step for a single post-processor callback, tagged with the
+     * bean name and the post-processor class, or return {@code null} if steps
+     * are not recorded.
+     *
+     * @see #startBeanStep
+     */
+    @Nullable
+    private StartupStep startPostProcessorStep(String name, Object processor, String beanName) {
+        StartupStep step = startBeanStep(name, beanName);
+        if (step != null) {
+            step.tag("postProcessor", processor.getClass().getName());
+        }
+        return step;
+    }
+
+    private static void endStep(@Nullable StartupStep step) {
+        if (step != null) {
+            step.end();
+        }
+    }
+
     private void invokeAwareMethods(String beanName, Object bean) {
         if (bean instanceof Aware) {
             if (bean instanceof BeanNameAware) {
@@ -2045,6 +2309,19 @@ public abstract class AbstractAutowireCapableBeanFactory extends AbstractBeanFac
         return applyBeanPostProcessorsAfterInitialization(object, beanName);
     }
 
+    /**
+     * Overridden to apply method handle based property access, if configured.
+     *
+     * @see #setMethodHandlePropertyAccess
+     */
+    @Override
+    protected void initBeanWrapper(BeanWrapper bw) {
+        if (this.methodHandlePropertyAccess && bw instanceof BeanWrapperImpl) {
+            ((BeanWrapperImpl) bw).setMethodHandleAccess(true);
+        }
+        super.initBeanWrapper(bw);
+    }
+
     /**
      * Overridden to clear FactoryBean instance cache as well.
      */
@@ -172,7 +172,7 @@ public abstract class AbstractBeanFactory extends FactoryBeanRegistrySupport imp
      * Cache of pre-filtered post-processors.
      */
     @Nullable
-    private BeanPostProcessorCache beanPostProcessorCache;
+    private volatile BeanPostProcessorCache beanPostProcessorCache;
 
     /**
      * Map from scope identifier String to corresponding Scope.
@@ -988,8 +988,13 @@ public abstract class AbstractBeanFactory extends FactoryBeanRegistrySupport imp
      * @since 5.3
      */
     BeanPostProcessorCache getBeanPostProcessorCache() {
+        // Quick check without locking, since this is called several times per bean creation.
+        BeanPostProcessorCache bppCache = this.beanPostProcessorCache;
+        if (bppCache != null) {
+            return bppCache;
+        }
         synchronized (this.beanPostProcessors) {
-            BeanPostProcessorCache bppCache = this.beanPostProcessorCache;
+            bppCache = this.beanPostProcessorCache;
             if (bppCache == null) {
                 bppCache = new BeanPostProcessorCache();
                 for (BeanPostProcessor bpp : this.beanPostProcessors) {
@@ -1091,6 +1096,29 @@ public abstract class AbstractBeanFactory extends FactoryBeanRegistrySupport imp
         return this.applicationStartup;
     }
 
+    /**
+     * Start a fine-grained startup step for the given bean, e.g. for a single
+     * post-processor invocation. Returns {@code null} if no custom
+     * {@link ApplicationStartup} has been set, sparing hot paths the cost of
+     * tagging no-op steps.
+     *
+     * @param name     the name of the step
+     * @param beanName the name of the bean the step applies to
+     * @return the started step, or {@code null} if steps are not recorded
+     */
+    @Nullable
+    final StartupStep startBeanStep(String name, @Nullable String beanName) {
+        ApplicationStartup applicationStartup = this.applicationStartup;
+        if (applicationStartup == ApplicationStartup.DEFAULT) {
+            return null;
+        }
+        StartupStep step = applicationStartup.start(name);
+        if (beanName != null) {
+            step.tag("beanName", beanName);
+        }
+        return step;
+    }
+
     /**
      * Delegate the creation of the access control context to the
      * {@link #setSecurityContextProvider SecurityContextProvider}.
@@ -1117,6 +1145,7 @@ public abstract class AbstractBeanFactory extends FactoryBeanRegistrySupport imp
             this.beanPostProcessors.addAll(otherAbstractFactory.beanPostProcessors);
             this.scopes.putAll(otherAbstractFactory.scopes);
             this.securityContextProvider = otherAbstractFactory.securityContextProvider;
+            setSingletonCreationLockStriping(otherAbstractFactory.isSingletonCreationLockStriping());
         } else {
             setTypeConverter(otherFactory.getTypeConverter());
             String[] otherScopeNames = otherFactory.getRegisteredScopeNames();
@@ -1399,74 +1428,105 @@ public abstract class AbstractBeanFactory extends FactoryBeanRegistrySupport imp
             String beanName, BeanDefinition bd, @Nullable BeanDefinition containingBd)
             throws BeanDefinitionStoreException {
 
-        synchronized (this.mergedBeanDefinitions) {
-            RootBeanDefinition mbd = null;
-            RootBeanDefinition previous = null;
-
-            // Check with full lock now in order to enforce the same merged instance.
-            if (containingBd == null) {
-                mbd = this.mergedBeanDefinitions.get(beanName);
+        RootBeanDefinition previous = (containingBd == null ? this.mergedBeanDefinitions.get(beanName) : null);
+        while (true) {
+            if (previous != null && !previous.stale) {
+                return previous;
             }
-
-            if (mbd == null || mbd.stale) {
-                previous = mbd;
-                if (bd.getParentName() == null) {
-                    // Use copy of given root bean definition.
-                    if (bd instanceof RootBeanDefinition) {
-                        mbd = ((RootBeanDefinition) bd).cloneBeanDefinition();
-                    } else {
-                        mbd = new RootBeanDefinition(bd);
-                    }
-                } else {
-                    // Child bean definition: needs to be merged with parent.
-                    BeanDefinition pbd;
-                    try {
-                        String parentBeanName = transformedBeanName(bd.getParentName());
-                        if (!beanName.equals(parentBeanName)) {
-                            pbd = getMergedBeanDefinition(parentBeanName);
-                        } else {
-                            BeanFactory parent = getParentBeanFactory();
-                            if (parent instanceof ConfigurableBeanFactory) {
-                                pbd = ((ConfigurableBeanFactory) parent).getMergedBeanDefinition(parentBeanName);
-                            } else {
-                                throw new NoSuchBeanDefinitionException(parentBeanName,
-                                        "Parent name '" + parentBeanName + "' is equal to bean name '" + beanName +
-                                                "': cannot be resolved without a ConfigurableBeanFactory parent");
-                            }
-                        }
-                    } catch (NoSuchBeanDefinitionException ex) {
-                        throw new BeanDefinitionStoreException(bd.getResourceDescription(), beanName,
-                                "Could not resolve parent bean definition '" + bd.getParentName() + "'", ex);
-                    }
-                    // Deep copy with overridden values.
-                    mbd = new RootBeanDefinition(pbd);
-                    mbd.overrideFrom(bd);
+            boolean createdBeforeMerge = this.alreadyCreated.contains(beanName);
+            RootBeanDefinition mbd = mergeBeanDefinition(beanName, bd, containingBd);
+            if (previous != null) {
+                copyRelevantMergedBeanDefinitionCaches(previous, mbd);
+            }
+            if (containingBd != null || !isCacheBeanMetadata()) {
+                return mbd;
+            }
+            // Cache the merged bean definition for the time being
+            // (it might still get re-merged later on in order to pick up metadata changes).
+            // Only replace the very entry that this merge started from (identity, not
+            // equals): if another thread published a merged definition meanwhile, use
+            // that one instead in order to enforce the same merged instance.
+            RootBeanDefinition expected = previous;
+            RootBeanDefinition current = this.mergedBeanDefinitions.compute(beanName, (name, cur) -> {
+                if (cur != expected) {
+                    return cur;
                 }
-
-                // Set default singleton scope, if not configured before.
-                if (!StringUtils.hasLength(mbd.getScope())) {
-                    mbd.setScope(SCOPE_SINGLETON);
+                if (!createdBeforeMerge && this.alreadyCreated.contains(name)) {
+                    // markBeanAsCreated ran during the merge: keep it stale for a re-merge.
+                    mbd.stale = true;
                 }
+                return mbd;
+            });
+            if (current == mbd) {
+                return mbd;
+            }
+            previous = current;
+        }
+    }
 
-                // A bean contained in a non-singleton bean cannot be a singleton itself.
-                // Let's correct this on the fly here, since this might be the result of
-                // parent-child merging for the outer bean, in which case the original inner bean
-                // definition will not have inherited the merged outer bean's singleton status.
-                if (containingBd != null && !containingBd.isSingleton() && mbd.isSingleton()) {
-                    mbd.setScope(containingBd.getScope());
-                }
+    /**
+     * Create a new RootBeanDefinition for the given bean definition, merging
+     * it with its parent if necessary. Does not consult or populate the cache
+     * of merged bean definitions for the given bean itself.
+     *
+     * @param beanName     the name of the bean definition
+     * @param bd           the original bean definition (Root/ChildBeanDefinition)
+     * @param containingBd the containing bean definition in case of inner bean,
+     *                     or {@code null} in case of a top-level bean
+     * @return the merged RootBeanDefinition
+     * @throws BeanDefinitionStoreException in case of an invalid bean definition
+     */
+    private RootBeanDefinition mergeBeanDefinition(
+            String beanName, BeanDefinition bd, @Nullable BeanDefinition containingBd)
+            throws BeanDefinitionStoreException {
 
-                // Cache the merged bean definition for the time being
-                // (it might still get re-merged later on in order to pick up metadata changes)
-                if (containingBd == null && isCacheBeanMetadata()) {
-                    this.mergedBeanDefinitions.put(beanName, mbd);
-                }
+        RootBeanDefinition mbd;
+        if (bd.getParentName() == null) {
+            // Use copy of given root bean definition.
+            if (bd instanceof RootBeanDefinition) {
+                mbd = ((RootBeanDefinition) bd).cloneBeanDefinition();
+            } else {
+                mbd = new RootBeanDefinition(bd);
             }
-            if (previous != null) {
-                copyRelevantMergedBeanDefinitionCaches(previous, mbd);
+        } else {
+            // Child bean definition: needs to be merged with parent.
+            BeanDefinition pbd;
+            try {
+                String parentBeanName = transformedBeanName(bd.getParentName());
+                if (!beanName.equals(parentBeanName)) {
+                    pbd = getMergedBeanDefinition(parentBeanName);
+                } else {
+                    BeanFactory parent = getParentBeanFactory();
+                    if (parent instanceof ConfigurableBeanFactory) {
+                        pbd = ((ConfigurableBeanFactory) parent).getMergedBeanDefinition(parentBeanName);
+                    } else {
+                        throw new NoSuchBeanDefinitionException(parentBeanName,
+                                "Parent name '" + parentBeanName + "' is equal to bean name '" + beanName +
+                                        "': cannot be resolved without a ConfigurableBeanFactory parent");
+                    }
+                }
+            } catch (NoSuchBeanDefinitionException ex) {
+                throw new BeanDefinitionStoreException(bd.getResourceDescription(), beanName,
+                        "Could not resolve parent bean definition '" + bd.getParentName() + "'", ex);
             }
-            return mbd;
+            // Deep copy with overridden values.
+            mbd = new RootBeanDefinition(pbd);
+            mbd.overrideFrom(bd);
+        }
+
+        // Set default singleton scope, if not configured before.
+        if (!StringUtils.hasLength(mbd.getScope())) {
+            mbd.setScope(SCOPE_SINGLETON);
         }
+
+        // A bean contained in a non-singleton bean cannot be a singleton itself.
+        // Let's correct this on the fly here, since this might be the result of
+        // parent-child merging for the outer bean, in which case the original inner bean
+        // definition will not have inherited the merged outer bean's singleton status.
+        if (containingBd != null && !containingBd.isSingleton() && mbd.isSingleton()) {
+            mbd.setScope(containingBd.getScope());
+        }
+        return mbd;
     }
 
     private void copyRelevantMergedBeanDefinitionCaches(RootBeanDefinition previous, RootBeanDefinition mbd) {
@@ -1810,14 +1870,17 @@ public abstract class AbstractBeanFactory extends FactoryBeanRegistrySupport imp
      */
     protected void markBeanAsCreated(String beanName) {
         if (!this.alreadyCreated.contains(beanName)) {
-            synchronized (this.mergedBeanDefinitions) {
-                if (!this.alreadyCreated.contains(beanName)) {
+            // Clear and mark atomically with respect to publishing a merged definition
+            // for the same name, holding only that entry's lock instead of a global one.
+            this.mergedBeanDefinitions.compute(beanName, (name, bd) -> {
+                if (!this.alreadyCreated.contains(name)) {
                     //TODO Let the bean definition get re-merged now that we're actually creating
                     // the bean... just in case some of its metadata changed in the meantime.
-                    clearMergedBeanDefinition(beanName);
-                    this.alreadyCreated.add(beanName);
+                    clearMergedBeanDefinition(name);
+                    this.alreadyCreated.add(name);
                 }
-            }
+                return bd;
+            });
         }
     }
 
@@ -1827,9 +1890,7 @@ public abstract class AbstractBeanFactory extends FactoryBeanRegistrySupport imp
      * @param beanName the name of the bean
      */
     protected void cleanupAfterBeanCreationFailure(String beanName) {
-        synchronized (this.mergedBeanDefinitions) {
-            this.alreadyCreated.remove(beanName);
-        }
+        this.alreadyCreated.remove(beanName);
     }
 
     /**
@@ -0,0 +1,1012 @@
+/*
+ * Copyright 2002-2023 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.beans.factory.support;
+
+import org.springframework.beans.MutablePropertyValues;
+import org.springframework.beans.PropertyValue;
+import org.springframework.beans.factory.annotation.AnnotatedBeanDefinition;
+import org.springframework.beans.factory.annotation.AnnotatedGenericBeanDefinition;
+import org.springframework.beans.factory.config.BeanDefinition;
+import org.springframework.beans.factory.config.BeanDefinitionHolder;
+import org.springframework.beans.factory.config.ConfigurableListableBeanFactory;
+import org.springframework.beans.factory.config.ConstructorArgumentValues;
+import org.springframework.beans.factory.config.RuntimeBeanNameReference;
+import org.springframework.beans.factory.config.RuntimeBeanReference;
+import org.springframework.beans.factory.config.TypedStringValue;
+import org.springframework.core.ResolvableType;
+import org.springframework.core.annotation.MergedAnnotation;
+import org.springframework.core.io.Resource;
+import org.springframework.core.type.AnnotationMetadata;
+import org.springframework.core.type.MethodMetadata;
+import org.springframework.core.type.classreading.CachingMetadataReaderFactory;
+import org.springframework.core.type.classreading.MetadataReaderFactory;
+import org.springframework.lang.Nullable;
+import org.springframework.util.ClassUtils;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.NotSerializableException;
+import java.io.OutputStream;
+import java.io.StreamCorruptedException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * Compact binary snapshot of the bean definitions and aliases of a bean factory,
+ * allowing a later start to register them directly instead of reading XML files,
+ * scanning the classpath and parsing configuration classes again.
+ *
+ * <p>A snapshot is written together with a content hash of the inputs that the
+ * bean definitions were derived from, see {@link #computeContentHash}, and is
+ * only read back for the same content hash.
+ *
+ * <p>Bean definitions are stored with their settings, attributes, constructor
+ * arguments, property values and lookup methods. Sources and resources are not
+ * stored: restored definitions are plain {@link RootBeanDefinition},
+ * {@link ChildBeanDefinition} or {@link GenericBeanDefinition} instances with a
+ * resource description only. Annotation metadata of {@link AnnotatedBeanDefinition
+ * annotated bean definitions}, e.g. from component scanning or configuration
+ * classes, is stored by class name (and factory method name) and read again
+ * through a {@link MetadataReaderFactory} on restore. Bean definitions with a
+ * generic target type, an instance supplier, qualifiers or replaced methods, as
+ * well as bean definitions with values other than Strings, primitive wrappers,
+ * classes, bean references, inner beans and managed collections, cannot be stored
+ * in a snapshot, since by-type matching would differ for their restored form.
+ *
+ * @see org.springframework.beans.factory.config.BeanFactoryPostProcessor
+ */
+public final class BeanDefinitionSnapshot {
+
+    private static final int MAGIC = 0x53424453;
+
+    private static final int VERSION = 2;
+
+    private static final byte ROOT = 0;
+
+    private static final byte CHILD = 1;
+
+    private static final byte GENERIC = 2;
+
+    private static final byte NULL_VALUE = 0;
+
+    private static final byte STRING_VALUE = 1;
+
+    private static final byte TYPED_STRING_VALUE = 2;
+
+    private static final byte BEAN_REFERENCE_VALUE = 3;
+
+    private static final byte BEAN_NAME_REFERENCE_VALUE = 4;
+
+    private static final byte BEAN_DEFINITION_HOLDER_VALUE = 5;
+
+    private static final byte BEAN_DEFINITION_VALUE = 6;
+
+    private static final byte LIST_VALUE = 7;
+
+    private static final byte SET_VALUE = 8;
+
+    private static final byte ARRAY_VALUE = 9;
+
+    private static final byte MAP_VALUE = 10;
+
+    private static final byte PROPERTIES_VALUE = 11;
+
+    private static final byte BOOLEAN_VALUE = 12;
+
+    private static final byte INTEGER_VALUE = 13;
+
+    private static final byte LONG_VALUE = 14;
+
+    private static final byte DOUBLE_VALUE = 15;
+
+    private static final byte CLASS_VALUE = 16;
+
+    private static final int ABSTRACT_FLAG = 1;
+
+    private static final int LAZY_INIT_SET_FLAG = 1 << 1;
+
+    private static final int LAZY_INIT_FLAG = 1 << 2;
+
+    private static final int AUTOWIRE_CANDIDATE_FLAG = 1 << 3;
+
+    private static final int PRIMARY_FLAG = 1 << 4;
+
+    private static final int NON_PUBLIC_ACCESS_ALLOWED_FLAG = 1 << 5;
+
+    private static final int LENIENT_CONSTRUCTOR_RESOLUTION_FLAG = 1 << 6;
+
+    private static final int ENFORCE_INIT_METHOD_FLAG = 1 << 7;
+
+    private static final int ENFORCE_DESTROY_METHOD_FLAG = 1 << 8;
+
+    private static final int SYNTHETIC_FLAG = 1 << 9;
+
+    private static final int FACTORY_METHOD_UNIQUE_FLAG = 1 << 10;
+
+
+    private final String contentHash;
+
+    private final Map<String, BeanDefinition> beanDefinitions;
+
+    /**
+     * Map from alias to bean name.
+     */
+    private final Map<String, String> aliases;
+
+
+    private BeanDefinitionSnapshot(String contentHash, Map<String, BeanDefinition> beanDefinitions,
+                                   Map<String, String> aliases) {
+
+        this.contentHash = contentHash;
+        this.beanDefinitions = beanDefinitions;
+        this.aliases = aliases;
+    }
+
+
+    /**
+     * Return the content hash of the inputs that the bean definitions were derived from.
+     */
+    public String getContentHash() {
+        return this.contentHash;
+    }
+
+    /**
+     * Return the number of bean definitions in this snapshot.
+     */
+    public int getBeanDefinitionCount() {
+        return this.beanDefinitions.size();
+    }
+
+    /**
+     * Register the bean definitions and aliases of this snapshot with the given
+     * registry, in their original registration order. Bean definitions already
+     * registered under the same name are replaced.
+     * <p>With a {@link DefaultListableBeanFactory}, each restored bean definition may
+     * be registered once more with an equal bean definition, e.g. by a post-processor
+     * which originally registered it, even if bean definition overriding is not allowed.
+     *
+     * @param registry the registry to register with
+     */
+    public void registerWith(BeanDefinitionRegistry registry) {
+        boolean allowOverriding = (!(registry instanceof DefaultListableBeanFactory) ||
+                ((DefaultListableBeanFactory) registry).isAllowBeanDefinitionOverriding());
+        for (Map.Entry<String, BeanDefinition> entry : this.beanDefinitions.entrySet()) {
+            String beanName = entry.getKey();
+            if (!allowOverriding && registry.containsBeanDefinition(beanName)) {
+                registry.removeBeanDefinition(beanName);
+            }
+            registry.registerBeanDefinition(beanName, entry.getValue());
+            if (registry instanceof DefaultListableBeanFactory) {
+                ((DefaultListableBeanFactory) registry).markBeanDefinitionRestored(beanName);
+            }
+        }
+        for (Map.Entry<String, String> entry : this.aliases.entrySet()) {
+            registry.registerAlias(entry.getValue(), entry.getKey());
+        }
+    }
+
+    /**
+     * Write this snapshot to the given stream, leaving the stream open.
+     *
+     * @param out the stream to write to
+     * @throws NotSerializableException if a bean definition cannot be stored
+     * @throws IOException              in case of write failure
+     */
+    public void writeTo(OutputStream out) throws IOException {
+        SnapshotWriter writer = new SnapshotWriter(out);
+        writer.out.writeInt(MAGIC);
+        writer.out.writeInt(VERSION);
+        writer.writeString(this.contentHash);
+        writer.out.writeInt(this.beanDefinitions.size());
+        for (Map.Entry<String, BeanDefinition> entry : this.beanDefinitions.entrySet()) {
+            writer.beanName = entry.getKey();
+            writer.writeString(entry.getKey());
+            writer.writeBeanDefinition(entry.getValue());
+        }
+        writer.out.writeInt(this.aliases.size());
+        for (Map.Entry<String, String> entry : this.aliases.entrySet()) {
+            writer.writeString(entry.getKey());
+            writer.writeString(entry.getValue());
+        }
+        writer.out.flush();
+    }
+
+
+    /**
+     * Capture the bean definitions and aliases currently registered with the given
+     * bean factory. The bean definitions are not copied, so the snapshot should be
+     * written right away.
+     *
+     * @param beanFactory the bean factory to capture
+     * @param contentHash the content hash of the inputs that the bean definitions
+     *                    were derived from
+     * @return the snapshot
+     */
+    public static BeanDefinitionSnapshot capture(ConfigurableListableBeanFactory beanFactory, String contentHash) {
+        String[] beanNames = beanFactory.getBeanDefinitionNames();
+        Map<String, BeanDefinition> beanDefinitions = new LinkedHashMap<>(beanNames.length * 2);
+        Map<String, String> aliases = new LinkedHashMap<>();
+        for (String beanName : beanNames) {
+            beanDefinitions.put(beanName, beanFactory.getBeanDefinition(beanName));
+            for (String alias : beanFactory.getAliases(beanName)) {
+                aliases.put(alias, beanName);
+            }
+        }
+        return new BeanDefinitionSnapshot(contentHash, beanDefinitions, aliases);
+    }
+
+    /**
+     * Read a snapshot from the given stream, if written for the given content hash.
+     *
+     * @param in          the stream to read from
+     * @param contentHash the content hash of the current inputs
+     * @param classLoader the ClassLoader to resolve class values with
+     *                    (can be {@code null} to use the default ClassLoader)
+     * @return the snapshot, or {@code null} if written for different inputs or
+     * by a different version of this class
+     * @throws IOException in case of read failure or if the snapshot is corrupted
+     */
+    @Nullable
+    public static BeanDefinitionSnapshot readFrom(InputStream in, String contentHash,
+                                                  @Nullable ClassLoader classLoader) throws IOException {
+
+        SnapshotReader reader = new SnapshotReader(in, classLoader);
+        if (reader.in.readInt() != MAGIC) {
+            throw new StreamCorruptedException("Not a bean definition snapshot");
+        }
+        if (reader.in.readInt() != VERSION || !contentHash.equals(reader.readString())) {
+            return null;
+        }
+        int beanDefinitionCount = reader.in.readInt();
+        Map<String, BeanDefinition> beanDefinitions = new LinkedHashMap<>(beanDefinitionCount * 2);
+        for (int i = 0; i < beanDefinitionCount; i++) {
+            String beanName = reader.readRequiredString();
+            beanDefinitions.put(beanName, reader.readBeanDefinition());
+        }
+        int aliasCount = reader.in.readInt();
+        Map<String, String> aliases = new LinkedHashMap<>(aliasCount * 2);
+        for (int i = 0; i < aliasCount; i++) {
+            aliases.put(reader.readRequiredString(), reader.readRequiredString());
+        }
+        return new BeanDefinitionSnapshot(contentHash, beanDefinitions, aliases);
+    }
+
+    /**
+     * Compute a hash of the content of the given inputs, along with further
+     * components that the bean definitions depend on, such as active profiles.
+     * Directories are taken into account with the relative paths and the content
+     * of all files below them.
+     *
+     * @param inputs     the resources that the bean definitions are derived from
+     * @param components further values to include
+     * @return the hash as a hex String
+     * @throws IOException if an input cannot be read
+     */
+    public static String computeContentHash(Resource[] inputs, String... components) throws IOException {
+        MessageDigest digest;
+        try {
+            digest = MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException ex) {
+            throw new IllegalStateException("SHA-256 not supported", ex);
+        }
+        for (String component : components) {
+            update(digest, component);
+        }
+        for (Resource input : inputs) {
+            update(digest, input.getDescription());
+            if (input.isFile() && input.getFile().isDirectory()) {
+                Path root = input.getFile().toPath();
+                List<Path> files;
+                try (Stream<Path> paths = Files.walk(root)) {
+                    files = paths.filter(Files::isRegularFile).sorted().collect(Collectors.toList());
+                }
+                for (Path file : files) {
+                    update(digest, root.relativize(file).toString().replace(File.separatorChar, '/'));
+                    try (InputStream in = Files.newInputStream(file)) {
+                        update(digest, in);
+                    }
+                }
+            } else {
+                try (InputStream in = input.getInputStream()) {
+                    update(digest, in);
+                }
+            }
+        }
+        StringBuilder sb = new StringBuilder(64);
+        for (byte b : digest.digest()) {
+            sb.append(Character.forDigit((b >> 4) & 0xF, 16)).append(Character.forDigit(b & 0xF, 16));
+        }
+        return sb.toString();
+    }
+
+    private static void update(MessageDigest digest, String value) {
+        digest.update(value.getBytes(StandardCharsets.UTF_8));
+        digest.update((byte) 0);
+    }
+
+    private static void update(MessageDigest digest, InputStream in) throws IOException {
+        byte[] buffer = new byte[8192];
+        int read;
+        while ((read = in.read(buffer)) != -1) {
+            digest.update(buffer, 0, read);
+        }
+        digest.update((byte) 0);
+    }
+
+
+    /**
+     * Writes bean definitions, with each distinct String written only once.
+     */
+    private static final class SnapshotWriter {
+
+        final DataOutputStream out;
+
+        private final Map<String, Integer> strings = new HashMap<>(1024);
+
+        String beanName = "";
+
+        SnapshotWriter(OutputStream out) {
+            this.out = new DataOutputStream(new BufferedOutputStream(out));
+        }
+
+        void writeString(@Nullable String value) throws IOException {
+            if (value == null) {
+                this.out.writeInt(-1);
+                return;
+            }
+            Integer index = this.strings.get(value);
+            if (index != null) {
+                this.out.writeInt(index);
+            } else {
+                this.strings.put(value, this.strings.size());
+                byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+                this.out.writeInt(-2);
+                this.out.writeInt(bytes.length);
+                this.out.write(bytes);
+            }
+        }
+
+        void writeStrings(@Nullable String[] values) throws IOException {
+            if (values == null) {
+                this.out.writeInt(-1);
+                return;
+            }
+            this.out.writeInt(values.length);
+            for (String value : values) {
+                writeString(value);
+            }
+        }
+
+        void writeBeanDefinition(BeanDefinition beanDefinition) throws IOException {
+            if (!(beanDefinition instanceof AbstractBeanDefinition)) {
+                throw unsupported("bean definition type " + beanDefinition.getClass().getName());
+            }
+            AbstractBeanDefinition bd = (AbstractBeanDefinition) beanDefinition;
+            if (bd.getInstanceSupplier() != null) {
+                throw unsupported("instance supplier");
+            }
+            if (!bd.getQualifiers().isEmpty()) {
+                throw unsupported("qualifiers");
+            }
+            if (bd instanceof RootBeanDefinition) {
+                ResolvableType targetType = ((RootBeanDefinition) bd).targetType;
+                if (targetType != null && targetType.hasGenerics()) {
+                    throw unsupported("generic target type " + targetType);
+                }
+            }
+
+            byte kind = (bd instanceof RootBeanDefinition ? ROOT :
+                    (bd instanceof ChildBeanDefinition ? CHILD : GENERIC));
+            this.out.writeByte(kind);
+            if (bd instanceof AnnotatedBeanDefinition) {
+                if (kind == CHILD) {
+                    throw unsupported("annotated child bean definition");
+                }
+                this.out.writeBoolean(true);
+                writeAnnotationMetadata((AnnotatedBeanDefinition) bd);
+            } else {
+                this.out.writeBoolean(false);
+            }
+            writeString(bd.getParentName());
+            writeString(bd.getBeanClassName());
+            writeString(bd.getScope());
+            int flags = 0;
+            flags |= (bd.isAbstract() ? ABSTRACT_FLAG : 0);
+            flags |= (bd.getLazyInit() != null ? LAZY_INIT_SET_FLAG : 0);
+            flags |= (bd.isLazyInit() ? LAZY_INIT_FLAG : 0);
+            flags |= (bd.isAutowireCandidate() ? AUTOWIRE_CANDIDATE_FLAG : 0);
+            flags |= (bd.isPrimary() ? PRIMARY_FLAG : 0);
+            flags |= (bd.isNonPublicAccessAllowed() ? NON_PUBLIC_ACCESS_ALLOWED_FLAG : 0);
+            flags |= (bd.isLenientConstructorResolution() ? LENIENT_CONSTRUCTOR_RESOLUTION_FLAG : 0);
+            flags |= (bd.isEnforceInitMethod() ? ENFORCE_INIT_METHOD_FLAG : 0);
+            flags |= (bd.isEnforceDestroyMethod() ? ENFORCE_DESTROY_METHOD_FLAG : 0);
+            flags |= (bd.isSynthetic() ? SYNTHETIC_FLAG : 0);
+            if (bd instanceof RootBeanDefinition && ((RootBeanDefinition) bd).isFactoryMethodUnique) {
+                flags |= FACTORY_METHOD_UNIQUE_FLAG;
+            }
+            this.out.writeInt(flags);
+            this.out.writeInt(bd.getAutowireMode());
+            this.out.writeInt(bd.getDependencyCheck());
+            this.out.writeInt(bd.getRole());
+            writeStrings(bd.getDependsOn());
+            writeString(bd.getFactoryBeanName());
+            writeString(bd.getFactoryMethodName());
+            writeString(bd.getInitMethodName());
+            writeString(bd.getDestroyMethodName());
+            writeString(bd.getDescription());
+            writeString(bd.getResourceDescription());
+
+            String[] attributeNames = bd.attributeNames();
+            this.out.writeInt(attributeNames.length);
+            for (String attributeName : attributeNames) {
+                writeString(attributeName);
+                writeValue(bd.getAttribute(attributeName));
+            }
+
+            ConstructorArgumentValues cav = bd.getConstructorArgumentValues();
+            this.out.writeInt(cav.getIndexedArgumentValues().size());
+            for (Map.Entry<Integer, ConstructorArgumentValues.ValueHolder> entry :
+                    cav.getIndexedArgumentValues().entrySet()) {
+                this.out.writeInt(entry.getKey());
+                writeValueHolder(entry.getValue());
+            }
+            this.out.writeInt(cav.getGenericArgumentValues().size());
+            for (ConstructorArgumentValues.ValueHolder valueHolder : cav.getGenericArgumentValues()) {
+                writeValueHolder(valueHolder);
+            }
+
+            PropertyValue[] pvs = bd.getPropertyValues().getPropertyValues();
+            this.out.writeInt(pvs.length);
+            for (PropertyValue pv : pvs) {
+                writeString(pv.getName());
+                writeValue(pv.getValue());
+                this.out.writeBoolean(pv.isOptional());
+            }
+
+            Collection<MethodOverride> overrides = bd.getMethodOverrides().getOverrides();
+            this.out.writeInt(overrides.size());
+            for (MethodOverride override : overrides) {
+                if (!(override instanceof LookupOverride)) {
+                    throw unsupported("method override " + override);
+                }
+                writeString(override.getMethodName());
+                writeString(((LookupOverride) override).getBeanName());
+            }
+
+            if (kind == ROOT) {
+                RootBeanDefinition rbd = (RootBeanDefinition) bd;
+                Class<?> targetType = rbd.getTargetType();
+                writeString(targetType != null ? targetType.getName() : null);
+                BeanDefinitionHolder decoratedDefinition = rbd.getDecoratedDefinition();
+                this.out.writeBoolean(decoratedDefinition != null);
+                if (decoratedDefinition != null) {
+                    writeBeanDefinitionHolder(decoratedDefinition);
+                }
+            }
+        }
+
+        private void writeAnnotationMetadata(AnnotatedBeanDefinition bd) throws IOException {
+            writeString(bd.getMetadata().getClassName());
+            MethodMetadata factoryMethodMetadata = bd.getFactoryMethodMetadata();
+            if (factoryMethodMetadata == null) {
+                writeString(null);
+                return;
+            }
+            // Any annotation of the factory method, to find it among the annotated methods again.
+            String annotationType = factoryMethodMetadata.getAnnotations().stream()
+                    .filter(MergedAnnotation::isDirectlyPresent)
+                    .map(annotation -> annotation.getType().getName())
+                    .findFirst()
+                    .orElseThrow(() -> unsupported("factory method metadata without annotations"));
+            writeString(annotationType);
+            writeString(factoryMethodMetadata.getDeclaringClassName());
+            writeString(factoryMethodMetadata.getMethodName());
+            writeString(factoryMethodMetadata.getReturnTypeName());
+        }
+
+        private void writeValueHolder(ConstructorArgumentValues.ValueHolder valueHolder) throws IOException {
+            writeValue(valueHolder.getValue());
+            writeString(valueHolder.getType());
+            writeString(valueHolder.getName());
+        }
+
+        private void writeBeanDefinitionHolder(BeanDefinitionHolder holder) throws IOException {
+            writeString(holder.getBeanName());
+            writeStrings(holder.getAliases());
+            writeBeanDefinition(holder.getBeanDefinition());
+        }
+
+        private void writeValue(@Nullable Object value) throws IOException {
+            if (value == null) {
+                this.out.writeByte(NULL_VALUE);
+            } else if (value instanceof String) {
+                this.out.writeByte(STRING_VALUE);
+                writeString((String) value);
+            } else if (value instanceof TypedStringValue) {
+                TypedStringValue typedValue = (TypedStringValue) value;
+                this.out.writeByte(TYPED_STRING_VALUE);
+                writeString(typedValue.getValue());
+                writeString(typedValue.getTargetTypeName());
+                writeString(typedValue.getSpecifiedTypeName());
+                this.out.writeBoolean(typedValue.isDynamic());
+            } else if (value instanceof RuntimeBeanReference) {
+                RuntimeBeanReference ref = (RuntimeBeanReference) value;
+                this.out.writeByte(BEAN_REFERENCE_VALUE);
+                writeString(ref.getBeanName());
+                writeString(ref.getBeanType() != null ? ref.getBeanType().getName() : null);
+                this.out.writeBoolean(ref.isToParent());
+            } else if (value instanceof RuntimeBeanNameReference) {
+                this.out.writeByte(BEAN_NAME_REFERENCE_VALUE);
+                writeString(((RuntimeBeanNameReference) value).getBeanName());
+            } else if (value instanceof BeanDefinitionHolder) {
+                this.out.writeByte(BEAN_DEFINITION_HOLDER_VALUE);
+                writeBeanDefinitionHolder((BeanDefinitionHolder) value);
+            } else if (value instanceof BeanDefinition) {
+                this.out.writeByte(BEAN_DEFINITION_VALUE);
+                writeBeanDefinition((BeanDefinition) value);
+            } else if (value instanceof ManagedArray) {
+                ManagedArray array = (ManagedArray) value;
+                this.out.writeByte(ARRAY_VALUE);
+                writeString(array.getElementTypeName());
+                this.out.writeBoolean(array.isMergeEnabled());
+                writeElements(array);
+            } else if (value instanceof ManagedList) {
+                ManagedList<?> list = (ManagedList<?>) value;
+                this.out.writeByte(LIST_VALUE);
+                writeString(list.getElementTypeName());
+                this.out.writeBoolean(list.isMergeEnabled());
+                writeElements(list);
+            } else if (value instanceof ManagedSet) {
+                ManagedSet<?> set = (ManagedSet<?>) value;
+                this.out.writeByte(SET_VALUE);
+                writeString(set.getElementTypeName());
+                this.out.writeBoolean(set.isMergeEnabled());
+                writeElements(set);
+            } else if (value instanceof ManagedMap) {
+                ManagedMap<?, ?> map = (ManagedMap<?, ?>) value;
+                this.out.writeByte(MAP_VALUE);
+                writeString(map.getKeyTypeName());
+                writeString(map.getValueTypeName());
+                this.out.writeBoolean(map.isMergeEnabled());
+                writeEntries(map);
+            } else if (value instanceof ManagedProperties) {
+                ManagedProperties props = (ManagedProperties) value;
+                this.out.writeByte(PROPERTIES_VALUE);
+                this.out.writeBoolean(props.isMergeEnabled());
+                writeEntries(props);
+            } else if (value instanceof Boolean) {
+                this.out.writeByte(BOOLEAN_VALUE);
+                this.out.writeBoolean((Boolean) value);
+            } else if (value instanceof Integer) {
+                this.out.writeByte(INTEGER_VALUE);
+                this.out.writeInt((Integer) value);
+            } else if (value instanceof Long) {
+                this.out.writeByte(LONG_VALUE);
+                this.out.writeLong((Long) value);
+            } else if (value instanceof Double) {
+                this.out.writeByte(DOUBLE_VALUE);
+                this.out.writeDouble((Double) value);
+            } else if (value instanceof Class) {
+                this.out.writeByte(CLASS_VALUE);
+                writeString(((Class<?>) value).getName());
+            } else {
+                throw unsupported("value type " + value.getClass().getName());
+            }
+        }
+
+        private void writeElements(Collection<?> elements) throws IOException {
+            this.out.writeInt(elements.size());
+            for (Object element : elements) {
+                writeValue(element);
+            }
+        }
+
+        private void writeEntries(Map<?, ?> map) throws IOException {
+            this.out.writeInt(map.size());
+            for (Map.Entry<?, ?> entry : map.entrySet()) {
+                writeValue(entry.getKey());
+                writeValue(entry.getValue());
+            }
+        }
+
+        private NotSerializableException unsupported(String what) {
+            return new NotSerializableException("Bean definition '" + this.beanName + "' has unsupported " + what);
+        }
+    }
+
+
+    /**
+     * Reads bean definitions written by a {@link SnapshotWriter}.
+     */
+    private static final class SnapshotReader {
+
+        final DataInputStream in;
+
+        @Nullable
+        private final ClassLoader classLoader;
+
+        private final List<String> strings = new ArrayList<>(1024);
+
+        @Nullable
+        private MetadataReaderFactory metadataReaderFactory;
+
+        SnapshotReader(InputStream in, @Nullable ClassLoader classLoader) {
+            this.in = new DataInputStream(new BufferedInputStream(in));
+            this.classLoader = classLoader;
+        }
+
+        @Nullable
+        String readString() throws IOException {
+            int index = this.in.readInt();
+            if (index == -1) {
+                return null;
+            }
+            if (index == -2) {
+                byte[] bytes = new byte[this.in.readInt()];
+                this.in.readFully(bytes);
+                String value = new String(bytes, StandardCharsets.UTF_8);
+                this.strings.add(value);
+                return value;
+            }
+            if (index < 0 || index >= this.strings.size()) {
+                throw new StreamCorruptedException("Invalid string reference " + index);
+            }
+            return this.strings.get(index);
+        }
+
+        String readRequiredString() throws IOException {
+            String value = readString();
+            if (value == null) {
+                throw new StreamCorruptedException("Unexpected null value");
+            }
+            return value;
+        }
+
+        @Nullable
+        String[] readStrings() throws IOException {
+            int length = this.in.readInt();
+            if (length == -1) {
+                return null;
+            }
+            String[] values = new String[length];
+            for (int i = 0; i < length; i++) {
+                values[i] = readString();
+            }
+            return values;
+        }
+
+        AbstractBeanDefinition readBeanDefinition() throws IOException {
+            byte kind = this.in.readByte();
+            AnnotationMetadata metadata = null;
+            MethodMetadata factoryMethodMetadata = null;
+            if (this.in.readBoolean()) {
+                metadata = readAnnotationMetadata(readRequiredString());
+                String factoryMethodAnnotationType = readString();
+                if (factoryMethodAnnotationType != null) {
+                    factoryMethodMetadata = readFactoryMethodMetadata(factoryMethodAnnotationType,
+                            readRequiredString(), readRequiredString(), readRequiredString());
+                }
+            }
+            String parentName = readString();
+            AbstractBeanDefinition bd;
+            if (kind == ROOT) {
+                bd = (metadata != null ? new AnnotatedRootBeanDefinition(metadata, factoryMethodMetadata) :
+                        new RootBeanDefinition());
+            } else if (kind == CHILD && metadata == null) {
+                bd = new ChildBeanDefinition(parentName != null ? parentName : "");
+            } else if (kind == GENERIC) {
+                bd = (metadata != null ? new AnnotatedGenericBeanDefinition(metadata, factoryMethodMetadata) :
+                        new GenericBeanDefinition());
+                ((GenericBeanDefinition) bd).setParentName(parentName);
+            } else {
+                throw new StreamCorruptedException("Invalid bean definition kind " + kind);
+            }
+            bd.setBeanClassName(readString());
+            bd.setScope(readString());
+            int flags = this.in.readInt();
+            bd.setAbstract((flags & ABSTRACT_FLAG) != 0);
+            if ((flags & LAZY_INIT_SET_FLAG) != 0) {
+                bd.setLazyInit((flags & LAZY_INIT_FLAG) != 0);
+            }
+            bd.setAutowireCandidate((flags & AUTOWIRE_CANDIDATE_FLAG) != 0);
+            bd.setPrimary((flags & PRIMARY_FLAG) != 0);
+            bd.setNonPublicAccessAllowed((flags & NON_PUBLIC_ACCESS_ALLOWED_FLAG) != 0);
+            bd.setLenientConstructorResolution((flags & LENIENT_CONSTRUCTOR_RESOLUTION_FLAG) != 0);
+            bd.setEnforceInitMethod((flags & ENFORCE_INIT_METHOD_FLAG) != 0);
+            bd.setEnforceDestroyMethod((flags & ENFORCE_DESTROY_METHOD_FLAG) != 0);
+            bd.setSynthetic((flags & SYNTHETIC_FLAG) != 0);
+            bd.setAutowireMode(this.in.readInt());
+            bd.setDependencyCheck(this.in.readInt());
+            bd.setRole(this.in.readInt());
+            bd.setDependsOn(readStrings());
+            bd.setFactoryBeanName(readString());
+            String factoryMethodName = readString();
+            if (factoryMethodName != null && (flags & FACTORY_METHOD_UNIQUE_FLAG) != 0) {
+                ((RootBeanDefinition) bd).setUniqueFactoryMethodName(factoryMethodName);
+            } else {
+                bd.setFactoryMethodName(factoryMethodName);
+            }
+            bd.setInitMethodName(readString());
+            bd.setDestroyMethodName(readString());
+            bd.setDescription(readString());
+            bd.setResourceDescription(readString());
+
+            int attributeCount = this.in.readInt();
+            for (int i = 0; i < attributeCount; i++) {
+                bd.setAttribute(readRequiredString(), readValue());
+            }
+
+            ConstructorArgumentValues cav = bd.getConstructorArgumentValues();
+            int indexedCount = this.in.readInt();
+            for (int i = 0; i < indexedCount; i++) {
+                cav.addIndexedArgumentValue(this.in.readInt(), readValueHolder());
+            }
+            int genericCount = this.in.readInt();
+            for (int i = 0; i < genericCount; i++) {
+                cav.addGenericArgumentValue(readValueHolder());
+            }
+
+            MutablePropertyValues pvs = bd.getPropertyValues();
+            int propertyCount = this.in.readInt();
+            for (int i = 0; i < propertyCount; i++) {
+                PropertyValue pv = new PropertyValue(readRequiredString(), readValue());
+                pv.setOptional(this.in.readBoolean());
+                pvs.addPropertyValue(pv);
+            }
+
+            int overrideCount = this.in.readInt();
+            for (int i = 0; i < overrideCount; i++) {
+                bd.getMethodOverrides().addOverride(new LookupOverride(readRequiredString(), readString()));
+            }
+
+            if (kind == ROOT) {
+                RootBeanDefinition rbd = (RootBeanDefinition) bd;
+                String targetTypeName = readString();
+                if (targetTypeName != null) {
+                    rbd.setTargetType(resolveClass(targetTypeName));
+                }
+                if (this.in.readBoolean()) {
+                    rbd.setDecoratedDefinition(readBeanDefinitionHolder());
+                }
+            }
+            return bd;
+        }
+
+        private AnnotationMetadata readAnnotationMetadata(String className) throws IOException {
+            return getMetadataReaderFactory().getMetadataReader(className).getAnnotationMetadata();
+        }
+
+        private MethodMetadata readFactoryMethodMetadata(String annotationType, String declaringClassName,
+                                                         String methodName, String returnTypeName) throws IOException {
+
+            for (MethodMetadata method : readAnnotationMetadata(declaringClassName).getAnnotatedMethods(annotationType)) {
+                if (method.getMethodName().equals(methodName) && method.getReturnTypeName().equals(returnTypeName)) {
+                    return method;
+                }
+            }
+            throw new IOException("Factory method [" + declaringClassName + "." + methodName +
+                    "] referenced by snapshot not found");
+        }
+
+        private MetadataReaderFactory getMetadataReaderFactory() {
+            if (this.metadataReaderFactory == null) {
+                this.metadataReaderFactory = new CachingMetadataReaderFactory(this.classLoader);
+            }
+            return this.metadataReaderFactory;
+        }
+
+        private ConstructorArgumentValues.ValueHolder readValueHolder() throws IOException {
+            ConstructorArgumentValues.ValueHolder valueHolder = new ConstructorArgumentValues.ValueHolder(readValue());
+            valueHolder.setType(readString());
+            valueHolder.setName(readString());
+            return valueHolder;
+        }
+
+        private BeanDefinitionHolder readBeanDefinitionHolder() throws IOException {
+            String beanName = readRequiredString();
+            String[] aliases = readStrings();
+            return new BeanDefinitionHolder(readBeanDefinition(), beanName, aliases);
+        }
+
+        @Nullable
+        private Object readValue() throws IOException {
+            byte type = this.in.readByte();
+            switch (type) {
+                case NULL_VALUE:
+                    return null;
+                case STRING_VALUE:
+                    return readString();
+                case TYPED_STRING_VALUE: {
+                    TypedStringValue typedValue = new TypedStringValue(readString());
+                    typedValue.setTargetTypeName(readString());
+                    typedValue.setSpecifiedTypeName(readString());
+                    if (this.in.readBoolean()) {
+                        typedValue.setDynamic();
+                    }
+                    return typedValue;
+                }
+                case BEAN_REFERENCE_VALUE: {
+                    String beanName = readRequiredString();
+                    String beanTypeName = readString();
+                    boolean toParent = this.in.readBoolean();
+                    return (beanTypeName != null ? new RuntimeBeanReference(resolveClass(beanTypeName), toParent) :
+                            new RuntimeBeanReference(beanName, toParent));
+                }
+                case BEAN_NAME_REFERENCE_VALUE:
+                    return new RuntimeBeanNameReference(readRequiredString());
+                case BEAN_DEFINITION_HOLDER_VALUE:
+                    return readBeanDefinitionHolder();
+                case BEAN_DEFINITION_VALUE:
+                    return readBeanDefinition();
+                case ARRAY_VALUE: {
+                    String elementTypeName = readRequiredString();
+                    boolean mergeEnabled = this.in.readBoolean();
+                    int size = this.in.readInt();
+                    ManagedArray array = new ManagedArray(elementTypeName, size);
+                    array.setMergeEnabled(mergeEnabled);
+                    readElements(array, size);
+                    return array;
+                }
+                case LIST_VALUE: {
+                    String elementTypeName = readString();
+                    boolean mergeEnabled = this.in.readBoolean();
+                    int size = this.in.readInt();
+                    ManagedList<Object> list = new ManagedList<>(size);
+                    list.setElementTypeName(elementTypeName);
+                    list.setMergeEnabled(mergeEnabled);
+                    readElements(list, size);
+                    return list;
+                }
+                case SET_VALUE: {
+                    String elementTypeName = readString();
+                    boolean mergeEnabled = this.in.readBoolean();
+                    int size = this.in.readInt();
+                    ManagedSet<Object> set = new ManagedSet<>(size);
+                    set.setElementTypeName(elementTypeName);
+                    set.setMergeEnabled(mergeEnabled);
+                    readElements(set, size);
+                    return set;
+                }
+                case MAP_VALUE: {
+                    String keyTypeName = readString();
+                    String valueTypeName = readString();
+                    boolean mergeEnabled = this.in.readBoolean();
+                    int size = this.in.readInt();
+                    ManagedMap<Object, Object> map = new ManagedMap<>(size);
+                    map.setKeyTypeName(keyTypeName);
+                    map.setValueTypeName(valueTypeName);
+                    map.setMergeEnabled(mergeEnabled);
+                    readEntries(map, size);
+                    return map;
+                }
+                case PROPERTIES_VALUE: {
+                    ManagedProperties props = new ManagedProperties();
+                    props.setMergeEnabled(this.in.readBoolean());
+                    readEntries(props, this.in.readInt());
+                    return props;
+                }
+                case BOOLEAN_VALUE:
+                    return this.in.readBoolean();
+                case INTEGER_VALUE:
+                    return this.in.readInt();
+                case LONG_VALUE:
+                    return this.in.readLong();
+                case DOUBLE_VALUE:
+                    return this.in.readDouble();
+                case CLASS_VALUE:
+                    return resolveClass(readRequiredString());
+                default:
+                    throw new StreamCorruptedException("Invalid value type " + type);
+            }
+        }
+
+        private void readElements(Collection<Object> target, int size) throws IOException {
+            for (int i = 0; i < size; i++) {
+                target.add(readValue());
+            }
+        }
+
+        private void readEntries(Map<Object, Object> target, int size) throws IOException {
+            for (int i = 0; i < size; i++) {
+                target.put(readValue(), readValue());
+            }
+        }
+
+        private Class<?> resolveClass(String className) throws IOException {
+            try {
+                return ClassUtils.forName(className, this.classLoader);
+            } catch (ClassNotFoundException | LinkageError ex) {
+                throw new IOException("Class [" + className + "] referenced by snapshot not found", ex);
+            }
+        }
+    }
+
+
+    /**
+     * Restored form of an annotated {@link RootBeanDefinition}, e.g. for a
+     * {@code @Bean} method, keeping its annotation metadata.
+     */
+    @SuppressWarnings("serial")
+    private static final class AnnotatedRootBeanDefinition extends RootBeanDefinition
+            implements AnnotatedBeanDefinition {
+
+        private final AnnotationMetadata metadata;
+
+        @Nullable
+        private final MethodMetadata factoryMethodMetadata;
+
+        AnnotatedRootBeanDefinition(AnnotationMetadata metadata, @Nullable MethodMetadata factoryMethodMetadata) {
+            this.metadata = metadata;
+            this.factoryMethodMetadata = factoryMethodMetadata;
+        }
+
+        private AnnotatedRootBeanDefinition(AnnotatedRootBeanDefinition original) {
+            super(original);
+            this.metadata = original.metadata;
+            this.factoryMethodMetadata = original.factoryMethodMetadata;
+        }
+
+        @Override
+        public AnnotationMetadata getMetadata() {
+            return this.metadata;
+        }
+
+        @Override
+        @Nullable
+        public MethodMetadata getFactoryMethodMetadata() {
+            return this.factoryMethodMetadata;
+        }
+
+        @Override
+        public AnnotatedRootBeanDefinition cloneBeanDefinition() {
+            return new AnnotatedRootBeanDefinition(this);
+        }
+
+        /**
+         * Equal to any annotated root bean definition for the same class with the same
+         * settings, in particular to the bean definition that this one was restored from.
+         */
+        @Override
+        public boolean equals(@Nullable Object other) {
+            return (this == other || (other instanceof AnnotatedBeanDefinition && other instanceof RootBeanDefinition &&
+                    this.metadata.getClassName().equals(((AnnotatedBeanDefinition) other).getMetadata().getClassName()) &&
+                    super.equals(other)));
+        }
+
+        @Override
+        public int hashCode() {
+            return super.hashCode();
+        }
+    }
+
+}
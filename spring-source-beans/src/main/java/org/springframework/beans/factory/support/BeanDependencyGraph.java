@@ -0,0 +1,481 @@
+/*
+ * Copyright 2002-2023 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.beans.factory.support;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.function.UnaryOperator;
+
+/**
+ * Compact graph of the dependencies registered with a
+ * {@link DefaultSingletonBeanRegistry}: an edge from a bean to a dependent bean
+ * means that the dependent bean has to be destroyed before the bean itself.
+ *
+ * <p>Bean names are interned into int ids. Each bean keeps its dependent beans
+ * and its dependencies as int arrays in registration order, and all edges are
+ * additionally kept in an open-addressing hash set of longs for constant-time
+ * duplicate checks. Reachability checks reuse the same scratch arrays for every
+ * call instead of allocating a visited set. Beans left without any dependency
+ * are released again, and their ids get reused for newly registered beans.
+ *
+ * <p>All methods are synchronized on the graph instance.
+ *
+ * @see DefaultSingletonBeanRegistry#registerDependentBean
+ * @see DependencyGraphSnapshot
+ */
+final class BeanDependencyGraph {
+
+    private static final int INITIAL_CAPACITY = 64;
+
+    private static final int[] EMPTY_IDS = new int[0];
+
+    private static final String[] EMPTY_NAMES = new String[0];
+
+
+    private final Map<String, Integer> ids = new HashMap<>(INITIAL_CAPACITY);
+
+    private String[] names = new String[INITIAL_CAPACITY];
+
+    /**
+     * High-water mark of the ids handed out; released ids below it have no name.
+     */
+    private int nodeCount;
+
+    private int[] freeIds = new int[INITIAL_CAPACITY];
+
+    private int freeCount;
+
+    /**
+     * Bean id to ids of dependent beans, valid up to the corresponding count.
+     */
+    private int[][] dependents = new int[INITIAL_CAPACITY][];
+
+    private int[] dependentCounts = new int[INITIAL_CAPACITY];
+
+    /**
+     * Bean id to ids of the beans it depends on, valid up to the corresponding count.
+     */
+    private int[][] dependencies = new int[INITIAL_CAPACITY][];
+
+    private int[] dependencyCounts = new int[INITIAL_CAPACITY];
+
+    private final EdgeSet edges = new EdgeSet();
+
+    /**
+     * Scratch state for reachability checks: visit epoch per bean id, and the traversal stack.
+     */
+    private int[] visitMarks = new int[INITIAL_CAPACITY];
+
+    private int visitEpoch;
+
+    private int[] stack = new int[INITIAL_CAPACITY];
+
+
+    /**
+     * Register the given dependent bean for the given bean.
+     *
+     * @param beanName          the name of the bean
+     * @param dependentBeanName the name of the dependent bean
+     * @return {@code true} if the dependency was added, or {@code false} if it was already registered
+     */
+    synchronized boolean addDependentBean(String beanName, String dependentBeanName) {
+        int beanId = intern(beanName);
+        int dependentId = intern(dependentBeanName);
+        if (!this.edges.add(edge(beanId, dependentId))) {
+            return false;
+        }
+        append(this.dependents, this.dependentCounts, beanId, dependentId);
+        append(this.dependencies, this.dependencyCounts, dependentId, beanId);
+        return true;
+    }
+
+    /**
+     * Determine whether the given dependent bean depends on the given bean,
+     * directly or through any of the bean's transitive dependent beans.
+     * <p>The given bean and every transitive dependent bean are resolved to
+     * their canonical name before following their dependent beans, since
+     * dependent beans may have been registered under an alias.
+     *
+     * @param canonicalNames resolves a bean name or alias to the canonical bean name
+     */
+    synchronized boolean isDependent(String beanName, String dependentBeanName,
+                                     UnaryOperator<String> canonicalNames) {
+        Integer beanId = this.ids.get(canonicalNames.apply(beanName));
+        Integer targetId = this.ids.get(dependentBeanName);
+        if (beanId == null || targetId == null || this.dependentCounts[beanId] == 0) {
+            return false;
+        }
+        int epoch = nextVisitEpoch();
+        int top = 0;
+        this.stack[top++] = beanId;
+        this.visitMarks[beanId] = epoch;
+        while (top > 0) {
+            int current = this.stack[--top];
+            int[] currentDependents = this.dependents[current];
+            for (int i = 0; i < this.dependentCounts[current]; i++) {
+                int dependentId = currentDependents[i];
+                if (dependentId == targetId) {
+                    return true;
+                }
+                Integer nextId = canonicalId(dependentId, canonicalNames);
+                if (nextId != null && this.visitMarks[nextId] != epoch) {
+                    this.visitMarks[nextId] = epoch;
+                    // Every bean gets pushed at most once per check.
+                    this.stack[top++] = nextId;
+                }
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Determine whether any dependent bean has been registered for the given bean.
+     */
+    synchronized boolean hasDependentBeans(String beanName) {
+        Integer beanId = this.ids.get(beanName);
+        return (beanId != null && this.dependentCounts[beanId] > 0);
+    }
+
+    /**
+     * Return the names of the dependent beans of the given bean, in registration order.
+     */
+    synchronized String[] getDependentBeans(String beanName) {
+        Integer beanId = this.ids.get(beanName);
+        return (beanId != null ? toNames(this.dependents[beanId], this.dependentCounts[beanId]) : EMPTY_NAMES);
+    }
+
+    /**
+     * Return the names of the beans that the given bean depends on, in registration order.
+     */
+    synchronized String[] getDependenciesForBean(String beanName) {
+        Integer beanId = this.ids.get(beanName);
+        return (beanId != null ? toNames(this.dependencies[beanId], this.dependencyCounts[beanId]) : EMPTY_NAMES);
+    }
+
+    /**
+     * Remove the dependent beans of the given bean, e.g. before destroying them.
+     *
+     * @return the names of the removed dependent beans, in registration order
+     */
+    synchronized String[] removeDependentBeans(String beanName) {
+        Integer beanId = this.ids.get(beanName);
+        if (beanId == null || this.dependentCounts[beanId] == 0) {
+            return EMPTY_NAMES;
+        }
+        String[] result = toNames(this.dependents[beanId], this.dependentCounts[beanId]);
+        removeDependents(beanId);
+        releaseIfUnused(beanId);
+        return result;
+    }
+
+    /**
+     * Remove all dependencies from and to the given bean, releasing the bean
+     * and any other bean that is left without dependencies.
+     */
+    synchronized void removeBean(String beanName) {
+        Integer beanId = this.ids.get(beanName);
+        if (beanId == null) {
+            return;
+        }
+        removeDependents(beanId);
+        int[] beanDependencies = this.dependencies[beanId];
+        for (int i = 0; i < this.dependencyCounts[beanId]; i++) {
+            int dependencyId = beanDependencies[i];
+            this.edges.remove(edge(dependencyId, beanId));
+            remove(this.dependents, this.dependentCounts, dependencyId, beanId);
+            if (dependencyId != beanId) {
+                releaseIfUnused(dependencyId);
+            }
+        }
+        this.dependencyCounts[beanId] = 0;
+        releaseIfUnused(beanId);
+    }
+
+    /**
+     * Remove all beans and dependencies.
+     */
+    synchronized void clear() {
+        this.ids.clear();
+        this.names = new String[INITIAL_CAPACITY];
+        this.nodeCount = 0;
+        this.freeIds = new int[INITIAL_CAPACITY];
+        this.freeCount = 0;
+        this.dependents = new int[INITIAL_CAPACITY][];
+        this.dependentCounts = new int[INITIAL_CAPACITY];
+        this.dependencies = new int[INITIAL_CAPACITY][];
+        this.dependencyCounts = new int[INITIAL_CAPACITY];
+        this.edges.clear();
+        this.visitMarks = new int[INITIAL_CAPACITY];
+        this.visitEpoch = 0;
+        this.stack = new int[INITIAL_CAPACITY];
+    }
+
+    /**
+     * Return an immutable copy of the current graph, without released beans.
+     */
+    synchronized DependencyGraphSnapshot snapshot() {
+        // Compact the ids of the remaining beans.
+        int[] snapshotIds = new int[this.nodeCount];
+        int beanCount = 0;
+        for (int i = 0; i < this.nodeCount; i++) {
+            snapshotIds[i] = (this.names[i] != null ? beanCount++ : -1);
+        }
+        String[] beanNames = new String[beanCount];
+        int[][] dependentsCopy = new int[beanCount][];
+        int[][] dependenciesCopy = new int[beanCount][];
+        for (int i = 0; i < this.nodeCount; i++) {
+            int snapshotId = snapshotIds[i];
+            if (snapshotId >= 0) {
+                beanNames[snapshotId] = this.names[i];
+                dependentsCopy[snapshotId] = copy(this.dependents[i], this.dependentCounts[i], snapshotIds);
+                dependenciesCopy[snapshotId] = copy(this.dependencies[i], this.dependencyCounts[i], snapshotIds);
+            }
+        }
+        return new DependencyGraphSnapshot(beanNames, dependentsCopy, dependenciesCopy, this.edges.size());
+    }
+
+
+    private int intern(String beanName) {
+        Integer id = this.ids.get(beanName);
+        if (id != null) {
+            return id;
+        }
+        if (this.freeCount > 0) {
+            int freeId = this.freeIds[--this.freeCount];
+            this.names[freeId] = beanName;
+            this.ids.put(beanName, freeId);
+            return freeId;
+        }
+        int newId = this.nodeCount++;
+        if (newId == this.names.length) {
+            int capacity = newId * 2;
+            this.names = Arrays.copyOf(this.names, capacity);
+            this.dependents = Arrays.copyOf(this.dependents, capacity);
+            this.dependentCounts = Arrays.copyOf(this.dependentCounts, capacity);
+            this.dependencies = Arrays.copyOf(this.dependencies, capacity);
+            this.dependencyCounts = Arrays.copyOf(this.dependencyCounts, capacity);
+            this.visitMarks = Arrays.copyOf(this.visitMarks, capacity);
+            this.stack = Arrays.copyOf(this.stack, capacity);
+            this.freeIds = Arrays.copyOf(this.freeIds, capacity);
+        }
+        this.names[newId] = beanName;
+        this.ids.put(beanName, newId);
+        return newId;
+    }
+
+    private void removeDependents(int beanId) {
+        int[] beanDependents = this.dependents[beanId];
+        for (int i = 0; i < this.dependentCounts[beanId]; i++) {
+            int dependentId = beanDependents[i];
+            this.edges.remove(edge(beanId, dependentId));
+            remove(this.dependencies, this.dependencyCounts, dependentId, beanId);
+            if (dependentId != beanId) {
+                releaseIfUnused(dependentId);
+            }
+        }
+        this.dependentCounts[beanId] = 0;
+    }
+
+    /**
+     * Release the given bean if it has neither dependent beans nor dependencies
+     * anymore, making its id available for reuse.
+     */
+    private void releaseIfUnused(int beanId) {
+        String beanName = this.names[beanId];
+        if (beanName == null || this.dependentCounts[beanId] > 0 || this.dependencyCounts[beanId] > 0) {
+            return;
+        }
+        this.ids.remove(beanName);
+        this.names[beanId] = null;
+        this.dependents[beanId] = null;
+        this.dependencies[beanId] = null;
+        this.freeIds[this.freeCount++] = beanId;
+    }
+
+    /**
+     * Return the id of the canonical name of the given bean, or {@code null}
+     * if no dependency has been registered for the canonical name.
+     */
+    private Integer canonicalId(int beanId, UnaryOperator<String> canonicalNames) {
+        String beanName = this.names[beanId];
+        String canonicalName = canonicalNames.apply(beanName);
+        return (canonicalName.equals(beanName) ? beanId : this.ids.get(canonicalName));
+    }
+
+    private int nextVisitEpoch() {
+        if (++this.visitEpoch == Integer.MAX_VALUE) {
+            Arrays.fill(this.visitMarks, 0);
+            this.visitEpoch = 1;
+        }
+        return this.visitEpoch;
+    }
+
+    private String[] toNames(int[] beanIds, int count) {
+        if (count == 0) {
+            return EMPTY_NAMES;
+        }
+        String[] result = new String[count];
+        for (int i = 0; i < count; i++) {
+            result[i] = this.names[beanIds[i]];
+        }
+        return result;
+    }
+
+    private static void append(int[][] adjacency, int[] counts, int from, int to) {
+        int[] targets = adjacency[from];
+        int count = counts[from];
+        if (targets == null) {
+            targets = new int[4];
+            adjacency[from] = targets;
+        } else if (count == targets.length) {
+            targets = Arrays.copyOf(targets, count * 2);
+            adjacency[from] = targets;
+        }
+        targets[count] = to;
+        counts[from] = count + 1;
+    }
+
+    private static void remove(int[][] adjacency, int[] counts, int from, int to) {
+        int[] targets = adjacency[from];
+        int count = counts[from];
+        for (int i = 0; i < count; i++) {
+            if (targets[i] == to) {
+                // Shift to keep registration order.
+                System.arraycopy(targets, i + 1, targets, i, count - i - 1);
+                counts[from] = count - 1;
+                return;
+            }
+        }
+    }
+
+    private static int[] copy(int[] beanIds, int count, int[] snapshotIds) {
+        if (count == 0) {
+            return EMPTY_IDS;
+        }
+        int[] result = new int[count];
+        for (int i = 0; i < count; i++) {
+            result[i] = snapshotIds[beanIds[i]];
+        }
+        return result;
+    }
+
+    private static long edge(int from, int to) {
+        return ((long) from << 32) | (to & 0xFFFFFFFFL);
+    }
+
+
+    /**
+     * Open-addressing hash set of non-negative long keys with linear probing
+     * and backward-shift deletion, keeping a load factor of at most one half.
+     */
+    private static final class EdgeSet {
+
+        private static final long FREE = -1L;
+
+        private long[] table = newTable(INITIAL_CAPACITY * 2);
+
+        private int size;
+
+        boolean add(long key) {
+            if ((this.size + 1) * 2 > this.table.length) {
+                resize(this.table.length * 2);
+            }
+            int mask = this.table.length - 1;
+            int index = hash(key) & mask;
+            while (this.table[index] != FREE) {
+                if (this.table[index] == key) {
+                    return false;
+                }
+                index = (index + 1) & mask;
+            }
+            this.table[index] = key;
+            this.size++;
+            return true;
+        }
+
+        boolean remove(long key) {
+            int mask = this.table.length - 1;
+            int index = hash(key) & mask;
+            while (this.table[index] != FREE) {
+                if (this.table[index] == key) {
+                    deleteAt(index);
+                    this.size--;
+                    return true;
+                }
+                index = (index + 1) & mask;
+            }
+            return false;
+        }
+
+        int size() {
+            return this.size;
+        }
+
+        void clear() {
+            this.table = newTable(INITIAL_CAPACITY * 2);
+            this.size = 0;
+        }
+
+        private void deleteAt(int index) {
+            int mask = this.table.length - 1;
+            int gap = index;
+            int current = index;
+            while (true) {
+                current = (current + 1) & mask;
+                long key = this.table[current];
+                if (key == FREE) {
+                    break;
+                }
+                int home = hash(key) & mask;
+                // Move the key into the gap unless its home slot lies between the gap and its slot.
+                if (((current - home) & mask) >= ((current - gap) & mask)) {
+                    this.table[gap] = key;
+                    gap = current;
+                }
+            }
+            this.table[gap] = FREE;
+        }
+
+        private void resize(int capacity) {
+            long[] oldTable = this.table;
+            this.table = newTable(capacity);
+            int mask = capacity - 1;
+            for (long key : oldTable) {
+                if (key != FREE) {
+                    int index = hash(key) & mask;
+                    while (this.table[index] != FREE) {
+                        index = (index + 1) & mask;
+                    }
+                    this.table[index] = key;
+                }
+            }
+        }
+
+        private static long[] newTable(int capacity) {
+            long[] table = new long[capacity];
+            Arrays.fill(table, FREE);
+            return table;
+        }
+
+        private static int hash(long key) {
+            long hash = key * 0x9E3779B97F4A7C15L;
+            return (int) (hash ^ (hash >>> 32));
+        }
+    }
+
+}
@@ -0,0 +1,281 @@
+/*
+ * Copyright 2002-2023 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.beans.factory.support;
+
+import org.springframework.util.ClassUtils;
+
+import java.util.*;
+import java.util.function.Function;
+
+/**
+ * Incrementally maintained index from raw types (including all superclasses
+ * and interfaces) to the names of bean definitions of such type, narrowing
+ * the bean definitions that a by-type lookup needs to check.
+ *
+ * <p>The index is a pre-filter only: it returns a superset of the matching
+ * bean names, in registration order, and the caller still performs its regular
+ * type matching on each candidate. Bean definitions whose type cannot be
+ * predicted from their bean class alone (FactoryBeans, factory methods,
+ * decorated definitions etc.) remain unindexed and are returned for every
+ * lookup. Bean definitions whose bean class has not been resolved yet are
+ * returned for every lookup as well, trying to index them again on each
+ * lookup until their bean class has been resolved.
+ *
+ * <p>Entries are computed lazily from the merged bean definitions through a
+ * type resolver callback, and invalidated along with the merged bean definitions.
+ * Types are resolved outside of the index monitor, which only guards reading
+ * and swapping the index state. Types that an instance is actually exposed with
+ * (e.g. an AOP proxy class) are added once observed, since post-processors
+ * predict such types only after having created them; they are kept until the
+ * bean definition gets replaced or removed.
+ *
+ * @see DefaultListableBeanFactory#setBeanTypeIndexEnabled
+ */
+final class BeanTypeIndex {
+
+    /**
+     * Marker returned by a type resolver for a bean definition whose type cannot
+     * be predicted from its bean class, as opposed to {@code null} for a bean
+     * definition which cannot be indexed yet.
+     */
+    static final Class<?> NOT_INDEXABLE = NotIndexable.class;
+
+
+    /**
+     * Registration sequence per bean name, for reconstructing registration order.
+     */
+    private final Map<String, Long> registrationOrder = new HashMap<>(256);
+
+    /**
+     * Bean names not indexed yet, to be resolved and checked on every lookup,
+     * with the modification count as of their invalidation.
+     */
+    private final Map<String, Long> unindexedNames = new LinkedHashMap<>(256);
+
+    /**
+     * Bean names which cannot be indexed, to be checked on every lookup.
+     */
+    private final Set<String> notIndexableNames = new HashSet<>(256);
+
+    /**
+     * Map from raw type (or supertype) to the names of beans of that type.
+     */
+    private final Map<Class<?>, Set<String>> namesByType = new HashMap<>(1024);
+
+    /**
+     * Map from bean name to the types the bean has been indexed with.
+     */
+    private final Map<String, Set<Class<?>>> typesByName = new HashMap<>(256);
+
+    /**
+     * Map from bean name to the types its instances have been exposed with.
+     */
+    private final Map<String, Set<Class<?>>> exposedTypesByName = new HashMap<>(64);
+
+    /**
+     * Candidate names per requested type, in registration order, until the next change.
+     */
+    private final Map<Class<?>, List<String>> candidateNamesCache = new HashMap<>(256);
+
+    private long nextSequence = 0;
+
+    /**
+     * Incremented on every change, for detecting bean names invalidated again
+     * while resolving their types.
+     */
+    private long modificationCount = 0;
+
+
+    /**
+     * Register the given bean definition name, to be indexed on next lookup.
+     * Re-registration keeps the original position in registration order.
+     */
+    public synchronized void register(String beanName) {
+        if (!this.registrationOrder.containsKey(beanName)) {
+            this.registrationOrder.put(beanName, this.nextSequence++);
+        }
+        this.exposedTypesByName.remove(beanName);
+        invalidate(beanName);
+    }
+
+    /**
+     * Remove the given bean definition name from the index.
+     */
+    public synchronized void remove(String beanName) {
+        this.registrationOrder.remove(beanName);
+        this.exposedTypesByName.remove(beanName);
+        removeEntries(beanName);
+        modified();
+    }
+
+    /**
+     * Invalidate the entries for the given bean name, re-indexing it on next lookup.
+     */
+    public synchronized void invalidate(String beanName) {
+        if (this.registrationOrder.containsKey(beanName)) {
+            removeEntries(beanName);
+            modified();
+            this.unindexedNames.put(beanName, this.modificationCount);
+        }
+    }
+
+    /**
+     * Invalidate all entries, re-indexing every bean name on next lookup.
+     * Exposed types are kept.
+     */
+    public synchronized void invalidateAll() {
+        this.namesByType.clear();
+        this.typesByName.clear();
+        this.notIndexableNames.clear();
+        modified();
+        for (String beanName : this.registrationOrder.keySet()) {
+            this.unindexedNames.put(beanName, this.modificationCount);
+        }
+    }
+
+    /**
+     * Record a type that the given bean has actually been exposed with,
+     * in addition to the type it has been indexed with.
+     */
+    public synchronized void addExposedType(String beanName, Class<?> exposedType) {
+        if (this.registrationOrder.containsKey(beanName) &&
+                this.exposedTypesByName.computeIfAbsent(beanName, key -> new HashSet<>(2)).add(exposedType)) {
+            Set<Class<?>> indexedTypes = this.typesByName.get(beanName);
+            if (indexedTypes != null && !indexedTypes.contains(exposedType)) {
+                addEntries(beanName, exposedType);
+                modified();
+            }
+        }
+    }
+
+    /**
+     * Return the names of all bean definitions that may match the given type,
+     * in registration order.
+     *
+     * @param type         the raw type to look for
+     * @param typeResolver resolves a bean name to the type to index it with,
+     *                     {@link #NOT_INDEXABLE} if its type does not follow from
+     *                     its bean class, or {@code null} if it cannot be indexed yet
+     * @return the candidate bean names (never {@code null})
+     */
+    public List<String> getCandidateNames(Class<?> type, Function<String, Class<?>> typeResolver) {
+        Map<String, Long> namesToIndex;
+        synchronized (this) {
+            if (this.unindexedNames.isEmpty()) {
+                return getCachedCandidateNames(type);
+            }
+            namesToIndex = new LinkedHashMap<>(this.unindexedNames);
+        }
+
+        // Resolve types without holding the monitor: this may merge bean definitions.
+        Map<String, Class<?>> resolvedTypes = new LinkedHashMap<>();
+        for (String beanName : namesToIndex.keySet()) {
+            Class<?> beanType = typeResolver.apply(beanName);
+            if (beanType != null) {
+                resolvedTypes.put(beanName, beanType);
+            }
+        }
+
+        synchronized (this) {
+            boolean indexed = false;
+            for (Map.Entry<String, Class<?>> entry : resolvedTypes.entrySet()) {
+                String beanName = entry.getKey();
+                Class<?> beanType = entry.getValue();
+                // Skip names invalidated again meanwhile: they stay unindexed and
+                // therefore remain candidates, to be indexed on a later lookup.
+                if (namesToIndex.get(beanName).equals(this.unindexedNames.get(beanName))) {
+                    this.unindexedNames.remove(beanName);
+                    if (beanType == NOT_INDEXABLE) {
+                        this.notIndexableNames.add(beanName);
+                    } else {
+                        addEntries(beanName, beanType);
+                        Set<Class<?>> exposedTypes = this.exposedTypesByName.get(beanName);
+                        if (exposedTypes != null) {
+                            exposedTypes.forEach(exposedType -> addEntries(beanName, exposedType));
+                        }
+                    }
+                    indexed = true;
+                }
+            }
+            if (indexed) {
+                modified();
+            }
+            return getCachedCandidateNames(type);
+        }
+    }
+
+    private List<String> getCachedCandidateNames(Class<?> type) {
+        List<String> result = this.candidateNamesCache.get(type);
+        if (result == null) {
+            Set<String> indexedNames = this.namesByType.get(type);
+            result = new ArrayList<>(this.unindexedNames.size() + this.notIndexableNames.size() +
+                    (indexedNames != null ? indexedNames.size() : 0));
+            result.addAll(this.unindexedNames.keySet());
+            result.addAll(this.notIndexableNames);
+            if (indexedNames != null) {
+                result.addAll(indexedNames);
+            }
+            result.sort(Comparator.comparing(this.registrationOrder::get));
+            result = Collections.unmodifiableList(result);
+            this.candidateNamesCache.put(type, result);
+        }
+        return result;
+    }
+
+    private void modified() {
+        this.modificationCount++;
+        this.candidateNamesCache.clear();
+    }
+
+    private void addEntries(String beanName, Class<?> beanType) {
+        Set<Class<?>> indexedTypes = this.typesByName.computeIfAbsent(beanName, key -> new HashSet<>());
+        Class<?> current = beanType;
+        while (current != null) {
+            indexedTypes.add(current);
+            current = current.getSuperclass();
+        }
+        indexedTypes.addAll(ClassUtils.getAllInterfacesForClassAsSet(beanType));
+        for (Class<?> indexedType : indexedTypes) {
+            this.namesByType.computeIfAbsent(indexedType, key -> new HashSet<>()).add(beanName);
+        }
+    }
+
+    private void removeEntries(String beanName) {
+        this.unindexedNames.remove(beanName);
+        this.notIndexableNames.remove(beanName);
+        Set<Class<?>> indexedTypes = this.typesByName.remove(beanName);
+        if (indexedTypes != null) {
+            for (Class<?> indexedType : indexedTypes) {
+                Set<String> names = this.namesByType.get(indexedType);
+                if (names != null) {
+                    names.remove(beanName);
+                    if (names.isEmpty()) {
+                        this.namesByType.remove(indexedType);
+                    }
+                }
+            }
+        }
+    }
+
+
+    /**
+     * Type of the {@link #NOT_INDEXABLE} marker.
+     */
+    private static final class NotIndexable {
+    }
+
+}
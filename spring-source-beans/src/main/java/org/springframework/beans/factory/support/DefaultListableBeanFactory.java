@@ -37,10 +37,17 @@ import java.lang.annotation.Annotation;
 import java.lang.ref.Reference;
 import java.lang.ref.WeakReference;
 import java.lang.reflect.Method;
+import java.lang.reflect.TypeVariable;
+import java.lang.reflect.WildcardType;
 import java.security.AccessController;
 import java.security.PrivilegedAction;
 import java.util.*;
+import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.function.Consumer;
 import java.util.function.Predicate;
 import java.util.stream.Stream;
@@ -97,6 +104,16 @@ public class DefaultListableBeanFactory extends AbstractAutowireCapableBeanFacto
 
     private static final Logger log = LoggerFactory.getLogger(DefaultListableBeanFactory.class);
 
+    /**
+     * Maximum number of generic types to cache bean names for, per cache.
+     */
+    private static final int RESOLVABLE_TYPE_CACHE_LIMIT = 256;
+
+    /**
+     * Maximum nesting depth of generics to check for cache safety.
+     */
+    private static final int RESOLVABLE_TYPE_CACHE_MAX_DEPTH = 4;
+
     static {
         try {
             log.warn("DefaultListableBeanFactory start loading zzy");
@@ -153,7 +170,7 @@ public class DefaultListableBeanFactory extends AbstractAutowireCapableBeanFacto
     private final Map<String, BeanDefinition> beanDefinitionMap = new ConcurrentHashMap<>(256);
 
     /**
-     * Map from bean name to merged BeanDefinitionHolder.
+     * Map from bean name (or FactoryBean dereference) to merged BeanDefinitionHolder.
      */
     private final Map<String, BeanDefinitionHolder> mergedBeanDefinitionHolders = new ConcurrentHashMap<>(256);
 
@@ -168,6 +185,18 @@ public class DefaultListableBeanFactory extends AbstractAutowireCapableBeanFacto
      */
     private final Map<Class<?>, String[]> singletonBeanNamesByType = new ConcurrentHashMap<>(64);
 
+    /**
+     * LRU map of singleton and non-singleton bean names, keyed by generic dependency type.
+     */
+    private final Map<ResolvableType, String[]> allBeanNamesByResolvableType =
+            createResolvableTypeCache(RESOLVABLE_TYPE_CACHE_LIMIT);
+
+    /**
+     * LRU map of singleton-only bean names, keyed by generic dependency type.
+     */
+    private final Map<ResolvableType, String[]> singletonBeanNamesByResolvableType =
+            createResolvableTypeCache(RESOLVABLE_TYPE_CACHE_LIMIT);
+
     /**
      * List of bean definition names, in registration order.
      */
@@ -195,6 +224,41 @@ public class DefaultListableBeanFactory extends AbstractAutowireCapableBeanFacto
      */
     private volatile boolean configurationFrozen;
 
+    /**
+     * Names of bean definitions restored from a snapshot, which may be registered
+     * once more with an equal bean definition until configuration freeze, even if
+     * overriding is not allowed.
+     */
+    private final Set<String> restoredBeanDefinitionNames = ConcurrentHashMap.newKeySet();
+
+    /**
+     * Whether to narrow by-type lookups through the bean type index.
+     */
+    private boolean beanTypeIndexEnabled = false;
+
+    /**
+     * Index from raw type to bean definition names, for by-type lookups.
+     */
+    private final BeanTypeIndex beanTypeIndex = new BeanTypeIndex();
+
+    /**
+     * Map from manually registered singleton name to its instance type,
+     * unless a FactoryBean.
+     */
+    private final Map<String, Class<?>> manualSingletonTypes = new ConcurrentHashMap<>(16);
+
+    /**
+     * Optional Executor for pre-instantiating independent singletons in parallel.
+     */
+    @Nullable
+    private Executor bootstrapExecutor;
+
+    /**
+     * Optional Executor for resolving collection, array and map candidates in parallel.
+     */
+    @Nullable
+    private Executor autowireCandidateExecutor;
+
 
     /**
      * Create a new DefaultListableBeanFactory.
@@ -305,6 +369,96 @@ public class DefaultListableBeanFactory extends AbstractAutowireCapableBeanFacto
         return this.dependencyComparator;
     }
 
+    /**
+     * Set whether by-type lookups should be narrowed through an index from raw
+     * types (and their supertypes) to bean names, maintained incrementally on
+     * registration and removal of bean definitions and singletons.
+     * <p>Default is "false". If switched on, this applies to lookups before and
+     * after configuration freeze. Bean definitions whose type cannot be derived
+     * from their bean class (FactoryBeans, factory methods, scoped proxies and the
+     * like), as well as beans for which a {@link SmartInstantiationAwareBeanPostProcessor}
+     * predicts a different type, are checked on every lookup, just like without
+     * the index. The index has to be switched on before the first bean gets
+     * created, since it needs to observe the types that beans are exposed with.
+     *
+     * @throws IllegalStateException if switched on after bean creation has started
+     * @see #getBeanNamesForType(ResolvableType, boolean, boolean)
+     */
+    public void setBeanTypeIndexEnabled(boolean beanTypeIndexEnabled) {
+        if (beanTypeIndexEnabled && !this.beanTypeIndexEnabled) {
+            Assert.state(!hasBeanCreationStarted(),
+                    "Cannot enable the bean type index after bean creation has started");
+            // Entries may be outdated since nothing has been invalidated while switched off.
+            this.beanTypeIndex.invalidateAll();
+        }
+        this.beanTypeIndexEnabled = beanTypeIndexEnabled;
+    }
+
+    /**
+     * Return whether by-type lookups are narrowed through the bean type index.
+     */
+    public boolean isBeanTypeIndexEnabled() {
+        return this.beanTypeIndexEnabled;
+    }
+
+    /**
+     * Set an {@link Executor} for pre-instantiating singletons in parallel.
+     * <p>If specified, {@link #preInstantiateSingletons()} partitions the non-lazy
+     * singletons into independent subtrees, derived from {@code depends-on},
+     * factory-bean references and already registered dependent beans, and
+     * creates each subtree on the given executor. Beans within a subtree are
+     * still created in registration order on a single thread, so circular
+     * references within a subtree are resolved just like before.
+     * <p>Default is none, creating all singletons on the calling thread.
+     * A bounded thread pool is recommended since every subtree is submitted
+     * as a separate task. Combine this with
+     * {@link #setSingletonCreationLockStriping lock striping}; otherwise the
+     * subtrees still get created one after the other within the global mutex.
+     *
+     * @see #preInstantiateSingletons()
+     */
+    public void setBootstrapExecutor(@Nullable Executor bootstrapExecutor) {
+        this.bootstrapExecutor = bootstrapExecutor;
+    }
+
+    /**
+     * Return the {@link Executor} for parallel singleton pre-instantiation, if any.
+     */
+    @Nullable
+    public Executor getBootstrapExecutor() {
+        return this.bootstrapExecutor;
+    }
+
+    /**
+     * Set an {@link Executor} for resolving the candidate beans of collection,
+     * array and map injection points in parallel.
+     * <p>If specified, singleton candidates which have not been created yet are
+     * created concurrently on the given executor, while the injected collection
+     * keeps the same elements in the same order as with sequential resolution,
+     * sorted through the {@link #setDependencyComparator dependency comparator}
+     * as usual. Prototypes and candidates from parent factories are still
+     * resolved on the calling thread.
+     * <p>Only effective with {@link #setSingletonCreationLockStriping lock striping},
+     * since candidates could not be created on other threads while the calling
+     * thread holds the global singleton mutex. Candidates that have not been
+     * picked up by a worker thread yet get created on the calling thread while it
+     * waits, so a saturated executor does not block nested injection points.
+     * <p>Default is none, resolving all candidates on the calling thread.
+     *
+     * @see #findAutowireCandidates
+     */
+    public void setAutowireCandidateExecutor(@Nullable Executor autowireCandidateExecutor) {
+        this.autowireCandidateExecutor = autowireCandidateExecutor;
+    }
+
+    /**
+     * Return the {@link Executor} for parallel candidate resolution, if any.
+     */
+    @Nullable
+    public Executor getAutowireCandidateExecutor() {
+        return this.autowireCandidateExecutor;
+    }
+
     /**
      * Set a custom autowire candidate resolver for this BeanFactory to use
      * when deciding whether a bean definition should be considered as a
@@ -341,6 +495,9 @@ public class DefaultListableBeanFactory extends AbstractAutowireCapableBeanFacto
             this.allowBeanDefinitionOverriding = otherListableFactory.allowBeanDefinitionOverriding;
             this.allowEagerClassLoading = otherListableFactory.allowEagerClassLoading;
             this.dependencyComparator = otherListableFactory.dependencyComparator;
+            this.bootstrapExecutor = otherListableFactory.bootstrapExecutor;
+            this.autowireCandidateExecutor = otherListableFactory.autowireCandidateExecutor;
+            setBeanTypeIndexEnabled(otherListableFactory.beanTypeIndexEnabled);
             // A clone of the AutowireCandidateResolver since it is potentially BeanFactoryAware
             setAutowireCandidateResolver(otherListableFactory.getAutowireCandidateResolver().cloneIfNecessary());
             // Make resolvable dependencies (e.g. ResourceLoader) available here as well
@@ -541,9 +698,70 @@ public class DefaultListableBeanFactory extends AbstractAutowireCapableBeanFacto
         Class<?> resolved = type.resolve();
         if (resolved != null && !type.hasGenerics()) {
             return getBeanNamesForType(resolved, includeNonSingletons, allowEagerInit);
-        } else {
+        }
+        if (!isConfigurationFrozen() || !allowEagerInit) {
             return doGetBeanNamesForType(type, includeNonSingletons, allowEagerInit);
         }
+        Map<ResolvableType, String[]> cache =
+                (includeNonSingletons ? this.allBeanNamesByResolvableType : this.singletonBeanNamesByResolvableType);
+        ResolvableType cacheKey = getCacheKey(type, RESOLVABLE_TYPE_CACHE_MAX_DEPTH);
+        if (cacheKey == null) {
+            return doGetBeanNamesForType(type, includeNonSingletons, true);
+        }
+        String[] resolvedBeanNames = cache.get(cacheKey);
+        if (resolvedBeanNames != null) {
+            return resolvedBeanNames;
+        }
+        resolvedBeanNames = doGetBeanNamesForType(type, includeNonSingletons, true);
+        cache.put(cacheKey, resolvedBeanNames);
+        return resolvedBeanNames;
+    }
+
+    /**
+     * Build a cache key for the given generic type, structurally equal for equal
+     * types no matter which injection point they have been obtained from.
+     * <p>Only applies to concrete types: no wildcards or type variables, and all
+     * classes involved cache-safe with respect to this factory's bean ClassLoader.
+     *
+     * @param type  the generic type to build a key for
+     * @param depth the remaining nesting depth of generics to consider
+     * @return the cache key, or {@code null} if the type is not safe to cache
+     */
+    @Nullable
+    private ResolvableType getCacheKey(ResolvableType type, int depth) {
+        Class<?> resolved = type.resolve();
+        if (resolved == null || depth == 0 || type.getType() instanceof WildcardType ||
+                type.getType() instanceof TypeVariable || !ClassUtils.isCacheSafe(resolved, getBeanClassLoader())) {
+            return null;
+        }
+        if (type.isArray()) {
+            ResolvableType componentKey = getCacheKey(type.getComponentType(), depth - 1);
+            return (componentKey != null ? ResolvableType.forArrayComponent(componentKey) : null);
+        }
+        ResolvableType[] generics = type.getGenerics();
+        if (generics.length == 0) {
+            return ResolvableType.forClass(resolved);
+        }
+        ResolvableType[] genericKeys = new ResolvableType[generics.length];
+        for (int i = 0; i < generics.length; i++) {
+            genericKeys[i] = getCacheKey(generics[i], depth - 1);
+            if (genericKeys[i] == null) {
+                return null;
+            }
+        }
+        return ResolvableType.forClassWithGenerics(resolved, genericKeys);
+    }
+
+    /**
+     * Create a thread-safe LRU map for bean names keyed by generic type.
+     */
+    private static Map<ResolvableType, String[]> createResolvableTypeCache(int limit) {
+        return Collections.synchronizedMap(new LinkedHashMap<ResolvableType, String[]>(64, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<ResolvableType, String[]> eldest) {
+                return size() > limit;
+            }
+        });
     }
 
     @Override
@@ -571,9 +789,12 @@ public class DefaultListableBeanFactory extends AbstractAutowireCapableBeanFacto
 
     private String[] doGetBeanNamesForType(ResolvableType type, boolean includeNonSingletons, boolean allowEagerInit) {
         List<String> result = new ArrayList<>();
+        Class<?> rawType = (this.beanTypeIndexEnabled ? type.resolve() : null);
 
-        // Check all bean definitions.
-        for (String beanName : this.beanDefinitionNames) {
+        // Check all bean definitions (or the indexed candidates for the requested raw type).
+        Collection<String> candidateNames = (rawType != null ?
+                this.beanTypeIndex.getCandidateNames(rawType, this::getIndexableBeanType) : this.beanDefinitionNames);
+        for (String beanName : candidateNames) {
             // Only consider bean as eligible if the bean name is not defined as alias for some other bean.
             if (!isAlias(beanName)) {
                 try {
@@ -627,6 +848,12 @@ public class DefaultListableBeanFactory extends AbstractAutowireCapableBeanFacto
 
         // Check manually registered singletons too.
         for (String beanName : this.manualSingletonNames) {
+            if (rawType != null) {
+                Class<?> singletonType = this.manualSingletonTypes.get(beanName);
+                if (singletonType != null && !rawType.isAssignableFrom(singletonType)) {
+                    continue;
+                }
+            }
             try {
                 // In case of FactoryBean, match object created by FactoryBean.
                 if (isFactoryBean(beanName)) {
@@ -652,6 +879,45 @@ public class DefaultListableBeanFactory extends AbstractAutowireCapableBeanFacto
         return StringUtils.toStringArray(result);
     }
 
+    /**
+     * Determine the type to index the given bean definition with: its resolved
+     * bean class, as long as no other source may define the type of the bean,
+     * including {@link SmartInstantiationAwareBeanPostProcessor} type predictions.
+     *
+     * @param beanName the name of the bean
+     * @return the bean class to index, {@link BeanTypeIndex#NOT_INDEXABLE} if
+     * another source may define the type, or {@code null} if not indexable yet
+     * @see #setBeanTypeIndexEnabled
+     */
+    @Nullable
+    private Class<?> getIndexableBeanType(String beanName) {
+        try {
+            if (isAlias(beanName)) {
+                return BeanTypeIndex.NOT_INDEXABLE;
+            }
+            RootBeanDefinition mbd = getMergedLocalBeanDefinition(beanName);
+            if (mbd.isAbstract() || mbd.getFactoryMethodName() != null ||
+                    mbd.getDecoratedDefinition() != null || mbd.getInstanceSupplier() != null) {
+                return BeanTypeIndex.NOT_INDEXABLE;
+            }
+            if (!mbd.hasBeanClass()) {
+                return null;
+            }
+            Class<?> beanClass = mbd.getBeanClass();
+            Class<?> targetType = mbd.getTargetType();
+            if (FactoryBean.class.isAssignableFrom(beanClass) || (targetType != null && targetType != beanClass)) {
+                return BeanTypeIndex.NOT_INDEXABLE;
+            }
+            if (predictBeanType(beanName, mbd) != beanClass) {
+                return BeanTypeIndex.NOT_INDEXABLE;
+            }
+            return beanClass;
+        } catch (BeansException ex) {
+            // Broken or removed bean definition: leave it to the regular type check.
+            return null;
+        }
+    }
+
     private boolean isSingleton(String beanName, RootBeanDefinition mbd, @Nullable BeanDefinitionHolder dbd) {
         return (dbd != null ? mbd.isSingleton() : isSingleton(beanName));
     }
@@ -867,10 +1133,13 @@ public class DefaultListableBeanFactory extends AbstractAutowireCapableBeanFacto
         if (mbd.isFactoryMethodUnique && mbd.factoryMethodToIntrospect == null) {
             new ConstructorResolver(this).resolveFactoryMethodIfPossible(mbd);
         }
-        BeanDefinitionHolder holder = (beanName.equals(bdName) ?
-                this.mergedBeanDefinitionHolders.computeIfAbsent(beanName,
-                        key -> new BeanDefinitionHolder(mbd, beanName, getAliases(bdName))) :
-                new BeanDefinitionHolder(mbd, beanName, getAliases(bdName)));
+        // Cached for FactoryBean dereferences ("&name") as well, so that resolvers
+        // may keep results per holder; replaced along with the merged definition.
+        BeanDefinitionHolder holder = this.mergedBeanDefinitionHolders.get(beanName);
+        if (holder == null || holder.getBeanDefinition() != mbd) {
+            holder = new BeanDefinitionHolder(mbd, beanName, getAliases(bdName));
+            this.mergedBeanDefinitionHolders.put(beanName, holder);
+        }
         return resolver.isAutowireCandidate(holder, descriptor);
     }
 
@@ -898,21 +1167,70 @@ public class DefaultListableBeanFactory extends AbstractAutowireCapableBeanFacto
     protected void clearMergedBeanDefinition(String beanName) {
         super.clearMergedBeanDefinition(beanName);
         this.mergedBeanDefinitionHolders.remove(beanName);
+        this.mergedBeanDefinitionHolders.remove(FACTORY_BEAN_PREFIX + beanName);
+        if (this.beanTypeIndexEnabled) {
+            this.beanTypeIndex.invalidate(beanName);
+        }
     }
 
     @Override
     public void clearMetadataCache() {
         super.clearMetadataCache();
         this.mergedBeanDefinitionHolders.clear();
+        if (this.beanTypeIndexEnabled) {
+            this.beanTypeIndex.invalidateAll();
+        }
         clearByTypeCache();
     }
 
+    /**
+     * Overridden to re-index all bean definitions, since the added post-processor
+     * may predict bean types differently.
+     *
+     * @see #setBeanTypeIndexEnabled
+     */
+    @Override
+    public void addBeanPostProcessor(BeanPostProcessor beanPostProcessor) {
+        super.addBeanPostProcessor(beanPostProcessor);
+        if (this.beanTypeIndexEnabled) {
+            this.beanTypeIndex.invalidateAll();
+        }
+    }
+
+    /**
+     * Overridden to re-index all bean definitions, since the added post-processors
+     * may predict bean types differently.
+     *
+     * @see #setBeanTypeIndexEnabled
+     */
+    @Override
+    public void addBeanPostProcessors(Collection<? extends BeanPostProcessor> beanPostProcessors) {
+        super.addBeanPostProcessors(beanPostProcessors);
+        if (this.beanTypeIndexEnabled) {
+            this.beanTypeIndex.invalidateAll();
+        }
+    }
+
     @Override
     public void freezeConfiguration() {
+        this.restoredBeanDefinitionNames.clear();
         this.configurationFrozen = true;
         this.frozenBeanDefinitionNames = StringUtils.toStringArray(this.beanDefinitionNames);
     }
 
+    /**
+     * Mark the given bean definition as restored from a snapshot: a post-processor
+     * which originally registered it may register an equal bean definition once
+     * more, replacing the restored definition, even if bean definition overriding
+     * is not allowed. Any other bean definition for the same name still clashes.
+     *
+     * @param beanName the name of the restored bean definition
+     * @see BeanDefinitionSnapshot#registerWith
+     */
+    void markBeanDefinitionRestored(String beanName) {
+        this.restoredBeanDefinitionNames.add(beanName);
+    }
+
     @Override
     public boolean isConfigurationFrozen() {
         return this.configurationFrozen;
@@ -929,6 +1247,22 @@ public class DefaultListableBeanFactory extends AbstractAutowireCapableBeanFacto
         return (this.configurationFrozen || super.isBeanEligibleForMetadataCaching(beanName));
     }
 
+    /**
+     * Overridden to record the type that a bean is actually exposed with
+     * in the bean type index, e.g. a proxy class, since post-processors
+     * may predict that type for further type checks from then on.
+     */
+    @Override
+    protected Object createBean(String beanName, RootBeanDefinition mbd, @Nullable Object[] args)
+            throws BeanCreationException {
+
+        Object bean = super.createBean(beanName, mbd, args);
+        if (this.beanTypeIndexEnabled && bean.getClass() != NullBean.class) {
+            this.beanTypeIndex.addExposedType(beanName, bean.getClass());
+        }
+        return bean;
+    }
+
     @Override
     public void preInstantiateSingletons() throws BeansException {
         if (logger.isTraceEnabled()) {
@@ -940,29 +1274,12 @@ public class DefaultListableBeanFactory extends AbstractAutowireCapableBeanFacto
         List<String> beanNames = new ArrayList<>(this.beanDefinitionNames);
 
         // Trigger initialization of all non-lazy singleton beans...
-        for (String beanName : beanNames) {
-            RootBeanDefinition bd = getMergedLocalBeanDefinition(beanName);
-            if (!bd.isAbstract() && bd.isSingleton() && !bd.isLazyInit()) {
-                if (isFactoryBean(beanName)) {
-                    Object bean = getBean(FACTORY_BEAN_PREFIX + beanName);
-                    if (bean instanceof FactoryBean) {
-                        FactoryBean<?> factory = (FactoryBean<?>) bean;
-                        boolean isEagerInit;
-                        if (System.getSecurityManager() != null && factory instanceof SmartFactoryBean) {
-                            isEagerInit = AccessController.doPrivileged(
-                                    (PrivilegedAction<Boolean>) ((SmartFactoryBean<?>) factory)::isEagerInit,
-                                    getAccessControlContext());
-                        } else {
-                            isEagerInit = (factory instanceof SmartFactoryBean &&
-                                    ((SmartFactoryBean<?>) factory).isEagerInit());
-                        }
-                        if (isEagerInit) {
-                            getBean(beanName);
-                        }
-                    }
-                } else {
-                    getBean(beanName);
-                }
+        Executor executor = getBootstrapExecutor();
+        if (executor != null) {
+            preInstantiateSingletonsInParallel(beanNames, executor);
+        } else {
+            for (String beanName : beanNames) {
+                preInstantiateSingleton(beanName);
             }
         }
 
@@ -986,6 +1303,182 @@ public class DefaultListableBeanFactory extends AbstractAutowireCapableBeanFacto
         }
     }
 
+    /**
+     * Instantiate the given bean if it is a non-lazy singleton,
+     * including the object of an eagerly initializing {@link SmartFactoryBean}.
+     *
+     * @param beanName the name of the bean
+     */
+    private void preInstantiateSingleton(String beanName) {
+        RootBeanDefinition bd = getMergedLocalBeanDefinition(beanName);
+        if (!bd.isAbstract() && bd.isSingleton() && !bd.isLazyInit()) {
+            if (isFactoryBean(beanName)) {
+                Object bean = getBean(FACTORY_BEAN_PREFIX + beanName);
+                if (bean instanceof FactoryBean) {
+                    FactoryBean<?> factory = (FactoryBean<?>) bean;
+                    boolean isEagerInit;
+                    if (System.getSecurityManager() != null && factory instanceof SmartFactoryBean) {
+                        isEagerInit = AccessController.doPrivileged(
+                                (PrivilegedAction<Boolean>) ((SmartFactoryBean<?>) factory)::isEagerInit,
+                                getAccessControlContext());
+                    } else {
+                        isEagerInit = (factory instanceof SmartFactoryBean &&
+                                ((SmartFactoryBean<?>) factory).isEagerInit());
+                    }
+                    if (isEagerInit) {
+                        getBean(beanName);
+                    }
+                }
+            } else {
+                getBean(beanName);
+            }
+        }
+    }
+
+    /**
+     * Pre-instantiate the given beans on the given executor, one task per
+     * independent subtree of the known dependency graph.
+     * <p>Waits for all tasks to finish. In case of failures, the exception for
+     * the bean that comes first in registration order is rethrown, with any
+     * further failures attached as related causes.
+     *
+     * @param beanNames the bean names in registration order
+     * @param executor  the executor to submit the subtree tasks to
+     * @see #setBootstrapExecutor
+     */
+    private void preInstantiateSingletonsInParallel(List<String> beanNames, Executor executor) {
+        List<List<String>> subtrees = partitionIntoIndependentSubtrees(beanNames);
+        if (subtrees.size() < 2) {
+            for (String beanName : beanNames) {
+                preInstantiateSingleton(beanName);
+            }
+            return;
+        }
+        if (logger.isDebugEnabled()) {
+            logger.debug("Pre-instantiating " + subtrees.size() + " independent singleton subtrees in parallel");
+        }
+
+        Map<String, Integer> registrationOrder = CollectionUtils.newHashMap(beanNames.size());
+        for (int i = 0; i < beanNames.size(); i++) {
+            registrationOrder.put(beanNames.get(i), i);
+        }
+        SortedMap<Integer, Throwable> failures = Collections.synchronizedSortedMap(new TreeMap<>());
+        List<CompletableFuture<Void>> futures = new ArrayList<>(subtrees.size());
+        for (List<String> subtree : subtrees) {
+            Runnable task = () -> {
+                for (String beanName : subtree) {
+                    if (!failures.isEmpty()) {
+                        // Another subtree failed already -> stop creating further beans.
+                        return;
+                    }
+                    try {
+                        preInstantiateSingleton(beanName);
+                    } catch (Throwable ex) {
+                        failures.put(registrationOrder.get(beanName), ex);
+                        return;
+                    }
+                }
+            };
+            try {
+                futures.add(CompletableFuture.runAsync(task, executor));
+            } catch (RejectedExecutionException ex) {
+                // Executor saturated or shut down -> create the subtree on the calling thread.
+                task.run();
+            }
+        }
+        CompletableFuture.allOf(futures.toArray(new CompletableFuture<?>[0])).join();
+
+        if (!failures.isEmpty()) {
+            Iterator<Throwable> it = failures.values().iterator();
+            Throwable primary = it.next();
+            while (it.hasNext()) {
+                Throwable related = it.next();
+                if (primary instanceof BeanCreationException) {
+                    ((BeanCreationException) primary).addRelatedCause(related);
+                } else {
+                    primary.addSuppressed(related);
+                }
+            }
+            if (primary instanceof RuntimeException) {
+                throw (RuntimeException) primary;
+            }
+            if (primary instanceof Error) {
+                throw (Error) primary;
+            }
+            throw new BeanCreationException("Parallel singleton pre-instantiation failed", primary);
+        }
+    }
+
+    /**
+     * Partition the given bean names into subtrees that do not share any known
+     * dependency, as declared through {@code depends-on} and factory-bean references
+     * or registered through {@link #registerDependentBean} so far.
+     * <p>Dependencies that only get discovered during creation (e.g. autowired
+     * fields) may still connect subtrees at runtime; these are resolved through
+     * the regular singleton creation locking.
+     *
+     * @param beanNames the bean names in registration order
+     * @return the subtrees, each listing its bean names in registration order
+     */
+    private List<List<String>> partitionIntoIndependentSubtrees(List<String> beanNames) {
+        Map<String, String> roots = new HashMap<>(beanNames.size() * 2);
+        List<String> candidates = new ArrayList<>(beanNames.size());
+        for (String beanName : beanNames) {
+            RootBeanDefinition bd = getMergedLocalBeanDefinition(beanName);
+            if (bd.isAbstract() || !bd.isSingleton() || bd.isLazyInit()) {
+                continue;
+            }
+            candidates.add(beanName);
+            roots.putIfAbsent(beanName, beanName);
+            String[] dependsOn = bd.getDependsOn();
+            if (dependsOn != null) {
+                for (String dep : dependsOn) {
+                    unionSubtrees(roots, beanName, canonicalName(dep));
+                }
+            }
+            String factoryBeanName = bd.getFactoryBeanName();
+            if (factoryBeanName != null) {
+                unionSubtrees(roots, beanName, canonicalName(factoryBeanName));
+            }
+            for (String dep : getDependenciesForBean(beanName)) {
+                unionSubtrees(roots, beanName, dep);
+            }
+            for (String dependent : getDependentBeans(beanName)) {
+                unionSubtrees(roots, beanName, dependent);
+            }
+        }
+
+        Map<String, List<String>> subtrees = new LinkedHashMap<>();
+        for (String beanName : candidates) {
+            subtrees.computeIfAbsent(findSubtreeRoot(roots, beanName), key -> new ArrayList<>()).add(beanName);
+        }
+        return new ArrayList<>(subtrees.values());
+    }
+
+    private static void unionSubtrees(Map<String, String> roots, String name1, String name2) {
+        roots.putIfAbsent(name2, name2);
+        String root1 = findSubtreeRoot(roots, name1);
+        String root2 = findSubtreeRoot(roots, name2);
+        if (!root1.equals(root2)) {
+            roots.put(root2, root1);
+        }
+    }
+
+    private static String findSubtreeRoot(Map<String, String> roots, String name) {
+        String root = name;
+        String parent = roots.get(root);
+        while (!parent.equals(root)) {
+            root = parent;
+            parent = roots.get(root);
+        }
+        // Path compression for subsequent lookups.
+        String current = name;
+        while (!current.equals(root)) {
+            current = roots.put(current, root);
+        }
+        return root;
+    }
+
 
     //---------------------------------------------------------------------
     // Implementation of BeanDefinitionRegistry interface
@@ -1009,7 +1502,8 @@ public class DefaultListableBeanFactory extends AbstractAutowireCapableBeanFacto
 
         BeanDefinition existingDefinition = this.beanDefinitionMap.get(beanName);
         if (existingDefinition != null) {
-            if (!isAllowBeanDefinitionOverriding()) {
+            if (!isAllowBeanDefinitionOverriding() && !(existingDefinition.equals(beanDefinition) &&
+                    this.restoredBeanDefinitionNames.remove(beanName))) {
                 throw new BeanDefinitionOverrideException(beanName, beanDefinition, existingDefinition);
             } else if (existingDefinition.getRole() < beanDefinition.getRole()) {
                 // e.g. was ROLE_APPLICATION, now overriding with ROLE_SUPPORT or ROLE_INFRASTRUCTURE
@@ -1051,6 +1545,7 @@ public class DefaultListableBeanFactory extends AbstractAutowireCapableBeanFacto
             }
             this.frozenBeanDefinitionNames = null;
         }
+        this.beanTypeIndex.register(beanName);
 
         if (existingDefinition != null || containsSingleton(beanName)) {
             resetBeanDefinition(beanName);
@@ -1070,6 +1565,7 @@ public class DefaultListableBeanFactory extends AbstractAutowireCapableBeanFacto
             }
             throw new NoSuchBeanDefinitionException(beanName);
         }
+        this.restoredBeanDefinitionNames.remove(beanName);
 
         if (hasBeanCreationStarted()) {
             // Cannot modify startup-time collection elements anymore (for stable iteration)
@@ -1083,6 +1579,7 @@ public class DefaultListableBeanFactory extends AbstractAutowireCapableBeanFacto
             this.beanDefinitionNames.remove(beanName);
         }
         this.frozenBeanDefinitionNames = null;
+        this.beanTypeIndex.remove(beanName);
 
         resetBeanDefinition(beanName);
     }
@@ -1149,6 +1646,9 @@ public class DefaultListableBeanFactory extends AbstractAutowireCapableBeanFacto
     public void registerSingleton(String beanName, Object singletonObject) throws IllegalStateException {
         super.registerSingleton(beanName, singletonObject);
         updateManualSingletonNames(set -> set.add(beanName), set -> !this.beanDefinitionMap.containsKey(beanName));
+        if (!(singletonObject instanceof FactoryBean)) {
+            this.manualSingletonTypes.put(beanName, singletonObject.getClass());
+        }
         clearByTypeCache();
     }
 
@@ -1156,6 +1656,7 @@ public class DefaultListableBeanFactory extends AbstractAutowireCapableBeanFacto
     public void destroySingletons() {
         super.destroySingletons();
         updateManualSingletonNames(Set::clear, set -> !set.isEmpty());
+        this.manualSingletonTypes.clear();
         clearByTypeCache();
     }
 
@@ -1168,6 +1669,7 @@ public class DefaultListableBeanFactory extends AbstractAutowireCapableBeanFacto
 
     private void removeManualSingletonName(String beanName) {
         updateManualSingletonNames(set -> set.remove(beanName), set -> set.contains(beanName));
+        this.manualSingletonTypes.remove(beanName);
     }
 
     /**
@@ -1201,6 +1703,8 @@ public class DefaultListableBeanFactory extends AbstractAutowireCapableBeanFacto
     private void clearByTypeCache() {
         this.allBeanNamesByType.clear();
         this.singletonBeanNamesByType.clear();
+        this.allBeanNamesByResolvableType.clear();
+        this.singletonBeanNamesByResolvableType.clear();
     }
 
 
@@ -1304,7 +1808,17 @@ public class DefaultListableBeanFactory extends AbstractAutowireCapableBeanFacto
             Object result = getAutowireCandidateResolver().getLazyResolutionProxyIfNecessary(
                     descriptor, requestingBeanName);
             if (result == null) {
-                result = doResolveDependency(descriptor, requestingBeanName, autowiredBeanNames, typeConverter);
+                StartupStep resolve = startBeanStep("spring.beans.autowire.resolve", requestingBeanName);
+                if (resolve != null) {
+                    resolve.tag("dependencyType", descriptor.getDependencyType().getName());
+                }
+                try {
+                    result = doResolveDependency(descriptor, requestingBeanName, autowiredBeanNames, typeConverter);
+                } finally {
+                    if (resolve != null) {
+                        resolve.end();
+                    }
+                }
             }
             return result;
         }
@@ -1556,9 +2070,20 @@ public class DefaultListableBeanFactory extends AbstractAutowireCapableBeanFacto
                 }
             }
         }
-        for (String candidate : candidateNames) {
-            if (!isSelfReference(beanName, candidate) && isAutowireCandidate(candidate, descriptor)) {
-                addCandidateEntry(result, candidate, descriptor, requiredType);
+        Executor executor = this.autowireCandidateExecutor;
+        if (executor != null && descriptor instanceof MultiElementDescriptor && isSingletonCreationLockStriping()) {
+            List<String> matchingNames = new ArrayList<>(candidateNames.length);
+            for (String candidate : candidateNames) {
+                if (!isSelfReference(beanName, candidate) && isAutowireCandidate(candidate, descriptor)) {
+                    matchingNames.add(candidate);
+                }
+            }
+            addCandidateEntriesInParallel(result, matchingNames, descriptor, requiredType, executor);
+        } else {
+            for (String candidate : candidateNames) {
+                if (!isSelfReference(beanName, candidate) && isAutowireCandidate(candidate, descriptor)) {
+                    addCandidateEntry(result, candidate, descriptor, requiredType);
+                }
             }
         }
         if (result.isEmpty()) {
@@ -1607,6 +2132,98 @@ public class DefaultListableBeanFactory extends AbstractAutowireCapableBeanFacto
         }
     }
 
+    /**
+     * Add entries for the given candidates of a multi-element injection point to
+     * the candidate map, in the given order, creating singleton candidates which
+     * do not exist yet on the given executor.
+     * <p>In case of failures, the exception for the first failed candidate in
+     * the given order is rethrown once all started creations have finished, with
+     * further failures attached as related causes.
+     *
+     * @see #setAutowireCandidateExecutor
+     */
+    private void addCandidateEntriesInParallel(Map<String, Object> candidates, List<String> candidateNames,
+                                               DependencyDescriptor descriptor, Class<?> requiredType, Executor executor) {
+
+        Map<String, CandidateResolution> resolutions = new HashMap<>();
+        for (String candidateName : candidateNames) {
+            if (isParallelCandidate(candidateName)) {
+                resolutions.put(candidateName, new CandidateResolution(candidateName, descriptor, requiredType));
+            }
+        }
+        if (resolutions.size() < 2) {
+            for (String candidateName : candidateNames) {
+                addCandidateEntry(candidates, candidateName, descriptor, requiredType);
+            }
+            return;
+        }
+        for (CandidateResolution resolution : resolutions.values()) {
+            try {
+                executor.execute(resolution);
+            } catch (RejectedExecutionException ex) {
+                // Executor saturated or shut down -> resolved on the calling thread when awaited.
+            }
+        }
+
+        Throwable primary = null;
+        for (String candidateName : candidateNames) {
+            CandidateResolution resolution = resolutions.get(candidateName);
+            if (primary != null) {
+                // Failed already -> do not start further creations, just wait for running ones.
+                if (resolution != null && !resolution.cancel()) {
+                    Throwable related = resolution.awaitFailure();
+                    if (related != null) {
+                        addRelatedFailure(primary, related);
+                    }
+                }
+                continue;
+            }
+            try {
+                if (resolution != null) {
+                    Object beanInstance = resolution.await();
+                    if (!(beanInstance instanceof NullBean)) {
+                        candidates.put(candidateName, beanInstance);
+                    }
+                } else {
+                    addCandidateEntry(candidates, candidateName, descriptor, requiredType);
+                }
+            } catch (Throwable ex) {
+                primary = ex;
+            }
+        }
+        if (primary instanceof RuntimeException) {
+            throw (RuntimeException) primary;
+        }
+        if (primary instanceof Error) {
+            throw (Error) primary;
+        }
+        if (primary != null) {
+            throw new BeanCreationException("Parallel resolution of autowire candidates failed", primary);
+        }
+    }
+
+    /**
+     * Determine whether the given candidate may be created on another thread:
+     * a local singleton which neither exists nor is currently in creation
+     * (and thus possibly needed as early reference on the calling thread).
+     */
+    private boolean isParallelCandidate(String candidateName) {
+        if (containsSingleton(candidateName) || isCurrentlyInCreation(candidateName) ||
+                !containsBeanDefinition(candidateName)) {
+            return false;
+        }
+        RootBeanDefinition mbd = getMergedLocalBeanDefinition(candidateName);
+        return (mbd.isSingleton() && !mbd.isAbstract());
+    }
+
+    private static void addRelatedFailure(Throwable primary, Throwable related) {
+        if (primary instanceof BeanCreationException) {
+            ((BeanCreationException) primary).addRelatedCause(related);
+        } else {
+            primary.addSuppressed(related);
+        }
+    }
+
     /**
      * Determine the autowire candidate in the given set of beans.
      * <p>Looks for {@code @Primary} and {@code @Priority} (in that order).
@@ -2108,6 +2725,89 @@ public class DefaultListableBeanFactory extends AbstractAutowireCapableBeanFacto
     }
 
 
+    /**
+     * Resolution of a candidate bean on an executor thread, claimed by either the
+     * executor or the waiting thread: whoever comes first creates the bean.
+     */
+    private class CandidateResolution implements Runnable {
+
+        private final String candidateName;
+
+        private final DependencyDescriptor descriptor;
+
+        private final Class<?> requiredType;
+
+        private final AtomicBoolean claimed = new AtomicBoolean();
+
+        private final CompletableFuture<Object> result = new CompletableFuture<>();
+
+        CandidateResolution(String candidateName, DependencyDescriptor descriptor, Class<?> requiredType) {
+            this.candidateName = candidateName;
+            this.descriptor = descriptor;
+            this.requiredType = requiredType;
+        }
+
+        @Override
+        public void run() {
+            if (this.claimed.compareAndSet(false, true)) {
+                InjectionPoint previousInjectionPoint = ConstructorResolver.setCurrentInjectionPoint(this.descriptor);
+                try {
+                    resolve();
+                } finally {
+                    ConstructorResolver.setCurrentInjectionPoint(previousInjectionPoint);
+                }
+            }
+        }
+
+        private void resolve() {
+            try {
+                this.result.complete(this.descriptor.resolveCandidate(
+                        this.candidateName, this.requiredType, DefaultListableBeanFactory.this));
+            } catch (Throwable ex) {
+                this.result.completeExceptionally(ex);
+            }
+        }
+
+        /**
+         * Prevent the resolution from starting.
+         *
+         * @return {@code true} if cancelled, {@code false} if already started
+         */
+        boolean cancel() {
+            return this.claimed.compareAndSet(false, true);
+        }
+
+        /**
+         * Return the resolved candidate, resolving it on the calling thread if not started yet.
+         */
+        Object await() throws Throwable {
+            if (this.claimed.compareAndSet(false, true)) {
+                resolve();
+            }
+            try {
+                return awaitSingletonCreation(this.candidateName, this.result);
+            } catch (ExecutionException ex) {
+                throw ex.getCause();
+            }
+        }
+
+        /**
+         * Wait for the started resolution and return its failure, if any.
+         */
+        @Nullable
+        Throwable awaitFailure() {
+            try {
+                awaitSingletonCreation(this.candidateName, this.result);
+                return null;
+            } catch (ExecutionException ex) {
+                return ex.getCause();
+            } catch (Throwable ex) {
+                return ex;
+            }
+        }
+    }
+
+
     /**
      * An {@link OrderComparator.OrderSourceProvider} implementation
      * that is aware of the bean metadata of the instances to sort.
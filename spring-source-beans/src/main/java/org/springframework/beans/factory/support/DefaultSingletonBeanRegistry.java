@@ -18,6 +18,7 @@ package org.springframework.beans.factory.support;
 
 import org.springframework.beans.factory.*;
 import org.springframework.beans.factory.config.SingletonBeanRegistry;
+import org.springframework.core.NamedThreadLocal;
 import org.springframework.core.SimpleAliasRegistry;
 import org.springframework.lang.Nullable;
 import org.springframework.util.Assert;
@@ -25,6 +26,10 @@ import org.springframework.util.StringUtils;
 
 import java.util.*;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
 
 /**
  * Generic registry for shared bean instances, implementing the
@@ -118,14 +123,35 @@ public class DefaultSingletonBeanRegistry extends SimpleAliasRegistry implements
 
     /**
      * Collection of suppressed Exceptions, available for associating related causes.
+     * Tracked per thread since singletons may get created concurrently.
      */
-    @Nullable
-    private Set<Exception> suppressedExceptions;
+    private final ThreadLocal<Set<Exception>> suppressedExceptions =
+            new NamedThreadLocal<>("Suppressed exceptions in singleton creation");
+
+    /**
+     * Whether to lock singleton creation per bean name instead of globally.
+     */
+    private boolean singletonCreationLockStriping = false;
+
+    /**
+     * Per-bean-name creation locks, used in case of lock striping.
+     */
+    private final SingletonCreationLocks singletonCreationLocks = new SingletonCreationLocks();
+
+    /**
+     * Number of threads for destroying independent singletons in parallel.
+     */
+    private int destructionParallelism = 1;
+
+    /**
+     * Maximum time in milliseconds to wait for parallel singleton destruction.
+     */
+    private long destructionTimeout = 0;
 
     /**
      * Flag that indicates whether we're currently within destroySingletons.
      */
-    private boolean singletonsCurrentlyInDestruction = false;
+    private volatile boolean singletonsCurrentlyInDestruction = false;
 
     /**
      * Disposable bean instances: bean name to disposable instance.
@@ -139,18 +165,88 @@ public class DefaultSingletonBeanRegistry extends SimpleAliasRegistry implements
     private final Map<String, Set<String>> containedBeanMap = new ConcurrentHashMap<>(16);
 
     /**
-     * Map between dependent bean names: bean name to Set of dependent bean names.
-     * 被哪些依赖
-     * TODO 正向依赖 A -> B
+     * Graph between dependent bean names: bean name to dependent bean names (被哪些依赖, 正向依赖 A -> B)
+     * and bean name to the bean's dependencies (依赖的Bean dependsOn, 反向依赖 B <- A).
+     */
+    private final BeanDependencyGraph dependencyGraph = new BeanDependencyGraph();
+
+
+    /**
+     * Set whether singleton creation should be locked per bean name rather than
+     * through the global singleton mutex, allowing unrelated singletons to be
+     * created concurrently (e.g. lazy-init beans first requested by many threads,
+     * or parallel pre-instantiation).
+     * <p>Default is "false": every singleton creation holds the global mutex.
+     * <p>With striping, a singleton that is currently in creation is only exposed
+     * as early reference to the thread creating it; other threads wait for the
+     * fully initialized instance. A circular reference spanning several threads
+     * is detected while waiting and resolved through the early reference, like
+     * within a single thread.
+     *
+     * @see #getSingleton(String, ObjectFactory)
+     * @see #doWithSingletonCreationLock
+     */
+    public void setSingletonCreationLockStriping(boolean singletonCreationLockStriping) {
+        this.singletonCreationLockStriping = singletonCreationLockStriping;
+    }
+
+    /**
+     * Return whether singleton creation is locked per bean name.
+     */
+    public boolean isSingletonCreationLockStriping() {
+        return this.singletonCreationLockStriping;
+    }
+
+    /**
+     * Set the number of threads for destroying singletons in parallel on shutdown.
+     * <p>With a value greater than 1, {@link #destroySingletons()} computes the
+     * reverse dependency graph of the registered beans and destroys every bean
+     * as soon as all beans depending on it have been destroyed, on a temporary
+     * pool of the given size. Beans on a dependency cycle are destroyed one after
+     * the other at the end, as in sequential mode.
+     * <p>Default is 1, destroying all singletons on the calling thread in
+     * reverse registration order.
+     *
+     * @see #setDestructionTimeout
      */
-    private final Map<String, Set<String>> dependentBeanMap = new ConcurrentHashMap<>(64);
+    public void setDestructionParallelism(int destructionParallelism) {
+        Assert.isTrue(destructionParallelism > 0, "Destruction parallelism must be greater than 0");
+        this.destructionParallelism = destructionParallelism;
+    }
 
     /**
-     * Map between depending bean names: bean name to Set of bean names for the bean's dependencies.
-     * 依赖的Bean dependsOn
-     * TODO 反向依赖 B <- A
+     * Return the number of threads for destroying singletons in parallel.
      */
-    private final Map<String, Set<String>> dependenciesForBeanMap = new ConcurrentHashMap<>(64);
+    public int getDestructionParallelism() {
+        return this.destructionParallelism;
+    }
+
+    /**
+     * Set the maximum time in milliseconds to wait for parallel singleton
+     * destruction. Once elapsed, beans which have not been destroyed yet are
+     * logged and left alone, and destroy methods still running get interrupted.
+     * If those return shortly after, the remaining beans are discarded without
+     * being destroyed and the registry is cleared as usual.
+     * <p>Otherwise, the registry is left in destruction for good, since those
+     * destroy methods still operate on it: singleton creation keeps getting
+     * rejected, and the singleton caches, dependencies and remaining disposable
+     * beans stay in place until {@link #destroySingletons()} is called again.
+     * This gets logged at error level.
+     * <p>Default is 0, waiting for all beans to be destroyed.
+     *
+     * @see #setDestructionParallelism
+     */
+    public void setDestructionTimeout(long destructionTimeout) {
+        Assert.isTrue(destructionTimeout >= 0, "Destruction timeout must not be negative");
+        this.destructionTimeout = destructionTimeout;
+    }
+
+    /**
+     * Return the maximum time in milliseconds to wait for parallel singleton destruction.
+     */
+    public long getDestructionTimeout() {
+        return this.destructionTimeout;
+    }
 
 
     @Override
@@ -223,27 +319,75 @@ public class DefaultSingletonBeanRegistry extends SimpleAliasRegistry implements
         // Quick check for existing instance without full singleton lock
         Object singletonObject = this.singletonObjects.get(beanName);
         if (singletonObject == null && isSingletonCurrentlyInCreation(beanName)) {
+            if (this.singletonCreationLockStriping && this.singletonCreationLocks.isLockedByOtherThread(beanName)) {
+                // Created by another thread: wait for the fully initialized instance instead.
+                return null;
+            }
             singletonObject = this.earlySingletonObjects.get(beanName);
             if (singletonObject == null && allowEarlyReference) {
-                synchronized (this.singletonObjects) {
-                    // Consistent creation of early reference within full singleton lock
-                    singletonObject = this.singletonObjects.get(beanName);
+                singletonObject = getEarlySingletonReference(beanName);
+            }
+        }
+        return singletonObject;
+    }
+
+    /**
+     * Obtain the early reference for the given singleton from its registered
+     * singleton factory, if not obtained before.
+     *
+     * @param beanName the name of the bean
+     * @return the early singleton reference, or {@code null} if none available
+     */
+    @Nullable
+    private Object getEarlySingletonReference(String beanName) {
+        if (!this.singletonCreationLockStriping) {
+            synchronized (this.singletonObjects) {
+                // Consistent creation of early reference within full singleton lock
+                Object singletonObject = this.singletonObjects.get(beanName);
+                if (singletonObject == null) {
+                    singletonObject = this.earlySingletonObjects.get(beanName);
                     if (singletonObject == null) {
-                        singletonObject = this.earlySingletonObjects.get(beanName);
-                        if (singletonObject == null) {
-                            ObjectFactory<?> singletonFactory = this.singletonFactories.get(beanName);
-                            if (singletonFactory != null) {
-                                // 这个singletonFactory 产生的对象，一定非空
-                                singletonObject = singletonFactory.getObject();
-                                this.earlySingletonObjects.put(beanName, singletonObject);
-                                this.singletonFactories.remove(beanName);
-                            }
+                        ObjectFactory<?> singletonFactory = this.singletonFactories.get(beanName);
+                        if (singletonFactory != null) {
+                            // 这个singletonFactory 产生的对象，一定非空
+                            singletonObject = singletonFactory.getObject();
+                            this.earlySingletonObjects.put(beanName, singletonObject);
+                            this.singletonFactories.remove(beanName);
                         }
                     }
                 }
+                return singletonObject;
             }
         }
-        return singletonObject;
+
+        // Lock striping: do not call out to the singleton factory within the global mutex,
+        // since post-processors may request further beans from there.
+        ObjectFactory<?> singletonFactory;
+        synchronized (this.singletonObjects) {
+            Object singletonObject = this.singletonObjects.get(beanName);
+            if (singletonObject == null) {
+                singletonObject = this.earlySingletonObjects.get(beanName);
+            }
+            if (singletonObject != null) {
+                return singletonObject;
+            }
+            singletonFactory = this.singletonFactories.get(beanName);
+        }
+        if (singletonFactory == null) {
+            return null;
+        }
+        Object earlyReference = singletonFactory.getObject();
+        synchronized (this.singletonObjects) {
+            Object singletonObject = this.singletonObjects.get(beanName);
+            if (singletonObject == null) {
+                singletonObject = this.earlySingletonObjects.putIfAbsent(beanName, earlyReference);
+                if (singletonObject == null) {
+                    singletonObject = earlyReference;
+                    this.singletonFactories.remove(beanName);
+                }
+            }
+            return singletonObject;
+        }
     }
 
     /**
@@ -257,52 +401,161 @@ public class DefaultSingletonBeanRegistry extends SimpleAliasRegistry implements
      */
     public Object getSingleton(String beanName, ObjectFactory<?> singletonFactory) {
         Assert.notNull(beanName, "Bean name must not be null");
-        synchronized (this.singletonObjects) {
-            Object singletonObject = this.singletonObjects.get(beanName);
-            if (singletonObject == null) {
-                if (this.singletonsCurrentlyInDestruction) {
-                    throw new BeanCreationNotAllowedException(beanName,
-                            "Singleton bean creation not allowed while singletons of this factory are in destruction " +
-                                    "(Do not request a bean from a BeanFactory in a destroy method implementation!)");
-                }
-                if (logger.isDebugEnabled()) {
-                    logger.debug("Creating shared instance of singleton bean '" + beanName + "'");
+        if (!this.singletonCreationLockStriping) {
+            synchronized (this.singletonObjects) {
+                return createSingletonIfNecessary(beanName, singletonFactory);
+            }
+        }
+
+        // Quick check for existing instance without any creation lock
+        Object singletonObject = this.singletonObjects.get(beanName);
+        if (singletonObject != null) {
+            return singletonObject;
+        }
+        if (!this.singletonCreationLocks.lock(beanName)) {
+            return getSingletonForCrossThreadCircularReference(beanName);
+        }
+        try {
+            return createSingletonIfNecessary(beanName, singletonFactory);
+        } finally {
+            this.singletonCreationLocks.unlock(beanName);
+        }
+    }
+
+    /**
+     * Create and register the given singleton unless registered already.
+     * To be called within the global mutex or the bean's own creation lock.
+     *
+     * @param beanName         the name of the bean
+     * @param singletonFactory the ObjectFactory to lazily create the singleton with
+     * @return the registered singleton object
+     */
+    private Object createSingletonIfNecessary(String beanName, ObjectFactory<?> singletonFactory) {
+        Object singletonObject = this.singletonObjects.get(beanName);
+        if (singletonObject == null) {
+            if (this.singletonsCurrentlyInDestruction) {
+                throw new BeanCreationNotAllowedException(beanName,
+                        "Singleton bean creation not allowed while singletons of this factory are in destruction " +
+                                "(Do not request a bean from a BeanFactory in a destroy method implementation!)");
+            }
+            if (logger.isDebugEnabled()) {
+                logger.debug("Creating shared instance of singleton bean '" + beanName + "'");
+            }
+            beforeSingletonCreation(beanName);
+            boolean newSingleton = false;
+            boolean recordSuppressedExceptions = (this.suppressedExceptions.get() == null);
+            if (recordSuppressedExceptions) {
+                this.suppressedExceptions.set(new LinkedHashSet<>());
+            }
+            try {
+                singletonObject = singletonFactory.getObject();
+                newSingleton = true;
+            } catch (IllegalStateException ex) {
+                // Has the singleton object implicitly appeared in the meantime ->
+                // if yes, proceed with it since the exception indicates that state.
+                singletonObject = this.singletonObjects.get(beanName);
+                if (singletonObject == null) {
+                    throw ex;
                 }
-                beforeSingletonCreation(beanName);
-                boolean newSingleton = false;
-                boolean recordSuppressedExceptions = (this.suppressedExceptions == null);
+            } catch (BeanCreationException ex) {
                 if (recordSuppressedExceptions) {
-                    this.suppressedExceptions = new LinkedHashSet<>();
-                }
-                try {
-                    singletonObject = singletonFactory.getObject();
-                    newSingleton = true;
-                } catch (IllegalStateException ex) {
-                    // Has the singleton object implicitly appeared in the meantime ->
-                    // if yes, proceed with it since the exception indicates that state.
-                    singletonObject = this.singletonObjects.get(beanName);
-                    if (singletonObject == null) {
-                        throw ex;
+                    for (Exception suppressedException : this.suppressedExceptions.get()) {
+                        ex.addRelatedCause(suppressedException);
                     }
-                } catch (BeanCreationException ex) {
-                    if (recordSuppressedExceptions) {
-                        for (Exception suppressedException : this.suppressedExceptions) {
-                            ex.addRelatedCause(suppressedException);
-                        }
-                    }
-                    throw ex;
-                } finally {
-                    if (recordSuppressedExceptions) {
-                        this.suppressedExceptions = null;
-                    }
-                    afterSingletonCreation(beanName);
                 }
-                if (newSingleton) {
-                    // TODO 加入单例池，删除其他二级三级缓存
-                    addSingleton(beanName, singletonObject);
+                throw ex;
+            } finally {
+                if (recordSuppressedExceptions) {
+                    this.suppressedExceptions.remove();
                 }
+                afterSingletonCreation(beanName);
             }
-            return singletonObject;
+            if (newSingleton) {
+                // TODO 加入单例池，删除其他二级三级缓存
+                addSingleton(beanName, singletonObject);
+            }
+        }
+        return singletonObject;
+    }
+
+    /**
+     * Resolve a circular reference across threads: the given singleton is in
+     * creation on another thread which in turn waits for the current thread.
+     * Like a circular reference within a single thread, this can only be
+     * resolved through an early reference to the singleton.
+     *
+     * @param beanName the name of the bean
+     * @return the early (or meanwhile fully initialized) singleton object
+     * @throws BeanCurrentlyInCreationException if no early reference is available
+     */
+    private Object getSingletonForCrossThreadCircularReference(String beanName) {
+        Object singletonObject = this.singletonObjects.get(beanName);
+        if (singletonObject == null) {
+            singletonObject = getEarlySingletonReference(beanName);
+        }
+        if (singletonObject == null) {
+            throw new BeanCurrentlyInCreationException(beanName,
+                    "Requested bean is currently in creation on another thread which is waiting for " +
+                            "the current thread: Is there an unresolvable circular reference?");
+        }
+        if (logger.isDebugEnabled()) {
+            logger.debug("Resolved circular reference to singleton bean '" + beanName +
+                    "' in creation on another thread through its early reference");
+        }
+        return singletonObject;
+    }
+
+    /**
+     * Perform the given action within the creation lock for the given singleton:
+     * the global singleton mutex by default, or the bean's own creation lock in
+     * case of {@link #setSingletonCreationLockStriping lock striping}.
+     * <p>To be used by subclasses for any extended singleton creation phase, e.g.
+     * obtaining the object from a singleton FactoryBean. In case of a circular
+     * reference across threads, the action gets performed without the lock.
+     *
+     * @param beanName the name of the bean
+     * @param action   the action to perform
+     * @return the result of the action
+     * @see #getSingletonMutex()
+     */
+    protected <T> T doWithSingletonCreationLock(String beanName, Supplier<T> action) {
+        if (!this.singletonCreationLockStriping) {
+            synchronized (this.singletonObjects) {
+                return action.get();
+            }
+        }
+        if (!this.singletonCreationLocks.lock(beanName)) {
+            return action.get();
+        }
+        try {
+            return action.get();
+        } finally {
+            this.singletonCreationLocks.unlock(beanName);
+        }
+    }
+
+    /**
+     * Wait for the creation of the given singleton on another thread, as tracked
+     * by the given future. In case of {@link #setSingletonCreationLockStriping
+     * lock striping}, the current thread is considered as waiting for the bean's
+     * creation lock meanwhile, so that a circular reference from the creating
+     * thread back to a singleton in creation on the current thread gets resolved
+     * through its early reference instead of blocking both threads.
+     *
+     * @param beanName the name of the singleton created on another thread
+     * @param future   the future completing with the creation result
+     * @return the result of the future
+     * @throws ExecutionException if the creation failed
+     */
+    protected <T> T awaitSingletonCreation(String beanName, Future<T> future) throws ExecutionException {
+        if (this.singletonCreationLockStriping) {
+            return this.singletonCreationLocks.await(beanName, future);
+        }
+        try {
+            return future.get();
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while waiting for creation of bean '" + beanName + "'", ex);
         }
     }
 
@@ -317,10 +570,9 @@ public class DefaultSingletonBeanRegistry extends SimpleAliasRegistry implements
      * @see BeanCreationException#getRelatedCauses()
      */
     protected void onSuppressedException(Exception ex) {
-        synchronized (this.singletonObjects) {
-            if (this.suppressedExceptions != null && this.suppressedExceptions.size() < SUPPRESSED_EXCEPTIONS_LIMIT) {
-                this.suppressedExceptions.add(ex);
-            }
+        Set<Exception> suppressedExceptions = this.suppressedExceptions.get();
+        if (suppressedExceptions != null && suppressedExceptions.size() < SUPPRESSED_EXCEPTIONS_LIMIT) {
+            suppressedExceptions.add(ex);
         }
     }
 
@@ -482,21 +734,7 @@ public class DefaultSingletonBeanRegistry extends SimpleAliasRegistry implements
      */
     public void registerDependentBean(String beanName, String dependentBeanName) {
         String canonicalName = canonicalName(beanName);
-
-        synchronized (this.dependentBeanMap) {
-            Set<String> dependentBeans =
-                    this.dependentBeanMap.computeIfAbsent(canonicalName, k -> new LinkedHashSet<>(8));
-            if (!dependentBeans.add(dependentBeanName)) {
-                // 这就叫代码优化，漂亮的代码流程
-                return;
-            }
-        }
-
-        synchronized (this.dependenciesForBeanMap) {
-            Set<String> dependenciesForBean =
-                    this.dependenciesForBeanMap.computeIfAbsent(dependentBeanName, k -> new LinkedHashSet<>(8));
-            dependenciesForBean.add(canonicalName);
-        }
+        this.dependencyGraph.addDependentBean(canonicalName, dependentBeanName);
     }
 
     /**
@@ -509,40 +747,7 @@ public class DefaultSingletonBeanRegistry extends SimpleAliasRegistry implements
      * @since 4.0
      */
     protected boolean isDependent(String beanName, String dependentBeanName) {
-        synchronized (this.dependentBeanMap) {
-            return isDependent(beanName, dependentBeanName, null);
-        }
-    }
-
-    /**
-     * 判断是否是有依赖的Bean
-     *
-     * @param beanName          the name of the bean to check
-     * @param dependentBeanName the name of the dependent bean
-     * @param alreadySeen       the set of bean names that have been "seen" already
-     */
-    private boolean isDependent(String beanName, String dependentBeanName, @Nullable Set<String> alreadySeen) {
-        if (alreadySeen != null && alreadySeen.contains(beanName)) {
-            return false;
-        }
-        String canonicalName = canonicalName(beanName);
-        Set<String> dependentBeans = this.dependentBeanMap.get(canonicalName);
-        if (dependentBeans == null || dependentBeans.isEmpty()) {
-            return false;
-        }
-        if (dependentBeans.contains(dependentBeanName)) {
-            return true;
-        }
-        if (alreadySeen == null) {
-            alreadySeen = new HashSet<>();
-        }
-        alreadySeen.add(beanName);
-        for (String transitiveDependency : dependentBeans) {
-            if (isDependent(transitiveDependency, dependentBeanName, alreadySeen)) {
-                return true;
-            }
-        }
-        return false;
+        return this.dependencyGraph.isDependent(beanName, dependentBeanName, this::canonicalName);
     }
 
     /**
@@ -551,7 +756,7 @@ public class DefaultSingletonBeanRegistry extends SimpleAliasRegistry implements
      * @param beanName the name of the bean to check
      */
     protected boolean hasDependentBean(String beanName) {
-        return this.dependentBeanMap.containsKey(beanName);
+        return this.dependencyGraph.hasDependentBeans(beanName);
     }
 
     /**
@@ -561,13 +766,7 @@ public class DefaultSingletonBeanRegistry extends SimpleAliasRegistry implements
      * @return the array of dependent bean names, or an empty array if none
      */
     public String[] getDependentBeans(String beanName) {
-        Set<String> dependentBeans = this.dependentBeanMap.get(beanName);
-        if (dependentBeans == null) {
-            return new String[0];
-        }
-        synchronized (this.dependentBeanMap) {
-            return StringUtils.toStringArray(dependentBeans);
-        }
+        return this.dependencyGraph.getDependentBeans(beanName);
     }
 
     /**
@@ -578,13 +777,17 @@ public class DefaultSingletonBeanRegistry extends SimpleAliasRegistry implements
      * or an empty array if none
      */
     public String[] getDependenciesForBean(String beanName) {
-        Set<String> dependenciesForBean = this.dependenciesForBeanMap.get(beanName);
-        if (dependenciesForBean == null) {
-            return new String[0];
-        }
-        synchronized (this.dependenciesForBeanMap) {
-            return StringUtils.toStringArray(dependenciesForBean);
-        }
+        return this.dependencyGraph.getDependenciesForBean(beanName);
+    }
+
+    /**
+     * Return an immutable snapshot of all dependencies registered so far,
+     * e.g. for tooling which visualizes or analyzes the dependency graph.
+     *
+     * @see #registerDependentBean
+     */
+    public DependencyGraphSnapshot getDependencyGraphSnapshot() {
+        return this.dependencyGraph.snapshot();
     }
 
     public void destroySingletons() {
@@ -599,18 +802,47 @@ public class DefaultSingletonBeanRegistry extends SimpleAliasRegistry implements
         synchronized (this.disposableBeans) {
             disposableBeanNames = StringUtils.toStringArray(this.disposableBeans.keySet());
         }
-        for (int i = disposableBeanNames.length - 1; i >= 0; i--) {
-            // 逆序销毁
-            destroySingleton(disposableBeanNames[i]);
+        if (this.destructionParallelism > 1 && disposableBeanNames.length > 1) {
+            if (!destroySingletonsInParallel(disposableBeanNames)) {
+                // Destroy methods are still running: keep the state they operate on.
+                return;
+            }
+            synchronized (this.disposableBeans) {
+                // Discard beans abandoned after the timeout.
+                for (String beanName : disposableBeanNames) {
+                    this.disposableBeans.remove(beanName);
+                }
+            }
+        } else {
+            for (int i = disposableBeanNames.length - 1; i >= 0; i--) {
+                // 逆序销毁
+                destroySingleton(disposableBeanNames[i]);
+            }
         }
 
         this.containedBeanMap.clear();
-        this.dependentBeanMap.clear();
-        this.dependenciesForBeanMap.clear();
+        this.dependencyGraph.clear();
 
         clearSingletonCache();
     }
 
+    /**
+     * Destroy the given beans and all beans depending on them in parallel,
+     * following a snapshot of the registered dependencies.
+     *
+     * @param disposableBeanNames the disposable bean names in registration order
+     * @return {@code false} if destroy methods are still running after the timeout
+     * @see #setDestructionParallelism
+     */
+    private boolean destroySingletonsInParallel(String[] disposableBeanNames) {
+        List<String> beanNames = new ArrayList<>(disposableBeanNames.length);
+        for (int i = disposableBeanNames.length - 1; i >= 0; i--) {
+            beanNames.add(disposableBeanNames[i]);
+        }
+        return new ParallelSingletonDestruction(this, beanNames, this.dependencyGraph.snapshot())
+                .destroy(this.destructionParallelism, this.destructionTimeout);
+    }
+
     /**
      * Clear all cached singleton instances in this registry.
      *
@@ -654,14 +886,10 @@ public class DefaultSingletonBeanRegistry extends SimpleAliasRegistry implements
      */
     protected void destroyBean(String beanName, @Nullable DisposableBean bean) {
         // Trigger destruction of dependent beans first...
-        Set<String> dependencies;
-        synchronized (this.dependentBeanMap) {
-            // Within full synchronization in order to guarantee a disconnected Set
-            dependencies = this.dependentBeanMap.remove(beanName);
-        }
-        if (dependencies != null) {
+        String[] dependencies = this.dependencyGraph.removeDependentBeans(beanName);
+        if (dependencies.length > 0) {
             if (logger.isTraceEnabled()) {
-                logger.trace("Retrieved dependent beans for bean '" + beanName + "': " + dependencies);
+                logger.trace("Retrieved dependent beans for bean '" + beanName + "': " + Arrays.toString(dependencies));
             }
             for (String dependentBeanName : dependencies) {
                 destroySingleton(dependentBeanName);
@@ -670,6 +898,7 @@ public class DefaultSingletonBeanRegistry extends SimpleAliasRegistry implements
 
         // Actually destroy the bean now...
         if (bean != null) {
+            long startTime = System.nanoTime();
             try {
                 bean.destroy();
             } catch (Throwable ex) {
@@ -677,6 +906,10 @@ public class DefaultSingletonBeanRegistry extends SimpleAliasRegistry implements
                     logger.warn("Destruction of bean with name '" + beanName + "' threw an exception", ex);
                 }
             }
+            if (logger.isDebugEnabled()) {
+                logger.debug("Destroyed bean '" + beanName + "' in " +
+                        TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startTime) + " ms");
+            }
         }
 
         // Trigger destruction of contained beans...
@@ -691,20 +924,9 @@ public class DefaultSingletonBeanRegistry extends SimpleAliasRegistry implements
             }
         }
 
-        // Remove destroyed bean from other beans' dependencies.
-        synchronized (this.dependentBeanMap) {
-            for (Iterator<Map.Entry<String, Set<String>>> it = this.dependentBeanMap.entrySet().iterator(); it.hasNext(); ) {
-                Map.Entry<String, Set<String>> entry = it.next();
-                Set<String> dependenciesToClean = entry.getValue();
-                dependenciesToClean.remove(beanName);
-                if (dependenciesToClean.isEmpty()) {
-                    it.remove();
-                }
-            }
-        }
-
-        // Remove destroyed bean's prepared dependency information.
-        this.dependenciesForBeanMap.remove(beanName);
+        // Remove destroyed bean from other beans' dependencies,
+        // as well as destroyed bean's prepared dependency information.
+        this.dependencyGraph.removeBean(beanName);
     }
 
     /**
@@ -713,6 +935,9 @@ public class DefaultSingletonBeanRegistry extends SimpleAliasRegistry implements
      * any sort of extended singleton creation phase. In particular, subclasses
      * should <i>not</i> have their own mutexes involved in singleton creation,
      * to avoid the potential for deadlocks in lazy-init situations.
+     * <p>Note that with {@link #setSingletonCreationLockStriping lock striping},
+     * the mutex only guards short-lived updates of the singleton caches; extended
+     * creation phases should go through {@link #doWithSingletonCreationLock} then.
      */
     @Override
     public final Object getSingletonMutex() {
@@ -0,0 +1,131 @@
+/*
+ * Copyright 2002-2023 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.beans.factory.support;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.BiConsumer;
+
+/**
+ * Immutable snapshot of the dependencies registered with a
+ * {@link DefaultSingletonBeanRegistry}, e.g. for visualization or analysis
+ * by tooling.
+ *
+ * <p>An edge from a bean to a dependent bean means that the dependent bean
+ * depends on the bean, and has to be destroyed before it.
+ *
+ * @see DefaultSingletonBeanRegistry#getDependencyGraphSnapshot()
+ */
+public final class DependencyGraphSnapshot {
+
+    private static final String[] EMPTY_NAMES = new String[0];
+
+
+    private final String[] beanNames;
+
+    private final int[][] dependents;
+
+    private final int[][] dependencies;
+
+    private final int edgeCount;
+
+    private final Map<String, Integer> ids;
+
+
+    DependencyGraphSnapshot(String[] beanNames, int[][] dependents, int[][] dependencies, int edgeCount) {
+        this.beanNames = beanNames;
+        this.dependents = dependents;
+        this.dependencies = dependencies;
+        this.edgeCount = edgeCount;
+        this.ids = new HashMap<>(beanNames.length * 2);
+        for (int i = 0; i < beanNames.length; i++) {
+            this.ids.put(beanNames[i], i);
+        }
+    }
+
+
+    /**
+     * Return the names of all beans that are part of a registered dependency.
+     * Beans whose dependencies have all been removed again are not included.
+     */
+    public List<String> getBeanNames() {
+        return Collections.unmodifiableList(Arrays.asList(this.beanNames));
+    }
+
+    /**
+     * Return the number of registered dependencies.
+     */
+    public int getDependencyCount() {
+        return this.edgeCount;
+    }
+
+    /**
+     * Return the names of all beans which depend on the specified bean.
+     *
+     * @param beanName the name of the bean
+     * @return the dependent bean names in registration order, or an empty array if none
+     */
+    public String[] getDependentBeans(String beanName) {
+        Integer id = this.ids.get(beanName);
+        return (id != null ? toNames(this.dependents[id]) : EMPTY_NAMES);
+    }
+
+    /**
+     * Return the names of all beans that the specified bean depends on.
+     *
+     * @param beanName the name of the bean
+     * @return the dependency names in registration order, or an empty array if none
+     */
+    public String[] getDependenciesForBean(String beanName) {
+        Integer id = this.ids.get(beanName);
+        return (id != null ? toNames(this.dependencies[id]) : EMPTY_NAMES);
+    }
+
+    /**
+     * Invoke the given callback for every dependency, with the name of the bean
+     * and the name of the dependent bean.
+     */
+    public void forEachDependency(BiConsumer<String, String> action) {
+        for (int i = 0; i < this.beanNames.length; i++) {
+            for (int dependentId : this.dependents[i]) {
+                action.accept(this.beanNames[i], this.beanNames[dependentId]);
+            }
+        }
+    }
+
+    private String[] toNames(int[] ids) {
+        if (ids.length == 0) {
+            return EMPTY_NAMES;
+        }
+        String[] result = new String[ids.length];
+        for (int i = 0; i < ids.length; i++) {
+            result[i] = this.beanNames[ids[i]];
+        }
+        return result;
+    }
+
+
+    @Override
+    public String toString() {
+        return "DependencyGraphSnapshot: " + this.beanNames.length + " beans, " +
+                this.edgeCount + " dependencies";
+    }
+
+}
@@ -25,6 +25,9 @@ import org.springframework.lang.Nullable;
 import org.springframework.util.*;
 
 import java.io.Serializable;
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
 import java.lang.reflect.InvocationTargetException;
 import java.lang.reflect.Method;
 import java.security.*;
@@ -59,6 +62,8 @@ class DisposableBeanAdapter implements DisposableBean, Runnable, Serializable {
 
     private static final String SHUTDOWN_METHOD_NAME = "shutdown";
 
+    private static final MethodType DESTROY_METHOD_HANDLE_TYPE = MethodType.methodType(void.class, Object.class);
+
 
     private static final Log logger = LogFactory.getLog(DisposableBeanAdapter.class);
 
@@ -78,6 +83,9 @@ class DisposableBeanAdapter implements DisposableBean, Runnable, Serializable {
     @Nullable
     private transient Method destroyMethod;
 
+    @Nullable
+    private transient MethodHandle destroyMethodHandle;
+
     @Nullable
     private final List<DestructionAwareBeanPostProcessor> beanPostProcessors;
 
@@ -112,26 +120,13 @@ class DisposableBeanAdapter implements DisposableBean, Runnable, Serializable {
             this.invokeAutoCloseable = (bean instanceof AutoCloseable && CLOSE_METHOD_NAME.equals(destroyMethodName));
             if (!this.invokeAutoCloseable) {
                 this.destroyMethodName = destroyMethodName;
-                Method destroyMethod = determineDestroyMethod(destroyMethodName);
-                if (destroyMethod == null) {
-                    if (beanDefinition.isEnforceDestroyMethod()) {
-                        throw new BeanDefinitionValidationException("Could not find a destroy method named '" +
-                                destroyMethodName + "' on bean with name '" + beanName + "'");
-                    }
-                } else {
-                    if (destroyMethod.getParameterCount() > 0) {
-                        Class<?>[] paramTypes = destroyMethod.getParameterTypes();
-                        if (paramTypes.length > 1) {
-                            throw new BeanDefinitionValidationException("Method '" + destroyMethodName + "' of bean '" +
-                                    beanName + "' has more than one parameter - not supported as destroy method");
-                        } else if (paramTypes.length == 1 && boolean.class != paramTypes[0]) {
-                            throw new BeanDefinitionValidationException("Method '" + destroyMethodName + "' of bean '" +
-                                    beanName + "' has a non-boolean parameter - not supported as destroy method");
-                        }
-                    }
-                    destroyMethod = ClassUtils.getInterfaceMethodIfPossible(destroyMethod, bean.getClass());
+                ResolvedDestroyMethod resolved = beanDefinition.resolvedDestroyMethod;
+                if (resolved == null || !resolved.matches(bean.getClass(), destroyMethodName)) {
+                    resolved = resolveDestroyMethod(destroyMethodName, beanDefinition);
+                    beanDefinition.resolvedDestroyMethod = resolved;
                 }
-                this.destroyMethod = destroyMethod;
+                this.destroyMethod = resolved.destroyMethod;
+                this.destroyMethodHandle = resolved.destroyMethodHandle;
             }
         }
 
@@ -250,6 +245,60 @@ class DisposableBeanAdapter implements DisposableBean, Runnable, Serializable {
     }
 
 
+    /**
+     * Find and validate the given destroy method on the bean class, preparing
+     * a {@link MethodHandle} for invoking it.
+     */
+    private ResolvedDestroyMethod resolveDestroyMethod(String destroyMethodName, RootBeanDefinition beanDefinition) {
+        Method destroyMethod = determineDestroyMethod(destroyMethodName);
+        MethodHandle destroyMethodHandle = null;
+        if (destroyMethod == null) {
+            if (beanDefinition.isEnforceDestroyMethod()) {
+                throw new BeanDefinitionValidationException("Could not find a destroy method named '" +
+                        destroyMethodName + "' on bean with name '" + this.beanName + "'");
+            }
+        } else {
+            if (destroyMethod.getParameterCount() > 0) {
+                Class<?>[] paramTypes = destroyMethod.getParameterTypes();
+                if (paramTypes.length > 1) {
+                    throw new BeanDefinitionValidationException("Method '" + destroyMethodName + "' of bean '" +
+                            this.beanName + "' has more than one parameter - not supported as destroy method");
+                } else if (paramTypes.length == 1 && boolean.class != paramTypes[0]) {
+                    throw new BeanDefinitionValidationException("Method '" + destroyMethodName + "' of bean '" +
+                            this.beanName + "' has a non-boolean parameter - not supported as destroy method");
+                }
+            }
+            destroyMethod = ClassUtils.getInterfaceMethodIfPossible(destroyMethod, this.bean.getClass());
+            if (System.getSecurityManager() == null) {
+                destroyMethodHandle = createDestroyMethodHandle(destroyMethod);
+            }
+        }
+        return new ResolvedDestroyMethod(this.bean.getClass(), destroyMethodName, destroyMethod, destroyMethodHandle);
+    }
+
+    /**
+     * Create a handle for the given destroy method, with a "force" argument of
+     * {@code true} bound in case of a boolean parameter.
+     *
+     * @return the handle, or {@code null} if the method cannot be accessed this way
+     */
+    @Nullable
+    private static MethodHandle createDestroyMethodHandle(Method destroyMethod) {
+        try {
+            ReflectionUtils.makeAccessible(destroyMethod);
+            MethodHandle handle = MethodHandles.lookup().unreflect(destroyMethod);
+            if (destroyMethod.getParameterCount() == 1) {
+                handle = MethodHandles.insertArguments(handle, 1, Boolean.TRUE);
+            }
+            return handle.asType(DESTROY_METHOD_HANDLE_TYPE);
+        } catch (IllegalAccessException | RuntimeException ex) {
+            if (logger.isDebugEnabled()) {
+                logger.debug("Falling back to reflective invocation of destroy method " + destroyMethod + ": " + ex);
+            }
+            return null;
+        }
+    }
+
     @Nullable
     private Method determineDestroyMethod(String name) {
         try {
@@ -299,6 +348,13 @@ class DisposableBeanAdapter implements DisposableBean, Runnable, Serializable {
                 } catch (PrivilegedActionException pax) {
                     throw (InvocationTargetException) pax.getException();
                 }
+            } else if (this.destroyMethodHandle != null && destroyMethod.equals(this.destroyMethod)) {
+                try {
+                    this.destroyMethodHandle.invokeExact(this.bean);
+                } catch (Throwable ex) {
+                    // Reported by the InvocationTargetException handler below, like Method.invoke failures.
+                    throw new InvocationTargetException(ex);
+                }
             } else {
                 ReflectionUtils.makeAccessible(destroyMethod);
                 destroyMethod.invoke(this.bean, args);
@@ -438,4 +494,35 @@ class DisposableBeanAdapter implements DisposableBean, Runnable, Serializable {
         return filteredPostProcessors;
     }
 
+
+    /**
+     * Destroy method resolved for a bean class, cached on the merged bean definition
+     * for further beans of the same definition (e.g. prototypes or scoped beans).
+     */
+    static final class ResolvedDestroyMethod {
+
+        private final Class<?> beanClass;
+
+        private final String destroyMethodName;
+
+        @Nullable
+        final Method destroyMethod;
+
+        @Nullable
+        final MethodHandle destroyMethodHandle;
+
+        ResolvedDestroyMethod(Class<?> beanClass, String destroyMethodName,
+                              @Nullable Method destroyMethod, @Nullable MethodHandle destroyMethodHandle) {
+
+            this.beanClass = beanClass;
+            this.destroyMethodName = destroyMethodName;
+            this.destroyMethod = destroyMethod;
+            this.destroyMethodHandle = destroyMethodHandle;
+        }
+
+        boolean matches(Class<?> beanClass, String destroyMethodName) {
+            return (this.beanClass == beanClass && this.destroyMethodName.equals(destroyMethodName));
+        }
+    }
+
 }
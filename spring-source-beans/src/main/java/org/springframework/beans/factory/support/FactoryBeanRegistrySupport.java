@@ -96,7 +96,7 @@ public abstract class FactoryBeanRegistrySupport extends DefaultSingletonBeanReg
      */
     protected Object getObjectFromFactoryBean(FactoryBean<?> factory, String beanName, boolean shouldPostProcess) {
         if (factory.isSingleton() && containsSingleton(beanName)) {
-            synchronized (getSingletonMutex()) {
+            return doWithSingletonCreationLock(beanName, () -> {
                 Object object = this.factoryBeanObjectCache.get(beanName);
                 if (object == null) {
                     object = doGetObjectFromFactoryBean(factory, beanName);
@@ -128,7 +128,7 @@ public abstract class FactoryBeanRegistrySupport extends DefaultSingletonBeanReg
                     }
                 }
                 return object;
-            }
+            });
         } else {
             Object object = doGetObjectFromFactoryBean(factory, beanName);
             if (shouldPostProcess) {
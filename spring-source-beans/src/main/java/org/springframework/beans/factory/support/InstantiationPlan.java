@@ -0,0 +1,182 @@
+/*
+ * Copyright 2002-2023 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.beans.factory.support;
+
+import org.springframework.beans.PropertyValues;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.beans.factory.config.InstantiationAwareBeanPostProcessor;
+import org.springframework.lang.Nullable;
+
+import java.beans.PropertyDescriptor;
+import java.lang.reflect.Method;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Instantiation plan for a non-singleton bean definition, computed once after
+ * the first full creation of such a bean and attached to its merged
+ * {@link RootBeanDefinition}, letting repeated creations skip no-op work.
+ *
+ * <p>Records the resolved constructor state, the property names to autowire
+ * by name or by type, and the post-processors that actually override each
+ * callback of the bean lifecycle: post-processors inheriting a default
+ * interface method (e.g. {@code postProcessBeforeInitialization} returning
+ * the bean as-is) are filtered out of the corresponding phase.
+ *
+ * <p>A plan is only valid for the {@link AbstractBeanFactory.BeanPostProcessorCache}
+ * it has been computed with, i.e. until post-processors get added or removed,
+ * and it is dropped along with its merged bean definition once that is re-merged.
+ *
+ * @see AbstractAutowireCapableBeanFactory#setInstantiationPlanEnabled
+ */
+final class InstantiationPlan {
+
+    private final AbstractBeanFactory.BeanPostProcessorCache postProcessorCache;
+
+    private final Class<?> beanClass;
+
+    @Nullable
+    private final Boolean constructorAutowireNecessary;
+
+    @Nullable
+    private final String[] autowirePropertyNames;
+
+    private final List<InstantiationAwareBeanPostProcessor> afterInstantiationProcessors;
+
+    private final List<InstantiationAwareBeanPostProcessor> propertyProcessors;
+
+    private final List<BeanPostProcessor> beforeInitializationProcessors;
+
+    private final List<BeanPostProcessor> afterInitializationProcessors;
+
+
+    /**
+     * Create a new plan for the given bean definition.
+     *
+     * @param postProcessorCache           the current cache of pre-filtered post-processors
+     * @param beanPostProcessors           all current post-processors
+     * @param synthetic                    whether the bean definition is synthetic, i.e. not
+     *                                     subject to instantiation and initialization callbacks
+     * @param beanClass                    the class of the bean instance created
+     * @param constructorAutowireNecessary whether the resolved constructor needs autowiring,
+     *                                     or {@code null} if not resolved
+     * @param autowirePropertyNames        the names of the properties to autowire by name
+     *                                     or by type, or {@code null} if not autowiring properties
+     */
+    InstantiationPlan(AbstractBeanFactory.BeanPostProcessorCache postProcessorCache,
+                      List<BeanPostProcessor> beanPostProcessors, boolean synthetic, Class<?> beanClass,
+                      @Nullable Boolean constructorAutowireNecessary, @Nullable String[] autowirePropertyNames) {
+
+        this.postProcessorCache = postProcessorCache;
+        this.beanClass = beanClass;
+        this.constructorAutowireNecessary = constructorAutowireNecessary;
+        this.autowirePropertyNames = autowirePropertyNames;
+        List<InstantiationAwareBeanPostProcessor> afterInstantiation = new ArrayList<>();
+        List<InstantiationAwareBeanPostProcessor> properties = new ArrayList<>();
+        for (InstantiationAwareBeanPostProcessor processor : postProcessorCache.instantiationAware) {
+            if (!synthetic && overridesDefault(processor, InstantiationAwareBeanPostProcessor.class,
+                    "postProcessAfterInstantiation", Object.class, String.class)) {
+                afterInstantiation.add(processor);
+            }
+            // Property post-processing applies to synthetic beans as well.
+            if (overridesDefault(processor, InstantiationAwareBeanPostProcessor.class,
+                    "postProcessProperties", PropertyValues.class, Object.class, String.class) ||
+                    overridesDefault(processor, InstantiationAwareBeanPostProcessor.class,
+                            "postProcessPropertyValues", PropertyValues.class, PropertyDescriptor[].class,
+                            Object.class, String.class)) {
+                properties.add(processor);
+            }
+        }
+        List<BeanPostProcessor> beforeInitialization = new ArrayList<>();
+        List<BeanPostProcessor> afterInitialization = new ArrayList<>();
+        if (!synthetic) {
+            for (BeanPostProcessor processor : beanPostProcessors) {
+                if (overridesDefault(processor, BeanPostProcessor.class,
+                        "postProcessBeforeInitialization", Object.class, String.class)) {
+                    beforeInitialization.add(processor);
+                }
+                if (overridesDefault(processor, BeanPostProcessor.class,
+                        "postProcessAfterInitialization", Object.class, String.class)) {
+                    afterInitialization.add(processor);
+                }
+            }
+        }
+        this.afterInstantiationProcessors = afterInstantiation;
+        this.propertyProcessors = properties;
+        this.beforeInitializationProcessors = beforeInitialization;
+        this.afterInitializationProcessors = afterInitialization;
+    }
+
+
+    /**
+     * Determine whether this plan has been computed with the given post-processors.
+     */
+    boolean isValidFor(AbstractBeanFactory.BeanPostProcessorCache currentCache) {
+        return (this.postProcessorCache == currentCache);
+    }
+
+    /**
+     * Return whether the resolved constructor needs autowiring,
+     * or {@code null} if no constructor has been resolved.
+     */
+    @Nullable
+    Boolean getConstructorAutowireNecessary() {
+        return this.constructorAutowireNecessary;
+    }
+
+    /**
+     * Return the names of the properties to autowire by name or by type
+     * for a bean instance of the given class, or {@code null} if unknown.
+     */
+    @Nullable
+    String[] getAutowirePropertyNames(Class<?> beanClass) {
+        return (this.beanClass == beanClass ? this.autowirePropertyNames : null);
+    }
+
+    List<InstantiationAwareBeanPostProcessor> getAfterInstantiationProcessors() {
+        return this.afterInstantiationProcessors;
+    }
+
+    List<InstantiationAwareBeanPostProcessor> getPropertyProcessors() {
+        return this.propertyProcessors;
+    }
+
+    List<BeanPostProcessor> getBeforeInitializationProcessors() {
+        return this.beforeInitializationProcessors;
+    }
+
+    List<BeanPostProcessor> getAfterInitializationProcessors() {
+        return this.afterInitializationProcessors;
+    }
+
+
+    /**
+     * Determine whether the given post-processor overrides the given callback,
+     * as opposed to inheriting the no-op default method of the given interface.
+     */
+    private static boolean overridesDefault(Object processor, Class<?> declaringInterface,
+                                            String methodName, Class<?>... parameterTypes) {
+        try {
+            Method method = processor.getClass().getMethod(methodName, parameterTypes);
+            return (method.getDeclaringClass() != declaringInterface);
+        } catch (NoSuchMethodException | SecurityException ex) {
+            // Should not happen for an implementation of the interface: play it safe.
+            return true;
+        }
+    }
+
+}
@@ -0,0 +1,236 @@
+/*
+ * Copyright 2002-2023 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.beans.factory.support;
+
+import org.springframework.beans.BeanInstantiationException;
+import org.springframework.core.KotlinDetector;
+import org.springframework.lang.Nullable;
+import org.springframework.util.ClassUtils;
+import org.springframework.util.ConcurrentReferenceHashMap;
+import org.springframework.util.ReflectionUtils;
+
+import java.lang.invoke.CallSite;
+import java.lang.invoke.LambdaMetafactory;
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Array;
+import java.lang.reflect.Constructor;
+import java.lang.reflect.Executable;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.util.Map;
+import java.util.function.Supplier;
+
+/**
+ * Instantiation strategy which invokes constructors and factory methods through
+ * {@link MethodHandle MethodHandles} instead of core reflection, with a
+ * {@link LambdaMetafactory}-generated {@link Supplier} for public no-arg
+ * constructors of public classes. Instantiators are created once per
+ * constructor or factory method and cached (softly referenced), which pays off
+ * for beans that get created repeatedly, e.g. prototype-heavy workloads.
+ *
+ * <p>Method Injection is supported through the CGLIB-based superclass.
+ * Invocations which a method handle cannot perform with the exact semantics of
+ * reflection fall back to the reflective superclass implementation: Kotlin
+ * constructors, argument counts or types not matching the declared parameters,
+ * {@code null} arguments for primitive factory method parameters, as well as
+ * members that cannot be unreflected (e.g. due to module restrictions).
+ *
+ * <p>Note that core reflection itself is implemented on method handles as of
+ * JDK 18 (JEP 416), so on Java 21 constructors and factory methods with
+ * arguments are not expected to get measurably faster through this strategy;
+ * only the generated {@code Supplier} for public no-arg constructors skips
+ * work that reflection still performs per call. Measure the actual workload
+ * (e.g. with the {@code InstantiationStrategyBenchmark} in the benchmarks
+ * module) before switching strategies. Not suitable for a native image.
+ *
+ * @see AbstractAutowireCapableBeanFactory#setInstantiationStrategy
+ */
+public class MethodHandleInstantiationStrategy extends CglibSubclassingInstantiationStrategy {
+
+    /**
+     * Marker for members which cannot be invoked through a method handle.
+     */
+    private static final Invoker REFLECTION_ONLY = (target, args) -> {
+        throw new IllegalStateException("Reflection-only invoker");
+    };
+
+
+    /**
+     * Cache of invokers per constructor or factory method.
+     */
+    private final Map<Executable, Invoker> invokerCache = new ConcurrentReferenceHashMap<>(256);
+
+
+    @Override
+    protected Object instantiateClass(Constructor<?> ctor, Object... args) {
+        Invoker invoker = getInvoker(ctor);
+        Object[] argsToUse = (invoker != REFLECTION_ONLY ? adaptConstructorArguments(ctor, args) : null);
+        if (argsToUse == null) {
+            return super.instantiateClass(ctor, args);
+        }
+        try {
+            return invoker.invoke(null, argsToUse);
+        } catch (Throwable ex) {
+            throw new BeanInstantiationException(ctor, "Constructor threw exception", ex);
+        }
+    }
+
+    @Override
+    @Nullable
+    protected Object invokeFactoryMethod(@Nullable Object factoryBean, Method factoryMethod, Object... args)
+            throws IllegalAccessException, InvocationTargetException {
+
+        Invoker invoker = getInvoker(factoryMethod);
+        if (invoker == REFLECTION_ONLY || !isInvocableWith(factoryBean, factoryMethod, args)) {
+            return super.invokeFactoryMethod(factoryBean, factoryMethod, args);
+        }
+        try {
+            return invoker.invoke(factoryBean, args);
+        } catch (Throwable ex) {
+            throw new InvocationTargetException(ex);
+        }
+    }
+
+
+    private Invoker getInvoker(Executable executable) {
+        Invoker invoker = this.invokerCache.get(executable);
+        if (invoker == null) {
+            invoker = createInvoker(executable);
+            this.invokerCache.put(executable, invoker);
+        }
+        return invoker;
+    }
+
+    private Invoker createInvoker(Executable executable) {
+        try {
+            if (executable instanceof Constructor) {
+                Constructor<?> ctor = (Constructor<?>) executable;
+                Class<?> clazz = ctor.getDeclaringClass();
+                if (Modifier.isAbstract(clazz.getModifiers()) ||
+                        (KotlinDetector.isKotlinReflectPresent() && KotlinDetector.isKotlinType(clazz))) {
+                    return REFLECTION_ONLY;
+                }
+                if (ctor.getParameterCount() == 0 && Modifier.isPublic(ctor.getModifiers()) &&
+                        Modifier.isPublic(clazz.getModifiers())) {
+                    Supplier<?> supplier = createSupplier(ctor);
+                    return (target, args) -> supplier.get();
+                }
+                ReflectionUtils.makeAccessible(ctor);
+                MethodHandle handle = MethodHandles.lookup().unreflectConstructor(ctor);
+                return createSpreadingInvoker(MethodHandles.dropArguments(
+                        handle.asType(handle.type().generic()), 0, Object.class), ctor.getParameterCount());
+            } else {
+                Method method = (Method) executable;
+                ReflectionUtils.makeAccessible(method);
+                MethodHandle handle = MethodHandles.lookup().unreflect(method);
+                handle = handle.asType(handle.type().generic());
+                if (Modifier.isStatic(method.getModifiers())) {
+                    handle = MethodHandles.dropArguments(handle, 0, Object.class);
+                }
+                return createSpreadingInvoker(handle, method.getParameterCount());
+            }
+        } catch (Throwable ex) {
+            // Not accessible through method handles: stick to reflection.
+            return REFLECTION_ONLY;
+        }
+    }
+
+    private static Supplier<?> createSupplier(Constructor<?> ctor) throws Throwable {
+        Class<?> clazz = ctor.getDeclaringClass();
+        MethodHandles.Lookup lookup = MethodHandles.privateLookupIn(clazz, MethodHandles.lookup());
+        CallSite callSite = LambdaMetafactory.metafactory(lookup, "get",
+                MethodType.methodType(Supplier.class), MethodType.methodType(Object.class),
+                lookup.unreflectConstructor(ctor), MethodType.methodType(clazz));
+        return (Supplier<?>) callSite.getTarget().invoke();
+    }
+
+    /**
+     * Create an invoker for the given method handle of type
+     * {@code (Object target, Object... params)Object}.
+     */
+    private static Invoker createSpreadingInvoker(MethodHandle handle, int parameterCount) {
+        MethodHandle spreader = handle.asSpreader(Object[].class, parameterCount);
+        return (target, args) -> (Object) spreader.invokeExact(target, args);
+    }
+
+    /**
+     * Adapt the given constructor arguments the way {@link org.springframework.beans.BeanUtils#instantiateClass}
+     * does, replacing {@code null} with default values for primitive parameters.
+     *
+     * @return the arguments to use, or {@code null} if reflection has to be used
+     * (in order to report invalid arguments the same way)
+     */
+    @Nullable
+    private static Object[] adaptConstructorArguments(Constructor<?> ctor, Object[] args) {
+        Class<?>[] parameterTypes = ctor.getParameterTypes();
+        if (args.length != parameterTypes.length) {
+            return null;
+        }
+        Object[] argsToUse = args;
+        for (int i = 0; i < args.length; i++) {
+            Class<?> parameterType = parameterTypes[i];
+            if (args[i] == null) {
+                if (parameterType.isPrimitive()) {
+                    if (argsToUse == args) {
+                        argsToUse = args.clone();
+                    }
+                    argsToUse[i] = Array.get(Array.newInstance(parameterType, 1), 0);
+                }
+            } else if (!ClassUtils.isAssignableValue(parameterType, args[i])) {
+                return null;
+            }
+        }
+        return argsToUse;
+    }
+
+    /**
+     * Check whether a method handle invocation of the given factory method
+     * behaves exactly like a reflective invocation with the given arguments.
+     */
+    private static boolean isInvocableWith(@Nullable Object factoryBean, Method factoryMethod, Object[] args) {
+        if (!Modifier.isStatic(factoryMethod.getModifiers()) &&
+                !factoryMethod.getDeclaringClass().isInstance(factoryBean)) {
+            return false;
+        }
+        Class<?>[] parameterTypes = factoryMethod.getParameterTypes();
+        if (args.length != parameterTypes.length) {
+            return false;
+        }
+        for (int i = 0; i < args.length; i++) {
+            if (args[i] == null ? parameterTypes[i].isPrimitive() :
+                    !ClassUtils.isAssignableValue(parameterTypes[i], args[i])) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+
+    /**
+     * Invocation of a constructor or factory method.
+     */
+    @FunctionalInterface
+    private interface Invoker {
+
+        @Nullable
+        Object invoke(@Nullable Object target, Object[] args) throws Throwable;
+    }
+
+}
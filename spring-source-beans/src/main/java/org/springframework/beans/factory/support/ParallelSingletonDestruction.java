@@ -0,0 +1,239 @@
+/*
+ * Copyright 2002-2023 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.beans.factory.support;
+
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+import org.springframework.util.CustomizableThreadFactory;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Destroys the singletons of a {@link DefaultSingletonBeanRegistry} on a
+ * temporary thread pool, following the reverse dependency graph: a bean is
+ * destroyed as soon as all beans depending on it have been destroyed, so
+ * independent beans are destroyed concurrently.
+ *
+ * <p>Beans on a dependency cycle never become ready this way; they are
+ * destroyed one after the other on the calling thread at the end, in reverse
+ * registration order, just like in sequential mode. Once the timeout has
+ * elapsed, no further beans are destroyed, destroy methods still running get
+ * interrupted and are given a short grace period to return, and the remaining
+ * beans are reported.
+ *
+ * @see DefaultSingletonBeanRegistry#setDestructionParallelism
+ * @see DefaultSingletonBeanRegistry#setDestructionTimeout
+ */
+final class ParallelSingletonDestruction {
+
+    private static final Log logger = LogFactory.getLog(ParallelSingletonDestruction.class);
+
+    /**
+     * Time to wait for interrupted destroy methods to return after the timeout.
+     */
+    private static final long TERMINATION_GRACE_PERIOD_MILLIS = 1000;
+
+
+    private final DefaultSingletonBeanRegistry registry;
+
+    /**
+     * Bean names in reverse registration order.
+     */
+    private final Collection<String> beanNames;
+
+    /**
+     * Bean name to the names of the beans it depends on, i.e. to be destroyed after it.
+     */
+    private final Map<String, List<String>> dependencies;
+
+    /**
+     * Bean name to the number of dependent beans not destroyed yet.
+     */
+    private final Map<String, Integer> remainingDependents;
+
+    private final Set<String> undestroyed;
+
+    private final Object monitor = new Object();
+
+    private int inFlight;
+
+    private volatile boolean abandoned;
+
+
+    /**
+     * Create a new destruction run for the given beans.
+     *
+     * @param registry        the registry to destroy the singletons of
+     * @param beanNames       the bean names in reverse registration order
+     * @param dependencyGraph snapshot of the registered dependencies
+     */
+    ParallelSingletonDestruction(DefaultSingletonBeanRegistry registry, Collection<String> beanNames,
+                                 DependencyGraphSnapshot dependencyGraph) {
+
+        this.registry = registry;
+        Set<String> nodes = new LinkedHashSet<>(beanNames);
+        nodes.addAll(dependencyGraph.getBeanNames());
+        this.beanNames = nodes;
+        this.dependencies = new HashMap<>(nodes.size());
+        this.remainingDependents = new HashMap<>(nodes.size());
+        for (String beanName : nodes) {
+            int count = 0;
+            for (String dependentBeanName : dependencyGraph.getDependentBeans(beanName)) {
+                if (!dependentBeanName.equals(beanName)) {
+                    this.dependencies.computeIfAbsent(dependentBeanName, k -> new ArrayList<>(4)).add(beanName);
+                    count++;
+                }
+            }
+            this.remainingDependents.put(beanName, count);
+        }
+        this.undestroyed = new LinkedHashSet<>(nodes);
+    }
+
+
+    /**
+     * Destroy all beans, waiting for at most the given timeout.
+     *
+     * @param parallelism   the number of threads to use
+     * @param timeoutMillis the maximum time to wait in milliseconds, or 0 for no limit
+     * @return {@code true} if no destruction thread is running anymore, in which
+     * case beans left undestroyed after the timeout are still registered as
+     * disposable beans for the caller to discard, or {@code false} if destroy
+     * methods are still running after the timeout and the grace period, in which
+     * case the caller must not clear the registry's state underneath them
+     */
+    boolean destroy(int parallelism, long timeoutMillis) {
+        long startTime = System.nanoTime();
+        CustomizableThreadFactory threadFactory = new CustomizableThreadFactory("singleton-destruction-");
+        threadFactory.setDaemon(true);
+        ExecutorService executor = Executors.newFixedThreadPool(parallelism, threadFactory);
+        try {
+            synchronized (this.monitor) {
+                for (String beanName : this.beanNames) {
+                    if (this.remainingDependents.get(beanName) == 0) {
+                        submit(executor, beanName);
+                    }
+                }
+                long deadline = startTime + TimeUnit.MILLISECONDS.toNanos(timeoutMillis);
+                while (this.inFlight > 0) {
+                    if (timeoutMillis > 0) {
+                        long remaining = deadline - System.nanoTime();
+                        if (remaining <= 0) {
+                            this.abandoned = true;
+                            break;
+                        }
+                        TimeUnit.NANOSECONDS.timedWait(this.monitor, remaining);
+                    } else {
+                        this.monitor.wait();
+                    }
+                }
+            }
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            this.abandoned = true;
+        } finally {
+            if (this.abandoned) {
+                // Interrupt destroy methods which are still blocking.
+                executor.shutdownNow();
+            } else {
+                executor.shutdown();
+            }
+        }
+
+        if (this.abandoned) {
+            boolean terminated = awaitTermination(executor);
+            List<String> remainingBeanNames;
+            synchronized (this.monitor) {
+                remainingBeanNames = new ArrayList<>(this.undestroyed);
+            }
+            if (terminated) {
+                logger.warn("Singleton destruction did not complete within " + timeoutMillis +
+                        " ms - not destroying beans " + remainingBeanNames);
+            } else {
+                logger.error("Singleton destruction did not complete within " + timeoutMillis +
+                        " ms and destroy methods are still running after interruption - not destroying beans " +
+                        remainingBeanNames + " and leaving the registry in destruction");
+            }
+            return terminated;
+        }
+
+        List<String> remainingBeanNames;
+        synchronized (this.monitor) {
+            remainingBeanNames = new ArrayList<>(this.undestroyed);
+        }
+        if (!remainingBeanNames.isEmpty()) {
+            if (logger.isDebugEnabled()) {
+                logger.debug("Destroying beans with circular dependencies sequentially: " + remainingBeanNames);
+            }
+            for (String beanName : remainingBeanNames) {
+                this.registry.destroySingleton(beanName);
+            }
+        }
+        if (logger.isDebugEnabled()) {
+            logger.debug("Destroyed " + this.beanNames.size() + " singletons on " + parallelism +
+                    " threads in " + TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startTime) + " ms");
+        }
+        return true;
+    }
+
+    private static boolean awaitTermination(ExecutorService executor) {
+        try {
+            return executor.awaitTermination(TERMINATION_GRACE_PERIOD_MILLIS, TimeUnit.MILLISECONDS);
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+
+    private void submit(ExecutorService executor, String beanName) {
+        // Called while holding the monitor.
+        this.inFlight++;
+        executor.execute(() -> destroySingleton(executor, beanName));
+    }
+
+    private void destroySingleton(ExecutorService executor, String beanName) {
+        try {
+            if (!this.abandoned) {
+                this.registry.destroySingleton(beanName);
+            }
+        } catch (Throwable ex) {
+            logger.warn("Destruction of bean with name '" + beanName + "' failed", ex);
+        } finally {
+            synchronized (this.monitor) {
+                this.undestroyed.remove(beanName);
+                for (String dependency : this.dependencies.getOrDefault(beanName, Collections.emptyList())) {
+                    int count = this.remainingDependents.merge(dependency, -1, Integer::sum);
+                    if (count == 0 && !this.abandoned) {
+                        submit(executor, dependency);
+                    }
+                }
+                this.inFlight--;
+                this.monitor.notifyAll();
+            }
+        }
+    }
+
+}
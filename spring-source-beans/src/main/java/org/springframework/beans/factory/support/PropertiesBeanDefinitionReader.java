@@ -28,12 +28,16 @@ import org.springframework.core.io.Resource;
 import org.springframework.core.io.support.EncodedResource;
 import org.springframework.core.io.support.ResourcePropertiesPersister;
 import org.springframework.lang.Nullable;
+import org.springframework.util.Assert;
+import org.springframework.util.DefaultPropertiesPersister;
 import org.springframework.util.PropertiesPersister;
 import org.springframework.util.StringUtils;
 
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.InputStreamReader;
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
 import java.util.*;
 
 /**
@@ -146,6 +150,10 @@ public class PropertiesBeanDefinitionReader extends AbstractBeanDefinitionReader
 
     private PropertiesPersister propertiesPersister = ResourcePropertiesPersister.INSTANCE;
 
+    private boolean streaming = false;
+
+    private int streamingBufferSize = 16;
+
 
     /**
      * Create new PropertiesBeanDefinitionReader for the given bean factory.
@@ -200,6 +208,47 @@ public class PropertiesBeanDefinitionReader extends AbstractBeanDefinitionReader
         return this.propertiesPersister;
     }
 
+    /**
+     * Set whether to read properties files in streaming mode, registering bean
+     * definitions while reading the file instead of loading it into a
+     * {@link Properties} instance first. Default is "false".
+     * <p>This reduces time and memory for large properties files. The properties
+     * of each bean are expected to be grouped together in the file: they are
+     * buffered for the last {@link #setStreamingBufferSize few beans} only, with
+     * each bean registered once it drops out of the buffer. Properties of a bean
+     * that has been registered already are rejected.
+     * <p>Keys in streaming mode belong to the bean named by their own prefix only,
+     * not to beans whose name is a shorter prefix of it. Properties files are always
+     * loaded as a whole with a custom {@link #setPropertiesPersister PropertiesPersister}.
+     */
+    public void setStreaming(boolean streaming) {
+        this.streaming = streaming;
+    }
+
+    /**
+     * Return whether to read properties files in streaming mode.
+     */
+    public boolean isStreaming() {
+        return this.streaming;
+    }
+
+    /**
+     * Set the number of beans whose properties are buffered in
+     * {@link #setStreaming streaming mode} before being registered.
+     * Default is 16.
+     */
+    public void setStreamingBufferSize(int streamingBufferSize) {
+        Assert.isTrue(streamingBufferSize > 0, "Streaming buffer size must be greater than 0");
+        this.streamingBufferSize = streamingBufferSize;
+    }
+
+    /**
+     * Return the number of beans whose properties are buffered in streaming mode.
+     */
+    public int getStreamingBufferSize() {
+        return this.streamingBufferSize;
+    }
+
 
     /**
      * Load bean definitions from the specified properties file,
@@ -257,17 +306,22 @@ public class PropertiesBeanDefinitionReader extends AbstractBeanDefinitionReader
             logger.trace("Loading properties bean definitions from " + encodedResource);
         }
 
-        Properties props = new Properties();
         try {
-            try (InputStream is = encodedResource.getResource().getInputStream()) {
-                if (encodedResource.getEncoding() != null) {
-                    getPropertiesPersister().load(props, new InputStreamReader(is, encodedResource.getEncoding()));
-                } else {
-                    getPropertiesPersister().load(props, is);
+            int count;
+            if (isStreaming() && (this.propertiesPersister == ResourcePropertiesPersister.INSTANCE ||
+                    this.propertiesPersister == DefaultPropertiesPersister.INSTANCE)) {
+                count = streamBeanDefinitions(encodedResource, prefix);
+            } else {
+                Properties props = new Properties();
+                try (InputStream is = encodedResource.getResource().getInputStream()) {
+                    if (encodedResource.getEncoding() != null) {
+                        getPropertiesPersister().load(props, new InputStreamReader(is, encodedResource.getEncoding()));
+                    } else {
+                        getPropertiesPersister().load(props, is);
+                    }
                 }
+                count = registerBeanDefinitions(props, prefix, encodedResource.getResource().getDescription());
             }
-
-            int count = registerBeanDefinitions(props, prefix, encodedResource.getResource().getDescription());
             if (logger.isDebugEnabled()) {
                 logger.debug("Loaded " + count + " bean definitions from " + encodedResource);
             }
@@ -277,6 +331,95 @@ public class PropertiesBeanDefinitionReader extends AbstractBeanDefinitionReader
         }
     }
 
+    /**
+     * Register the bean definitions of the given properties file in streaming mode,
+     * reading it entry by entry and registering each bean once its properties have
+     * been read.
+     *
+     * @param encodedResource the resource descriptor for the properties file
+     * @param prefix          a filter within the keys: e.g. 'beans.' (can be {@code null})
+     * @return the number of bean definitions found
+     * @throws IOException if the file cannot be read
+     * @see #setStreaming
+     */
+    private int streamBeanDefinitions(EncodedResource encodedResource, @Nullable String prefix) throws IOException {
+        if (prefix == null) {
+            prefix = "";
+        }
+        String resourceDescription = encodedResource.getResource().getDescription();
+        // Properties of the most recently read beans, in the order of their first key
+        LinkedHashMap<String, Map<String, String>> pendingBeans = new LinkedHashMap<>();
+        Set<String> registeredBeanNames = new HashSet<>();
+        int beanCount = 0;
+        // ISO-8859-1 unless specified otherwise, as for Properties.load(InputStream)
+        try (Reader reader = (encodedResource.getEncoding() != null ? encodedResource.getReader() :
+                new InputStreamReader(encodedResource.getResource().getInputStream(), StandardCharsets.ISO_8859_1))) {
+            PropertiesEntryReader entries = new PropertiesEntryReader(reader);
+            String lastBeanName = null;
+            Map<String, String> lastBean = null;
+            while (entries.next()) {
+                String key = entries.getKey();
+                if (!key.startsWith(prefix)) {
+                    continue;
+                }
+                int sepIdx = getBeanNameSeparatorIndex(key, prefix.length());
+                if (sepIdx == -1) {
+                    if (logger.isDebugEnabled()) {
+                        logger.debug("Invalid bean name and property [" + key.substring(prefix.length()) + "]");
+                    }
+                    continue;
+                }
+                if (lastBean == null || sepIdx - prefix.length() != lastBeanName.length() ||
+                        !key.startsWith(lastBeanName, prefix.length())) {
+                    lastBeanName = key.substring(prefix.length(), sepIdx);
+                    lastBean = pendingBeans.get(lastBeanName);
+                    if (lastBean == null) {
+                        if (registeredBeanNames.contains(lastBeanName)) {
+                            throw new BeanDefinitionStoreException(resourceDescription, lastBeanName,
+                                    "Properties of bean are not grouped together in streaming mode: " +
+                                    "keep them together or increase the streaming buffer size");
+                        }
+                        if (getRegistry().containsBeanDefinition(lastBeanName)) {
+                            // Registered before reading this file: ignore its properties.
+                            lastBean = null;
+                            continue;
+                        }
+                        if (pendingBeans.size() == this.streamingBufferSize) {
+                            registerEldestPendingBean(pendingBeans, registeredBeanNames, prefix, resourceDescription);
+                            beanCount++;
+                        }
+                        if (logger.isTraceEnabled()) {
+                            logger.trace("Found bean name '" + lastBeanName + "'");
+                        }
+                        lastBean = new LinkedHashMap<>();
+                        pendingBeans.put(lastBeanName, lastBean);
+                    }
+                }
+                lastBean.put(key, entries.getValue());
+            }
+        }
+        while (!pendingBeans.isEmpty()) {
+            registerEldestPendingBean(pendingBeans, registeredBeanNames, prefix, resourceDescription);
+            beanCount++;
+        }
+        return beanCount;
+    }
+
+    /**
+     * Register the bean that has been pending for the longest time.
+     */
+    private void registerEldestPendingBean(LinkedHashMap<String, Map<String, String>> pendingBeans,
+                                           Set<String> registeredBeanNames, String prefix,
+                                           String resourceDescription) {
+
+        Iterator<Map.Entry<String, Map<String, String>>> it = pendingBeans.entrySet().iterator();
+        Map.Entry<String, Map<String, String>> eldest = it.next();
+        it.remove();
+        String beanName = eldest.getKey();
+        registerBeanDefinition(beanName, eldest.getValue(), prefix + beanName, resourceDescription);
+        registeredBeanNames.add(beanName);
+    }
+
     /**
      * Register bean definitions contained in a resource bundle,
      * using all property keys (i.e. not filtering by prefix).
@@ -375,14 +518,7 @@ public class PropertiesBeanDefinitionReader extends AbstractBeanDefinitionReader
             if (keyString.startsWith(prefix)) {
                 // Key is of form: prefix<name>.property
                 String nameAndProperty = keyString.substring(prefix.length());
-                // Find dot before property name, ignoring dots in property keys.
-                int sepIdx;
-                int propKeyIdx = nameAndProperty.indexOf(PropertyAccessor.PROPERTY_KEY_PREFIX);
-                if (propKeyIdx != -1) {
-                    sepIdx = nameAndProperty.lastIndexOf(SEPARATOR, propKeyIdx);
-                } else {
-                    sepIdx = nameAndProperty.lastIndexOf(SEPARATOR);
-                }
+                int sepIdx = getBeanNameSeparatorIndex(nameAndProperty, 0);
                 if (sepIdx != -1) {
                     String beanName = nameAndProperty.substring(0, sepIdx);
                     if (logger.isTraceEnabled()) {
@@ -406,6 +542,25 @@ public class PropertiesBeanDefinitionReader extends AbstractBeanDefinitionReader
         return beanCount;
     }
 
+    /**
+     * Find the dot before the property name in the given key, ignoring dots in
+     * property keys.
+     *
+     * @param key        the key
+     * @param beginIndex the index that the bean name starts at
+     * @return the index of the dot, or -1 if none
+     */
+    private static int getBeanNameSeparatorIndex(String key, int beginIndex) {
+        int sepIdx;
+        int propKeyIdx = key.indexOf(PropertyAccessor.PROPERTY_KEY_PREFIX, beginIndex);
+        if (propKeyIdx != -1) {
+            sepIdx = key.lastIndexOf(SEPARATOR, propKeyIdx);
+        } else {
+            sepIdx = key.lastIndexOf(SEPARATOR);
+        }
+        return (sepIdx >= beginIndex ? sepIdx : -1);
+    }
+
     /**
      * Get all property values, given a prefix (which will be stripped)
      * and add the bean they define to the factory with the given name.
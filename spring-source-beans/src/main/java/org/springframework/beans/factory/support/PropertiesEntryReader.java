@@ -0,0 +1,258 @@
+/*
+ * Copyright 2002-2023 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.beans.factory.support;
+
+import org.springframework.lang.Nullable;
+
+import java.io.IOException;
+import java.io.Reader;
+
+/**
+ * Reads the key/value pairs of a properties file one at a time, following the
+ * syntax of {@link java.util.Properties#load(Reader)}: comments, line continuations,
+ * the {@code =}, {@code :} and whitespace separators, and escape sequences.
+ *
+ * <p>Unlike {@code Properties}, entries are returned in file order and duplicate
+ * keys are returned as often as they occur.
+ *
+ * @see PropertiesBeanDefinitionReader#setStreaming
+ */
+final class PropertiesEntryReader {
+
+    private final Reader reader;
+
+    private final char[] buffer = new char[8192];
+
+    private int position;
+
+    private int limit;
+
+    /**
+     * Whether a line feed following a carriage return is still to be skipped.
+     */
+    private boolean skipLineFeed;
+
+    private char[] line = new char[256];
+
+    @Nullable
+    private String key;
+
+    @Nullable
+    private String value;
+
+
+    PropertiesEntryReader(Reader reader) {
+        this.reader = reader;
+    }
+
+
+    /**
+     * Read the next entry.
+     *
+     * @return {@code false} if the end of the input has been reached
+     * @throws IOException              in case of read failure
+     * @throws IllegalArgumentException in case of a malformed unicode escape
+     */
+    boolean next() throws IOException {
+        int length = readLine();
+        if (length < 0) {
+            this.key = null;
+            this.value = null;
+            return false;
+        }
+        char[] line = this.line;
+        int keyLength = 0;
+        int valueStart = length;
+        boolean hasSeparator = false;
+        boolean precedingBackslash = false;
+        while (keyLength < length) {
+            char c = line[keyLength];
+            if ((c == '=' || c == ':') && !precedingBackslash) {
+                valueStart = keyLength + 1;
+                hasSeparator = true;
+                break;
+            } else if (isWhitespace(c) && !precedingBackslash) {
+                valueStart = keyLength + 1;
+                break;
+            }
+            precedingBackslash = (c == '\\' && !precedingBackslash);
+            keyLength++;
+        }
+        while (valueStart < length) {
+            char c = line[valueStart];
+            if (!isWhitespace(c)) {
+                if (!hasSeparator && (c == '=' || c == ':')) {
+                    hasSeparator = true;
+                } else {
+                    break;
+                }
+            }
+            valueStart++;
+        }
+        this.key = unescape(line, 0, keyLength);
+        this.value = unescape(line, valueStart, length - valueStart);
+        return true;
+    }
+
+    /**
+     * Return the key of the current entry.
+     */
+    String getKey() {
+        if (this.key == null) {
+            throw new IllegalStateException("No current entry");
+        }
+        return this.key;
+    }
+
+    /**
+     * Return the value of the current entry.
+     */
+    String getValue() {
+        if (this.value == null) {
+            throw new IllegalStateException("No current entry");
+        }
+        return this.value;
+    }
+
+    /**
+     * Read the next logical line into the line buffer, skipping comments and blank
+     * lines, removing leading whitespace and joining continued lines.
+     *
+     * @return the length of the line, or -1 at the end of the input
+     */
+    private int readLine() throws IOException {
+        int length = 0;
+        boolean skipWhitespace = true;
+        boolean newLine = true;
+        boolean commentLine = false;
+        boolean continuedLine = false;
+        boolean precedingBackslash = false;
+        while (true) {
+            if (this.position >= this.limit) {
+                this.limit = this.reader.read(this.buffer);
+                this.position = 0;
+                if (this.limit <= 0) {
+                    this.limit = 0;
+                    if (length == 0 || commentLine) {
+                        return -1;
+                    }
+                    return (precedingBackslash ? length - 1 : length);
+                }
+            }
+            char c = this.buffer[this.position++];
+            if (this.skipLineFeed) {
+                this.skipLineFeed = false;
+                if (c == '\n') {
+                    continue;
+                }
+            }
+            if (skipWhitespace) {
+                if (isWhitespace(c) || (!continuedLine && (c == '\r' || c == '\n'))) {
+                    continue;
+                }
+                skipWhitespace = false;
+                continuedLine = false;
+            }
+            if (newLine) {
+                newLine = false;
+                if (c == '#' || c == '!') {
+                    commentLine = true;
+                    continue;
+                }
+            }
+            if (c != '\n' && c != '\r') {
+                if (!commentLine) {
+                    if (length == this.line.length) {
+                        char[] grown = new char[length * 2];
+                        System.arraycopy(this.line, 0, grown, 0, length);
+                        this.line = grown;
+                    }
+                    this.line[length++] = c;
+                    precedingBackslash = (c == '\\' && !precedingBackslash);
+                }
+                continue;
+            }
+            this.skipLineFeed = (c == '\r');
+            if (commentLine || length == 0) {
+                commentLine = false;
+                newLine = true;
+                skipWhitespace = true;
+                length = 0;
+            } else if (precedingBackslash) {
+                // Line continues on the next line, without its leading whitespace.
+                length--;
+                precedingBackslash = false;
+                skipWhitespace = true;
+                continuedLine = true;
+            } else {
+                return length;
+            }
+        }
+    }
+
+    private static String unescape(char[] chars, int offset, int length) {
+        int end = offset + length;
+        int backslash = offset;
+        while (backslash < end && chars[backslash] != '\\') {
+            backslash++;
+        }
+        if (backslash == end) {
+            return new String(chars, offset, length);
+        }
+        StringBuilder sb = new StringBuilder(length);
+        sb.append(chars, offset, backslash - offset);
+        int i = backslash;
+        while (i < end) {
+            char c = chars[i++];
+            if (c != '\\' || i == end) {
+                sb.append(c);
+                continue;
+            }
+            c = chars[i++];
+            if (c == 'u') {
+                if (end - i < 4) {
+                    throw new IllegalArgumentException("Malformed \\uxxxx encoding.");
+                }
+                int code = 0;
+                for (int j = 0; j < 4; j++) {
+                    int digit = Character.digit(chars[i++], 16);
+                    if (digit < 0) {
+                        throw new IllegalArgumentException("Malformed \\uxxxx encoding.");
+                    }
+                    code = (code << 4) + digit;
+                }
+                sb.append((char) code);
+            } else if (c == 't') {
+                sb.append('\t');
+            } else if (c == 'r') {
+                sb.append('\r');
+            } else if (c == 'n') {
+                sb.append('\n');
+            } else if (c == 'f') {
+                sb.append('\f');
+            } else {
+                sb.append(c);
+            }
+        }
+        return sb.toString();
+    }
+
+    private static boolean isWhitespace(char c) {
+        return (c == ' ' || c == '\t' || c == '\f');
+    }
+
+}
@@ -125,6 +125,12 @@ public class RootBeanDefinition extends AbstractBeanDefinition {
     @Nullable
     volatile String resolvedDestroyMethodName;
 
+    /**
+     * Package-visible field for caching the resolved destroy method for the last bean class.
+     */
+    @Nullable
+    volatile DisposableBeanAdapter.ResolvedDestroyMethod resolvedDestroyMethod;
+
     /**
      * Common lock for the four constructor fields below.
      */
@@ -169,6 +175,12 @@ public class RootBeanDefinition extends AbstractBeanDefinition {
     @Nullable
     volatile Boolean beforeInstantiationResolved;
 
+    /**
+     * Package-visible field for caching the instantiation plan of a non-singleton bean.
+     */
+    @Nullable
+    volatile InstantiationPlan instantiationPlan;
+
     @Nullable
     private Set<Member> externallyManagedConfigMembers;
 
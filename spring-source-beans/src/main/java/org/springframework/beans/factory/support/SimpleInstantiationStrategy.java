@@ -82,13 +82,48 @@ public class SimpleInstantiationStrategy implements InstantiationStrategy {
                     }
                 }
             }
-            return BeanUtils.instantiateClass(constructorToUse);
+            return instantiateClass(constructorToUse);
         } else {
             // Must generate CGLIB subclass.
             return instantiateWithMethodInjection(bd, beanName, owner);
         }
     }
 
+    /**
+     * Instantiate the given class through the given constructor.
+     * <p>The default implementation delegates to {@link BeanUtils#instantiateClass};
+     * subclasses may override this with a different invocation mechanism.
+     *
+     * @param ctor the constructor to invoke (already resolved)
+     * @param args the constructor arguments to apply
+     * @return the new instance
+     * @throws BeanInstantiationException if the bean cannot be instantiated
+     */
+    protected Object instantiateClass(Constructor<?> ctor, Object... args) {
+        return BeanUtils.instantiateClass(ctor, args);
+    }
+
+    /**
+     * Invoke the given factory method, registered as currently invoked factory method.
+     * <p>The default implementation uses {@link Method#invoke}; subclasses may override
+     * this with a different invocation mechanism, reporting exceptions thrown by
+     * the factory method itself as {@link InvocationTargetException}.
+     *
+     * @param factoryBean   the factory bean instance to call the factory method on,
+     *                      or {@code null} in case of a static factory method
+     * @param factoryMethod the factory method to invoke (already made accessible)
+     * @param args          the factory method arguments to apply
+     * @return the factory method's result (potentially {@code null})
+     * @throws IllegalAccessException    if the factory method is not accessible
+     * @throws InvocationTargetException if the factory method threw an exception
+     */
+    @Nullable
+    protected Object invokeFactoryMethod(@Nullable Object factoryBean, Method factoryMethod, Object... args)
+            throws IllegalAccessException, InvocationTargetException {
+
+        return factoryMethod.invoke(factoryBean, args);
+    }
+
     /**
      * Subclasses can override this method, which is implemented to throw
      * UnsupportedOperationException, if they can instantiate an object with
@@ -111,7 +146,7 @@ public class SimpleInstantiationStrategy implements InstantiationStrategy {
                     return null;
                 });
             }
-            return BeanUtils.instantiateClass(ctor, args);
+            return instantiateClass(ctor, args);
         } else {
             return instantiateWithMethodInjection(bd, beanName, owner, ctor, args);
         }
@@ -146,7 +181,7 @@ public class SimpleInstantiationStrategy implements InstantiationStrategy {
             Method priorInvokedFactoryMethod = currentlyInvokedFactoryMethod.get();
             try {
                 currentlyInvokedFactoryMethod.set(factoryMethod);
-                Object result = factoryMethod.invoke(factoryBean, args);
+                Object result = invokeFactoryMethod(factoryBean, factoryMethod, args);
                 if (result == null) {
                     result = new NullBean();
                 }
@@ -0,0 +1,181 @@
+/*
+ * Copyright 2002-2023 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.beans.factory.support;
+
+import org.springframework.lang.Nullable;
+
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Per-bean-name creation locks for {@link DefaultSingletonBeanRegistry},
+ * used instead of the global singleton mutex when lock striping is enabled.
+ *
+ * <p>Unrelated singletons can be created concurrently this way. Since the
+ * dependencies of a singleton are only discovered during its creation, two
+ * threads may end up waiting for each other's beans (a circular reference
+ * spread across threads). Waiting threads therefore check the chain of lock
+ * owners periodically: {@link #lock} returns {@code false} instead of blocking
+ * forever once the owner of the requested lock turns out to be waiting for
+ * the current thread, letting the registry fall back to an early reference.
+ *
+ * @see DefaultSingletonBeanRegistry#setSingletonCreationLockStriping
+ */
+final class SingletonCreationLocks {
+
+    /**
+     * Interval for re-checking the chain of lock owners while waiting.
+     */
+    private static final long DEADLOCK_CHECK_INTERVAL_MILLIS = 50;
+
+
+    /**
+     * Creation locks: bean name to lock.
+     */
+    private final Map<String, CreationLock> locks = new ConcurrentHashMap<>(256);
+
+    /**
+     * Threads currently waiting for a creation lock: thread to bean name.
+     */
+    private final Map<Thread, String> waitingThreads = new ConcurrentHashMap<>(16);
+
+
+    /**
+     * Acquire the creation lock for the given bean.
+     *
+     * @param beanName the name of the bean
+     * @return {@code true} if the lock has been acquired, or {@code false} if
+     * waiting for it would deadlock since its owner (transitively) waits for
+     * a lock held by the current thread
+     */
+    public boolean lock(String beanName) {
+        CreationLock lock = this.locks.computeIfAbsent(beanName, name -> new CreationLock());
+        if (lock.tryLock()) {
+            return true;
+        }
+        Thread currentThread = Thread.currentThread();
+        this.waitingThreads.put(currentThread, beanName);
+        try {
+            while (!lock.tryLock(DEADLOCK_CHECK_INTERVAL_MILLIS, TimeUnit.MILLISECONDS)) {
+                if (isWaitingFor(lock.getOwner(), currentThread)) {
+                    return false;
+                }
+            }
+            return true;
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while waiting for creation of bean '" + beanName + "'", ex);
+        } finally {
+            this.waitingThreads.remove(currentThread);
+        }
+    }
+
+    /**
+     * Release the creation lock for the given bean.
+     *
+     * @param beanName the name of the bean
+     */
+    public void unlock(String beanName) {
+        CreationLock lock = this.locks.get(beanName);
+        if (lock != null) {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Wait for the given future, which completes once the given bean has been
+     * created on another thread. The current thread counts as waiting for the
+     * bean's creation lock meanwhile, so that the creating thread can detect a
+     * circular reference back to a bean in creation on the current thread.
+     *
+     * @param beanName the name of the bean created on another thread
+     * @param future   the future to wait for
+     * @return the result of the future
+     * @throws ExecutionException if the creation failed
+     */
+    public <T> T await(String beanName, Future<T> future) throws ExecutionException {
+        Thread currentThread = Thread.currentThread();
+        this.waitingThreads.put(currentThread, beanName);
+        try {
+            return future.get();
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while waiting for creation of bean '" + beanName + "'", ex);
+        } finally {
+            this.waitingThreads.remove(currentThread);
+        }
+    }
+
+    /**
+     * Determine whether the creation lock for the given bean is currently
+     * held by a thread other than the current one.
+     *
+     * @param beanName the name of the bean
+     */
+    public boolean isLockedByOtherThread(String beanName) {
+        CreationLock lock = this.locks.get(beanName);
+        return (lock != null && lock.isLocked() && !lock.isHeldByCurrentThread());
+    }
+
+    /**
+     * Follow the chain of waiting threads and lock owners starting from the given
+     * owner, checking whether it leads back to the given thread.
+     */
+    private boolean isWaitingFor(@Nullable Thread owner, Thread thread) {
+        Set<Thread> visited = null;
+        Thread current = owner;
+        while (current != null) {
+            if (current == thread) {
+                return true;
+            }
+            if (visited == null) {
+                visited = new HashSet<>(4);
+            }
+            if (!visited.add(current)) {
+                return false;
+            }
+            String awaitedBean = this.waitingThreads.get(current);
+            if (awaitedBean == null) {
+                return false;
+            }
+            CreationLock awaitedLock = this.locks.get(awaitedBean);
+            current = (awaitedLock != null ? awaitedLock.getOwner() : null);
+        }
+        return false;
+    }
+
+
+    /**
+     * ReentrantLock variant exposing its owner for deadlock detection.
+     */
+    @SuppressWarnings("serial")
+    private static class CreationLock extends ReentrantLock {
+
+        @Override
+        @Nullable
+        public Thread getOwner() {
+            return super.getOwner();
+        }
+    }
+
+}
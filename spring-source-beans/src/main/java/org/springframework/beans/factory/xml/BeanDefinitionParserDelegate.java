@@ -440,6 +440,21 @@ public class BeanDefinitionParserDelegate {
      * within the current level of beans element nesting.
      */
     protected void checkNameUniqueness(String beanName, List<String> aliases, Element beanElement) {
+        String foundName = useNames(beanName, aliases);
+        if (foundName != null) {
+            error("Bean name '" + foundName + "' is already used in this <beans> element", beanElement);
+        }
+    }
+
+    /**
+     * Mark the specified bean name and aliases as used within the current level
+     * of beans element nesting, returning the first one that had been used already.
+     *
+     * @return the name already in use, or {@code null} if none
+     * @see #checkNameUniqueness
+     */
+    @Nullable
+    String useNames(String beanName, List<String> aliases) {
         String foundName = null;
 
         if (StringUtils.hasText(beanName) && this.usedNames.contains(beanName)) {
@@ -448,12 +463,10 @@ public class BeanDefinitionParserDelegate {
         if (foundName == null) {
             foundName = CollectionUtils.findFirstMatch(this.usedNames, aliases);
         }
-        if (foundName != null) {
-            error("Bean name '" + foundName + "' is already used in this <beans> element", beanElement);
-        }
 
         this.usedNames.add(beanName);
         this.usedNames.addAll(aliases);
+        return foundName;
     }
 
     /**
@@ -202,14 +202,29 @@ public class DefaultBeanDefinitionDocumentReader implements BeanDefinitionDocume
      * from the given resource into the bean factory.
      */
     protected void importBeanDefinitionResource(Element ele) {
-        String location = ele.getAttribute(RESOURCE_ATTRIBUTE);
+        importBeanDefinitionResource(getReaderContext(), ele.getAttribute(RESOURCE_ATTRIBUTE), ele, this.logger);
+    }
+
+    /**
+     * Load the bean definitions from the given import location, resolved against
+     * the current resource unless absolute, reporting problems against the given
+     * source of the import.
+     *
+     * @param readerContext the context of the current resource
+     * @param location      the location as specified in the "resource" attribute
+     * @param source        the import element, or another source object to report problems against
+     * @param logger        the logger to trace imports with
+     */
+    static void importBeanDefinitionResource(
+            XmlReaderContext readerContext, String location, Object source, Log logger) {
+
         if (!StringUtils.hasText(location)) {
-            getReaderContext().error("Resource location must not be empty", ele);
+            readerContext.error("Resource location must not be empty", source);
             return;
         }
 
         // Resolve system properties: e.g. "${user.dir}"
-        location = getReaderContext().getEnvironment().resolveRequiredPlaceholders(location);
+        location = readerContext.getEnvironment().resolveRequiredPlaceholders(location);
 
         Set<Resource> actualResources = new LinkedHashSet<>(4);
 
@@ -225,39 +240,39 @@ public class DefaultBeanDefinitionDocumentReader implements BeanDefinitionDocume
         // Absolute or relative?
         if (absoluteLocation) {
             try {
-                int importCount = getReaderContext().getReader().loadBeanDefinitions(location, actualResources);
+                int importCount = readerContext.getReader().loadBeanDefinitions(location, actualResources);
                 if (logger.isTraceEnabled()) {
                     logger.trace("Imported " + importCount + " bean definitions from URL location [" + location + "]");
                 }
             } catch (BeanDefinitionStoreException ex) {
-                getReaderContext().error(
-                        "Failed to import bean definitions from URL location [" + location + "]", ele, ex);
+                readerContext.error(
+                        "Failed to import bean definitions from URL location [" + location + "]", source, ex);
             }
         } else {
             // No URL -> considering resource location as relative to the current file.
             try {
                 int importCount;
-                Resource relativeResource = getReaderContext().getResource().createRelative(location);
+                Resource relativeResource = readerContext.getResource().createRelative(location);
                 if (relativeResource.exists()) {
-                    importCount = getReaderContext().getReader().loadBeanDefinitions(relativeResource);
+                    importCount = readerContext.getReader().loadBeanDefinitions(relativeResource);
                     actualResources.add(relativeResource);
                 } else {
-                    String baseLocation = getReaderContext().getResource().getURL().toString();
-                    importCount = getReaderContext().getReader().loadBeanDefinitions(
+                    String baseLocation = readerContext.getResource().getURL().toString();
+                    importCount = readerContext.getReader().loadBeanDefinitions(
                             StringUtils.applyRelativePath(baseLocation, location), actualResources);
                 }
                 if (logger.isTraceEnabled()) {
                     logger.trace("Imported " + importCount + " bean definitions from relative location [" + location + "]");
                 }
             } catch (IOException ex) {
-                getReaderContext().error("Failed to resolve current resource location", ele, ex);
+                readerContext.error("Failed to resolve current resource location", source, ex);
             } catch (BeanDefinitionStoreException ex) {
-                getReaderContext().error(
-                        "Failed to import bean definitions from relative location [" + location + "]", ele, ex);
+                readerContext.error(
+                        "Failed to import bean definitions from relative location [" + location + "]", source, ex);
             }
         }
         Resource[] actResArray = actualResources.toArray(new Resource[0]);
-        getReaderContext().fireImportProcessed(location, actResArray, extractSource(ele));
+        readerContext.fireImportProcessed(location, actResArray, readerContext.extractSource(source));
     }
 
     /**
@@ -19,15 +19,41 @@ package org.springframework.beans.factory.xml;
 import org.apache.commons.logging.Log;
 import org.apache.commons.logging.LogFactory;
 import org.springframework.lang.Nullable;
+import org.springframework.util.ConcurrentReferenceHashMap;
+import org.springframework.util.StringUtils;
+import org.springframework.util.xml.StaxUtils;
 import org.springframework.util.xml.XmlValidationModeDetector;
 import org.w3c.dom.Document;
+import org.w3c.dom.ls.LSInput;
+import org.w3c.dom.ls.LSResourceResolver;
 import org.xml.sax.EntityResolver;
 import org.xml.sax.ErrorHandler;
 import org.xml.sax.InputSource;
+import org.xml.sax.SAXException;
 
+import javax.xml.XMLConstants;
 import javax.xml.parsers.DocumentBuilder;
 import javax.xml.parsers.DocumentBuilderFactory;
 import javax.xml.parsers.ParserConfigurationException;
+import javax.xml.stream.XMLInputFactory;
+import javax.xml.stream.XMLStreamConstants;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamReader;
+import javax.xml.transform.Source;
+import javax.xml.transform.sax.SAXSource;
+import javax.xml.validation.Schema;
+import javax.xml.validation.SchemaFactory;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.Reader;
+import java.io.SequenceInputStream;
+import java.net.URI;
+import java.net.URISyntaxException;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
 
 /**
  * Spring's default {@link DocumentLoader} implementation.
@@ -40,6 +66,9 @@ import javax.xml.parsers.ParserConfigurationException;
  *
  * <pre class="code">java -Djavax.xml.parsers.DocumentBuilderFactory=oracle.xml.jaxp.JXDocumentBuilderFactory MyMainClass</pre>
  *
+ * <p>With {@link #setCacheSchemas schema caching} enabled, XSD schemas are compiled
+ * once per process and document builders are reused across documents.
+ *
  * @author Rob Harrop
  * @author Juergen Hoeller
  * @since 2.0
@@ -57,8 +86,57 @@ public class DefaultDocumentLoader implements DocumentLoader {
     private static final String XSD_SCHEMA_LANGUAGE = "http://www.w3.org/2001/XMLSchema";
 
 
+    /**
+     * Maximum number of bytes to read ahead for the root element of a document.
+     */
+    private static final int ROOT_ELEMENT_SCAN_LIMIT = 16 * 1024;
+
+    /**
+     * Maximum number of document builders to keep per schema set.
+     */
+    private static final int MAX_POOLED_DOCUMENT_BUILDERS = Runtime.getRuntime().availableProcessors();
+
+
     private static final Log logger = LogFactory.getLog(DefaultDocumentLoader.class);
 
+    /**
+     * Compiled schemas, keyed by normalized {@code xsi:schemaLocation} value.
+     */
+    private static final Map<String, Schema> schemaCache = new ConcurrentReferenceHashMap<>(16);
+
+    private static final XMLInputFactory inputFactory = StaxUtils.createDefensiveInputFactory();
+
+
+    private boolean cacheSchemas = false;
+
+    /**
+     * Document builders ready for reuse, keyed by validation mode or schema set.
+     */
+    private final Map<String, Queue<DocumentBuilder>> documentBuilderPool = new ConcurrentHashMap<>(4);
+
+
+    /**
+     * Set whether to validate XSD-based documents against schemas compiled once
+     * per process and to reuse document builders, instead of creating a new
+     * validating parser which resolves and parses the schemas for each document.
+     * Default is "false".
+     * <p>Compiled schemas are keyed by the {@code xsi:schemaLocation} attribute of
+     * the root element, assuming that the same schema locations resolve to the
+     * same schemas throughout the process. Documents are validated against the
+     * schemas declared on their root element only, so all namespaces used in
+     * a document need to be declared there.
+     */
+    public void setCacheSchemas(boolean cacheSchemas) {
+        this.cacheSchemas = cacheSchemas;
+    }
+
+    /**
+     * Return whether to cache compiled schemas and reuse document builders.
+     */
+    public boolean isCacheSchemas() {
+        return this.cacheSchemas;
+    }
+
 
     /**
      * Load the {@link Document} at the supplied {@link InputSource} using the standard JAXP-configured
@@ -68,6 +146,10 @@ public class DefaultDocumentLoader implements DocumentLoader {
     public Document loadDocument(InputSource inputSource, EntityResolver entityResolver,
                                  ErrorHandler errorHandler, int validationMode, boolean namespaceAware) throws Exception {
 
+        if (this.cacheSchemas) {
+            return loadDocumentWithPooledBuilder(
+                    inputSource, entityResolver, errorHandler, validationMode, namespaceAware);
+        }
         DocumentBuilderFactory factory = createDocumentBuilderFactory(validationMode, namespaceAware);
         if (logger.isTraceEnabled()) {
             logger.trace("Using JAXP provider [" + factory.getClass().getName() + "]");
@@ -76,6 +158,162 @@ public class DefaultDocumentLoader implements DocumentLoader {
         return builder.parse(inputSource);
     }
 
+    private Document loadDocumentWithPooledBuilder(InputSource inputSource, @Nullable EntityResolver entityResolver,
+                                                   @Nullable ErrorHandler errorHandler, int validationMode,
+                                                   boolean namespaceAware) throws Exception {
+
+        Schema schema = null;
+        String poolKey;
+        if (validationMode == XmlValidationModeDetector.VALIDATION_XSD) {
+            String schemaLocation = readSchemaLocation(inputSource);
+            if (schemaLocation == null) {
+                // No schemas declared up front: let the parser resolve them.
+                DocumentBuilderFactory factory = createDocumentBuilderFactory(validationMode, namespaceAware);
+                return createDocumentBuilder(factory, entityResolver, errorHandler).parse(inputSource);
+            }
+            schema = getSchema(schemaLocation, entityResolver);
+            poolKey = "xsd " + schemaLocation;
+        } else {
+            poolKey = validationMode + " " + namespaceAware;
+        }
+
+        Queue<DocumentBuilder> pool = this.documentBuilderPool.computeIfAbsent(
+                poolKey, key -> new ConcurrentLinkedQueue<>());
+        DocumentBuilder builder = pool.poll();
+        if (builder == null) {
+            DocumentBuilderFactory factory;
+            if (schema != null) {
+                factory = createDocumentBuilderFactory(XmlValidationModeDetector.VALIDATION_NONE, true);
+                factory.setSchema(schema);
+            } else {
+                factory = createDocumentBuilderFactory(validationMode, namespaceAware);
+            }
+            builder = createDocumentBuilder(factory, null, null);
+        }
+        if (entityResolver != null) {
+            builder.setEntityResolver(entityResolver);
+        }
+        if (errorHandler != null) {
+            builder.setErrorHandler(errorHandler);
+        }
+        try {
+            return builder.parse(inputSource);
+        } finally {
+            builder.reset();
+            builder.setEntityResolver(null);
+            builder.setErrorHandler(null);
+            if (pool.size() < MAX_POOLED_DOCUMENT_BUILDERS) {
+                pool.offer(builder);
+            }
+        }
+    }
+
+    /**
+     * Read the {@code xsi:schemaLocation} attribute of the root element, keeping
+     * the given input source readable from the start.
+     *
+     * @return the whitespace-normalized schema location, or {@code null} if not
+     * declared or not found within the first bytes of the document
+     */
+    @Nullable
+    private static String readSchemaLocation(InputSource inputSource) throws IOException {
+        InputStream inputStream = inputSource.getByteStream();
+        if (inputStream == null || inputSource.getCharacterStream() != null) {
+            return null;
+        }
+        byte[] prefix = inputStream.readNBytes(ROOT_ELEMENT_SCAN_LIMIT);
+        inputSource.setByteStream(new SequenceInputStream(new ByteArrayInputStream(prefix), inputStream));
+
+        InputStream prefixStream = new ByteArrayInputStream(prefix);
+        XMLStreamReader reader = null;
+        try {
+            synchronized (inputFactory) {
+                reader = (inputSource.getEncoding() != null ?
+                        inputFactory.createXMLStreamReader(prefixStream, inputSource.getEncoding()) :
+                        inputFactory.createXMLStreamReader(prefixStream));
+            }
+            while (reader.hasNext()) {
+                if (reader.next() == XMLStreamConstants.START_ELEMENT) {
+                    String schemaLocation = reader.getAttributeValue(
+                            XMLConstants.W3C_XML_SCHEMA_INSTANCE_NS_URI, "schemaLocation");
+                    return normalizeSchemaLocation(schemaLocation);
+                }
+            }
+        } catch (XMLStreamException ex) {
+            // Root element beyond the prefix, or a DOCTYPE: let the parser resolve the schemas.
+            if (logger.isTraceEnabled()) {
+                logger.trace("Could not read root element up front: " + ex);
+            }
+        } finally {
+            if (reader != null) {
+                try {
+                    reader.close();
+                } catch (XMLStreamException ex) {
+                    // ignore
+                }
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Normalize the whitespace in the given {@code xsi:schemaLocation} value,
+     * as used for keying compiled schemas.
+     *
+     * @return the normalized schema location, or {@code null} if empty
+     */
+    @Nullable
+    static String normalizeSchemaLocation(@Nullable String schemaLocation) {
+        return (StringUtils.hasText(schemaLocation) ? StringUtils.arrayToDelimitedString(
+                StringUtils.tokenizeToStringArray(schemaLocation, " \t\n\r"), " ") : null);
+    }
+
+    /**
+     * Return the compiled schemas for the given normalized schema location,
+     * compiling and caching them on first access.
+     *
+     * @see #normalizeSchemaLocation
+     */
+    static Schema getSchema(String schemaLocation, @Nullable EntityResolver entityResolver)
+            throws SAXException, IOException {
+
+        Schema schema = schemaCache.get(schemaLocation);
+        if (schema == null) {
+            schema = compileSchema(schemaLocation, entityResolver);
+            Schema existing = schemaCache.putIfAbsent(schemaLocation, schema);
+            if (existing != null) {
+                schema = existing;
+            }
+        }
+        return schema;
+    }
+
+    private static Schema compileSchema(String schemaLocation, @Nullable EntityResolver entityResolver)
+            throws SAXException, IOException {
+
+        if (logger.isDebugEnabled()) {
+            logger.debug("Compiling XML schemas [" + schemaLocation + "]");
+        }
+        // Namespace and location pairs.
+        String[] tokens = StringUtils.tokenizeToStringArray(schemaLocation, " ");
+        Source[] sources = new Source[tokens.length / 2];
+        for (int i = 0; i < sources.length; i++) {
+            String systemId = tokens[i * 2 + 1];
+            InputSource source = (entityResolver != null ? entityResolver.resolveEntity(null, systemId) : null);
+            if (source == null) {
+                source = new InputSource(systemId);
+            } else if (source.getSystemId() == null) {
+                source.setSystemId(systemId);
+            }
+            sources[i] = new SAXSource(source);
+        }
+        SchemaFactory factory = SchemaFactory.newInstance(XMLConstants.W3C_XML_SCHEMA_NS_URI);
+        if (entityResolver != null) {
+            factory.setResourceResolver(new EntityResourceResolver(entityResolver));
+        }
+        return factory.newSchema(sources);
+    }
+
     /**
      * Create the {@link DocumentBuilderFactory} instance.
      *
@@ -138,4 +376,172 @@ public class DefaultDocumentLoader implements DocumentLoader {
         return docBuilder;
     }
 
+
+    /**
+     * Adapts an {@link EntityResolver} for schemas imported or included by
+     * compiled schemas.
+     */
+    private static class EntityResourceResolver implements LSResourceResolver {
+
+        private final EntityResolver entityResolver;
+
+        EntityResourceResolver(EntityResolver entityResolver) {
+            this.entityResolver = entityResolver;
+        }
+
+        @Override
+        @Nullable
+        public LSInput resolveResource(String type, @Nullable String namespaceURI, @Nullable String publicId,
+                                       @Nullable String systemId, @Nullable String baseURI) {
+
+            if (systemId == null) {
+                return null;
+            }
+            String resolvedSystemId = systemId;
+            if (baseURI != null) {
+                try {
+                    resolvedSystemId = new URI(baseURI).resolve(systemId).toString();
+                } catch (URISyntaxException | IllegalArgumentException ex) {
+                    // keep the system id as specified
+                }
+            }
+            try {
+                InputSource source = this.entityResolver.resolveEntity(publicId, resolvedSystemId);
+                return (source != null ? new InputSourceInput(source, resolvedSystemId, baseURI) : null);
+            } catch (SAXException | IOException ex) {
+                if (logger.isDebugEnabled()) {
+                    logger.debug("Could not resolve XML schema [" + resolvedSystemId + "]", ex);
+                }
+                // Fall back to the parser's default behavior.
+                return null;
+            }
+        }
+    }
+
+
+    /**
+     * {@link LSInput} exposing a SAX {@link InputSource}.
+     */
+    private static class InputSourceInput implements LSInput {
+
+        @Nullable
+        private Reader characterStream;
+
+        @Nullable
+        private InputStream byteStream;
+
+        @Nullable
+        private String stringData;
+
+        @Nullable
+        private String systemId;
+
+        @Nullable
+        private String publicId;
+
+        @Nullable
+        private String baseURI;
+
+        @Nullable
+        private String encoding;
+
+        private boolean certifiedText;
+
+        InputSourceInput(InputSource source, String systemId, @Nullable String baseURI) {
+            this.characterStream = source.getCharacterStream();
+            this.byteStream = source.getByteStream();
+            this.systemId = (source.getSystemId() != null ? source.getSystemId() : systemId);
+            this.publicId = source.getPublicId();
+            this.baseURI = baseURI;
+            this.encoding = source.getEncoding();
+        }
+
+        @Override
+        @Nullable
+        public Reader getCharacterStream() {
+            return this.characterStream;
+        }
+
+        @Override
+        public void setCharacterStream(@Nullable Reader characterStream) {
+            this.characterStream = characterStream;
+        }
+
+        @Override
+        @Nullable
+        public InputStream getByteStream() {
+            return this.byteStream;
+        }
+
+        @Override
+        public void setByteStream(@Nullable InputStream byteStream) {
+            this.byteStream = byteStream;
+        }
+
+        @Override
+        @Nullable
+        public String getStringData() {
+            return this.stringData;
+        }
+
+        @Override
+        public void setStringData(@Nullable String stringData) {
+            this.stringData = stringData;
+        }
+
+        @Override
+        @Nullable
+        public String getSystemId() {
+            return this.systemId;
+        }
+
+        @Override
+        public void setSystemId(@Nullable String systemId) {
+            this.systemId = systemId;
+        }
+
+        @Override
+        @Nullable
+        public String getPublicId() {
+            return this.publicId;
+        }
+
+        @Override
+        public void setPublicId(@Nullable String publicId) {
+            this.publicId = publicId;
+        }
+
+        @Override
+        @Nullable
+        public String getBaseURI() {
+            return this.baseURI;
+        }
+
+        @Override
+        public void setBaseURI(@Nullable String baseURI) {
+            this.baseURI = baseURI;
+        }
+
+        @Override
+        @Nullable
+        public String getEncoding() {
+            return this.encoding;
+        }
+
+        @Override
+        public void setEncoding(@Nullable String encoding) {
+            this.encoding = encoding;
+        }
+
+        @Override
+        public boolean getCertifiedText() {
+            return this.certifiedText;
+        }
+
+        @Override
+        public void setCertifiedText(boolean certifiedText) {
+            this.certifiedText = certifiedText;
+        }
+    }
+
 }
@@ -0,0 +1,235 @@
+/*
+ * Copyright 2002-2023 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.beans.factory.xml;
+
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+import org.springframework.core.io.Resource;
+import org.springframework.core.io.ResourceLoader;
+import org.springframework.core.io.support.EncodedResource;
+import org.springframework.core.io.support.ResourcePatternResolver;
+import org.springframework.core.io.support.ResourcePatternUtils;
+import org.springframework.lang.Nullable;
+import org.springframework.util.CustomizableThreadFactory;
+import org.springframework.util.ResourceUtils;
+import org.springframework.util.StringUtils;
+import org.w3c.dom.Document;
+import org.w3c.dom.Element;
+import org.w3c.dom.Node;
+import org.w3c.dom.NodeList;
+import org.xml.sax.InputSource;
+
+import java.io.InputStream;
+import java.net.URISyntaxException;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * Loads the documents imported by an XML bean definition file ahead of time on
+ * a temporary thread pool, following further imports of the loaded documents
+ * as well.
+ *
+ * <p>Only the documents are loaded concurrently. Bean definitions are still
+ * parsed and registered on the calling thread when the importing document gets
+ * to the {@code <import>} element, taking the prefetched document instead of
+ * loading it. Registration order, bean definition overriding and cycle
+ * detection are therefore the same as in sequential loading. Documents which
+ * fail to load are loaded again sequentially, reporting the failure as usual.
+ *
+ * @see XmlBeanDefinitionReader#setImportParallelism
+ */
+final class ImportDocumentPrefetcher {
+
+    private static final Log logger = LogFactory.getLog(ImportDocumentPrefetcher.class);
+
+
+    private final XmlBeanDefinitionReader reader;
+
+    private final ExecutorService executor;
+
+    /**
+     * Imported resources that have been submitted, to load each resource only once.
+     */
+    private final Set<EncodedResource> submittedResources = ConcurrentHashMap.newKeySet();
+
+    /**
+     * Documents loaded or being loaded, until taken by the reader.
+     */
+    private final Map<EncodedResource, Future<Document>> documents = new ConcurrentHashMap<>();
+
+
+    /**
+     * Create a new prefetcher for the imports of the given resource.
+     *
+     * @param reader      the reader to load the documents with
+     * @param resource    the resource being loaded by the reader
+     * @param parallelism the number of threads to use
+     */
+    ImportDocumentPrefetcher(XmlBeanDefinitionReader reader, EncodedResource resource, int parallelism) {
+        this.reader = reader;
+        this.submittedResources.add(new EncodedResource(resource.getResource()));
+        CustomizableThreadFactory threadFactory = new CustomizableThreadFactory("xml-import-");
+        threadFactory.setDaemon(true);
+        this.executor = Executors.newFixedThreadPool(parallelism, threadFactory);
+    }
+
+
+    /**
+     * Start loading the documents imported by the given document.
+     *
+     * @param doc      the loaded document
+     * @param resource the resource that the document has been loaded from
+     */
+    void prefetchImports(Document doc, Resource resource) {
+        Element root = doc.getDocumentElement();
+        if (root != null && isDefaultNamespace(root)) {
+            prefetchImports(root, resource);
+        }
+    }
+
+    private void prefetchImports(Element beans, Resource resource) {
+        NodeList nodes = beans.getChildNodes();
+        for (int i = 0; i < nodes.getLength(); i++) {
+            Node node = nodes.item(i);
+            if (node instanceof Element && isDefaultNamespace(node)) {
+                String localName = getLocalName(node);
+                if (DefaultBeanDefinitionDocumentReader.IMPORT_ELEMENT.equals(localName)) {
+                    String location = ((Element) node).getAttribute(
+                            DefaultBeanDefinitionDocumentReader.RESOURCE_ATTRIBUTE);
+                    for (Resource importedResource : resolveImport(location, resource)) {
+                        submit(new EncodedResource(importedResource));
+                    }
+                } else if (DefaultBeanDefinitionDocumentReader.NESTED_BEANS_ELEMENT.equals(localName)) {
+                    // Regardless of profiles: documents which end up not being used are discarded.
+                    prefetchImports((Element) node, resource);
+                }
+            }
+        }
+    }
+
+    /**
+     * Resolve an import location the same way as
+     * {@link DefaultBeanDefinitionDocumentReader#importBeanDefinitionResource},
+     * returning no resources if it cannot be resolved up front.
+     */
+    private Resource[] resolveImport(String location, Resource resource) {
+        try {
+            location = this.reader.getEnvironment().resolveRequiredPlaceholders(location);
+            if (!StringUtils.hasText(location)) {
+                return new Resource[0];
+            }
+            boolean absoluteLocation = false;
+            try {
+                absoluteLocation = ResourcePatternUtils.isUrl(location) || ResourceUtils.toURI(location).isAbsolute();
+            } catch (URISyntaxException ex) {
+                // cannot convert to an URI, considering the location relative
+            }
+            if (absoluteLocation) {
+                ResourceLoader resourceLoader = this.reader.getResourceLoader();
+                if (resourceLoader instanceof ResourcePatternResolver) {
+                    return ((ResourcePatternResolver) resourceLoader).getResources(location);
+                } else if (resourceLoader != null) {
+                    return new Resource[]{resourceLoader.getResource(location)};
+                }
+            } else {
+                Resource relativeResource = resource.createRelative(location);
+                if (relativeResource.exists()) {
+                    return new Resource[]{relativeResource};
+                }
+            }
+        } catch (Exception ex) {
+            if (logger.isDebugEnabled()) {
+                logger.debug("Not prefetching import [" + location + "] of " + resource + ": " + ex);
+            }
+        }
+        return new Resource[0];
+    }
+
+    private void submit(EncodedResource encodedResource) {
+        if (this.submittedResources.add(encodedResource)) {
+            try {
+                this.documents.put(encodedResource, this.executor.submit(() -> loadDocument(encodedResource)));
+            } catch (RuntimeException ex) {
+                // Executor shut down in the meantime.
+                this.submittedResources.remove(encodedResource);
+            }
+        }
+    }
+
+    private Document loadDocument(EncodedResource encodedResource) throws Exception {
+        Resource resource = encodedResource.getResource();
+        Document doc;
+        try (InputStream inputStream = resource.getInputStream()) {
+            doc = this.reader.doLoadDocument(new InputSource(inputStream), resource);
+        }
+        prefetchImports(doc, resource);
+        return doc;
+    }
+
+    /**
+     * Take the prefetched document for the given resource, waiting for it to be
+     * loaded if necessary.
+     *
+     * @param encodedResource the resource to load
+     * @return the document, or {@code null} if not prefetched or failed to load,
+     * to be loaded by the caller
+     */
+    @Nullable
+    Document takeDocument(EncodedResource encodedResource) {
+        // Imports of the same resource get loaded again after the first one.
+        Future<Document> document = this.documents.remove(encodedResource);
+        if (document == null) {
+            return null;
+        }
+        try {
+            return document.get();
+        } catch (ExecutionException ex) {
+            if (logger.isDebugEnabled()) {
+                logger.debug("Failed to prefetch " + encodedResource + " - loading it again", ex.getCause());
+            }
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            document.cancel(true);
+        }
+        return null;
+    }
+
+    /**
+     * Stop loading documents and discard documents not taken.
+     */
+    void close() {
+        this.executor.shutdownNow();
+        this.documents.clear();
+    }
+
+    private static boolean isDefaultNamespace(Node node) {
+        String namespaceUri = node.getNamespaceURI();
+        return (!StringUtils.hasLength(namespaceUri) ||
+                BeanDefinitionParserDelegate.BEANS_NAMESPACE_URI.equals(namespaceUri));
+    }
+
+    private static String getLocalName(Node node) {
+        String localName = node.getLocalName();
+        return (localName != null ? localName : node.getNodeName());
+    }
+
+}
@@ -24,11 +24,13 @@ import org.springframework.core.io.support.PropertiesLoaderUtils;
 import org.springframework.lang.Nullable;
 import org.springframework.util.Assert;
 import org.springframework.util.CollectionUtils;
+import org.springframework.util.ConcurrentReferenceHashMap;
 import org.xml.sax.EntityResolver;
 import org.xml.sax.InputSource;
 
 import java.io.FileNotFoundException;
 import java.io.IOException;
+import java.util.Collections;
 import java.util.Map;
 import java.util.Properties;
 import java.util.concurrent.ConcurrentHashMap;
@@ -65,6 +67,13 @@ public class PluggableSchemaResolver implements EntityResolver {
 
     private static final Log logger = LogFactory.getLog(PluggableSchemaResolver.class);
 
+    /**
+     * Schema mappings shared by resolvers with the same ClassLoader, keyed by
+     * mappings location.
+     */
+    private static final Map<ClassLoader, Map<String, Map<String, String>>> sharedSchemaMappings =
+            new ConcurrentReferenceHashMap<>(16);
+
     @Nullable
     private final ClassLoader classLoader;
 
@@ -151,6 +160,12 @@ public class PluggableSchemaResolver implements EntityResolver {
         if (schemaMappings == null) {
             synchronized (this) {
                 schemaMappings = this.schemaMappings;
+                if (schemaMappings == null && this.classLoader != null) {
+                    // Loaded before by another resolver: avoid scanning all jars again.
+                    schemaMappings = sharedSchemaMappings.getOrDefault(this.classLoader, Collections.emptyMap())
+                            .get(this.schemaMappingsLocation);
+                    this.schemaMappings = schemaMappings;
+                }
                 if (schemaMappings == null) {
                     if (logger.isTraceEnabled()) {
                         logger.trace("Loading schema mappings from [" + this.schemaMappingsLocation + "]");
@@ -164,6 +179,10 @@ public class PluggableSchemaResolver implements EntityResolver {
                         schemaMappings = new ConcurrentHashMap<>(mappings.size());
                         CollectionUtils.mergePropertiesIntoMap(mappings, schemaMappings);
                         this.schemaMappings = schemaMappings;
+                        if (this.classLoader != null) {
+                            sharedSchemaMappings.computeIfAbsent(this.classLoader, cl -> new ConcurrentHashMap<>(4))
+                                    .put(this.schemaMappingsLocation, schemaMappings);
+                        }
                     } catch (IOException ex) {
                         throw new IllegalStateException(
                                 "Unable to load schema mappings from location [" + this.schemaMappingsLocation + "]", ex);
@@ -0,0 +1,1198 @@
+/*
+ * Copyright 2002-2023 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.beans.factory.xml;
+
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+import org.springframework.beans.BeanMetadataAttribute;
+import org.springframework.beans.BeanMetadataAttributeAccessor;
+import org.springframework.beans.PropertyValue;
+import org.springframework.beans.factory.BeanDefinitionStoreException;
+import org.springframework.beans.factory.config.BeanDefinition;
+import org.springframework.beans.factory.config.BeanDefinitionHolder;
+import org.springframework.beans.factory.config.ConstructorArgumentValues;
+import org.springframework.beans.factory.config.RuntimeBeanNameReference;
+import org.springframework.beans.factory.config.RuntimeBeanReference;
+import org.springframework.beans.factory.config.TypedStringValue;
+import org.springframework.beans.factory.parsing.BeanComponentDefinition;
+import org.springframework.beans.factory.support.AbstractBeanDefinition;
+import org.springframework.beans.factory.support.BeanDefinitionReaderUtils;
+import org.springframework.beans.factory.support.ManagedList;
+import org.springframework.beans.factory.support.ManagedMap;
+import org.springframework.beans.factory.support.ManagedProperties;
+import org.springframework.beans.factory.support.ManagedSet;
+import org.springframework.lang.Nullable;
+import org.springframework.util.PatternMatchUtils;
+import org.springframework.util.StringUtils;
+import org.springframework.util.xml.StaxUtils;
+import org.w3c.dom.Document;
+import org.w3c.dom.Element;
+import org.w3c.dom.Node;
+import org.xml.sax.ErrorHandler;
+import org.xml.sax.InputSource;
+import org.xml.sax.SAXException;
+import org.xml.sax.SAXParseException;
+
+import javax.xml.XMLConstants;
+import javax.xml.parsers.DocumentBuilderFactory;
+import javax.xml.parsers.ParserConfigurationException;
+import javax.xml.stream.Location;
+import javax.xml.stream.XMLInputFactory;
+import javax.xml.stream.XMLStreamConstants;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamReader;
+import javax.xml.transform.dom.DOMResult;
+import javax.xml.transform.dom.DOMSource;
+import javax.xml.validation.Validator;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import static org.springframework.beans.factory.xml.BeanDefinitionParserDelegate.*;
+
+/**
+ * Streaming counterpart of {@link DefaultBeanDefinitionDocumentReader}, reading
+ * bean definitions through StAX instead of building a DOM for the whole document.
+ *
+ * <p>The children of each {@code <beans>} element are read one at a time.
+ * {@code <import>} and {@code <alias>} elements are processed right away.
+ * {@code <bean>} elements are buffered into a lightweight element tree, and turned
+ * into bean definitions directly if they only use the common bean attributes and
+ * {@code <property>}, {@code <constructor-arg>}, {@code <meta>} and
+ * {@code <description>} sub-elements with value, reference, inner bean, list, set,
+ * map and props values.
+ *
+ * <p>Any other top-level element - custom namespace elements, beans with custom
+ * attributes, nested custom elements or less common features, as well as elements
+ * that are invalid - gets converted into a DOM element and handed to the
+ * {@link BeanDefinitionParserDelegate}, element by element. Since the document
+ * is not validated, the default attribute values declared by the XSD schemas
+ * from the root element's {@code xsi:schemaLocation} are added to such an element
+ * first, as far as those schemas can be resolved; namespace handlers rely on them.
+ *
+ * @see XmlBeanDefinitionReader#setStreaming
+ */
+final class StreamingBeanDefinitionParser {
+
+    private static final Log logger = LogFactory.getLog(StreamingBeanDefinitionParser.class);
+
+    private static final XMLInputFactory inputFactory = createInputFactory();
+
+    private static final DocumentBuilderFactory documentBuilderFactory = createDocumentBuilderFactory();
+
+    /**
+     * Ignores validation errors when applying schema defaults: invalid content
+     * gets reported by the delegate instead.
+     */
+    private static final ErrorHandler lenientErrorHandler = new ErrorHandler() {
+        @Override
+        public void warning(SAXParseException ex) {
+        }
+        @Override
+        public void error(SAXParseException ex) {
+        }
+        @Override
+        public void fatalError(SAXParseException ex) throws SAXException {
+            throw ex;
+        }
+    };
+
+    private static final Set<String> BEAN_ATTRIBUTES = new HashSet<>(Arrays.asList(
+            ID_ATTRIBUTE, NAME_ATTRIBUTE, CLASS_ATTRIBUTE, PARENT_ATTRIBUTE, SCOPE_ATTRIBUTE, ABSTRACT_ATTRIBUTE,
+            LAZY_INIT_ATTRIBUTE, AUTOWIRE_ATTRIBUTE, DEPENDS_ON_ATTRIBUTE, AUTOWIRE_CANDIDATE_ATTRIBUTE,
+            PRIMARY_ATTRIBUTE, INIT_METHOD_ATTRIBUTE, DESTROY_METHOD_ATTRIBUTE, FACTORY_METHOD_ATTRIBUTE,
+            FACTORY_BEAN_ATTRIBUTE));
+
+    private static final Set<String> META_ATTRIBUTES = new HashSet<>(Arrays.asList(KEY_ATTRIBUTE, VALUE_ATTRIBUTE));
+
+    private static final Set<String> PROPERTY_ATTRIBUTES = new HashSet<>(Arrays.asList(
+            NAME_ATTRIBUTE, REF_ATTRIBUTE, VALUE_ATTRIBUTE));
+
+    private static final Set<String> CONSTRUCTOR_ARG_ATTRIBUTES = new HashSet<>(Arrays.asList(
+            INDEX_ATTRIBUTE, TYPE_ATTRIBUTE, NAME_ATTRIBUTE, REF_ATTRIBUTE, VALUE_ATTRIBUTE));
+
+    private static final Set<String> REF_ATTRIBUTES = new HashSet<>(Arrays.asList(
+            BEAN_REF_ATTRIBUTE, PARENT_REF_ATTRIBUTE));
+
+    private static final Set<String> COLLECTION_ATTRIBUTES = new HashSet<>(Arrays.asList(
+            VALUE_TYPE_ATTRIBUTE, MERGE_ATTRIBUTE));
+
+    private static final Set<String> MAP_ATTRIBUTES = new HashSet<>(Arrays.asList(
+            KEY_TYPE_ATTRIBUTE, VALUE_TYPE_ATTRIBUTE, MERGE_ATTRIBUTE));
+
+    private static final Set<String> ENTRY_ATTRIBUTES = new HashSet<>(Arrays.asList(
+            KEY_ATTRIBUTE, KEY_REF_ATTRIBUTE, VALUE_ATTRIBUTE, VALUE_REF_ATTRIBUTE, VALUE_TYPE_ATTRIBUTE));
+
+
+    private final XmlReaderContext readerContext;
+
+    /**
+     * Owner of the DOM elements created for {@code <beans>} elements and for
+     * elements handed to the delegate.
+     */
+    private final Document document;
+
+    /**
+     * The normalized {@code xsi:schemaLocation} of the root element, if any.
+     */
+    @Nullable
+    private String schemaLocation;
+
+    @Nullable
+    private Validator schemaValidator;
+
+    private boolean schemaValidatorResolved;
+
+
+    StreamingBeanDefinitionParser(XmlReaderContext readerContext) throws ParserConfigurationException {
+        this.readerContext = readerContext;
+        synchronized (documentBuilderFactory) {
+            this.document = documentBuilderFactory.newDocumentBuilder().newDocument();
+        }
+    }
+
+
+    /**
+     * Read the bean definitions from the given source and register them with
+     * the registry of the reader context.
+     */
+    void parse(InputSource inputSource) throws XMLStreamException {
+        XMLStreamReader reader;
+        // XMLInputFactory implementations are not guaranteed to be thread-safe.
+        synchronized (inputFactory) {
+            if (inputSource.getCharacterStream() != null) {
+                reader = inputFactory.createXMLStreamReader(inputSource.getCharacterStream());
+            } else if (inputSource.getEncoding() != null) {
+                reader = inputFactory.createXMLStreamReader(inputSource.getByteStream(), inputSource.getEncoding());
+            } else {
+                reader = inputFactory.createXMLStreamReader(inputSource.getByteStream());
+            }
+        }
+        try {
+            int event = reader.getEventType();
+            while (event != XMLStreamConstants.START_ELEMENT) {
+                if (!reader.hasNext()) {
+                    return;
+                }
+                event = reader.next();
+            }
+            this.schemaLocation = DefaultDocumentLoader.normalizeSchemaLocation(reader.getAttributeValue(
+                    XMLConstants.W3C_XML_SCHEMA_INSTANCE_NS_URI, "schemaLocation"));
+            processBeans(reader, this.document, null);
+        } finally {
+            reader.close();
+        }
+    }
+
+    /**
+     * Process the root element or a nested {@code <beans>} element, just like
+     * {@link DefaultBeanDefinitionDocumentReader#doRegisterBeanDefinitions}.
+     */
+    @SuppressWarnings("deprecation")  // for Environment.acceptsProfiles(String...)
+    private void processBeans(XMLStreamReader reader, Node parentNode,
+                              @Nullable BeanDefinitionParserDelegate parentDelegate) throws XMLStreamException {
+
+        BeanDefinitionParserDelegate delegate = new BeanDefinitionParserDelegate(this.readerContext);
+        if (!delegate.isDefaultNamespace(normalize(reader.getNamespaceURI()))) {
+            // Custom root element -> to be parsed as a whole.
+            Element root = applySchemaDefaults(toElement(readElement(reader), parentNode));
+            delegate.initDefaults(root, parentDelegate);
+            delegate.parseCustomElement(root);
+            return;
+        }
+
+        // Only the attributes and namespace declarations, as parent of the elements
+        // handed to the delegate.
+        Element beans = createElement(reader);
+        parentNode.appendChild(beans);
+        try {
+            delegate.initDefaults(beans, parentDelegate);
+            String profileSpec = beans.getAttribute(DefaultBeanDefinitionDocumentReader.PROFILE_ATTRIBUTE);
+            if (StringUtils.hasText(profileSpec)) {
+                String[] specifiedProfiles = StringUtils.tokenizeToStringArray(
+                        profileSpec, MULTI_VALUE_ATTRIBUTE_DELIMITERS);
+                if (!this.readerContext.getEnvironment().acceptsProfiles(specifiedProfiles)) {
+                    if (logger.isDebugEnabled()) {
+                        logger.debug("Skipped XML bean definition file due to specified profiles [" + profileSpec +
+                                "] not matching: " + this.readerContext.getResource());
+                    }
+                    skipElement(reader);
+                    return;
+                }
+            }
+
+            int event = reader.next();
+            while (event != XMLStreamConstants.END_ELEMENT) {
+                if (event == XMLStreamConstants.START_ELEMENT) {
+                    processElement(reader, beans, delegate);
+                }
+                event = reader.next();
+            }
+        } finally {
+            parentNode.removeChild(beans);
+        }
+    }
+
+    private void processElement(XMLStreamReader reader, Element beans, BeanDefinitionParserDelegate delegate)
+            throws XMLStreamException {
+
+        String localName = reader.getLocalName();
+        if (!delegate.isDefaultNamespace(normalize(reader.getNamespaceURI()))) {
+            Element ele = applySchemaDefaults(toElement(readElement(reader), beans));
+            try {
+                delegate.parseCustomElement(ele);
+            } finally {
+                beans.removeChild(ele);
+            }
+        } else if (DefaultBeanDefinitionDocumentReader.IMPORT_ELEMENT.equals(localName)) {
+            StreamedElement ele = readElement(reader);
+            DefaultBeanDefinitionDocumentReader.importBeanDefinitionResource(this.readerContext,
+                    ele.getAttribute(DefaultBeanDefinitionDocumentReader.RESOURCE_ATTRIBUTE), ele.location, logger);
+        } else if (DefaultBeanDefinitionDocumentReader.ALIAS_ELEMENT.equals(localName)) {
+            processAliasRegistration(readElement(reader));
+        } else if (BEAN_ELEMENT.equals(localName)) {
+            processBeanDefinition(readElement(reader), beans, delegate);
+        } else if (DefaultBeanDefinitionDocumentReader.NESTED_BEANS_ELEMENT.equals(localName)) {
+            processBeans(reader, beans, delegate);
+        } else {
+            skipElement(reader);
+        }
+    }
+
+    private void processAliasRegistration(StreamedElement ele) {
+        String name = ele.getAttribute(DefaultBeanDefinitionDocumentReader.NAME_ATTRIBUTE);
+        String alias = ele.getAttribute(DefaultBeanDefinitionDocumentReader.ALIAS_ATTRIBUTE);
+        boolean valid = true;
+        if (!StringUtils.hasText(name)) {
+            error("Name must not be empty", ele);
+            valid = false;
+        }
+        if (!StringUtils.hasText(alias)) {
+            error("Alias must not be empty", ele);
+            valid = false;
+        }
+        if (valid) {
+            try {
+                this.readerContext.getRegistry().registerAlias(name, alias);
+            } catch (Exception ex) {
+                error("Failed to register alias '" + alias + "' for bean with name '" + name + "'", ele, ex);
+            }
+            this.readerContext.fireAliasRegistered(name, alias, extractSource(ele));
+        }
+    }
+
+    private void processBeanDefinition(StreamedElement ele, Element beans, BeanDefinitionParserDelegate delegate) {
+        BeanDefinitionHolder bdHolder;
+        Object source;
+        if (isStreamableBean(ele, delegate)) {
+            bdHolder = parseBeanDefinitionElement(ele, delegate, null);
+            source = ele.location;
+        } else {
+            Element domElement = applySchemaDefaults(toElement(ele, beans));
+            try {
+                bdHolder = delegate.parseBeanDefinitionElement(domElement);
+                if (bdHolder != null) {
+                    bdHolder = delegate.decorateBeanDefinitionIfRequired(domElement, bdHolder);
+                }
+            } finally {
+                beans.removeChild(domElement);
+            }
+            source = domElement;
+        }
+        if (bdHolder != null) {
+            try {
+                // Register the final decorated instance.
+                BeanDefinitionReaderUtils.registerBeanDefinition(bdHolder, this.readerContext.getRegistry());
+            } catch (BeanDefinitionStoreException ex) {
+                this.readerContext.error("Failed to register bean definition with name '" +
+                        bdHolder.getBeanName() + "'", source, ex);
+            }
+            // Send registration event.
+            this.readerContext.fireComponentRegistered(new BeanComponentDefinition(bdHolder));
+        }
+    }
+
+
+    // Checks whether an element can be parsed without the delegate
+
+    private boolean isStreamableBean(StreamedElement ele, BeanDefinitionParserDelegate delegate) {
+        if (!ele.hasOnlyAttributes(BEAN_ATTRIBUTES)) {
+            return false;
+        }
+        Set<String> propertyNames = new HashSet<>();
+        Set<Integer> indexes = new HashSet<>();
+        for (StreamedElement child : ele.getChildElements()) {
+            if (!delegate.isDefaultNamespace(child.namespaceUri)) {
+                return false;
+            }
+            if (DESCRIPTION_ELEMENT.equals(child.localName)) {
+                continue;
+            }
+            if (META_ELEMENT.equals(child.localName)) {
+                if (!isStreamableMeta(child)) {
+                    return false;
+                }
+            } else if (PROPERTY_ELEMENT.equals(child.localName)) {
+                String propertyName = child.getAttribute(NAME_ATTRIBUTE);
+                if (!child.hasOnlyAttributes(PROPERTY_ATTRIBUTES) || !StringUtils.hasLength(propertyName) ||
+                        !propertyNames.add(propertyName) || !isStreamableValueHolder(child, delegate)) {
+                    return false;
+                }
+            } else if (CONSTRUCTOR_ARG_ELEMENT.equals(child.localName)) {
+                if (!child.hasOnlyAttributes(CONSTRUCTOR_ARG_ATTRIBUTES) || !isStreamableValueHolder(child, delegate)) {
+                    return false;
+                }
+                String indexAttr = child.getAttribute(INDEX_ATTRIBUTE);
+                if (StringUtils.hasLength(indexAttr)) {
+                    try {
+                        int index = Integer.parseInt(indexAttr);
+                        if (index < 0 || !indexes.add(index)) {
+                            return false;
+                        }
+                    } catch (NumberFormatException ex) {
+                        return false;
+                    }
+                }
+            } else {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private boolean isStreamableMeta(StreamedElement ele) {
+        return (ele.hasOnlyAttributes(META_ATTRIBUTES) && ele.getChildElements().isEmpty());
+    }
+
+    private boolean isStreamableValueHolder(StreamedElement ele, BeanDefinitionParserDelegate delegate) {
+        StreamedElement subElement = null;
+        for (StreamedElement child : ele.getChildElements()) {
+            if (DESCRIPTION_ELEMENT.equals(child.localName)) {
+                continue;
+            }
+            if (META_ELEMENT.equals(child.localName)) {
+                if (!isStreamableMeta(child)) {
+                    return false;
+                }
+            } else if (subElement != null) {
+                return false;
+            } else {
+                subElement = child;
+            }
+        }
+        boolean hasRefAttribute = ele.hasAttribute(REF_ATTRIBUTE);
+        boolean hasValueAttribute = ele.hasAttribute(VALUE_ATTRIBUTE);
+        if (hasRefAttribute) {
+            return (!hasValueAttribute && subElement == null && StringUtils.hasText(ele.getAttribute(REF_ATTRIBUTE)));
+        } else if (hasValueAttribute) {
+            return (subElement == null);
+        } else {
+            return (subElement != null && isStreamableValue(subElement, delegate));
+        }
+    }
+
+    private boolean isStreamableValue(StreamedElement ele, BeanDefinitionParserDelegate delegate) {
+        if (!delegate.isDefaultNamespace(ele.namespaceUri)) {
+            return false;
+        }
+        String localName = ele.localName;
+        if (BEAN_ELEMENT.equals(localName)) {
+            return isStreamableBean(ele, delegate);
+        } else if (REF_ELEMENT.equals(localName)) {
+            String refName = ele.getAttribute(BEAN_REF_ATTRIBUTE);
+            if (!StringUtils.hasLength(refName)) {
+                refName = ele.getAttribute(PARENT_REF_ATTRIBUTE);
+            }
+            return (ele.hasOnlyAttributes(REF_ATTRIBUTES) && StringUtils.hasText(refName));
+        } else if (IDREF_ELEMENT.equals(localName)) {
+            return (ele.hasOnlyAttributes(Collections.singleton(BEAN_REF_ATTRIBUTE)) &&
+                    StringUtils.hasText(ele.getAttribute(BEAN_REF_ATTRIBUTE)));
+        } else if (VALUE_ELEMENT.equals(localName)) {
+            return (ele.hasOnlyAttributes(Collections.singleton(TYPE_ATTRIBUTE)) && ele.getChildElements().isEmpty());
+        } else if (NULL_ELEMENT.equals(localName)) {
+            return (ele.hasOnlyAttributes(Collections.emptySet()) && ele.getChildElements().isEmpty());
+        } else if (LIST_ELEMENT.equals(localName) || SET_ELEMENT.equals(localName)) {
+            if (!ele.hasOnlyAttributes(COLLECTION_ATTRIBUTES)) {
+                return false;
+            }
+            for (StreamedElement child : ele.getChildElements()) {
+                if (!DESCRIPTION_ELEMENT.equals(child.localName) && !isStreamableValue(child, delegate)) {
+                    return false;
+                }
+            }
+            return true;
+        } else if (MAP_ELEMENT.equals(localName)) {
+            if (!ele.hasOnlyAttributes(MAP_ATTRIBUTES)) {
+                return false;
+            }
+            for (StreamedElement child : ele.getChildElements()) {
+                if (!ENTRY_ELEMENT.equals(child.localName) || !isStreamableEntry(child, delegate)) {
+                    return false;
+                }
+            }
+            return true;
+        } else if (PROPS_ELEMENT.equals(localName)) {
+            if (!ele.hasOnlyAttributes(Collections.singleton(MERGE_ATTRIBUTE))) {
+                return false;
+            }
+            for (StreamedElement child : ele.getChildElements()) {
+                if (!PROP_ELEMENT.equals(child.localName) || !delegate.isDefaultNamespace(child.namespaceUri) ||
+                        !child.hasOnlyAttributes(Collections.singleton(KEY_ATTRIBUTE)) ||
+                        !child.getChildElements().isEmpty()) {
+                    return false;
+                }
+            }
+            return true;
+        }
+        return false;
+    }
+
+    private boolean isStreamableEntry(StreamedElement ele, BeanDefinitionParserDelegate delegate) {
+        if (!delegate.isDefaultNamespace(ele.namespaceUri) || !ele.hasOnlyAttributes(ENTRY_ATTRIBUTES)) {
+            return false;
+        }
+        StreamedElement valueElement = null;
+        for (StreamedElement child : ele.getChildElements()) {
+            if (DESCRIPTION_ELEMENT.equals(child.localName)) {
+                continue;
+            }
+            if (KEY_ELEMENT.equals(child.localName) || valueElement != null) {
+                return false;
+            }
+            valueElement = child;
+        }
+        boolean hasKeyAttribute = ele.hasAttribute(KEY_ATTRIBUTE);
+        boolean hasKeyRefAttribute = ele.hasAttribute(KEY_REF_ATTRIBUTE);
+        if (hasKeyAttribute == hasKeyRefAttribute ||
+                (hasKeyRefAttribute && !StringUtils.hasText(ele.getAttribute(KEY_REF_ATTRIBUTE)))) {
+            return false;
+        }
+        boolean hasValueAttribute = ele.hasAttribute(VALUE_ATTRIBUTE);
+        boolean hasValueRefAttribute = ele.hasAttribute(VALUE_REF_ATTRIBUTE);
+        if (ele.hasAttribute(VALUE_TYPE_ATTRIBUTE) && !hasValueAttribute) {
+            return false;
+        }
+        if (hasValueAttribute) {
+            return (!hasValueRefAttribute && valueElement == null);
+        } else if (hasValueRefAttribute) {
+            return (valueElement == null && StringUtils.hasText(ele.getAttribute(VALUE_REF_ATTRIBUTE)));
+        } else {
+            return (valueElement != null && isStreamableValue(valueElement, delegate));
+        }
+    }
+
+
+    // Parsing of streamable elements, following BeanDefinitionParserDelegate
+
+    @Nullable
+    private BeanDefinitionHolder parseBeanDefinitionElement(StreamedElement ele, BeanDefinitionParserDelegate delegate,
+                                                            @Nullable BeanDefinition containingBean) {
+
+        String id = ele.getAttribute(ID_ATTRIBUTE);
+        String nameAttr = ele.getAttribute(NAME_ATTRIBUTE);
+
+        List<String> aliases = new ArrayList<>();
+        if (StringUtils.hasLength(nameAttr)) {
+            String[] nameArr = StringUtils.tokenizeToStringArray(nameAttr, MULTI_VALUE_ATTRIBUTE_DELIMITERS);
+            aliases.addAll(Arrays.asList(nameArr));
+        }
+
+        String beanName = id;
+        if (!StringUtils.hasText(beanName) && !aliases.isEmpty()) {
+            beanName = aliases.remove(0);
+        }
+
+        if (containingBean == null) {
+            String foundName = delegate.useNames(beanName, aliases);
+            if (foundName != null) {
+                error("Bean name '" + foundName + "' is already used in this <beans> element", ele);
+            }
+        }
+
+        AbstractBeanDefinition beanDefinition = parseBeanDefinitionElement(ele, beanName, delegate, containingBean);
+        if (beanDefinition == null) {
+            return null;
+        }
+        if (!StringUtils.hasText(beanName)) {
+            try {
+                if (containingBean != null) {
+                    beanName = BeanDefinitionReaderUtils.generateBeanName(
+                            beanDefinition, this.readerContext.getRegistry(), true);
+                } else {
+                    beanName = this.readerContext.generateBeanName(beanDefinition);
+                    // Register an alias for the plain bean class name, if still possible,
+                    // if the generator returned the class name plus a suffix.
+                    String beanClassName = beanDefinition.getBeanClassName();
+                    if (beanClassName != null &&
+                            beanName.startsWith(beanClassName) && beanName.length() > beanClassName.length() &&
+                            !this.readerContext.getRegistry().isBeanNameInUse(beanClassName)) {
+                        aliases.add(beanClassName);
+                    }
+                }
+            } catch (Exception ex) {
+                error(ex.getMessage(), ele);
+                return null;
+            }
+        }
+        return new BeanDefinitionHolder(beanDefinition, beanName, StringUtils.toStringArray(aliases));
+    }
+
+    @Nullable
+    private AbstractBeanDefinition parseBeanDefinitionElement(StreamedElement ele, String beanName,
+                                                              BeanDefinitionParserDelegate delegate,
+                                                              @Nullable BeanDefinition containingBean) {
+
+        String className = null;
+        if (ele.hasAttribute(CLASS_ATTRIBUTE)) {
+            className = ele.getAttribute(CLASS_ATTRIBUTE).trim();
+        }
+        String parent = null;
+        if (ele.hasAttribute(PARENT_ATTRIBUTE)) {
+            parent = ele.getAttribute(PARENT_ATTRIBUTE);
+        }
+
+        try {
+            AbstractBeanDefinition bd = delegate.createBeanDefinition(className, parent);
+            parseBeanDefinitionAttributes(ele, beanName, containingBean, bd, delegate);
+
+            for (StreamedElement child : ele.getChildElements()) {
+                if (DESCRIPTION_ELEMENT.equals(child.localName)) {
+                    if (bd.getDescription() == null) {
+                        bd.setDescription(child.getTextValue());
+                    }
+                } else if (META_ELEMENT.equals(child.localName)) {
+                    addMetadataAttribute(child, bd);
+                } else if (CONSTRUCTOR_ARG_ELEMENT.equals(child.localName)) {
+                    parseConstructorArgElement(child, bd, delegate);
+                } else if (PROPERTY_ELEMENT.equals(child.localName)) {
+                    parsePropertyElement(child, bd, delegate);
+                }
+            }
+
+            bd.setResource(this.readerContext.getResource());
+            bd.setSource(extractSource(ele));
+            return bd;
+        } catch (ClassNotFoundException ex) {
+            error("Bean class [" + className + "] not found", ele, ex);
+        } catch (NoClassDefFoundError err) {
+            error("Class that bean class [" + className + "] depends on not found", ele, err);
+        } catch (Throwable ex) {
+            error("Unexpected failure during bean definition parsing", ele, ex);
+        }
+        return null;
+    }
+
+    private void parseBeanDefinitionAttributes(StreamedElement ele, String beanName,
+                                               @Nullable BeanDefinition containingBean, AbstractBeanDefinition bd,
+                                               BeanDefinitionParserDelegate delegate) {
+
+        DocumentDefaultsDefinition defaults = delegate.getDefaults();
+        if (ele.hasAttribute(SCOPE_ATTRIBUTE)) {
+            bd.setScope(ele.getAttribute(SCOPE_ATTRIBUTE));
+        } else if (containingBean != null) {
+            // Take default from containing bean in case of an inner bean definition.
+            bd.setScope(containingBean.getScope());
+        }
+
+        if (ele.hasAttribute(ABSTRACT_ATTRIBUTE)) {
+            bd.setAbstract(TRUE_VALUE.equals(ele.getAttribute(ABSTRACT_ATTRIBUTE)));
+        }
+
+        String lazyInit = ele.getAttribute(LAZY_INIT_ATTRIBUTE);
+        if (isDefaultValue(lazyInit)) {
+            lazyInit = defaults.getLazyInit();
+        }
+        bd.setLazyInit(TRUE_VALUE.equals(lazyInit));
+
+        bd.setAutowireMode(delegate.getAutowireMode(ele.getAttribute(AUTOWIRE_ATTRIBUTE)));
+
+        if (ele.hasAttribute(DEPENDS_ON_ATTRIBUTE)) {
+            String dependsOn = ele.getAttribute(DEPENDS_ON_ATTRIBUTE);
+            bd.setDependsOn(StringUtils.tokenizeToStringArray(dependsOn, MULTI_VALUE_ATTRIBUTE_DELIMITERS));
+        }
+
+        String autowireCandidate = ele.getAttribute(AUTOWIRE_CANDIDATE_ATTRIBUTE);
+        if (isDefaultValue(autowireCandidate)) {
+            String candidatePattern = defaults.getAutowireCandidates();
+            if (candidatePattern != null) {
+                String[] patterns = StringUtils.commaDelimitedListToStringArray(candidatePattern);
+                bd.setAutowireCandidate(PatternMatchUtils.simpleMatch(patterns, beanName));
+            }
+        } else {
+            bd.setAutowireCandidate(TRUE_VALUE.equals(autowireCandidate));
+        }
+
+        if (ele.hasAttribute(PRIMARY_ATTRIBUTE)) {
+            bd.setPrimary(TRUE_VALUE.equals(ele.getAttribute(PRIMARY_ATTRIBUTE)));
+        }
+
+        if (ele.hasAttribute(INIT_METHOD_ATTRIBUTE)) {
+            bd.setInitMethodName(ele.getAttribute(INIT_METHOD_ATTRIBUTE));
+        } else if (defaults.getInitMethod() != null) {
+            bd.setInitMethodName(defaults.getInitMethod());
+            bd.setEnforceInitMethod(false);
+        }
+
+        if (ele.hasAttribute(DESTROY_METHOD_ATTRIBUTE)) {
+            bd.setDestroyMethodName(ele.getAttribute(DESTROY_METHOD_ATTRIBUTE));
+        } else if (defaults.getDestroyMethod() != null) {
+            bd.setDestroyMethodName(defaults.getDestroyMethod());
+            bd.setEnforceDestroyMethod(false);
+        }
+
+        if (ele.hasAttribute(FACTORY_METHOD_ATTRIBUTE)) {
+            bd.setFactoryMethodName(ele.getAttribute(FACTORY_METHOD_ATTRIBUTE));
+        }
+        if (ele.hasAttribute(FACTORY_BEAN_ATTRIBUTE)) {
+            bd.setFactoryBeanName(ele.getAttribute(FACTORY_BEAN_ATTRIBUTE));
+        }
+    }
+
+    private void addMetadataAttribute(StreamedElement ele, BeanMetadataAttributeAccessor attributeAccessor) {
+        BeanMetadataAttribute attribute = new BeanMetadataAttribute(
+                ele.getAttribute(KEY_ATTRIBUTE), ele.getAttribute(VALUE_ATTRIBUTE));
+        attribute.setSource(extractSource(ele));
+        attributeAccessor.addMetadataAttribute(attribute);
+    }
+
+    private void parseConstructorArgElement(StreamedElement ele, BeanDefinition bd,
+                                            BeanDefinitionParserDelegate delegate) {
+
+        String indexAttr = ele.getAttribute(INDEX_ATTRIBUTE);
+        String typeAttr = ele.getAttribute(TYPE_ATTRIBUTE);
+        String nameAttr = ele.getAttribute(NAME_ATTRIBUTE);
+        Object value = parsePropertyValue(ele, bd, delegate);
+        ConstructorArgumentValues.ValueHolder valueHolder = new ConstructorArgumentValues.ValueHolder(value);
+        if (StringUtils.hasLength(typeAttr)) {
+            valueHolder.setType(typeAttr);
+        }
+        if (StringUtils.hasLength(nameAttr)) {
+            valueHolder.setName(nameAttr);
+        }
+        valueHolder.setSource(extractSource(ele));
+        if (StringUtils.hasLength(indexAttr)) {
+            // Validated to be a unique, non-negative integer.
+            bd.getConstructorArgumentValues().addIndexedArgumentValue(Integer.parseInt(indexAttr), valueHolder);
+        } else {
+            bd.getConstructorArgumentValues().addGenericArgumentValue(valueHolder);
+        }
+    }
+
+    private void parsePropertyElement(StreamedElement ele, BeanDefinition bd, BeanDefinitionParserDelegate delegate) {
+        PropertyValue pv = new PropertyValue(ele.getAttribute(NAME_ATTRIBUTE), parsePropertyValue(ele, bd, delegate));
+        for (StreamedElement child : ele.getChildElements()) {
+            if (META_ELEMENT.equals(child.localName)) {
+                addMetadataAttribute(child, pv);
+            }
+        }
+        pv.setSource(extractSource(ele));
+        bd.getPropertyValues().addPropertyValue(pv);
+    }
+
+    @Nullable
+    private Object parsePropertyValue(StreamedElement ele, BeanDefinition bd, BeanDefinitionParserDelegate delegate) {
+        if (ele.hasAttribute(REF_ATTRIBUTE)) {
+            RuntimeBeanReference ref = new RuntimeBeanReference(ele.getAttribute(REF_ATTRIBUTE));
+            ref.setSource(extractSource(ele));
+            return ref;
+        } else if (ele.hasAttribute(VALUE_ATTRIBUTE)) {
+            TypedStringValue valueHolder = new TypedStringValue(ele.getAttribute(VALUE_ATTRIBUTE));
+            valueHolder.setSource(extractSource(ele));
+            return valueHolder;
+        }
+        for (StreamedElement child : ele.getChildElements()) {
+            if (!DESCRIPTION_ELEMENT.equals(child.localName) && !META_ELEMENT.equals(child.localName)) {
+                return parsePropertySubElement(child, bd, delegate, null);
+            }
+        }
+        return null;
+    }
+
+    @Nullable
+    private Object parsePropertySubElement(StreamedElement ele, @Nullable BeanDefinition bd,
+                                           BeanDefinitionParserDelegate delegate, @Nullable String defaultValueType) {
+
+        String localName = ele.localName;
+        if (BEAN_ELEMENT.equals(localName)) {
+            return parseBeanDefinitionElement(ele, delegate, bd);
+        } else if (REF_ELEMENT.equals(localName)) {
+            String refName = ele.getAttribute(BEAN_REF_ATTRIBUTE);
+            boolean toParent = false;
+            if (!StringUtils.hasLength(refName)) {
+                // A reference to the id of another bean in a parent context.
+                refName = ele.getAttribute(PARENT_REF_ATTRIBUTE);
+                toParent = true;
+            }
+            RuntimeBeanReference ref = new RuntimeBeanReference(refName, toParent);
+            ref.setSource(extractSource(ele));
+            return ref;
+        } else if (IDREF_ELEMENT.equals(localName)) {
+            RuntimeBeanNameReference ref = new RuntimeBeanNameReference(ele.getAttribute(BEAN_REF_ATTRIBUTE));
+            ref.setSource(extractSource(ele));
+            return ref;
+        } else if (VALUE_ELEMENT.equals(localName)) {
+            String specifiedTypeName = ele.getAttribute(TYPE_ATTRIBUTE);
+            String typeName = (StringUtils.hasText(specifiedTypeName) ? specifiedTypeName : defaultValueType);
+            String value = ele.getTextValue();
+            try {
+                TypedStringValue typedValue = delegate.buildTypedStringValue(value, typeName);
+                typedValue.setSource(extractSource(ele));
+                typedValue.setSpecifiedTypeName(specifiedTypeName);
+                return typedValue;
+            } catch (ClassNotFoundException ex) {
+                error("Type class [" + typeName + "] not found for <value> element", ele, ex);
+                return value;
+            }
+        } else if (NULL_ELEMENT.equals(localName)) {
+            // It's a distinguished null value. Let's wrap it in a TypedStringValue
+            // object in order to preserve the source location.
+            TypedStringValue nullHolder = new TypedStringValue(null);
+            nullHolder.setSource(extractSource(ele));
+            return nullHolder;
+        } else if (LIST_ELEMENT.equals(localName)) {
+            List<StreamedElement> children = ele.getChildElements();
+            ManagedList<Object> target = new ManagedList<>(children.size());
+            parseCollectionElement(ele, children, target, bd, delegate);
+            target.setSource(extractSource(ele));
+            target.setElementTypeName(ele.getAttribute(VALUE_TYPE_ATTRIBUTE));
+            target.setMergeEnabled(parseMergeAttribute(ele, delegate));
+            return target;
+        } else if (SET_ELEMENT.equals(localName)) {
+            List<StreamedElement> children = ele.getChildElements();
+            ManagedSet<Object> target = new ManagedSet<>(children.size());
+            parseCollectionElement(ele, children, target, bd, delegate);
+            target.setSource(extractSource(ele));
+            target.setElementTypeName(ele.getAttribute(VALUE_TYPE_ATTRIBUTE));
+            target.setMergeEnabled(parseMergeAttribute(ele, delegate));
+            return target;
+        } else if (MAP_ELEMENT.equals(localName)) {
+            return parseMapElement(ele, bd, delegate);
+        } else {
+            return parsePropsElement(ele, delegate);
+        }
+    }
+
+    private void parseCollectionElement(StreamedElement ele, List<StreamedElement> children, Collection<Object> target,
+                                        @Nullable BeanDefinition bd, BeanDefinitionParserDelegate delegate) {
+
+        String defaultElementType = ele.getAttribute(VALUE_TYPE_ATTRIBUTE);
+        for (StreamedElement child : children) {
+            if (!DESCRIPTION_ELEMENT.equals(child.localName)) {
+                target.add(parsePropertySubElement(child, bd, delegate, defaultElementType));
+            }
+        }
+    }
+
+    private Object parseMapElement(StreamedElement mapEle, @Nullable BeanDefinition bd,
+                                   BeanDefinitionParserDelegate delegate) {
+
+        String defaultKeyType = mapEle.getAttribute(KEY_TYPE_ATTRIBUTE);
+        String defaultValueType = mapEle.getAttribute(VALUE_TYPE_ATTRIBUTE);
+
+        List<StreamedElement> entryEles = mapEle.getChildElements();
+        ManagedMap<Object, Object> map = new ManagedMap<>(entryEles.size());
+        map.setSource(extractSource(mapEle));
+        map.setKeyTypeName(defaultKeyType);
+        map.setValueTypeName(defaultValueType);
+        map.setMergeEnabled(parseMergeAttribute(mapEle, delegate));
+
+        for (StreamedElement entryEle : entryEles) {
+            Object key;
+            if (entryEle.hasAttribute(KEY_ATTRIBUTE)) {
+                key = buildTypedStringValueForMap(
+                        entryEle.getAttribute(KEY_ATTRIBUTE), defaultKeyType, entryEle, delegate);
+            } else {
+                RuntimeBeanReference ref = new RuntimeBeanReference(entryEle.getAttribute(KEY_REF_ATTRIBUTE));
+                ref.setSource(extractSource(entryEle));
+                key = ref;
+            }
+
+            Object value = null;
+            if (entryEle.hasAttribute(VALUE_ATTRIBUTE)) {
+                String valueType = entryEle.getAttribute(VALUE_TYPE_ATTRIBUTE);
+                if (!StringUtils.hasText(valueType)) {
+                    valueType = defaultValueType;
+                }
+                value = buildTypedStringValueForMap(
+                        entryEle.getAttribute(VALUE_ATTRIBUTE), valueType, entryEle, delegate);
+            } else if (entryEle.hasAttribute(VALUE_REF_ATTRIBUTE)) {
+                RuntimeBeanReference ref = new RuntimeBeanReference(entryEle.getAttribute(VALUE_REF_ATTRIBUTE));
+                ref.setSource(extractSource(entryEle));
+                value = ref;
+            } else {
+                for (StreamedElement child : entryEle.getChildElements()) {
+                    if (!DESCRIPTION_ELEMENT.equals(child.localName)) {
+                        value = parsePropertySubElement(child, bd, delegate, defaultValueType);
+                    }
+                }
+            }
+
+            map.put(key, value);
+        }
+        return map;
+    }
+
+    private Object buildTypedStringValueForMap(String value, String defaultTypeName, StreamedElement entryEle,
+                                               BeanDefinitionParserDelegate delegate) {
+        try {
+            TypedStringValue typedValue = delegate.buildTypedStringValue(value, defaultTypeName);
+            typedValue.setSource(extractSource(entryEle));
+            return typedValue;
+        } catch (ClassNotFoundException ex) {
+            error("Type class [" + defaultTypeName + "] not found for Map key/value type", entryEle, ex);
+            return value;
+        }
+    }
+
+    private Object parsePropsElement(StreamedElement propsEle, BeanDefinitionParserDelegate delegate) {
+        ManagedProperties props = new ManagedProperties();
+        props.setSource(extractSource(propsEle));
+        props.setMergeEnabled(parseMergeAttribute(propsEle, delegate));
+        for (StreamedElement propEle : propsEle.getChildElements()) {
+            // Trim the text value to avoid unwanted whitespace
+            // caused by typical XML formatting.
+            TypedStringValue keyHolder = new TypedStringValue(propEle.getAttribute(KEY_ATTRIBUTE));
+            keyHolder.setSource(extractSource(propEle));
+            TypedStringValue valueHolder = new TypedStringValue(propEle.getTextValue().trim());
+            valueHolder.setSource(extractSource(propEle));
+            props.put(keyHolder, valueHolder);
+        }
+        return props;
+    }
+
+    private boolean parseMergeAttribute(StreamedElement collectionElement, BeanDefinitionParserDelegate delegate) {
+        String value = collectionElement.getAttribute(MERGE_ATTRIBUTE);
+        if (isDefaultValue(value)) {
+            value = delegate.getDefaults().getMerge();
+        }
+        return TRUE_VALUE.equals(value);
+    }
+
+    private static boolean isDefaultValue(String value) {
+        return (!StringUtils.hasLength(value) || DEFAULT_VALUE.equals(value));
+    }
+
+    @Nullable
+    private Object extractSource(StreamedElement ele) {
+        return this.readerContext.extractSource(ele.location);
+    }
+
+    private void error(String message, StreamedElement source) {
+        this.readerContext.error(message, source.location);
+    }
+
+    private void error(String message, StreamedElement source, Throwable cause) {
+        this.readerContext.error(message, source.location, cause);
+    }
+
+
+    // Reading from the stream
+
+    /**
+     * Read the current element including all its content.
+     */
+    private static StreamedElement readElement(XMLStreamReader reader) throws XMLStreamException {
+        StreamedElement ele = new StreamedElement(reader);
+        int event = reader.next();
+        while (event != XMLStreamConstants.END_ELEMENT) {
+            if (event == XMLStreamConstants.START_ELEMENT) {
+                ele.addChild(readElement(reader));
+            } else if (event == XMLStreamConstants.CHARACTERS || event == XMLStreamConstants.CDATA ||
+                    event == XMLStreamConstants.SPACE || event == XMLStreamConstants.ENTITY_REFERENCE) {
+                ele.addText(reader.getText());
+            }
+            event = reader.next();
+        }
+        return ele;
+    }
+
+    /**
+     * Skip the current element including all its content.
+     */
+    private static void skipElement(XMLStreamReader reader) throws XMLStreamException {
+        int depth = 1;
+        while (depth > 0) {
+            int event = reader.next();
+            if (event == XMLStreamConstants.START_ELEMENT) {
+                depth++;
+            } else if (event == XMLStreamConstants.END_ELEMENT) {
+                depth--;
+            }
+        }
+    }
+
+    /**
+     * Create a DOM element with the attributes and namespace declarations of
+     * the current element, without any content.
+     */
+    private Element createElement(XMLStreamReader reader) {
+        Element element = this.document.createElementNS(
+                nullIfEmpty(reader.getNamespaceURI()), qualifiedName(reader.getPrefix(), reader.getLocalName()));
+        for (int i = 0; i < reader.getNamespaceCount(); i++) {
+            declareNamespace(element, reader.getNamespacePrefix(i), reader.getNamespaceURI(i));
+        }
+        for (int i = 0; i < reader.getAttributeCount(); i++) {
+            element.setAttributeNS(nullIfEmpty(reader.getAttributeNamespace(i)),
+                    qualifiedName(reader.getAttributePrefix(i), reader.getAttributeLocalName(i)),
+                    reader.getAttributeValue(i));
+        }
+        return element;
+    }
+
+    /**
+     * Convert the given buffered element into a DOM element appended to the given parent.
+     */
+    private Element toElement(StreamedElement ele, Node parent) {
+        Element element = this.document.createElementNS(
+                nullIfEmpty(ele.namespaceUri), qualifiedName(ele.prefix, ele.localName));
+        for (int i = 0; i < ele.namespaces.length; i += 2) {
+            declareNamespace(element, ele.namespaces[i], ele.namespaces[i + 1]);
+        }
+        for (int i = 0; i < ele.attributes.length; i += 4) {
+            element.setAttributeNS(nullIfEmpty(ele.attributes[i]),
+                    qualifiedName(ele.attributes[i + 1], ele.attributes[i + 2]), ele.attributes[i + 3]);
+        }
+        for (Object content : ele.content) {
+            if (content instanceof StreamedElement) {
+                toElement((StreamedElement) content, element);
+            } else {
+                element.appendChild(this.document.createTextNode((String) content));
+            }
+        }
+        parent.appendChild(element);
+        return element;
+    }
+
+    /**
+     * Add the default attribute values which the document's XSD schemas declare
+     * for the given element and its descendants, as a validating parser would.
+     */
+    private Element applySchemaDefaults(Element element) {
+        Validator validator = getSchemaValidator();
+        if (validator != null) {
+            try {
+                // Same source and result node: the validator augments the element in place.
+                validator.validate(new DOMSource(element), new DOMResult(element));
+            } catch (SAXException | IOException ex) {
+                if (logger.isDebugEnabled()) {
+                    logger.debug("Could not apply XML schema defaults to element <" + element.getNodeName() +
+                            "> in " + this.readerContext.getResource(), ex);
+                }
+            }
+        }
+        return element;
+    }
+
+    @Nullable
+    private Validator getSchemaValidator() {
+        if (!this.schemaValidatorResolved) {
+            this.schemaValidatorResolved = true;
+            if (this.schemaLocation != null) {
+                try {
+                    Validator validator = DefaultDocumentLoader.getSchema(
+                            this.schemaLocation, this.readerContext.getReader().getEntityResolver()).newValidator();
+                    validator.setErrorHandler(lenientErrorHandler);
+                    this.schemaValidator = validator;
+                } catch (SAXException | IOException ex) {
+                    if (logger.isDebugEnabled()) {
+                        logger.debug("Could not compile XML schemas [" + this.schemaLocation +
+                                "]: not applying schema defaults in " + this.readerContext.getResource(), ex);
+                    }
+                }
+            }
+        }
+        return this.schemaValidator;
+    }
+
+    private static void declareNamespace(Element element, @Nullable String prefix, @Nullable String namespaceUri) {
+        element.setAttributeNS(XMLConstants.XMLNS_ATTRIBUTE_NS_URI,
+                qualifiedName(XMLConstants.XMLNS_ATTRIBUTE, prefix), normalize(namespaceUri));
+    }
+
+    private static String qualifiedName(@Nullable String prefix, @Nullable String localName) {
+        if (!StringUtils.hasLength(prefix)) {
+            return normalize(localName);
+        }
+        return (StringUtils.hasLength(localName) ? prefix + ':' + localName : prefix);
+    }
+
+    private static String normalize(@Nullable String value) {
+        return (value != null ? value : "");
+    }
+
+    @Nullable
+    private static String nullIfEmpty(@Nullable String value) {
+        return (StringUtils.hasLength(value) ? value : null);
+    }
+
+    private static XMLInputFactory createInputFactory() {
+        XMLInputFactory factory = StaxUtils.createDefensiveInputFactory();
+        factory.setProperty(XMLInputFactory.IS_NAMESPACE_AWARE, true);
+        factory.setProperty(XMLInputFactory.IS_COALESCING, true);
+        return factory;
+    }
+
+    private static DocumentBuilderFactory createDocumentBuilderFactory() {
+        DocumentBuilderFactory factory = DocumentBuilderFactory.newInstance();
+        factory.setNamespaceAware(true);
+        return factory;
+    }
+
+
+    /**
+     * Lightweight buffer of an element read from the stream, with DOM-like
+     * attribute access.
+     */
+    private static final class StreamedElement {
+
+        private static final String[] NO_STRINGS = new String[0];
+
+        final String namespaceUri;
+
+        final String prefix;
+
+        final String localName;
+
+        final Location location;
+
+        /**
+         * Namespace declarations as prefix and URI pairs.
+         */
+        final String[] namespaces;
+
+        /**
+         * Attributes as namespace URI, prefix, local name and value quadruples.
+         */
+        final String[] attributes;
+
+        /**
+         * Child elements and text, in document order.
+         */
+        final List<Object> content = new ArrayList<>(4);
+
+        @Nullable
+        private List<StreamedElement> childElements;
+
+        StreamedElement(XMLStreamReader reader) {
+            this.namespaceUri = normalize(reader.getNamespaceURI());
+            this.prefix = normalize(reader.getPrefix());
+            this.localName = reader.getLocalName();
+            this.location = reader.getLocation();
+            int namespaceCount = reader.getNamespaceCount();
+            if (namespaceCount > 0) {
+                this.namespaces = new String[namespaceCount * 2];
+                for (int i = 0; i < namespaceCount; i++) {
+                    this.namespaces[i * 2] = normalize(reader.getNamespacePrefix(i));
+                    this.namespaces[i * 2 + 1] = normalize(reader.getNamespaceURI(i));
+                }
+            } else {
+                this.namespaces = NO_STRINGS;
+            }
+            int attributeCount = reader.getAttributeCount();
+            if (attributeCount > 0) {
+                this.attributes = new String[attributeCount * 4];
+                for (int i = 0; i < attributeCount; i++) {
+                    this.attributes[i * 4] = normalize(reader.getAttributeNamespace(i));
+                    this.attributes[i * 4 + 1] = normalize(reader.getAttributePrefix(i));
+                    this.attributes[i * 4 + 2] = reader.getAttributeLocalName(i);
+                    this.attributes[i * 4 + 3] = reader.getAttributeValue(i);
+                }
+            } else {
+                this.attributes = NO_STRINGS;
+            }
+        }
+
+        void addChild(StreamedElement child) {
+            this.content.add(child);
+            if (this.childElements == null) {
+                this.childElements = new ArrayList<>(4);
+            }
+            this.childElements.add(child);
+        }
+
+        void addText(String text) {
+            int last = this.content.size() - 1;
+            if (last >= 0 && this.content.get(last) instanceof String) {
+                this.content.set(last, this.content.get(last) + text);
+            } else {
+                this.content.add(text);
+            }
+        }
+
+        List<StreamedElement> getChildElements() {
+            return (this.childElements != null ? this.childElements : Collections.emptyList());
+        }
+
+        /**
+         * Return the value of the given attribute without namespace, or an empty
+         * String if not present, just like {@link Element#getAttribute}.
+         */
+        String getAttribute(String name) {
+            for (int i = 0; i < this.attributes.length; i += 4) {
+                if (this.attributes[i].isEmpty() && name.equals(this.attributes[i + 2])) {
+                    return this.attributes[i + 3];
+                }
+            }
+            return "";
+        }
+
+        boolean hasAttribute(String name) {
+            for (int i = 0; i < this.attributes.length; i += 4) {
+                if (this.attributes[i].isEmpty() && name.equals(this.attributes[i + 2])) {
+                    return true;
+                }
+            }
+            return false;
+        }
+
+        /**
+         * Determine whether all attributes are attributes without namespace
+         * out of the given names.
+         */
+        boolean hasOnlyAttributes(Set<String> names) {
+            for (int i = 0; i < this.attributes.length; i += 4) {
+                if (!this.attributes[i].isEmpty() || !names.contains(this.attributes[i + 2])) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        /**
+         * Return the text directly contained in this element, just like
+         * {@link org.springframework.util.xml.DomUtils#getTextValue}.
+         */
+        String getTextValue() {
+            if (this.content.size() == 1 && this.content.get(0) instanceof String) {
+                return (String) this.content.get(0);
+            }
+            StringBuilder sb = new StringBuilder();
+            for (Object content : this.content) {
+                if (content instanceof String) {
+                    sb.append((String) content);
+                }
+            }
+            return sb.toString();
+        }
+    }
+
+}
@@ -35,6 +35,7 @@ import org.w3c.dom.Document;
 import org.xml.sax.*;
 
 import javax.xml.parsers.ParserConfigurationException;
+import javax.xml.stream.XMLStreamException;
 import java.io.IOException;
 import java.io.InputStream;
 import java.util.HashSet;
@@ -97,6 +98,10 @@ public class XmlBeanDefinitionReader extends AbstractBeanDefinitionReader {
 
     private boolean namespaceAware = false;
 
+    private boolean streaming = false;
+
+    private int importParallelism = 1;
+
     private Class<? extends BeanDefinitionDocumentReader> documentReaderClass =
             DefaultBeanDefinitionDocumentReader.class;
 
@@ -126,6 +131,9 @@ public class XmlBeanDefinitionReader extends AbstractBeanDefinitionReader {
                 }
             };
 
+    private final ThreadLocal<ImportDocumentPrefetcher> importDocumentPrefetcher =
+            new NamedThreadLocal<>("XML bean definition imports being prefetched");
+
 
     /**
      * Create new XmlBeanDefinitionReader for the given bean factory.
@@ -293,6 +301,54 @@ public class XmlBeanDefinitionReader extends AbstractBeanDefinitionReader {
         this.documentReaderClass = documentReaderClass;
     }
 
+    /**
+     * Set whether to read XML documents in streaming mode, parsing bean definitions
+     * straight from a StAX stream instead of building a DOM for the whole document.
+     * Default is "false".
+     * <p>This reduces time and memory for large configuration files. Plain
+     * {@code <bean>} elements with common sub-elements are parsed without any DOM;
+     * custom namespace elements and less common bean features are still parsed
+     * through DOM, one element at a time.
+     * <p>Note that streaming mode does not perform XSD validation; only the default
+     * attribute values of the schemas declared on the root element are applied to
+     * the elements parsed through DOM. Documents using
+     * a DTD, as well as a custom {@link #setDocumentReaderClass document reader},
+     * are always read through a DOM.
+     */
+    public void setStreaming(boolean streaming) {
+        this.streaming = streaming;
+    }
+
+    /**
+     * Return whether to read XML documents in streaming mode.
+     */
+    public boolean isStreaming() {
+        return this.streaming;
+    }
+
+    /**
+     * Set the number of threads to load imported XML documents with.
+     * Default is 1, loading each imported document when its {@code <import>}
+     * element is processed.
+     * <p>With a higher value, the documents imported by a loaded document, and
+     * in turn their imports, are loaded concurrently on a temporary thread pool.
+     * The bean definitions of each document are still registered in import
+     * order on the calling thread, so bean definition overriding works just
+     * like with sequential loading.
+     * <p>Not applied in {@link #setStreaming streaming mode}.
+     */
+    public void setImportParallelism(int importParallelism) {
+        Assert.isTrue(importParallelism > 0, "Import parallelism must be greater than 0");
+        this.importParallelism = importParallelism;
+    }
+
+    /**
+     * Return the number of threads to load imported XML documents with.
+     */
+    public int getImportParallelism() {
+        return this.importParallelism;
+    }
+
 
     /**
      * Load bean definitions from the specified XML file.
@@ -327,16 +383,34 @@ public class XmlBeanDefinitionReader extends AbstractBeanDefinitionReader {
                     "Detected cyclic loading of " + encodedResource + " - check your import definitions!");
         }
 
-        try (InputStream inputStream = encodedResource.getResource().getInputStream()) {
-            InputSource inputSource = new InputSource(inputStream);
-            if (encodedResource.getEncoding() != null) {
-                inputSource.setEncoding(encodedResource.getEncoding());
+        ImportDocumentPrefetcher prefetcher = this.importDocumentPrefetcher.get();
+        boolean prefetching = false;
+        if (prefetcher == null && this.importParallelism > 1 && !isStreaming()) {
+            prefetcher = new ImportDocumentPrefetcher(this, encodedResource, this.importParallelism);
+            this.importDocumentPrefetcher.set(prefetcher);
+            prefetching = true;
+        }
+
+        try {
+            Document prefetchedDocument = (prefetcher != null ? prefetcher.takeDocument(encodedResource) : null);
+            if (prefetchedDocument != null) {
+                return registerPrefetchedDocument(prefetchedDocument, encodedResource.getResource());
+            }
+            try (InputStream inputStream = encodedResource.getResource().getInputStream()) {
+                InputSource inputSource = new InputSource(inputStream);
+                if (encodedResource.getEncoding() != null) {
+                    inputSource.setEncoding(encodedResource.getEncoding());
+                }
+                return doLoadBeanDefinitions(inputSource, encodedResource.getResource());
             }
-            return doLoadBeanDefinitions(inputSource, encodedResource.getResource());
         } catch (IOException ex) {
             throw new BeanDefinitionStoreException(
                     "IOException parsing XML document from " + encodedResource.getResource(), ex);
         } finally {
+            if (prefetching) {
+                prefetcher.close();
+                this.importDocumentPrefetcher.remove();
+            }
             currentResources.remove(encodedResource);
             if (currentResources.isEmpty()) {
                 this.resourcesCurrentlyBeingLoaded.remove();
@@ -385,8 +459,18 @@ public class XmlBeanDefinitionReader extends AbstractBeanDefinitionReader {
             throws BeanDefinitionStoreException {
 
         try {
-            Document doc = doLoadDocument(inputSource, resource);
-            int count = registerBeanDefinitions(doc, resource);
+            int count;
+            if (isStreaming() && this.documentReaderClass == DefaultBeanDefinitionDocumentReader.class &&
+                    getValidationModeForResource(resource) != VALIDATION_DTD) {
+                count = streamBeanDefinitions(inputSource, resource);
+            } else {
+                Document doc = doLoadDocument(inputSource, resource);
+                ImportDocumentPrefetcher prefetcher = this.importDocumentPrefetcher.get();
+                if (prefetcher != null) {
+                    prefetcher.prefetchImports(doc, resource);
+                }
+                count = registerBeanDefinitions(doc, resource);
+            }
             if (logger.isDebugEnabled()) {
                 logger.debug("Loaded " + count + " bean definitions from " + resource);
             }
@@ -399,6 +483,10 @@ public class XmlBeanDefinitionReader extends AbstractBeanDefinitionReader {
         } catch (SAXException ex) {
             throw new XmlBeanDefinitionStoreException(resource.getDescription(),
                     "XML document from " + resource + " is invalid", ex);
+        } catch (XMLStreamException ex) {
+            String line = (ex.getLocation() != null ? "Line " + ex.getLocation().getLineNumber() + " in " : "");
+            throw new BeanDefinitionStoreException(resource.getDescription(),
+                    line + "XML document from " + resource + " is invalid", ex);
         } catch (ParserConfigurationException ex) {
             throw new BeanDefinitionStoreException(resource.getDescription(),
                     "Parser configuration exception parsing XML from " + resource, ex);
@@ -411,6 +499,45 @@ public class XmlBeanDefinitionReader extends AbstractBeanDefinitionReader {
         }
     }
 
+    /**
+     * Register the bean definitions of a document loaded ahead of time.
+     *
+     * @param doc      the prefetched DOM document
+     * @param resource the resource descriptor for the XML file
+     * @return the number of bean definitions found
+     * @see #setImportParallelism
+     */
+    private int registerPrefetchedDocument(Document doc, Resource resource) throws BeanDefinitionStoreException {
+        try {
+            int count = registerBeanDefinitions(doc, resource);
+            if (logger.isDebugEnabled()) {
+                logger.debug("Loaded " + count + " bean definitions from prefetched " + resource);
+            }
+            return count;
+        } catch (BeanDefinitionStoreException ex) {
+            throw ex;
+        } catch (Throwable ex) {
+            throw new BeanDefinitionStoreException(resource.getDescription(),
+                    "Unexpected exception parsing XML document from " + resource, ex);
+        }
+    }
+
+    /**
+     * Read the bean definitions from the given source in streaming mode.
+     *
+     * @param inputSource the SAX InputSource to read from
+     * @param resource    the resource descriptor for the XML file
+     * @return the number of bean definitions found
+     * @see #setStreaming
+     */
+    private int streamBeanDefinitions(InputSource inputSource, Resource resource)
+            throws XMLStreamException, ParserConfigurationException {
+
+        int countBefore = getRegistry().getBeanDefinitionCount();
+        new StreamingBeanDefinitionParser(createReaderContext(resource)).parse(inputSource);
+        return getRegistry().getBeanDefinitionCount() - countBefore;
+    }
+
     /**
      * Actually load the specified document using the configured DocumentLoader.
      *
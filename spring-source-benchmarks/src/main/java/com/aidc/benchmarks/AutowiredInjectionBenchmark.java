@@ -0,0 +1,148 @@
+package com.aidc.benchmarks;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.AutowiredAnnotationBeanPostProcessor;
+import org.springframework.beans.factory.support.DefaultListableBeanFactory;
+import org.springframework.beans.factory.support.RootBeanDefinition;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Description: throughput benchmark for annotation-driven injection into a
+ * prototype with 20 autowired fields and an autowired config method, comparing
+ * the reflective injected elements with the compiled injector.
+ * The fields are all of the same type and get matched by field name, so every
+ * injection point is cached with a shortcut to its singleton.
+ * Run with: {@code java -jar target/benchmarks.jar AutowiredInjection}
+ *
+ * @date 2026/10/16
+ * @see AutowiredAnnotationBeanPostProcessor#setCompileInjection
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 10, time = 1)
+@Fork(2)
+@State(Scope.Benchmark)
+public class AutowiredInjectionBenchmark {
+
+    private static final int DEPENDENCY_COUNT = 20;
+
+    @Param({"false", "true"})
+    public boolean compileInjection;
+
+    private DefaultListableBeanFactory beanFactory;
+
+
+    @Setup
+    public void createBeanFactory() {
+        this.beanFactory = new DefaultListableBeanFactory();
+        AutowiredAnnotationBeanPostProcessor autowiredProcessor = new AutowiredAnnotationBeanPostProcessor();
+        autowiredProcessor.setCompileInjection(this.compileInjection);
+        autowiredProcessor.setBeanFactory(this.beanFactory);
+        this.beanFactory.addBeanPostProcessor(autowiredProcessor);
+
+        for (int i = 1; i <= DEPENDENCY_COUNT; i++) {
+            this.beanFactory.registerBeanDefinition(String.format("dependency%02d", i),
+                    new RootBeanDefinition(Dependency.class));
+        }
+        this.beanFactory.registerBeanDefinition("repository", new RootBeanDefinition(Repository.class));
+        this.beanFactory.registerBeanDefinition("clock", new RootBeanDefinition(Clock.class));
+        RootBeanDefinition handler = new RootBeanDefinition(WideHandler.class);
+        handler.setScope(RootBeanDefinition.SCOPE_PROTOTYPE);
+        this.beanFactory.registerBeanDefinition("wideHandler", handler);
+        this.beanFactory.freezeConfiguration();
+        this.beanFactory.preInstantiateSingletons();
+
+        WideHandler handlerInstance = this.beanFactory.getBean("wideHandler", WideHandler.class);
+        if (handlerInstance.dependency20 == null || handlerInstance.clock == null) {
+            throw new IllegalStateException("Handler not wired");
+        }
+    }
+
+    @TearDown
+    public void destroyBeanFactory() {
+        this.beanFactory.destroySingletons();
+    }
+
+    @Benchmark
+    public WideHandler createPrototype() {
+        return this.beanFactory.getBean("wideHandler", WideHandler.class);
+    }
+
+
+    public static class Dependency {
+    }
+
+    public static class Repository {
+    }
+
+    public static class Clock {
+    }
+
+    public static class WideHandler {
+
+        @Autowired
+        private Dependency dependency01;
+        @Autowired
+        private Dependency dependency02;
+        @Autowired
+        private Dependency dependency03;
+        @Autowired
+        private Dependency dependency04;
+        @Autowired
+        private Dependency dependency05;
+        @Autowired
+        private Dependency dependency06;
+        @Autowired
+        private Dependency dependency07;
+        @Autowired
+        private Dependency dependency08;
+        @Autowired
+        private Dependency dependency09;
+        @Autowired
+        private Dependency dependency10;
+        @Autowired
+        private Dependency dependency11;
+        @Autowired
+        private Dependency dependency12;
+        @Autowired
+        private Dependency dependency13;
+        @Autowired
+        private Dependency dependency14;
+        @Autowired
+        private Dependency dependency15;
+        @Autowired
+        private Dependency dependency16;
+        @Autowired
+        private Dependency dependency17;
+        @Autowired
+        private Dependency dependency18;
+        @Autowired
+        private Dependency dependency19;
+        @Autowired
+        private Dependency dependency20;
+
+        private Repository repository;
+
+        private Clock clock;
+
+        @Autowired
+        public void init(Repository repository, Clock clock) {
+            this.repository = repository;
+            this.clock = clock;
+        }
+    }
+}
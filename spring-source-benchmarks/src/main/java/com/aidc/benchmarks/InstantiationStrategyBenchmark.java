@@ -0,0 +1,107 @@
+package com.aidc.benchmarks;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.beans.factory.config.ConstructorArgumentValues;
+import org.springframework.beans.factory.config.RuntimeBeanReference;
+import org.springframework.beans.factory.support.CglibSubclassingInstantiationStrategy;
+import org.springframework.beans.factory.support.DefaultListableBeanFactory;
+import org.springframework.beans.factory.support.MethodHandleInstantiationStrategy;
+import org.springframework.beans.factory.support.RootBeanDefinition;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Description: throughput benchmark for prototype instantiation, comparing the
+ * default reflective instantiation strategy with method handle based instantiation.
+ * Covers a no-arg constructor, an autowired constructor and a static factory method.
+ * Run with: {@code java -jar target/benchmarks.jar InstantiationStrategy}
+ *
+ * @date 2026/10/16
+ * @see MethodHandleInstantiationStrategy
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 10, time = 1)
+@Fork(2)
+@State(Scope.Benchmark)
+public class InstantiationStrategyBenchmark {
+
+    @Param({"reflection", "methodHandles"})
+    public String instantiationStrategy;
+
+    @Param({"noArgBean", "constructorBean", "factoryMethodBean"})
+    public String beanName;
+
+    private DefaultListableBeanFactory beanFactory;
+
+
+    @Setup
+    public void createBeanFactory() {
+        this.beanFactory = new DefaultListableBeanFactory();
+        this.beanFactory.setInstantiationStrategy("methodHandles".equals(this.instantiationStrategy) ?
+                new MethodHandleInstantiationStrategy() : new CglibSubclassingInstantiationStrategy());
+        this.beanFactory.registerBeanDefinition("dependency", new RootBeanDefinition(Dependency.class));
+
+        RootBeanDefinition noArgBean = new RootBeanDefinition(Dependency.class);
+        noArgBean.setScope(RootBeanDefinition.SCOPE_PROTOTYPE);
+        this.beanFactory.registerBeanDefinition("noArgBean", noArgBean);
+
+        ConstructorArgumentValues constructorArgs = new ConstructorArgumentValues();
+        constructorArgs.addIndexedArgumentValue(0, new RuntimeBeanReference("dependency"));
+        constructorArgs.addIndexedArgumentValue(1, 42);
+        RootBeanDefinition constructorBean = new RootBeanDefinition(Handler.class, constructorArgs, null);
+        constructorBean.setScope(RootBeanDefinition.SCOPE_PROTOTYPE);
+        this.beanFactory.registerBeanDefinition("constructorBean", constructorBean);
+
+        RootBeanDefinition factoryMethodBean = new RootBeanDefinition(Handler.class);
+        factoryMethodBean.setFactoryMethodName("create");
+        factoryMethodBean.setConstructorArgumentValues(constructorArgs);
+        factoryMethodBean.setScope(RootBeanDefinition.SCOPE_PROTOTYPE);
+        this.beanFactory.registerBeanDefinition("factoryMethodBean", factoryMethodBean);
+
+        this.beanFactory.freezeConfiguration();
+        this.beanFactory.preInstantiateSingletons();
+    }
+
+    @TearDown
+    public void destroyBeanFactory() {
+        this.beanFactory.destroySingletons();
+    }
+
+    @Benchmark
+    public Object createPrototype() {
+        return this.beanFactory.getBean(this.beanName);
+    }
+
+
+    public static class Dependency {
+    }
+
+    public static class Handler {
+
+        private final Dependency dependency;
+
+        private final int limit;
+
+        public Handler(Dependency dependency, int limit) {
+            this.dependency = dependency;
+            this.limit = limit;
+        }
+
+        public static Handler create(Dependency dependency, int limit) {
+            return new Handler(dependency, limit);
+        }
+    }
+}
@@ -0,0 +1,137 @@
+package com.aidc.benchmarks;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.AutowiredAnnotationBeanPostProcessor;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.beans.factory.config.DestructionAwareBeanPostProcessor;
+import org.springframework.beans.factory.config.InstantiationAwareBeanPostProcessor;
+import org.springframework.beans.factory.support.AbstractBeanDefinition;
+import org.springframework.beans.factory.support.DefaultListableBeanFactory;
+import org.springframework.beans.factory.support.RootBeanDefinition;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Description: throughput benchmark for prototype creation, comparing the full
+ * creation pipeline with the per-definition instantiation plan.
+ * The factory holds a typical mix of post-processors, most of which only
+ * implement a few callbacks, and a prototype with field injection as well as
+ * a property autowired by type, similar to per-request handlers.
+ * Run with: {@code java -jar target/benchmarks.jar PrototypeCreation}
+ *
+ * @date 2026/10/16
+ * @see DefaultListableBeanFactory#setInstantiationPlanEnabled
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 10, time = 1)
+@Fork(2)
+@State(Scope.Benchmark)
+public class PrototypeCreationBenchmark {
+
+    @Param({"false", "true"})
+    public boolean instantiationPlanEnabled;
+
+    private DefaultListableBeanFactory beanFactory;
+
+
+    @Setup
+    public void createBeanFactory() {
+        this.beanFactory = new DefaultListableBeanFactory();
+        this.beanFactory.setInstantiationPlanEnabled(this.instantiationPlanEnabled);
+
+        AutowiredAnnotationBeanPostProcessor autowiredProcessor = new AutowiredAnnotationBeanPostProcessor();
+        autowiredProcessor.setBeanFactory(this.beanFactory);
+        this.beanFactory.addBeanPostProcessor(autowiredProcessor);
+        // post-processors only interested in other callbacks, e.g. infrastructure or destruction
+        for (int i = 0; i < 4; i++) {
+            this.beanFactory.addBeanPostProcessor(new BeforeInstantiationProcessor());
+            this.beanFactory.addBeanPostProcessor(new DestructionProcessor());
+        }
+        this.beanFactory.addBeanPostProcessor(new AfterInitializationProcessor());
+
+        this.beanFactory.registerBeanDefinition("repository", new RootBeanDefinition(Repository.class));
+        this.beanFactory.registerBeanDefinition("clock", new RootBeanDefinition(Clock.class));
+        RootBeanDefinition handler = new RootBeanDefinition(RequestHandler.class);
+        handler.setScope(RootBeanDefinition.SCOPE_PROTOTYPE);
+        handler.setAutowireMode(AbstractBeanDefinition.AUTOWIRE_BY_TYPE);
+        this.beanFactory.registerBeanDefinition("requestHandler", handler);
+        this.beanFactory.freezeConfiguration();
+        this.beanFactory.preInstantiateSingletons();
+
+        RequestHandler handlerInstance = this.beanFactory.getBean("requestHandler", RequestHandler.class);
+        if (handlerInstance.repository == null || handlerInstance.clock == null) {
+            throw new IllegalStateException("Handler not wired");
+        }
+    }
+
+    @TearDown
+    public void destroyBeanFactory() {
+        this.beanFactory.destroySingletons();
+    }
+
+    @Benchmark
+    public RequestHandler createPrototype() {
+        return this.beanFactory.getBean("requestHandler", RequestHandler.class);
+    }
+
+
+    public static class Repository {
+    }
+
+    public static class Clock {
+    }
+
+    public static class RequestHandler {
+
+        @Autowired
+        Repository repository;
+
+        Clock clock;
+
+        public void setClock(Clock clock) {
+            this.clock = clock;
+        }
+    }
+
+    static class BeforeInstantiationProcessor implements InstantiationAwareBeanPostProcessor {
+
+        @Override
+        public Object postProcessBeforeInstantiation(Class<?> beanClass, String beanName) {
+            return null;
+        }
+    }
+
+    static class DestructionProcessor implements DestructionAwareBeanPostProcessor {
+
+        @Override
+        public void postProcessBeforeDestruction(Object bean, String beanName) {
+        }
+
+        @Override
+        public boolean requiresDestruction(Object bean) {
+            return false;
+        }
+    }
+
+    static class AfterInitializationProcessor implements BeanPostProcessor {
+
+        @Override
+        public Object postProcessAfterInitialization(Object bean, String beanName) {
+            return bean;
+        }
+    }
+}
@@ -0,0 +1,95 @@
+package com.aidc.benchmarks;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.BenchmarkParams;
+import org.openjdk.jmh.infra.Blackhole;
+import org.openjdk.jmh.infra.ThreadParams;
+import org.springframework.beans.factory.support.DefaultListableBeanFactory;
+import org.springframework.beans.factory.support.RootBeanDefinition;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Description: contention benchmark for lazy singleton creation, comparing the
+ * global singleton mutex with per-bean-name creation locks.
+ * Every benchmark thread requests its own slice of lazy-init singletons whose
+ * constructors take a while, similar to lazy beans first touched by request threads.
+ * Each iteration starts from a fresh bean factory, so the score is the time for
+ * all threads to create their slice once.
+ * Run with: {@code java -jar target/benchmarks.jar SingletonCreationContention}
+ *
+ * @date 2026/10/16
+ * @see DefaultListableBeanFactory#setSingletonCreationLockStriping
+ */
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 10)
+@Measurement(iterations = 20)
+@Fork(1)
+@Threads(Threads.MAX)
+@State(Scope.Benchmark)
+public class SingletonCreationContentionBenchmark {
+
+    @Param({"false", "true"})
+    public boolean singletonCreationLockStriping;
+
+    @Param("200")
+    public int beansPerThread;
+
+    private DefaultListableBeanFactory beanFactory;
+
+
+    @Setup(Level.Iteration)
+    public void createBeanFactory(BenchmarkParams params) {
+        this.beanFactory = new DefaultListableBeanFactory();
+        this.beanFactory.setSingletonCreationLockStriping(this.singletonCreationLockStriping);
+        for (int i = 0; i < params.getThreads() * this.beansPerThread; i++) {
+            RootBeanDefinition bd = new RootBeanDefinition(SlowBean.class);
+            bd.setLazyInit(true);
+            this.beanFactory.registerBeanDefinition("slowBean" + i, bd);
+        }
+        this.beanFactory.freezeConfiguration();
+    }
+
+    @TearDown(Level.Iteration)
+    public void destroyBeanFactory() {
+        this.beanFactory.destroySingletons();
+    }
+
+    @Benchmark
+    public void createLazySingletons(ThreadParams threadParams, Blackhole blackhole) {
+        int offset = threadParams.getThreadIndex() * this.beansPerThread;
+        for (int i = 0; i < this.beansPerThread; i++) {
+            blackhole.consume(this.beanFactory.getBean("slowBean" + (offset + i)));
+        }
+    }
+
+
+    public static class SlowBean {
+
+        static volatile long sink;
+
+        public SlowBean() {
+            // simulate ~100us of constructor work, e.g. building an internal index
+            long deadline = System.nanoTime() + TimeUnit.MICROSECONDS.toNanos(100);
+            long acc = 0;
+            while (System.nanoTime() < deadline) {
+                acc += System.identityHashCode(this);
+            }
+            sink = acc;
+        }
+    }
+}
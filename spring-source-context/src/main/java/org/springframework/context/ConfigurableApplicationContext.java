@@ -74,6 +74,15 @@ public interface ConfigurableApplicationContext extends ApplicationContext, Life
      */
     String LOAD_TIME_WEAVER_BEAN_NAME = "loadTimeWeaver";
 
+    /**
+     * Name of the bootstrap {@link java.util.concurrent.Executor} bean in the factory.
+     * If such a bean is supplied, non-lazy singletons without known dependencies
+     * on each other will be pre-instantiated in parallel on that executor.
+     *
+     * @see org.springframework.beans.factory.support.DefaultListableBeanFactory#setBootstrapExecutor
+     */
+    String BOOTSTRAP_EXECUTOR_BEAN_NAME = "bootstrapExecutor";
+
     /**
      * Name of the {@link Environment} bean in the factory.
      *
@@ -45,6 +45,8 @@ import org.springframework.core.io.support.DefaultPropertySourceFactory;
 import org.springframework.core.io.support.EncodedResource;
 import org.springframework.core.io.support.PropertySourceFactory;
 import org.springframework.core.io.support.ResourcePropertySource;
+import org.springframework.core.metrics.ApplicationStartup;
+import org.springframework.core.metrics.StartupStep;
 import org.springframework.core.type.AnnotationMetadata;
 import org.springframework.core.type.MethodMetadata;
 import org.springframework.core.type.StandardAnnotationMetadata;
@@ -124,6 +126,8 @@ class ConfigurationClassParser {
 
     private final SourceClass objectSourceClass = new SourceClass(Object.class);
 
+    private ApplicationStartup applicationStartup = ApplicationStartup.DEFAULT;
+
 
     /**
      * Create a new {@link ConfigurationClassParser} instance that will be used
@@ -144,6 +148,15 @@ class ConfigurationClassParser {
     }
 
 
+    /**
+     * Set the {@link ApplicationStartup} to record the parsing phases of each
+     * configuration class with.
+     */
+    public void setApplicationStartup(ApplicationStartup applicationStartup) {
+        this.applicationStartup = applicationStartup;
+    }
+
+
     public void parse(Set<BeanDefinitionHolder> configCandidates) {
         for (BeanDefinitionHolder holder : configCandidates) {
             BeanDefinition bd = holder.getBeanDefinition();
@@ -163,7 +176,12 @@ class ConfigurationClassParser {
             }
         }
 
-        this.deferredImportSelectorHandler.process();
+        StartupStep deferredImports = this.applicationStartup.start("spring.context.config-classes.deferred-imports");
+        try {
+            this.deferredImportSelectorHandler.process();
+        } finally {
+            deferredImports.end();
+        }
     }
 
     protected final void parse(@Nullable String className, String beanName) throws IOException {
@@ -218,11 +236,17 @@ class ConfigurationClassParser {
         }
 
         // Recursively process the configuration class and its superclass hierarchy.
-        SourceClass sourceClass = asSourceClass(configClass, filter);
-        do {
-            sourceClass = doProcessConfigurationClass(configClass, sourceClass, filter);
+        StartupStep processClass = this.applicationStartup.start("spring.context.config-classes.parse.class")
+                .tag("className", configClass.getMetadata().getClassName());
+        try {
+            SourceClass sourceClass = asSourceClass(configClass, filter);
+            do {
+                sourceClass = doProcessConfigurationClass(configClass, sourceClass, filter);
+            }
+            while (sourceClass != null);
+        } finally {
+            processClass.end();
         }
-        while (sourceClass != null);
 
         this.configurationClasses.put(configClass, configClass);
     }
@@ -271,8 +295,16 @@ class ConfigurationClassParser {
             for (AnnotationAttributes componentScan : componentScans) {
                 // The config class is annotated with @ComponentScan -> perform the scan immediately
                 //TODO 这里包扫描 ComponentScanAnnotationParser
-                Set<BeanDefinitionHolder> scannedBeanDefinitions =
-                        this.componentScanParser.parse(componentScan, sourceClass.getMetadata().getClassName());
+                StartupStep scan = this.applicationStartup.start("spring.context.config-classes.component-scan")
+                        .tag("className", sourceClass.getMetadata().getClassName());
+                Set<BeanDefinitionHolder> scannedBeanDefinitions;
+                try {
+                    scannedBeanDefinitions =
+                            this.componentScanParser.parse(componentScan, sourceClass.getMetadata().getClassName());
+                    scan.tag("beanCount", String.valueOf(scannedBeanDefinitions.size()));
+                } finally {
+                    scan.end();
+                }
                 // Check the set of scanned definitions for any further config classes and parse recursively if needed
                 for (BeanDefinitionHolder holder : scannedBeanDefinitions) {
                     BeanDefinition bdCand = holder.getBeanDefinition().getOriginatingBeanDefinition();
@@ -288,7 +320,13 @@ class ConfigurationClassParser {
 
         // Process any @Import annotations
         // TODO 处理@Import注解
-        processImports(configClass, sourceClass, getImports(sourceClass), filter, true);
+        StartupStep imports = this.applicationStartup.start("spring.context.config-classes.imports")
+                .tag("className", sourceClass.getMetadata().getClassName());
+        try {
+            processImports(configClass, sourceClass, getImports(sourceClass), filter, true);
+        } finally {
+            imports.end();
+        }
 
         // Process any @ImportResource annotations
         // TODO 处理@ImportResource注解
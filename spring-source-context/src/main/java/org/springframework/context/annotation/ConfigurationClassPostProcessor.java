@@ -54,7 +54,9 @@ import org.springframework.lang.Nullable;
 import org.springframework.util.Assert;
 import org.springframework.util.ClassUtils;
 
+import java.io.IOException;
 import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
 
 /**
  * {@link BeanFactoryPostProcessor} used for bootstrapping processing of
@@ -306,6 +308,7 @@ public class ConfigurationClassPostProcessor implements BeanDefinitionRegistryPo
 
         // Return immediately if no @Configuration classes were found
         if (configCandidates.isEmpty()) {
+            registerRestoredImportRegistry(registry, candidateNames);
             return;
         }
 
@@ -339,6 +342,7 @@ public class ConfigurationClassPostProcessor implements BeanDefinitionRegistryPo
         ConfigurationClassParser parser = new ConfigurationClassParser(
                 this.metadataReaderFactory, this.problemReporter, this.environment,
                 this.resourceLoader, this.componentScanBeanNameGenerator, registry);
+        parser.setApplicationStartup(this.applicationStartup);
 
         Set<BeanDefinitionHolder> candidates = new LinkedHashSet<>(configCandidates);
         Set<ConfigurationClass> alreadyParsed = new HashSet<>(configCandidates.size());
@@ -397,6 +401,31 @@ public class ConfigurationClassPostProcessor implements BeanDefinitionRegistryPo
         }
     }
 
+    /**
+     * Register an {@link ImportRegistry} for configuration classes which have been
+     * processed before their bean definitions got registered, e.g. from a
+     * {@link org.springframework.beans.factory.support.BeanDefinitionSnapshot},
+     * based on the importing classes recorded on their bean definitions.
+     */
+    private void registerRestoredImportRegistry(BeanDefinitionRegistry registry, String[] beanNames) {
+        if (!(registry instanceof SingletonBeanRegistry) ||
+                ((SingletonBeanRegistry) registry).containsSingleton(IMPORT_REGISTRY_BEAN_NAME)) {
+            return;
+        }
+        Map<String, String> importingClasses = new HashMap<>();
+        for (String beanName : beanNames) {
+            BeanDefinition beanDef = registry.getBeanDefinition(beanName);
+            Object importingClass = beanDef.getAttribute(ConfigurationClassUtils.IMPORTING_CLASS_ATTRIBUTE);
+            if (importingClass instanceof String && beanDef.getBeanClassName() != null) {
+                importingClasses.put(beanDef.getBeanClassName(), (String) importingClass);
+            }
+        }
+        if (!importingClasses.isEmpty()) {
+            ((SingletonBeanRegistry) registry).registerSingleton(IMPORT_REGISTRY_BEAN_NAME,
+                    new RestoredImportRegistry(importingClasses, this.metadataReaderFactory));
+        }
+    }
+
     /**
      * Post-processes a BeanFactory in search of Configuration class BeanDefinitions;
      * any candidates are then enhanced by a {@link ConfigurationClassEnhancer}.
@@ -529,4 +558,40 @@ public class ConfigurationClassPostProcessor implements BeanDefinitionRegistryPo
         }
     }
 
+    /**
+     * {@link ImportRegistry} for restored bean definitions, reading the metadata of
+     * importing classes on demand.
+     */
+    private static class RestoredImportRegistry implements ImportRegistry {
+
+        private final Map<String, String> importingClasses;
+
+        private final MetadataReaderFactory metadataReaderFactory;
+
+        RestoredImportRegistry(Map<String, String> importingClasses, MetadataReaderFactory metadataReaderFactory) {
+            this.importingClasses = new ConcurrentHashMap<>(importingClasses);
+            this.metadataReaderFactory = metadataReaderFactory;
+        }
+
+        @Override
+        @Nullable
+        public AnnotationMetadata getImportingClassFor(String importedClass) {
+            String importingClass = this.importingClasses.get(importedClass);
+            if (importingClass == null) {
+                return null;
+            }
+            try {
+                return this.metadataReaderFactory.getMetadataReader(importingClass).getAnnotationMetadata();
+            } catch (IOException ex) {
+                throw new IllegalStateException("Failed to read metadata of importing class [" +
+                        importingClass + "] for [" + importedClass + "]", ex);
+            }
+        }
+
+        @Override
+        public void removeImportingClass(String importingClass) {
+            this.importingClasses.values().removeIf(importingClass::equals);
+        }
+    }
+
 }
@@ -57,6 +57,14 @@ abstract class ConfigurationClassUtils {
     public static final String CONFIGURATION_CLASS_ATTRIBUTE =
             Conventions.getQualifiedAttributeName(ConfigurationClassPostProcessor.class, "configurationClass");
 
+    /**
+     * Name of the class importing an imported configuration class, kept on its
+     * bean definition so that {@link ImportAware} beans can be served from bean
+     * definitions registered without parsing the configuration classes.
+     */
+    public static final String IMPORTING_CLASS_ATTRIBUTE =
+            Conventions.getQualifiedAttributeName(ConfigurationClassPostProcessor.class, "importingClass");
+
     private static final String ORDER_ATTRIBUTE =
             Conventions.getQualifiedAttributeName(ConfigurationClassPostProcessor.class, "order");
 
@@ -0,0 +1,529 @@
+/*
+ * Copyright 2002-2023 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.context.metrics;
+
+import org.springframework.core.metrics.ApplicationStartup;
+import org.springframework.core.metrics.StartupStep;
+import org.springframework.lang.Nullable;
+import org.springframework.util.Assert;
+
+import java.io.IOException;
+import java.io.StringWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.function.Predicate;
+import java.util.function.Supplier;
+
+/**
+ * {@link ApplicationStartup} implementation which records ended steps into a
+ * fixed-capacity ring buffer, keeping the most recent steps once the buffer is
+ * full. Recording a step allocates the step itself plus its tags, if any, and
+ * takes no locks, so this implementation is cheap enough to stay enabled
+ * outside of development.
+ *
+ * <p>Steps are nested per thread: a step started while another step is active
+ * on the same thread gets that step as its parent. The recorded steps can be
+ * exported as JSON through {@link #writeJson}, or in the Chrome trace event
+ * format through {@link #writeChromeTrace} to be loaded into
+ * {@code chrome://tracing} or Perfetto, showing which beans and post-processors
+ * dominate the startup:
+ *
+ * <pre class="code">
+ * RingBufferApplicationStartup startup = new RingBufferApplicationStartup(16384);
+ * context.setApplicationStartup(startup);
+ * context.refresh();
+ * startup.writeChromeTrace(writer);
+ * </pre>
+ *
+ * @see org.springframework.context.ConfigurableApplicationContext#setApplicationStartup
+ */
+public class RingBufferApplicationStartup implements ApplicationStartup {
+
+    /**
+     * The default number of steps to keep.
+     */
+    public static final int DEFAULT_CAPACITY = 8192;
+
+    private static final int MAXIMUM_CAPACITY = 1 << 30;
+
+
+    private final AtomicReferenceArray<RecordedStep> buffer;
+
+    private final int mask;
+
+    private final AtomicLong idSequence = new AtomicLong();
+
+    private final AtomicLong writeSequence = new AtomicLong();
+
+    private final ThreadLocal<RecordedStep> currentStep = new ThreadLocal<>();
+
+    private final long startTimeMillis = System.currentTimeMillis();
+
+    private final long startTimeNanos = System.nanoTime();
+
+    private volatile long clearedSequence;
+
+    @Nullable
+    private volatile Predicate<String> stepNameFilter;
+
+
+    /**
+     * Create a new recorder keeping the last {@value #DEFAULT_CAPACITY} steps.
+     */
+    public RingBufferApplicationStartup() {
+        this(DEFAULT_CAPACITY);
+    }
+
+    /**
+     * Create a new recorder keeping the last steps up to the given capacity,
+     * rounded up to the next power of two.
+     *
+     * @param capacity the number of steps to keep
+     */
+    public RingBufferApplicationStartup(int capacity) {
+        Assert.isTrue(capacity > 0 && capacity <= MAXIMUM_CAPACITY,
+                () -> "Capacity must be between 1 and " + MAXIMUM_CAPACITY + ": " + capacity);
+        int size = (capacity == 1 ? 1 : Integer.highestOneBit(capacity - 1) << 1);
+        this.buffer = new AtomicReferenceArray<>(size);
+        this.mask = size - 1;
+    }
+
+
+    /**
+     * Only record steps whose name matches the given filter, e.g.
+     * {@code name -> !name.startsWith("spring.beans.post-process.")} to leave out
+     * the per-post-processor steps. Steps that are filtered out are not recorded
+     * and do not become the parent of steps started within them.
+     *
+     * @param stepNameFilter the filter to apply, or {@code null} to record all steps
+     */
+    public void setStepNameFilter(@Nullable Predicate<String> stepNameFilter) {
+        this.stepNameFilter = stepNameFilter;
+    }
+
+    /**
+     * Return the number of steps that this recorder keeps.
+     */
+    public int getCapacity() {
+        return this.buffer.length();
+    }
+
+    /**
+     * Return the time that this recorder was created, which recorded start
+     * offsets are relative to.
+     */
+    public Instant getStartTime() {
+        return Instant.ofEpochMilli(this.startTimeMillis);
+    }
+
+    @Override
+    public StartupStep start(String name) {
+        Predicate<String> filter = this.stepNameFilter;
+        if (filter != null && !filter.test(name)) {
+            return ApplicationStartup.DEFAULT.start(name);
+        }
+        RecordedStep parent = this.currentStep.get();
+        RecordedStep step = new RecordedStep(this, name, this.idSequence.getAndIncrement(), parent);
+        this.currentStep.set(step);
+        return step;
+    }
+
+    private void record(RecordedStep step) {
+        // Also unwinds nested steps which have not been ended, e.g. due to an exception.
+        for (RecordedStep current = this.currentStep.get(); current != null; current = current.parent) {
+            if (current == step) {
+                RecordedStep parent = step.parent;
+                while (parent != null && parent.ended) {
+                    parent = parent.parent;
+                }
+                if (parent != null) {
+                    this.currentStep.set(parent);
+                } else {
+                    this.currentStep.remove();
+                }
+                break;
+            }
+        }
+        long sequence = this.writeSequence.getAndIncrement();
+        step.sequence = sequence;
+        this.buffer.set((int) (sequence & this.mask), step);
+    }
+
+    /**
+     * Return the recorded steps still held in the buffer, ordered by start time.
+     * Steps are recorded when they end, so steps still in progress are not
+     * included.
+     */
+    public List<RecordedStep> getRecordedSteps() {
+        long end = this.writeSequence.get();
+        long start = Math.max(this.clearedSequence, end - this.buffer.length());
+        List<RecordedStep> steps = new ArrayList<>((int) Math.max(end - start, 0));
+        for (long sequence = start; sequence < end; sequence++) {
+            RecordedStep step = this.buffer.get((int) (sequence & this.mask));
+            // Skip slots not written yet or already overwritten by a later step.
+            if (step != null && step.sequence == sequence) {
+                steps.add(step);
+            }
+        }
+        steps.sort(Comparator.comparingLong(RecordedStep::getStartOffsetNanos));
+        return steps;
+    }
+
+    /**
+     * Return the number of recorded steps that have been overwritten by later
+     * steps since creation or the last {@link #clear()}.
+     */
+    public long getDroppedStepCount() {
+        return Math.max(this.writeSequence.get() - this.clearedSequence - this.buffer.length(), 0);
+    }
+
+    /**
+     * Remove all recorded steps. Steps in progress are still recorded when they end.
+     */
+    public void clear() {
+        this.clearedSequence = this.writeSequence.get();
+        for (int i = 0; i < this.buffer.length(); i++) {
+            this.buffer.set(i, null);
+        }
+    }
+
+
+    /**
+     * Write the recorded steps as a JSON document with the start time of this
+     * recorder in epoch milliseconds, the number of dropped steps, and the steps
+     * ordered by start time, each with its id, parent id, name, thread, start
+     * offset and duration in nanoseconds, and tags.
+     *
+     * @param writer the writer to write to
+     * @throws IOException in case of write failure
+     */
+    public void writeJson(Writer writer) throws IOException {
+        List<RecordedStep> steps = getRecordedSteps();
+        writer.write("{\"startTime\":");
+        writer.write(Long.toString(this.startTimeMillis));
+        writer.write(",\"droppedSteps\":");
+        writer.write(Long.toString(getDroppedStepCount()));
+        writer.write(",\"steps\":[");
+        for (int i = 0; i < steps.size(); i++) {
+            RecordedStep step = steps.get(i);
+            writer.write(i > 0 ? ",{\"id\":" : "{\"id\":");
+            writer.write(Long.toString(step.getId()));
+            if (step.getParentId() != null) {
+                writer.write(",\"parentId\":");
+                writer.write(step.getParentId().toString());
+            }
+            writer.write(",\"name\":");
+            writeString(writer, step.getName());
+            writer.write(",\"thread\":");
+            writeString(writer, step.getThreadName());
+            writer.write(",\"startOffsetNanos\":");
+            writer.write(Long.toString(step.getStartOffsetNanos()));
+            writer.write(",\"durationNanos\":");
+            writer.write(Long.toString(step.getDurationNanos()));
+            writer.write(",\"tags\":{");
+            writeTags(writer, step, false);
+            writer.write("}}");
+        }
+        writer.write("]}");
+    }
+
+    /**
+     * Return the recorded steps as a JSON document.
+     *
+     * @see #writeJson
+     */
+    public String toJson() {
+        StringWriter writer = new StringWriter();
+        try {
+            writeJson(writer);
+        } catch (IOException ex) {
+            throw new UncheckedIOException(ex);
+        }
+        return writer.toString();
+    }
+
+    /**
+     * Write the recorded steps in the Chrome trace event format, as complete
+     * events with microsecond timestamps relative to the start of this recorder,
+     * one track per thread. The step id, parent id and tags become the
+     * arguments of each event.
+     *
+     * @param writer the writer to write to
+     * @throws IOException in case of write failure
+     */
+    public void writeChromeTrace(Writer writer) throws IOException {
+        List<RecordedStep> steps = getRecordedSteps();
+        Map<Long, String> threadNames = new LinkedHashMap<>();
+        writer.write("{\"displayTimeUnit\":\"ms\",\"traceEvents\":[");
+        for (int i = 0; i < steps.size(); i++) {
+            RecordedStep step = steps.get(i);
+            threadNames.putIfAbsent(step.getThreadId(), step.getThreadName());
+            writer.write(i > 0 ? ",{\"name\":" : "{\"name\":");
+            writeString(writer, step.getName());
+            writer.write(",\"cat\":\"spring\",\"ph\":\"X\",\"pid\":1,\"tid\":");
+            writer.write(Long.toString(step.getThreadId()));
+            writer.write(",\"ts\":");
+            writeMicros(writer, step.getStartOffsetNanos());
+            writer.write(",\"dur\":");
+            writeMicros(writer, step.getDurationNanos());
+            writer.write(",\"args\":{\"id\":");
+            writer.write(Long.toString(step.getId()));
+            if (step.getParentId() != null) {
+                writer.write(",\"parentId\":");
+                writer.write(step.getParentId().toString());
+            }
+            writeTags(writer, step, true);
+            writer.write("}}");
+        }
+        for (Map.Entry<Long, String> entry : threadNames.entrySet()) {
+            // Thread names as metadata events, following at least one step event.
+            writer.write(",{\"name\":\"thread_name\",\"ph\":\"M\",\"pid\":1,\"tid\":");
+            writer.write(entry.getKey().toString());
+            writer.write(",\"args\":{\"name\":");
+            writeString(writer, entry.getValue());
+            writer.write("}}");
+        }
+        writer.write("]}");
+    }
+
+    /**
+     * Return the recorded steps in the Chrome trace event format.
+     *
+     * @see #writeChromeTrace
+     */
+    public String toChromeTrace() {
+        StringWriter writer = new StringWriter();
+        try {
+            writeChromeTrace(writer);
+        } catch (IOException ex) {
+            throw new UncheckedIOException(ex);
+        }
+        return writer.toString();
+    }
+
+    private static void writeTags(Writer writer, RecordedStep step, boolean leadingComma) throws IOException {
+        boolean comma = leadingComma;
+        for (StartupStep.Tag tag : step.getTags()) {
+            if (comma) {
+                writer.write(',');
+            }
+            writeString(writer, tag.getKey());
+            writer.write(':');
+            writeString(writer, tag.getValue());
+            comma = true;
+        }
+    }
+
+    private static void writeMicros(Writer writer, long nanos) throws IOException {
+        writer.write(Long.toString(nanos / 1000));
+        long fraction = nanos % 1000;
+        if (fraction != 0) {
+            writer.write('.');
+            writer.write(fraction < 10 ? "00" : (fraction < 100 ? "0" : ""));
+            writer.write(Long.toString(fraction));
+        }
+    }
+
+    private static void writeString(Writer writer, String value) throws IOException {
+        writer.write('"');
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if (c == '"' || c == '\\') {
+                writer.write('\\');
+                writer.write(c);
+            } else if (c < 0x20) {
+                writer.write(String.format("\\u%04x", (int) c));
+            } else {
+                writer.write(c);
+            }
+        }
+        writer.write('"');
+    }
+
+
+    /**
+     * A {@link StartupStep} recorded by a {@link RingBufferApplicationStartup},
+     * exposing its timing once it has ended.
+     */
+    public static final class RecordedStep implements StartupStep {
+
+        private final RingBufferApplicationStartup recorder;
+
+        private final String name;
+
+        private final long id;
+
+        @Nullable
+        private final RecordedStep parent;
+
+        private final String threadName;
+
+        private final long threadId;
+
+        private final long startNanos;
+
+        private long endNanos;
+
+        @Nullable
+        private List<Tag> tags;
+
+        private boolean ended;
+
+        private long sequence;
+
+        private RecordedStep(RingBufferApplicationStartup recorder, String name, long id,
+                             @Nullable RecordedStep parent) {
+
+            Thread thread = Thread.currentThread();
+            this.recorder = recorder;
+            this.name = name;
+            this.id = id;
+            this.parent = parent;
+            this.threadName = thread.getName();
+            this.threadId = thread.threadId();
+            this.startNanos = System.nanoTime();
+        }
+
+        @Override
+        public String getName() {
+            return this.name;
+        }
+
+        @Override
+        public long getId() {
+            return this.id;
+        }
+
+        @Override
+        @Nullable
+        public Long getParentId() {
+            return (this.parent != null ? this.parent.id : null);
+        }
+
+        @Override
+        public StartupStep tag(String key, String value) {
+            Assert.state(!this.ended, "StartupStep has already ended");
+            if (this.tags == null) {
+                this.tags = new ArrayList<>(4);
+            }
+            this.tags.add(new RecordedTag(key, value));
+            return this;
+        }
+
+        @Override
+        public StartupStep tag(String key, Supplier<String> value) {
+            return tag(key, value.get());
+        }
+
+        @Override
+        public Tags getTags() {
+            List<Tag> tags = (this.tags != null ? Collections.unmodifiableList(this.tags) : Collections.emptyList());
+            return tags::iterator;
+        }
+
+        @Override
+        public void end() {
+            if (!this.ended) {
+                this.endNanos = System.nanoTime();
+                this.ended = true;
+                this.recorder.record(this);
+            }
+        }
+
+        /**
+         * Return the name of the thread that started this step.
+         */
+        public String getThreadName() {
+            return this.threadName;
+        }
+
+        /**
+         * Return the id of the thread that started this step.
+         */
+        public long getThreadId() {
+            return this.threadId;
+        }
+
+        /**
+         * Return the start time of this step in nanoseconds, relative to the
+         * start time of the recorder.
+         *
+         * @see RingBufferApplicationStartup#getStartTime()
+         */
+        public long getStartOffsetNanos() {
+            return this.startNanos - this.recorder.startTimeNanos;
+        }
+
+        /**
+         * Return the duration of this step in nanoseconds, or 0 if it has not ended yet.
+         */
+        public long getDurationNanos() {
+            return (this.ended ? this.endNanos - this.startNanos : 0);
+        }
+
+        /**
+         * Return the duration of this step.
+         */
+        public Duration getDuration() {
+            return Duration.ofNanos(getDurationNanos());
+        }
+
+        @Override
+        public String toString() {
+            return this.name + " " + getDuration() + (this.tags != null ? " " + this.tags : "");
+        }
+    }
+
+
+    private static final class RecordedTag implements StartupStep.Tag {
+
+        private final String key;
+
+        private final String value;
+
+        RecordedTag(String key, String value) {
+            this.key = key;
+            this.value = value;
+        }
+
+        @Override
+        public String getKey() {
+            return this.key;
+        }
+
+        @Override
+        public String getValue() {
+            return this.value;
+        }
+
+        @Override
+        public String toString() {
+            return this.key + '=' + this.value;
+        }
+    }
+
+}
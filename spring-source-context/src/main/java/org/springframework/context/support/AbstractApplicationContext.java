@@ -26,6 +26,10 @@ import org.springframework.beans.factory.ObjectProvider;
 import org.springframework.beans.factory.config.AutowireCapableBeanFactory;
 import org.springframework.beans.factory.config.BeanFactoryPostProcessor;
 import org.springframework.beans.factory.config.ConfigurableListableBeanFactory;
+import org.springframework.beans.factory.support.BeanDefinitionRegistry;
+import org.springframework.beans.factory.support.BeanDefinitionRegistryPostProcessor;
+import org.springframework.beans.factory.support.BeanDefinitionSnapshot;
+import org.springframework.beans.factory.support.DefaultListableBeanFactory;
 import org.springframework.beans.support.ResourceEditorRegistrar;
 import org.springframework.context.*;
 import org.springframework.context.event.*;
@@ -53,9 +57,17 @@ import org.springframework.util.CollectionUtils;
 import org.springframework.util.ObjectUtils;
 import org.springframework.util.ReflectionUtils;
 
+import java.io.File;
 import java.io.IOException;
+import java.io.InputStream;
+import java.io.NotSerializableException;
+import java.io.OutputStream;
 import java.lang.annotation.Annotation;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
 import java.util.*;
+import java.util.concurrent.Executor;
 import java.util.concurrent.atomic.AtomicBoolean;
 
 /**
@@ -259,6 +271,27 @@ public abstract class AbstractApplicationContext extends DefaultResourceLoader
     @Nullable
     private Set<ApplicationEvent> earlyApplicationEvents;
 
+    /**
+     * File to store and restore the bean definition snapshot in.
+     */
+    @Nullable
+    private File beanDefinitionSnapshotFile;
+
+    /**
+     * Resources that the bean definitions in the snapshot are derived from.
+     */
+    private Resource[] beanDefinitionSnapshotInputs = new Resource[0];
+
+    /**
+     * Content hash of the snapshot inputs, computed on refresh.
+     */
+    @Nullable
+    private String beanDefinitionSnapshotHash;
+
+    private boolean beanDefinitionSnapshotAttempted;
+
+    private boolean beanDefinitionSnapshotRestored;
+
 
     /**
      * Create a new AbstractApplicationContext with no parent.
@@ -482,6 +515,77 @@ public abstract class AbstractApplicationContext extends DefaultResourceLoader
         return this.applicationStartup;
     }
 
+    /**
+     * Set a file to store a snapshot of the bean definitions in once all
+     * {@link BeanDefinitionRegistryPostProcessor BeanDefinitionRegistryPostProcessors}
+     * have run, and to restore the bean definitions from on later refreshes as long
+     * as the given inputs and the active profiles are unchanged. Restoring the bean
+     * definitions skips reading bean definition files, component scanning and
+     * configuration class parsing. Other registry post-processors still run and
+     * may register equal bean definitions once more.
+     * <p>The inputs have to cover everything that the bean definitions are derived
+     * from, such as bean definition files and the directories or jars of scanned
+     * and imported classes. Inputs are compared by content; directories are taken
+     * into account with all files below them. Bean definitions which cannot be
+     * stored in a snapshot disable it.
+     *
+     * @param snapshotFile the snapshot file, or {@code null} to not use a snapshot
+     * @param inputs       the resources that the bean definitions are derived from
+     * @see BeanDefinitionSnapshot
+     */
+    public void setBeanDefinitionSnapshot(@Nullable File snapshotFile, Resource... inputs) {
+        this.beanDefinitionSnapshotFile = snapshotFile;
+        this.beanDefinitionSnapshotInputs = inputs;
+    }
+
+    /**
+     * Register the bean definitions of the snapshot file with the given bean factory,
+     * if a snapshot file has been set and holds a snapshot for the current inputs.
+     * <p>Called by subclasses before loading bean definitions, and otherwise before
+     * invoking the bean factory post-processors. Any failure to read the snapshot
+     * is logged, leaving the bean definitions to be loaded as usual.
+     *
+     * @param beanFactory the bean factory to register the bean definitions with
+     * @return whether the bean definitions have been restored
+     * @see #setBeanDefinitionSnapshot
+     */
+    protected boolean restoreBeanDefinitionSnapshot(DefaultListableBeanFactory beanFactory) {
+        File snapshotFile = this.beanDefinitionSnapshotFile;
+        if (snapshotFile == null || this.beanDefinitionSnapshotAttempted) {
+            return this.beanDefinitionSnapshotRestored;
+        }
+        this.beanDefinitionSnapshotAttempted = true;
+        try {
+            String contentHash = BeanDefinitionSnapshot.computeContentHash(
+                    this.beanDefinitionSnapshotInputs, getEnvironment().getActiveProfiles());
+            this.beanDefinitionSnapshotHash = contentHash;
+            if (!snapshotFile.isFile()) {
+                return false;
+            }
+            BeanDefinitionSnapshot snapshot;
+            try (InputStream in = Files.newInputStream(snapshotFile.toPath())) {
+                snapshot = BeanDefinitionSnapshot.readFrom(in, contentHash, beanFactory.getBeanClassLoader());
+            }
+            if (snapshot == null) {
+                if (logger.isDebugEnabled()) {
+                    logger.debug("Bean definition snapshot " + snapshotFile + " is out of date");
+                }
+                return false;
+            }
+            snapshot.registerWith(beanFactory);
+            this.beanDefinitionSnapshotRestored = true;
+            if (logger.isDebugEnabled()) {
+                logger.debug("Restored " + snapshot.getBeanDefinitionCount() +
+                        " bean definitions from snapshot " + snapshotFile);
+            }
+            return true;
+        } catch (IOException ex) {
+            logger.warn("Failed to restore bean definitions from snapshot " + snapshotFile +
+                    " - loading them as usual", ex);
+            return false;
+        }
+    }
+
     /**
      * Return the internal LifecycleProcessor used by the context.
      *
@@ -678,6 +782,10 @@ public abstract class AbstractApplicationContext extends DefaultResourceLoader
         // Allow for the collection of early ApplicationEvents,
         // to be published once the multicaster is available...
         this.earlyApplicationEvents = new LinkedHashSet<>();
+
+        this.beanDefinitionSnapshotHash = null;
+        this.beanDefinitionSnapshotAttempted = false;
+        this.beanDefinitionSnapshotRestored = false;
     }
 
     /**
@@ -777,7 +885,18 @@ public abstract class AbstractApplicationContext extends DefaultResourceLoader
      * <p>Must be called before singleton instantiation.
      */
     protected void invokeBeanFactoryPostProcessors(ConfigurableListableBeanFactory beanFactory) {
-        PostProcessorRegistrationDelegate.invokeBeanFactoryPostProcessors(beanFactory, getBeanFactoryPostProcessors());
+        List<BeanFactoryPostProcessor> postProcessors = getBeanFactoryPostProcessors();
+        if (this.beanDefinitionSnapshotFile != null && beanFactory instanceof DefaultListableBeanFactory &&
+                !restoreBeanDefinitionSnapshot((DefaultListableBeanFactory) beanFactory) &&
+                this.beanDefinitionSnapshotHash != null) {
+            // Registered first, so as to capture the bean definitions before any
+            // regular post-processor modifies them (e.g. resolving placeholders).
+            postProcessors = new ArrayList<>(postProcessors.size() + 1);
+            postProcessors.add(new BeanDefinitionSnapshotWriter(
+                    this.beanDefinitionSnapshotFile, this.beanDefinitionSnapshotHash));
+            postProcessors.addAll(getBeanFactoryPostProcessors());
+        }
+        PostProcessorRegistrationDelegate.invokeBeanFactoryPostProcessors(beanFactory, postProcessors);
 
         // Detect a LoadTimeWeaver and prepare for weaving, if found in the meantime
         // (e.g. through an @Bean method registered by ConfigurationClassPostProcessor)
@@ -949,6 +1068,16 @@ public abstract class AbstractApplicationContext extends DefaultResourceLoader
         // Allow for caching all bean definition metadata, not expecting further changes.
         beanFactory.freezeConfiguration();
 
+        // Use a bootstrap executor for parallel singleton pre-instantiation, if supplied.
+        if (beanFactory instanceof DefaultListableBeanFactory &&
+                beanFactory.containsBean(BOOTSTRAP_EXECUTOR_BEAN_NAME) &&
+                beanFactory.isTypeMatch(BOOTSTRAP_EXECUTOR_BEAN_NAME, Executor.class)) {
+            DefaultListableBeanFactory dlbf = (DefaultListableBeanFactory) beanFactory;
+            dlbf.setBootstrapExecutor(beanFactory.getBean(BOOTSTRAP_EXECUTOR_BEAN_NAME, Executor.class));
+            // Let independent subtrees actually be created concurrently.
+            dlbf.setSingletonCreationLockStriping(true);
+        }
+
         // Instantiate all remaining (non-lazy-init) singletons.
         beanFactory.preInstantiateSingletons();
 
@@ -1545,4 +1674,58 @@ public abstract class AbstractApplicationContext extends DefaultResourceLoader
         return sb.toString();
     }
 
+
+    /**
+     * Writes the bean definition snapshot once all bean definition registry
+     * post-processors have run, before any regular post-processing.
+     */
+    private class BeanDefinitionSnapshotWriter implements BeanDefinitionRegistryPostProcessor {
+
+        private final File snapshotFile;
+
+        private final String contentHash;
+
+        BeanDefinitionSnapshotWriter(File snapshotFile, String contentHash) {
+            this.snapshotFile = snapshotFile;
+            this.contentHash = contentHash;
+        }
+
+        @Override
+        public void postProcessBeanDefinitionRegistry(BeanDefinitionRegistry registry) {
+        }
+
+        @Override
+        public void postProcessBeanFactory(ConfigurableListableBeanFactory beanFactory) {
+            BeanDefinitionSnapshot snapshot = BeanDefinitionSnapshot.capture(beanFactory, this.contentHash);
+            Path target = this.snapshotFile.toPath();
+            Path tempFile = null;
+            try {
+                Path parent = target.toAbsolutePath().getParent();
+                Files.createDirectories(parent);
+                tempFile = Files.createTempFile(parent, target.getFileName().toString(), ".tmp");
+                try (OutputStream out = Files.newOutputStream(tempFile)) {
+                    snapshot.writeTo(out);
+                }
+                Files.move(tempFile, target, StandardCopyOption.REPLACE_EXISTING);
+                tempFile = null;
+                if (logger.isDebugEnabled()) {
+                    logger.debug("Stored " + snapshot.getBeanDefinitionCount() +
+                            " bean definitions in snapshot " + this.snapshotFile);
+                }
+            } catch (NotSerializableException ex) {
+                logger.info("Not storing bean definition snapshot: " + ex.getMessage());
+            } catch (IOException ex) {
+                logger.warn("Failed to store bean definition snapshot " + this.snapshotFile, ex);
+            } finally {
+                if (tempFile != null) {
+                    try {
+                        Files.deleteIfExists(tempFile);
+                    } catch (IOException ex) {
+                        // ignore
+                    }
+                }
+            }
+        }
+    }
+
 }
@@ -132,7 +132,9 @@ public abstract class AbstractRefreshableApplicationContext extends AbstractAppl
             DefaultListableBeanFactory beanFactory = createBeanFactory();
             beanFactory.setSerializationId(getId());
             customizeBeanFactory(beanFactory);
-            loadBeanDefinitions(beanFactory);
+            if (!restoreBeanDefinitionSnapshot(beanFactory)) {
+                loadBeanDefinitions(beanFactory);
+            }
             this.beanFactory = beanFactory;
         } catch (IOException ex) {
             throw new ApplicationContextException("I/O error parsing bean definition source for " + getDisplayName(), ex);